@@ -0,0 +1,151 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import io.grpc.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the authentication path. Run with the GC profiler ({@code ./gradlew jmh}
+ * enables it) and check {@code gc.alloc.rate.norm}. {@code applyAuthHeaders} should report only
+ * the bytes gRPC encodes the header value into on every put (72 B/op for the token here), and
+ * {@code extractUnchangedToken} only the token string gRPC decodes from the response.
+ * <p>
+ * {@code interceptAndStart} is the whole per-call path: an {@link AuthInterceptor} with
+ * credentials and a {@link TokenRefresher}, as the transport builds it, intercepting and starting
+ * a call on a channel whose calls do nothing. {@code unaryCall} adds the request, message and
+ * half-close of a unary call. On JDK 17 it allocates about 136 B/op: the 72 B header value, the
+ * call that can be replayed with a renewed token and its listener. The same call through an
+ * interceptor without a refresher allocates 96 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthInterceptorBenchmark {
+    private static final ClientCall<Object, Object> NOOP_CALL = new ClientCall<>() {
+        @Override
+        public void start(Listener<Object> listener, Metadata headers) {
+        }
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+        }
+
+        @Override
+        public void halfClose() {
+        }
+
+        @Override
+        public void sendMessage(Object message) {
+        }
+    };
+
+    private static final Channel NOOP_CHANNEL = new Channel() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method,
+                                                             CallOptions callOptions) {
+            return (ClientCall<ReqT, RespT>) NOOP_CALL;
+        }
+
+        @Override
+        public String authority() {
+            return "localhost";
+        }
+    };
+
+    private static final Eventstore.PingRequest PING = Eventstore.PingRequest.getDefaultInstance();
+
+    private final ClientCall.Listener<Eventstore.PingResponse> listener = new ClientCall.Listener<>() {
+    };
+    private TokenCache tokenCache;
+    private TokenRefresher refresher;
+    private AuthInterceptor interceptor;
+    private Metadata requestHeaders;
+    private Metadata callHeaders;
+    private Metadata responseHeaders;
+
+    @Setup
+    public void setUp() {
+        final Logger logger = new DefaultLogger(DefaultLogger.LogLevel.WARN);
+        tokenCache = new TokenCache(logger);
+        refresher = new TokenRefresher(tokenCache, logger, 60_000, 30);
+        interceptor = new AuthInterceptor(tokenCache, "admin", "changeit", refresher);
+        // The cached token has no expiry, so nothing is ever scheduled
+        refresher.start(ClientInterceptors.intercept(NOOP_CHANNEL, interceptor), () -> {
+            throw new IllegalStateException("No refresh expected");
+        });
+        tokenCache.cacheToken("eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJhZG1pbiJ9.signature");
+
+        // Metadata allocates its backing array on the first put of any header, keep one in place so
+        // only the interceptor's own cost is measured
+        requestHeaders = new Metadata();
+        requestHeaders.put(Metadata.Key.of("x-request-id", Metadata.ASCII_STRING_MARSHALLER), "1");
+
+        callHeaders = new Metadata();
+        callHeaders.put(Metadata.Key.of("x-request-id", Metadata.ASCII_STRING_MARSHALLER), "1");
+
+        responseHeaders = new Metadata();
+        responseHeaders.put(TokenCache.TOKEN_HEADER, tokenCache.getCachedToken());
+    }
+
+    @TearDown
+    public void tearDown() {
+        refresher.close();
+    }
+
+    @Benchmark
+    public ClientCall<Eventstore.PingRequest, Eventstore.PingResponse> interceptAndStart() {
+        final ClientCall<Eventstore.PingRequest, Eventstore.PingResponse> call =
+                interceptor.interceptCall(EventStoreGrpc.getPingMethod(), CallOptions.DEFAULT, NOOP_CHANNEL);
+        call.start(listener, callHeaders);
+        callHeaders.discardAll(TokenCache.TOKEN_HEADER);
+        return call;
+    }
+
+    /**
+     * A whole unary call as the stubs make it: start, request, send and half-close.
+     */
+    @Benchmark
+    public ClientCall<Eventstore.PingRequest, Eventstore.PingResponse> unaryCall() {
+        final ClientCall<Eventstore.PingRequest, Eventstore.PingResponse> call =
+                interceptor.interceptCall(EventStoreGrpc.getPingMethod(), CallOptions.DEFAULT, NOOP_CHANNEL);
+        call.start(listener, callHeaders);
+        call.request(2);
+        call.sendMessage(PING);
+        call.halfClose();
+        callHeaders.discardAll(TokenCache.TOKEN_HEADER);
+        return call;
+    }
+
+    @Benchmark
+    public Metadata applyAuthHeaders() {
+        tokenCache.applyAuthHeaders(requestHeaders);
+        requestHeaders.discardAll(TokenCache.TOKEN_HEADER);
+        return requestHeaders;
+    }
+
+    @Benchmark
+    public void extractUnchangedToken(Blackhole blackhole) {
+        tokenCache.extractAndCacheToken(responseHeaders);
+        blackhole.consume(tokenCache);
+    }
+
+    /**
+     * Allocating path kept for callers of the public API, as a baseline.
+     */
+    @Benchmark
+    public Metadata createAuthMetadata() {
+        return tokenCache.createAuthMetadata(null);
+    }
+}
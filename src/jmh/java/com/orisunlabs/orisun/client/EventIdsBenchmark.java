@@ -0,0 +1,48 @@
+package com.orisunlabs.orisun.client;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of generating an event id, single threaded and with every thread generating at once.
+ * {@code randomUuid} is the previous {@link UUID#randomUUID()} approach, as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventIdsBenchmark {
+    private final char[] chars = new char[36];
+
+    @Benchmark
+    public String newId() {
+        return EventIds.newId();
+    }
+
+    @Benchmark
+    public char[] newUuidFormatted() {
+        EventIds.format(EventIds.newUuid(), chars, 0);
+        return chars;
+    }
+
+    @Benchmark
+    public String randomUuid() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String newIdContended() {
+        return EventIds.newId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String randomUuidContended() {
+        return UUID.randomUUID().toString();
+    }
+}
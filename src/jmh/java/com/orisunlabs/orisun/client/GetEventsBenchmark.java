@@ -0,0 +1,49 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.Eventstore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code getEvents} pages of varying sizes; the cost is dominated by response deserialization.
+ * {@code getEventViews} reads the same pages without decoding data and metadata to strings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetEventsBenchmark {
+    @Param({"10", "100", "1000"})
+    public int pageSize;
+
+    private InProcessEventStore store;
+    private Eventstore.GetEventsRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        store = new InProcessEventStore(1000);
+        request = Eventstore.GetEventsRequest.newBuilder()
+                .setBoundary(InProcessEventStore.BOUNDARY)
+                .setCount(pageSize)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+    }
+
+    @Benchmark
+    public Eventstore.GetEventsResponse getEvents() {
+        return store.client().getEvents(request);
+    }
+
+    @Benchmark
+    public List<EventView> getEventViews() {
+        return store.client().getEventViews(request);
+    }
+}
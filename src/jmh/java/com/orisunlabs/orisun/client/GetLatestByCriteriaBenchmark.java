@@ -0,0 +1,47 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.Eventstore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code getLatestByCriteria} with a growing number of criteria, covering request validation and
+ * serialization of the criteria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetLatestByCriteriaBenchmark {
+    @Param({"1", "16", "128"})
+    public int criteria;
+
+    private InProcessEventStore store;
+    private Eventstore.GetLatestByCriteriaRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        store = new InProcessEventStore(100);
+        final Eventstore.GetLatestByCriteriaRequest.Builder builder = Eventstore.GetLatestByCriteriaRequest.newBuilder()
+                .setBoundary(InProcessEventStore.BOUNDARY);
+        for (int i = 0; i < criteria; i++) {
+            builder.addCriteria(Eventstore.Criterion.newBuilder()
+                    .addTags(Eventstore.Tag.newBuilder().setKey("orderId").setValue("order-" + i))
+                    .addTags(Eventstore.Tag.newBuilder().setKey("eventType").setValue("OrderPlaced")));
+        }
+        request = builder.build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+    }
+
+    @Benchmark
+    public Eventstore.GetLatestByCriteriaResponse getLatestByCriteria() {
+        return store.client().getLatestByCriteria(request);
+    }
+}
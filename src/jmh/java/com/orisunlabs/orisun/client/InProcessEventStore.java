@@ -0,0 +1,153 @@
+package com.orisunlabs.orisun.client;
+
+import com.google.protobuf.Timestamp;
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-process server with canned responses and an {@link OrisunClient} connected to it, so
+ * benchmarks measure the client and transport rather than a server.
+ */
+final class InProcessEventStore implements AutoCloseable {
+    static final String BOUNDARY = "orders";
+
+    private final Server server;
+    private final ManagedChannel channel;
+    private final OrisunClient client;
+    private final List<Eventstore.Event> events;
+
+    /**
+     * @param storedEvents Events returned by reads and replayed to subscriptions
+     */
+    InProcessEventStore(int storedEvents) throws Exception {
+        this.events = createEvents(storedEvents);
+        final String name = "orisun-benchmark-" + UUID.randomUUID();
+        this.server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new Service(events))
+                .build()
+                .start();
+        this.channel = InProcessChannelBuilder.forName(name)
+                .directExecutor()
+                .build();
+        this.client = OrisunClient.newBuilder()
+                .withChannel(channel)
+                .withBasicAuth("admin", "changeit")
+                .build();
+    }
+
+    OrisunClient client() {
+        return client;
+    }
+
+    static List<Eventstore.Event> createEvents(int count) {
+        final List<Eventstore.Event> events = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            events.add(Eventstore.Event.newBuilder()
+                    .setEventId(EventIds.newId())
+                    .setEventType("OrderPlaced")
+                    .setData("{\"orderId\":\"order-" + i + "\",\"amount\":" + i * 10 + ",\"currency\":\"EUR\"}")
+                    .setMetadata("{\"source\":\"benchmark\"}")
+                    .setPosition(Eventstore.Position.newBuilder().setCommitPosition(i).setPreparePosition(i))
+                    .setDateCreated(Timestamp.newBuilder().setSeconds(1_700_000_000L + i))
+                    .build());
+        }
+        return events;
+    }
+
+    static Eventstore.SaveEventsRequest saveRequest(int batchSize) {
+        final Eventstore.SaveEventsRequest.Builder request = Eventstore.SaveEventsRequest.newBuilder()
+                .setBoundary(BOUNDARY);
+        for (int i = 0; i < batchSize; i++) {
+            request.addEvents(Eventstore.EventToSave.newBuilder()
+                    .setEventId(EventIds.newId())
+                    .setEventType("OrderPlaced")
+                    .setData("{\"orderId\":\"order-" + i + "\",\"amount\":" + i * 10 + ",\"currency\":\"EUR\"}")
+                    .setMetadata("{\"source\":\"benchmark\"}"));
+        }
+        return request.build();
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        channel.shutdownNow();
+        server.shutdownNow();
+        try {
+            channel.awaitTermination(5, TimeUnit.SECONDS);
+            server.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Service extends EventStoreGrpc.EventStoreImplBase {
+        private final List<Eventstore.Event> events;
+        private final AtomicLong position = new AtomicLong();
+
+        Service(List<Eventstore.Event> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void saveEvents(Eventstore.SaveEventsRequest request,
+                               StreamObserver<Eventstore.WriteResult> responseObserver) {
+            final long commitPosition = position.addAndGet(request.getEventsCount());
+            responseObserver.onNext(Eventstore.WriteResult.newBuilder()
+                    .setLogPosition(Eventstore.Position.newBuilder()
+                            .setCommitPosition(commitPosition)
+                            .setPreparePosition(commitPosition))
+                    .build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void getEvents(Eventstore.GetEventsRequest request,
+                              StreamObserver<Eventstore.GetEventsResponse> responseObserver) {
+            responseObserver.onNext(Eventstore.GetEventsResponse.newBuilder()
+                    .addAllEvents(events.subList(0, Math.min(request.getCount(), events.size())))
+                    .build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void getLatestByCriteria(Eventstore.GetLatestByCriteriaRequest request,
+                                        StreamObserver<Eventstore.GetLatestByCriteriaResponse> responseObserver) {
+            final Eventstore.GetLatestByCriteriaResponse.Builder response =
+                    Eventstore.GetLatestByCriteriaResponse.newBuilder();
+            for (int i = 0; i < request.getCriteriaCount(); i++) {
+                response.addResults(Eventstore.LatestCriterionResult.newBuilder()
+                        .setCriterion(request.getCriteria(i))
+                        .setEvent(events.get(i % events.size())));
+            }
+            responseObserver.onNext(response.setContextPosition(events.get(events.size() - 1).getPosition()).build());
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void catchUpSubscribeToEvents(Eventstore.CatchUpSubscribeToEventStoreRequest request,
+                                             StreamObserver<Eventstore.Event> responseObserver) {
+            for (Eventstore.Event event : events) {
+                responseObserver.onNext(event);
+            }
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void ping(Eventstore.PingRequest request, StreamObserver<Eventstore.PingResponse> responseObserver) {
+            responseObserver.onNext(Eventstore.PingResponse.getDefaultInstance());
+            responseObserver.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.Eventstore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of validating a save request. {@code validate} should report 0 B/op in
+ * {@code gc.alloc.rate.norm} whatever the batch size; {@code copyingValidation} is the previous
+ * approach, parsing each id with {@link UUID#fromString} and trimming each field, as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestValidatorBenchmark {
+    @Param({"1", "100", "1000"})
+    public int batchSize;
+
+    private Eventstore.SaveEventsRequest request;
+
+    @Setup
+    public void setUp() {
+        request = InProcessEventStore.saveRequest(batchSize);
+    }
+
+    @Benchmark
+    public Eventstore.SaveEventsRequest validate() {
+        RequestValidator.validateSaveEventsRequest(request);
+        return request;
+    }
+
+    @Benchmark
+    public Eventstore.SaveEventsRequest copyingValidation() {
+        for (int i = 0; i < request.getEventsCount(); i++) {
+            final Eventstore.EventToSave event = request.getEvents(i);
+            if (event.getEventId().trim().isEmpty() || event.getEventType().trim().isEmpty()
+                    || event.getData().trim().isEmpty()) {
+                throw new IllegalStateException();
+            }
+            UUID.fromString(event.getEventId());
+        }
+        return request;
+    }
+}
@@ -0,0 +1,39 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.Eventstore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code saveEvents} round trips through the full client stack against an in-process server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveEventsBenchmark {
+    @Param({"1", "10", "100"})
+    public int batchSize;
+
+    private InProcessEventStore store;
+    private Eventstore.SaveEventsRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        store = new InProcessEventStore(1);
+        request = InProcessEventStore.saveRequest(batchSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+    }
+
+    @Benchmark
+    public Eventstore.WriteResult saveEvents() throws Exception {
+        return store.client().saveEvents(request);
+    }
+}
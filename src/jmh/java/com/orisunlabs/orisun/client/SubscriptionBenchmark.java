@@ -0,0 +1,62 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.Eventstore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscription dispatch throughput: each invocation replays {@value #EVENTS} events to a handler,
+ * so scores are per delivered event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubscriptionBenchmark {
+    static final int EVENTS = 10_000;
+
+    private InProcessEventStore store;
+    private Eventstore.CatchUpSubscribeToEventStoreRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        store = new InProcessEventStore(EVENTS);
+        request = Eventstore.CatchUpSubscribeToEventStoreRequest.newBuilder()
+                .setSubscriberName("benchmark")
+                .setBoundary(InProcessEventStore.BOUNDARY)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void deliverEvents(Blackhole blackhole) throws Exception {
+        final CompletableFuture<Void> completed = new CompletableFuture<>();
+        store.client().subscribeToEvents(request, new EventSubscription.EventHandler() {
+            @Override
+            public void onEvent(Eventstore.Event event) {
+                blackhole.consume(event);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                completed.completeExceptionally(error);
+            }
+
+            @Override
+            public void onCompleted() {
+                completed.complete(null);
+            }
+        });
+        completed.get(30, TimeUnit.SECONDS);
+    }
+}
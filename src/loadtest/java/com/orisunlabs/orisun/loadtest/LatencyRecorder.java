@@ -0,0 +1,168 @@
+package com.orisunlabs.orisun.loadtest;
+
+import com.orisunlabs.orisun.client.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies per operation, measured two ways:
+ * <ul>
+ *     <li>corrected: from the time the operation was scheduled to start to its completion, so time
+ *     spent waiting behind slow operations counts (no coordinated omission)</li>
+ *     <li>service time: from the time the operation actually started</li>
+ * </ul>
+ * Only operations scheduled inside the measurement window are recorded. Throughput is the number
+ * of operations completed over the time from the start of the window to the last completion, so an
+ * open loop run that falls behind shows the rate it sustained rather than its arrival rate.
+ */
+final class LatencyRecorder {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private final long measureFromNanos;
+    private final long measureUntilNanos;
+
+    private static final class Stats {
+        final LatencyHistogram corrected = new LatencyHistogram();
+        final LatencyHistogram serviceTime = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder unfinished = new LongAdder();
+        final LongAccumulator lastCompletionNanos = new LongAccumulator(Math::max, Long.MIN_VALUE);
+    }
+
+    LatencyRecorder(long measureFromNanos, long measureUntilNanos) {
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+        this.measureFromNanos = measureFromNanos;
+        this.measureUntilNanos = measureUntilNanos;
+    }
+
+    void record(Operation operation, long intendedStartNanos, long startNanos, long endNanos, boolean success) {
+        if (intendedStartNanos < measureFromNanos || intendedStartNanos >= measureUntilNanos) {
+            return;
+        }
+        final Stats operationStats = stats.get(operation);
+        operationStats.corrected.record(endNanos - intendedStartNanos);
+        operationStats.serviceTime.record(endNanos - startNanos);
+        operationStats.lastCompletionNanos.accumulate(endNanos);
+        if (!success) {
+            operationStats.errors.increment();
+        }
+    }
+
+    /**
+     * Record an operation that was abandoned before it started. It counts as an error, with its
+     * latency up to {@code abandonedNanos}, and not towards throughput or service time.
+     */
+    void recordUnfinished(Operation operation, long intendedStartNanos, long abandonedNanos) {
+        if (intendedStartNanos < measureFromNanos || intendedStartNanos >= measureUntilNanos) {
+            return;
+        }
+        final Stats operationStats = stats.get(operation);
+        operationStats.corrected.record(abandonedNanos - intendedStartNanos);
+        operationStats.errors.increment();
+        operationStats.unfinished.increment();
+    }
+
+    /**
+     * @return the number of operations recorded as unfinished
+     */
+    long getUnfinished() {
+        long unfinished = 0;
+        for (Stats operationStats : stats.values()) {
+            unfinished += operationStats.unfinished.sum();
+        }
+        return unfinished;
+    }
+
+    void printSummary(PrintStream out) {
+        out.printf("%-10s %10s %8s %10s %9s %9s %9s %9s %9s %9s | %13s%n", "operation", "count", "errors",
+                "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "p99.99 ms", "max ms", "svc p99 ms");
+
+        LatencyHistogram.Snapshot totalCorrected = LatencyHistogram.Snapshot.empty();
+        LatencyHistogram.Snapshot totalServiceTime = LatencyHistogram.Snapshot.empty();
+        long totalErrors = 0;
+        long totalCompleted = 0;
+        long lastCompletionNanos = Long.MIN_VALUE;
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            final LatencyHistogram.Snapshot corrected = entry.getValue().corrected.snapshot();
+            if (corrected.getCount() == 0) {
+                continue;
+            }
+            final LatencyHistogram.Snapshot serviceTime = entry.getValue().serviceTime.snapshot();
+            final long errors = entry.getValue().errors.sum();
+            final long completed = corrected.getCount() - entry.getValue().unfinished.sum();
+            final long lastCompletion = entry.getValue().lastCompletionNanos.get();
+            printRow(out, entry.getKey().name().toLowerCase(), corrected, serviceTime, errors,
+                    throughput(completed, lastCompletion));
+            totalCorrected = totalCorrected.merge(corrected);
+            totalServiceTime = totalServiceTime.merge(serviceTime);
+            totalErrors += errors;
+            totalCompleted += completed;
+            lastCompletionNanos = Math.max(lastCompletionNanos, lastCompletion);
+        }
+        printRow(out, "total", totalCorrected, totalServiceTime, totalErrors,
+                throughput(totalCompleted, lastCompletionNanos));
+    }
+
+    private double throughput(long completed, long lastCompletionNanos) {
+        if (completed == 0) {
+            return 0;
+        }
+        return completed / ((lastCompletionNanos - measureFromNanos) / 1e9);
+    }
+
+    private static void printRow(PrintStream out, String name, LatencyHistogram.Snapshot corrected,
+                                 LatencyHistogram.Snapshot serviceTime, long errors, double opsPerSecond) {
+        out.printf("%-10s %10d %8d %10.1f", name, corrected.getCount(), errors, opsPerSecond);
+        for (double percentile : PERCENTILES) {
+            out.printf(" %9.3f", millis(corrected.getValueAtPercentile(percentile)));
+        }
+        out.printf(" %9.3f | %13.3f%n", millis(corrected.getMax()), millis(serviceTime.getValueAtPercentile(99)));
+    }
+
+    /**
+     * Write the corrected distributions in the percentile layout of HdrHistogram's
+     * {@code outputPercentileDistribution}, one block per operation, values in milliseconds.
+     */
+    void writeDistributions(PrintStream out) {
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            final LatencyHistogram.Snapshot snapshot = entry.getValue().corrected.snapshot();
+            if (snapshot.getCount() == 0) {
+                continue;
+            }
+            out.printf("# %s%n", entry.getKey().name().toLowerCase());
+            out.printf("%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)");
+            // Percentile ticks halve the remaining distance to 100, five ticks per halving
+            double percentile = 0;
+            double step = 10;
+            while (percentile < 99.9999) {
+                printTick(out, snapshot, percentile);
+                percentile += step;
+                if (100 - percentile <= 5 * step / 2) {
+                    step /= 2;
+                }
+            }
+            printTick(out, snapshot, 100);
+            out.printf("#[Mean = %.3f, Max = %.3f, Count = %d]%n%n",
+                    millis((long) snapshot.getMean()), millis(snapshot.getMax()), snapshot.getCount());
+        }
+    }
+
+    private static void printTick(PrintStream out, LatencyHistogram.Snapshot snapshot, double percentile) {
+        final long totalCount = (long) Math.ceil(percentile / 100 * snapshot.getCount());
+        final String inverse = percentile < 100 ? String.format("%14.2f", 1 / (1 - percentile / 100)) : "";
+        out.printf("%12.3f %14.12f %10d %s%n", millis(snapshot.getValueAtPercentile(percentile)), percentile / 100,
+                totalCount, inverse);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
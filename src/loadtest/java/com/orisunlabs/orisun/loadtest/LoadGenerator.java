@@ -0,0 +1,237 @@
+package com.orisunlabs.orisun.loadtest;
+
+import com.orisunlabs.orisun.client.FaultInjection;
+import com.orisunlabs.orisun.client.FaultPolicy;
+import com.orisunlabs.orisun.client.LatencyDistribution;
+import com.orisunlabs.orisun.client.OrisunClient;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for an Orisun server, built on {@link OrisunClient}.
+ * <p>
+ * In open loop mode operations are scheduled at a fixed arrival rate and run on a pool of worker
+ * threads; an operation's latency is measured from its scheduled start, so queueing behind slow
+ * operations is included and results are free of coordinated omission. In closed loop mode each
+ * worker runs one operation after another, paced to its share of {@code --rate} if one is given,
+ * and latency is measured from each operation's scheduled start in the same way. Unpaced closed
+ * loop latencies are plain service times.
+ * <p>
+ * Run {@code ./gradlew loadTest --args="--help"} for the options.
+ */
+public final class LoadGenerator {
+    // How long open loop operations still queued at the end of the schedule are waited for
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+    public static void main(String[] args) throws Exception {
+        final LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            if (!e.getMessage().isEmpty()) {
+                System.err.println(e.getMessage());
+            }
+            System.err.print(LoadOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        run(options, System.out);
+    }
+
+    static void run(LoadOptions options, PrintStream out) throws Exception {
+        Server server = null;
+        ManagedChannel channel = null;
+        final OrisunClient.Builder builder = OrisunClient.newBuilder();
+        switch (options.fake) {
+            case INPROCESS -> {
+                final String name = "orisun-loadtest-" + UUID.randomUUID();
+                server = InProcessServerBuilder.forName(name).addService(new LoopbackEventStore()).build().start();
+                channel = InProcessChannelBuilder.forName(name).build();
+                builder.withChannel(channel);
+            }
+            case LOOPBACK -> {
+                final int port;
+                try (ServerSocket socket = new ServerSocket(0)) {
+                    port = socket.getLocalPort();
+                }
+                server = ServerBuilder.forPort(port).addService(new LoopbackEventStore()).build().start();
+                builder.withServer("localhost", port);
+            }
+            case NONE -> {
+                final int colon = options.target.lastIndexOf(':');
+                builder.withServer(options.target.substring(0, colon),
+                        Integer.parseInt(options.target.substring(colon + 1)));
+            }
+        }
+        if (options.username != null) {
+            builder.withBasicAuth(options.username, options.password);
+        }
+        if (options.injectsFaults()) {
+            final FaultPolicy.Builder policy = FaultPolicy.newBuilder();
+            if (!options.faultLatency.isZero()) {
+                policy.withLatency(LatencyDistribution.exponential(options.faultLatency.toNanos(), TimeUnit.NANOSECONDS));
+            }
+            if (options.faultErrorRate > 0) {
+                policy.withError(Status.Code.UNAVAILABLE, options.faultErrorRate);
+            }
+            builder.withFaultInjection(FaultInjection.newBuilder()
+                    .withSeed(options.faultSeed)
+                    .withDefaultPolicy(policy.build())
+                    .build());
+        }
+
+        try (OrisunClient client = builder.build()) {
+            final Workload workload = new Workload(client, options);
+            workload.prime();
+
+            out.printf("%s loop, %s, %d workers, mix %s, warm-up %ds, measuring %ds%n",
+                    options.mode.name().toLowerCase(),
+                    options.rate > 0 ? String.format("%.0f ops/s", options.rate) : "unpaced",
+                    options.concurrency, options.mix, options.warmup.toSeconds(), options.duration.toSeconds());
+
+            final long startNanos = System.nanoTime();
+            final long measureFromNanos = startNanos + options.warmup.toNanos();
+            final long endNanos = measureFromNanos + options.duration.toNanos();
+            final LatencyRecorder recorder = new LatencyRecorder(measureFromNanos, endNanos);
+
+            if (options.mode == LoadOptions.Mode.OPEN) {
+                runOpenLoop(workload, options, recorder, startNanos, endNanos);
+            } else {
+                runClosedLoop(workload, options, recorder, startNanos, endNanos);
+            }
+
+            recorder.printSummary(out);
+            if (recorder.getUnfinished() > 0) {
+                out.printf("%d operations were still queued %ds after the schedule ended and are counted as "
+                        + "errors, with latency up to when they were abandoned%n",
+                        recorder.getUnfinished(), DRAIN_TIMEOUT_SECONDS);
+            }
+            if (options.histogramFile != null) {
+                try (PrintStream file = new PrintStream(new FileOutputStream(options.histogramFile))) {
+                    recorder.writeDistributions(file);
+                }
+                out.println("Latency distributions written to " + options.histogramFile);
+            }
+        } finally {
+            if (channel != null) {
+                channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            }
+            if (server != null) {
+                server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private static void runOpenLoop(Workload workload, LoadOptions options, LatencyRecorder recorder,
+                                    long startNanos, long endNanos) throws InterruptedException {
+        final ExecutorService workers = Executors.newFixedThreadPool(options.concurrency, daemonThreads("worker"));
+        final double intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        try {
+            // Start times follow the schedule even when the dispatcher falls behind, so late starts
+            // count against latency
+            for (long i = 0; ; i++) {
+                final long intendedStartNanos = startNanos + (long) (i * intervalNanos);
+                if (intendedStartNanos >= endNanos) {
+                    break;
+                }
+                parkUntil(intendedStartNanos);
+                workers.execute(new ScheduledOperation(workload, workload.next(), recorder, intendedStartNanos));
+            }
+        } finally {
+            workers.shutdown();
+        }
+
+        // Operations queued behind slow ones were scheduled inside the window and count like the rest
+        if (!workers.awaitTermination(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            final long abandonedNanos = System.nanoTime();
+            for (Runnable queued : workers.shutdownNow()) {
+                final ScheduledOperation operation = (ScheduledOperation) queued;
+                recorder.recordUnfinished(operation.operation, operation.intendedStartNanos, abandonedNanos);
+            }
+            // Operations in flight are interrupted, fail and record themselves
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void runClosedLoop(Workload workload, LoadOptions options, LatencyRecorder recorder,
+                                      long startNanos, long endNanos) throws InterruptedException {
+        final ExecutorService workers = Executors.newFixedThreadPool(options.concurrency, daemonThreads("worker"));
+        final double intervalNanos = options.rate > 0
+                ? TimeUnit.SECONDS.toNanos(1) * options.concurrency / options.rate
+                : 0;
+        for (int w = 0; w < options.concurrency; w++) {
+            // Stagger paced workers across one interval
+            final long offsetNanos = (long) (intervalNanos * w / options.concurrency);
+            workers.execute(() -> {
+                long intendedStartNanos = startNanos + offsetNanos;
+                while (intendedStartNanos < endNanos) {
+                    if (intervalNanos > 0) {
+                        parkUntil(intendedStartNanos);
+                    } else {
+                        intendedStartNanos = System.nanoTime();
+                    }
+                    execute(workload, workload.next(), recorder, intendedStartNanos);
+                    intendedStartNanos = intervalNanos > 0
+                            ? intendedStartNanos + (long) intervalNanos
+                            : System.nanoTime();
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(endNanos - System.nanoTime() + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+    }
+
+    private static void execute(Workload workload, Operation operation, LatencyRecorder recorder,
+                                long intendedStartNanos) {
+        final long start = System.nanoTime();
+        final boolean success = workload.run(operation);
+        recorder.record(operation, intendedStartNanos, start, System.nanoTime(), success);
+    }
+
+    private static final class ScheduledOperation implements Runnable {
+        private final Workload workload;
+        private final Operation operation;
+        private final LatencyRecorder recorder;
+        private final long intendedStartNanos;
+
+        ScheduledOperation(Workload workload, Operation operation, LatencyRecorder recorder, long intendedStartNanos) {
+            this.workload = workload;
+            this.operation = operation;
+            this.recorder = recorder;
+            this.intendedStartNanos = intendedStartNanos;
+        }
+
+        @Override
+        public void run() {
+            execute(workload, operation, recorder, intendedStartNanos);
+        }
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        final ThreadFactory defaults = Executors.defaultThreadFactory();
+        return runnable -> {
+            final Thread thread = defaults.newThread(runnable);
+            thread.setName("orisun-loadtest-" + name + "-" + thread.getName());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
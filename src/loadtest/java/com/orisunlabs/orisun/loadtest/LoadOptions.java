@@ -0,0 +1,158 @@
+package com.orisunlabs.orisun.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line options of the {@link LoadGenerator}.
+ */
+final class LoadOptions {
+    enum Mode {
+        /**
+         * Operations start at a fixed arrival rate regardless of how fast earlier ones complete
+         */
+        OPEN,
+        /**
+         * A fixed number of workers each run one operation after another
+         */
+        CLOSED
+    }
+
+    enum Fake {
+        NONE,
+        /**
+         * An in-process server and channel, no network stack
+         */
+        INPROCESS,
+        /**
+         * A server on a loopback port, reached over the regular Netty transport
+         */
+        LOOPBACK
+    }
+
+    Mode mode = Mode.OPEN;
+    Fake fake = Fake.NONE;
+    String target = "localhost:5005";
+    String username;
+    String password;
+    String boundary = "loadtest";
+    double rate = 1000;
+    int concurrency = 64;
+    Duration duration = Duration.ofSeconds(30);
+    Duration warmup = Duration.ofSeconds(5);
+    int batchSize = 1;
+    int pageSize = 100;
+    int criteria = 4;
+    String histogramFile;
+    Duration faultLatency = Duration.ZERO;
+    double faultErrorRate;
+    long faultSeed;
+    final Map<Operation, Integer> mix = new LinkedHashMap<>(Map.of(Operation.SAVE, 100));
+
+    static final String USAGE = """
+            Usage: LoadGenerator [options]
+              --mode open|closed          Fixed arrival rate or fixed concurrency (default open)
+              --rate N                    Operations per second; in closed mode paces each worker (default 1000, 0 = unpaced)
+              --concurrency N             Worker threads (default 64)
+              --duration 30s              Measured duration, in ms, s or m (default 30s)
+              --warmup 5s                 Unmeasured warm-up duration (default 5s)
+              --mix save=60,read=30,...   Weights of save, read, criteria and subscribe (default save=100)
+              --batch N                   Events per save (default 1)
+              --page N                    Events per read (default 100)
+              --criteria N                Criteria per lookup (default 4)
+              --target host:port          Server to load (default localhost:5005)
+              --fake inprocess|loopback   Start a fake server instead of using --target
+              --auth user:password        Basic credentials
+              --boundary NAME             Boundary to use (default loadtest)
+              --histogram FILE            Write the corrected latency distributions to FILE
+              --fault-latency 5ms         Add exponentially distributed latency with this mean to every call
+              --fault-errors 0.01         Fail this fraction of calls with UNAVAILABLE on the client
+              --fault-seed N              Seed of the injected faults (default 0)
+            """;
+
+    static LoadOptions parse(String[] args) {
+        final LoadOptions options = new LoadOptions();
+        for (int i = 0; i < args.length; i++) {
+            final String name = args[i];
+            if (name.equals("--help") || name.equals("-h")) {
+                throw new IllegalArgumentException("");
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + name);
+            }
+            final String value = args[++i];
+            switch (name) {
+                case "--mode" -> options.mode = Mode.valueOf(value.toUpperCase());
+                case "--rate" -> options.rate = Double.parseDouble(value);
+                case "--concurrency" -> options.concurrency = positive(name, Integer.parseInt(value));
+                case "--duration" -> options.duration = parseDuration(value);
+                case "--warmup" -> options.warmup = parseDuration(value);
+                case "--mix" -> options.parseMix(value);
+                case "--batch" -> options.batchSize = positive(name, Integer.parseInt(value));
+                case "--page" -> options.pageSize = positive(name, Integer.parseInt(value));
+                case "--criteria" -> options.criteria = positive(name, Integer.parseInt(value));
+                case "--target" -> options.target = value;
+                case "--fake" -> options.fake = Fake.valueOf(value.toUpperCase());
+                case "--auth" -> {
+                    final int colon = value.indexOf(':');
+                    if (colon < 0) {
+                        throw new IllegalArgumentException("--auth must be user:password");
+                    }
+                    options.username = value.substring(0, colon);
+                    options.password = value.substring(colon + 1);
+                }
+                case "--boundary" -> options.boundary = value;
+                case "--histogram" -> options.histogramFile = value;
+                case "--fault-latency" -> options.faultLatency = parseDuration(value);
+                case "--fault-errors" -> options.faultErrorRate = Double.parseDouble(value);
+                case "--fault-seed" -> options.faultSeed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unknown option " + name);
+            }
+        }
+        if (options.mode == Mode.OPEN && options.rate <= 0) {
+            throw new IllegalArgumentException("Open loop mode needs a positive --rate");
+        }
+        return options;
+    }
+
+    boolean injectsFaults() {
+        return !faultLatency.isZero() || faultErrorRate > 0;
+    }
+
+    private void parseMix(String value) {
+        mix.clear();
+        for (String entry : value.split(",")) {
+            final String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries must be operation=weight: " + entry);
+            }
+            final int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("The mix needs at least one operation with a positive weight");
+        }
+    }
+
+    private static int positive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+        return value;
+    }
+
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        final long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Durations need a unit of ms, s or m: " + value);
+        };
+    }
+}
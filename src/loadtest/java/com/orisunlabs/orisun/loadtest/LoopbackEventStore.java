@@ -0,0 +1,98 @@
+package com.orisunlabs.orisun.loadtest;
+
+import com.google.protobuf.Timestamp;
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import io.grpc.stub.StreamObserver;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Minimal event store for load tests without a server: the latest {@value #RETAINED_EVENTS} events
+ * are kept in memory, so long runs do not grow the heap, and reads return the latest page. It has
+ * no query semantics, and subscriptions replay the oldest retained event and complete.
+ */
+final class LoopbackEventStore extends EventStoreGrpc.EventStoreImplBase {
+    static final int RETAINED_EVENTS = 10_000;
+
+    // Guarded by events, as is lastPosition
+    private final ArrayDeque<Eventstore.Event> events = new ArrayDeque<>(RETAINED_EVENTS);
+    private long lastPosition;
+
+    @Override
+    public void saveEvents(Eventstore.SaveEventsRequest request, StreamObserver<Eventstore.WriteResult> responseObserver) {
+        final Instant now = Instant.now();
+        final Timestamp created = Timestamp.newBuilder().setSeconds(now.getEpochSecond()).setNanos(now.getNano()).build();
+        final Eventstore.Position position;
+        synchronized (events) {
+            for (Eventstore.EventToSave event : request.getEventsList()) {
+                final long next = ++lastPosition;
+                if (events.size() == RETAINED_EVENTS) {
+                    events.removeFirst();
+                }
+                events.addLast(Eventstore.Event.newBuilder()
+                        .setEventId(event.getEventId())
+                        .setEventType(event.getEventType())
+                        .setData(event.getData())
+                        .setMetadata(event.getMetadata())
+                        .setPosition(Eventstore.Position.newBuilder().setCommitPosition(next).setPreparePosition(next))
+                        .setDateCreated(created)
+                        .build());
+            }
+            position = events.getLast().getPosition();
+        }
+        responseObserver.onNext(Eventstore.WriteResult.newBuilder().setLogPosition(position).build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getEvents(Eventstore.GetEventsRequest request, StreamObserver<Eventstore.GetEventsResponse> responseObserver) {
+        final List<Eventstore.Event> page = new ArrayList<>();
+        synchronized (events) {
+            final Iterator<Eventstore.Event> latest = events.descendingIterator();
+            while (page.size() < request.getCount() && latest.hasNext()) {
+                page.add(latest.next());
+            }
+        }
+        Collections.reverse(page);
+        responseObserver.onNext(Eventstore.GetEventsResponse.newBuilder().addAllEvents(page).build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getLatestByCriteria(Eventstore.GetLatestByCriteriaRequest request,
+                                    StreamObserver<Eventstore.GetLatestByCriteriaResponse> responseObserver) {
+        final Eventstore.GetLatestByCriteriaResponse.Builder response = Eventstore.GetLatestByCriteriaResponse.newBuilder();
+        synchronized (events) {
+            if (!events.isEmpty()) {
+                response.setContextPosition(events.getLast().getPosition());
+            }
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void catchUpSubscribeToEvents(Eventstore.CatchUpSubscribeToEventStoreRequest request,
+                                         StreamObserver<Eventstore.Event> responseObserver) {
+        final Eventstore.Event first;
+        synchronized (events) {
+            first = events.peekFirst();
+        }
+        if (first != null) {
+            responseObserver.onNext(first);
+        }
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void ping(Eventstore.PingRequest request, StreamObserver<Eventstore.PingResponse> responseObserver) {
+        responseObserver.onNext(Eventstore.PingResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+    }
+}
@@ -0,0 +1,23 @@
+package com.orisunlabs.orisun.loadtest;
+
+/**
+ * Operations the load generator mixes.
+ */
+enum Operation {
+    /**
+     * {@code saveEvents} of a batch of new events
+     */
+    SAVE,
+    /**
+     * {@code getEvents} of one page
+     */
+    READ,
+    /**
+     * {@code getLatestByCriteria} with several criteria
+     */
+    CRITERIA,
+    /**
+     * Subscribe, wait for the first delivered event and close
+     */
+    SUBSCRIBE
+}
@@ -0,0 +1,128 @@
+package com.orisunlabs.orisun.loadtest;
+
+import com.orisun.eventstore.Eventstore;
+import com.orisunlabs.orisun.client.EventIds;
+import com.orisunlabs.orisun.client.EventSubscription;
+import com.orisunlabs.orisun.client.OrisunClient;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Picks operations according to the configured mix and runs them against a client.
+ */
+final class Workload {
+    private final OrisunClient client;
+    private final LoadOptions options;
+    private final Operation[] weighted;
+    private final Eventstore.GetEventsRequest readRequest;
+    private final Eventstore.GetLatestByCriteriaRequest criteriaRequest;
+    private final AtomicLong subscriptions = new AtomicLong();
+
+    Workload(OrisunClient client, LoadOptions options) {
+        this.client = client;
+        this.options = options;
+
+        int total = 0;
+        for (int weight : options.mix.values()) {
+            total += weight;
+        }
+        this.weighted = new Operation[total];
+        int index = 0;
+        for (Map.Entry<Operation, Integer> entry : options.mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                weighted[index++] = entry.getKey();
+            }
+        }
+
+        this.readRequest = Eventstore.GetEventsRequest.newBuilder()
+                .setBoundary(options.boundary)
+                .setCount(options.pageSize)
+                .setDirection(Eventstore.Direction.DESC)
+                .build();
+
+        final Eventstore.GetLatestByCriteriaRequest.Builder criteria = Eventstore.GetLatestByCriteriaRequest.newBuilder()
+                .setBoundary(options.boundary);
+        for (int i = 0; i < options.criteria; i++) {
+            criteria.addCriteria(Eventstore.Criterion.newBuilder()
+                    .addTags(Eventstore.Tag.newBuilder().setKey("customerId").setValue("customer-" + i)));
+        }
+        this.criteriaRequest = criteria.build();
+    }
+
+    Operation next() {
+        return weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+    }
+
+    /**
+     * Write a batch so reads, lookups and subscriptions find events.
+     */
+    void prime() throws Exception {
+        client.saveEvents(saveRequest());
+    }
+
+    /**
+     * @return true if the operation succeeded
+     */
+    boolean run(Operation operation) {
+        try {
+            switch (operation) {
+                case SAVE -> client.saveEvents(saveRequest());
+                case READ -> client.getEvents(readRequest);
+                case CRITERIA -> client.getLatestByCriteria(criteriaRequest);
+                case SUBSCRIBE -> subscribeToFirstEvent();
+            }
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private Eventstore.SaveEventsRequest saveRequest() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final Eventstore.SaveEventsRequest.Builder request = Eventstore.SaveEventsRequest.newBuilder()
+                .setBoundary(options.boundary);
+        for (int i = 0; i < options.batchSize; i++) {
+            final int customer = random.nextInt(options.criteria);
+            request.addEvents(Eventstore.EventToSave.newBuilder()
+                    .setEventId(EventIds.newId())
+                    .setEventType("OrderPlaced")
+                    .setData("{\"customerId\":\"customer-" + customer + "\",\"amount\":" + random.nextInt(1000) + "}")
+                    .setMetadata("{\"source\":\"loadtest\"}"));
+        }
+        return request.build();
+    }
+
+    private void subscribeToFirstEvent() throws Exception {
+        final CompletableFuture<Void> firstEvent = new CompletableFuture<>();
+        final EventSubscription subscription = client.subscribeToEvents(
+                Eventstore.CatchUpSubscribeToEventStoreRequest.newBuilder()
+                        .setSubscriberName("loadtest-" + subscriptions.incrementAndGet())
+                        .setBoundary(options.boundary)
+                        .build(),
+                new EventSubscription.EventHandler() {
+                    @Override
+                    public void onEvent(Eventstore.Event event) {
+                        firstEvent.complete(null);
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        firstEvent.completeExceptionally(error);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        firstEvent.complete(null);
+                    }
+                });
+        try {
+            firstEvent.get(10, TimeUnit.SECONDS);
+        } finally {
+            subscription.close();
+        }
+    }
+}
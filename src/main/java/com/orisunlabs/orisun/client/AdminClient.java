@@ -1,6 +1,7 @@
 package com.orisunlabs.orisun.client;
 
 import io.grpc.*;
+import io.grpc.stub.AbstractStub;
 import com.orisun.admin.AdminGrpc;
 import com.orisun.admin.AdminOuterClass.*;
 
@@ -11,250 +12,148 @@ import java.util.concurrent.TimeUnit;
  * Client for Orisun Admin service - handles user management and administrative operations
  */
 public class AdminClient implements AutoCloseable {
-    private final ManagedChannel channel;
+    private final OrisunTransport transport;
+    private final boolean ownsTransport;
     private final AdminGrpc.AdminBlockingStub blockingStub;
     private final AdminGrpc.AdminStub asyncStub;
     private final int defaultTimeoutSeconds;
+    private final boolean applyDefaultDeadlines;
     private final Logger logger;
-    private final TokenCache tokenCache;
-    private final String username;
-    private final String password;
 
     public static class Builder {
-        private List<ServerAddress> servers = new ArrayList<>();
-        private int timeoutSeconds = 30;
-        private boolean useTls = false;
-        private ManagedChannel channel;
-        private String loadBalancingPolicy = "round_robin";
-        private String username;
-        private String password;
-        private Logger logger;
-        private boolean enableLogging = false;
-        private DefaultLogger.LogLevel logLevel = DefaultLogger.LogLevel.INFO;
-        private boolean useDnsResolver = true;
-
-        // Keep-alive settings
-        private long keepAliveTimeMs = 30000;
-        private long keepAliveTimeoutMs = 10000;
-        private boolean keepAlivePermitWithoutCalls = true;
-
-        // DNS and static target settings
-        private String dnsTarget;
-        private String staticTarget;
+        private final OrisunTransport.Builder transportBuilder = OrisunTransport.newBuilder();
+        private OrisunTransport transport;
 
         public Builder withServer(String host, int port) {
-            servers.add(new ServerAddress(host, port));
+            transportBuilder.withServer(host, port);
             return this;
         }
 
         public Builder withServers(List<ServerAddress> servers) {
-            this.servers.addAll(servers);
+            for (ServerAddress server : servers) {
+                transportBuilder.withServer(server.host, server.port);
+            }
             return this;
         }
 
         public Builder withLoadBalancingPolicy(String policy) {
-            this.loadBalancingPolicy = policy;
+            transportBuilder.withLoadBalancingPolicy(policy);
             return this;
         }
 
         public Builder withDnsTarget(String dnsTarget) {
-            this.dnsTarget = dnsTarget;
+            transportBuilder.withDnsTarget(dnsTarget);
             return this;
         }
 
         public Builder withStaticTarget(String staticTarget) {
-            this.staticTarget = staticTarget;
+            transportBuilder.withStaticTarget(staticTarget);
             return this;
         }
 
         public Builder withDnsResolver(boolean useDns) {
-            this.useDnsResolver = useDns;
+            transportBuilder.withDnsResolver(useDns);
             return this;
         }
 
         public Builder withTimeout(int seconds) {
-            this.timeoutSeconds = seconds;
+            transportBuilder.withTimeout(seconds);
             return this;
         }
 
         public Builder withTls(boolean useTls) {
-            this.useTls = useTls;
+            transportBuilder.withTls(useTls);
             return this;
         }
 
         public Builder withChannel(ManagedChannel channel) {
-            this.channel = channel;
+            transportBuilder.withChannel(channel);
+            return this;
+        }
+
+        /**
+         * Use a transport shared with other clients. Connection, authentication, logging and
+         * timeout settings of this builder are ignored, and the client does not close the
+         * transport.
+         */
+        public Builder withTransport(OrisunTransport transport) {
+            this.transport = transport;
             return this;
         }
 
         public Builder withBasicAuth(String username, String password) {
-            this.username = username;
-            this.password = password;
+            transportBuilder.withBasicAuth(username, password);
             return this;
         }
 
         public Builder withLogger(Logger logger) {
-            this.logger = logger;
+            transportBuilder.withLogger(logger);
             return this;
         }
 
         public Builder withLogging(boolean enableLogging) {
-            this.enableLogging = enableLogging;
+            transportBuilder.withLogging(enableLogging);
             return this;
         }
 
         public Builder withLogLevel(DefaultLogger.LogLevel level) {
-            this.logLevel = level;
+            transportBuilder.withLogLevel(level);
             return this;
         }
 
         public Builder withKeepAliveTime(long keepAliveTimeMs) {
-            this.keepAliveTimeMs = keepAliveTimeMs;
+            transportBuilder.withKeepAliveTime(keepAliveTimeMs);
             return this;
         }
 
         public Builder withKeepAliveTimeout(long keepAliveTimeoutMs) {
-            this.keepAliveTimeoutMs = keepAliveTimeoutMs;
+            transportBuilder.withKeepAliveTimeout(keepAliveTimeoutMs);
             return this;
         }
 
         public Builder withKeepAlivePermitWithoutCalls(boolean permitWithoutCalls) {
-            this.keepAlivePermitWithoutCalls = permitWithoutCalls;
+            transportBuilder.withKeepAlivePermitWithoutCalls(permitWithoutCalls);
             return this;
         }
 
-        public AdminClient build() {
-            // Initialize logger
-            Logger clientLogger;
-            if (enableLogging && logger == null) {
-                clientLogger = new DefaultLogger(logLevel);
-            } else {
-                clientLogger = Objects.requireNonNullElseGet(logger,
-                        () -> new DefaultLogger(DefaultLogger.LogLevel.WARN));
-            }
+        /**
+         * Override the deadline and retry policy of a single method. Methods without an override
+         * use the defaults from {@link MethodPolicies}, derived from {@link #withTimeout(int)}.
+         * Only applies to channels created by this builder.
+         */
+        public Builder withMethodPolicy(MethodDescriptor<?, ?> method, MethodPolicy policy) {
+            transportBuilder.withMethodPolicy(method, policy);
+            return this;
+        }
 
-            // Initialize token cache
-            TokenCache clientTokenCache = new TokenCache(clientLogger);
-
-            if (this.channel == null) {
-                ManagedChannelBuilder<?> channelBuilder;
-
-                // Check for DNS or static targets first
-                if (dnsTarget != null && !dnsTarget.trim().isEmpty()) {
-                    String target = dnsTarget.startsWith("dns:///") ? dnsTarget : "dns:///" + dnsTarget;
-                    channelBuilder = ManagedChannelBuilder.forTarget(target)
-                            .defaultLoadBalancingPolicy(loadBalancingPolicy)
-                            .keepAliveTime(keepAliveTimeMs, TimeUnit.MILLISECONDS)
-                            .keepAliveTimeout(keepAliveTimeoutMs, TimeUnit.MILLISECONDS)
-                            .keepAliveWithoutCalls(keepAlivePermitWithoutCalls);
-
-                    if (!useTls) {
-                        channelBuilder.usePlaintext();
-                    }
-
-                    this.channel = channelBuilder.build();
-                } else if (staticTarget != null && !staticTarget.trim().isEmpty()) {
-                    String target = staticTarget.startsWith("static:///") ? staticTarget : "static:///" + staticTarget;
-                    channelBuilder = ManagedChannelBuilder.forTarget(target)
-                            .defaultLoadBalancingPolicy(loadBalancingPolicy)
-                            .keepAliveTime(keepAliveTimeMs, TimeUnit.MILLISECONDS)
-                            .keepAliveTimeout(keepAliveTimeoutMs, TimeUnit.MILLISECONDS)
-                            .keepAliveWithoutCalls(keepAlivePermitWithoutCalls);
-
-                    if (!useTls) {
-                        channelBuilder.usePlaintext();
-                    }
-
-                    this.channel = channelBuilder.build();
-                } else {
-                    if (servers.isEmpty()) {
-                        servers.add(new ServerAddress("localhost", 5005));
-                    }
-
-                    if (servers.size() == 1) {
-                        ServerAddress server = servers.getFirst();
-                        channelBuilder = ManagedChannelBuilder.forAddress(server.host, server.port);
-                    } else {
-                        String target = createTargetString(servers);
-                        channelBuilder = ManagedChannelBuilder.forTarget(target)
-                                .defaultLoadBalancingPolicy(loadBalancingPolicy);
-                    }
-
-                    if (!useTls) {
-                        channelBuilder.usePlaintext();
-                    }
-
-                    channelBuilder.keepAliveTime(keepAliveTimeMs, TimeUnit.MILLISECONDS)
-                            .keepAliveTimeout(keepAliveTimeoutMs, TimeUnit.MILLISECONDS)
-                            .keepAliveWithoutCalls(keepAlivePermitWithoutCalls);
-
-                    // Add authentication interceptor
-                    channelBuilder.intercept(new ClientInterceptor() {
-                        @Override
-                        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
-                                MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
-
-                            return new ForwardingClientCall.SimpleForwardingClientCall<>(
-                                    next.newCall(method, callOptions)) {
-
-                                @Override
-                                public void start(Listener<RespT> responseListener, Metadata headers) {
-                                    final var metadata = clientTokenCache.createAuthMetadata(() ->
-                                            username != null && password != null ? "Basic " + java.util.Base64.getEncoder()
-                                                    .encodeToString((username + ":" + password).getBytes()) : null);
-
-                                    metadata.keys().forEach(key -> {
-                                        for (String value : Objects.requireNonNull(metadata
-                                                .getAll(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER)))) {
-                                            headers.put(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER), value);
-                                        }
-                                    });
-
-                                    super.start(new Listener<>() {
-                                        @Override
-                                        public void onHeaders(Metadata headers) {
-                                            clientTokenCache.extractAndCacheToken(headers);
-                                            responseListener.onHeaders(headers);
-                                        }
-
-                                        @Override
-                                        public void onMessage(RespT message) {
-                                            responseListener.onMessage(message);
-                                        }
-
-                                        @Override
-                                        public void onClose(Status status, Metadata trailers) {
-                                            responseListener.onClose(status, trailers);
-                                        }
-
-                                        @Override
-                                        public void onReady() {
-                                            responseListener.onReady();
-                                        }
-                                    }, headers);
-                                }
-                            };
-                        }
-                    });
-
-                    this.channel = channelBuilder.build();
-                }
-            }
+        public Builder withMethodPolicies(MethodPolicies policies) {
+            transportBuilder.withMethodPolicies(policies);
+            return this;
+        }
 
-            return new AdminClient(this.channel, timeoutSeconds, clientLogger, clientTokenCache, username, password);
+        public Builder withMetrics(MetricsRegistry metrics) {
+            transportBuilder.withMetrics(metrics);
+            return this;
         }
 
-        private String createTargetString(List<ServerAddress> servers) {
-            StringBuilder sb = new StringBuilder(useDnsResolver ? "dns:///" : "static:///");
-            boolean first = true;
-            for (ServerAddress server : servers) {
-                if (!first) {
-                    sb.append(",");
-                }
-                sb.append(server.host).append(":").append(server.port);
-                first = false;
-            }
-            return sb.toString();
+        public Builder withTracer(Tracer tracer) {
+            transportBuilder.withTracer(tracer);
+            return this;
+        }
+
+        public Builder withTraceSampler(Sampler sampler) {
+            transportBuilder.withTraceSampler(sampler);
+            return this;
+        }
+
+        public Builder withFaultInjection(FaultInjection faultInjection) {
+            transportBuilder.withFaultInjection(faultInjection);
+            return this;
+        }
+
+        public AdminClient build() {
+            final boolean ownsTransport = transport == null;
+            return new AdminClient(ownsTransport ? transportBuilder.build() : transport, ownsTransport);
         }
     }
 
@@ -280,18 +179,20 @@ public class AdminClient implements AutoCloseable {
         return new Builder();
     }
 
-    private AdminClient(ManagedChannel channel, int timeoutSeconds, Logger logger, TokenCache tokenCache,
-                       String username, String password) {
-        this.channel = channel;
-        this.defaultTimeoutSeconds = timeoutSeconds;
-        this.logger = logger;
-        this.tokenCache = tokenCache;
-        this.username = username;
-        this.password = password;
-        this.blockingStub = AdminGrpc.newBlockingStub(channel);
-        this.asyncStub = AdminGrpc.newStub(channel);
-
-        this.logger.info("AdminClient initialized with timeout: {} seconds", timeoutSeconds);
+    private AdminClient(OrisunTransport transport, boolean ownsTransport) {
+        this.transport = transport;
+        this.ownsTransport = ownsTransport;
+        this.defaultTimeoutSeconds = transport.getTimeoutSeconds();
+        this.applyDefaultDeadlines = transport.appliesDefaultDeadlines();
+        this.logger = transport.getLogger();
+        this.blockingStub = AdminGrpc.newBlockingStub(transport.getCallChannel());
+        this.asyncStub = AdminGrpc.newStub(transport.getCallChannel());
+
+        this.logger.info("AdminClient initialized with timeout: {} seconds", defaultTimeoutSeconds);
+    }
+
+    private <S extends AbstractStub<S>> S withDefaultDeadline(S stub) {
+        return applyDefaultDeadlines ? stub.withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS) : stub;
     }
 
     // User Management Operations
@@ -305,8 +206,7 @@ public class AdminClient implements AutoCloseable {
         logger.debug("Creating user with username: {}", request.getUsername());
 
         try {
-            CreateUserResponse response = blockingStub
-                    .withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS)
+            CreateUserResponse response = withDefaultDeadline(blockingStub)
                     .createUser(request);
 
             logger.info("Successfully created user with ID: {}", response.getUser().getUserId());
@@ -326,8 +226,7 @@ public class AdminClient implements AutoCloseable {
         logger.debug("Deleting user: {}", request.getUserId());
 
         try {
-            DeleteUserResponse response = blockingStub
-                    .withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS)
+            DeleteUserResponse response = withDefaultDeadline(blockingStub)
                     .deleteUser(request);
 
             logger.info("Successfully deleted user: {}", request.getUserId());
@@ -347,8 +246,7 @@ public class AdminClient implements AutoCloseable {
         logger.debug("Changing password for user: {}", request.getUserId());
 
         try {
-            ChangePasswordResponse response = blockingStub
-                    .withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS)
+            ChangePasswordResponse response = withDefaultDeadline(blockingStub)
                     .changePassword(request);
 
             logger.info("Successfully changed password for user: {}", request.getUserId());
@@ -368,8 +266,7 @@ public class AdminClient implements AutoCloseable {
         logger.debug("Listing all users");
 
         try {
-            ListUsersResponse response = blockingStub
-                    .withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS)
+            ListUsersResponse response = withDefaultDeadline(blockingStub)
                     .listUsers(request);
 
             logger.debug("Successfully retrieved {} users", response.getUsersCount());
@@ -398,8 +295,7 @@ public class AdminClient implements AutoCloseable {
         logger.debug("Validating credentials for username: {}", request.getUsername());
 
         try {
-            ValidateCredentialsResponse response = blockingStub
-                    .withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS)
+            ValidateCredentialsResponse response = withDefaultDeadline(blockingStub)
                     .validateCredentials(request);
 
             if (response.getSuccess()) {
@@ -425,8 +321,7 @@ public class AdminClient implements AutoCloseable {
         logger.debug("Getting user count");
 
         try {
-            GetUserCountResponse response = blockingStub
-                    .withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS)
+            GetUserCountResponse response = withDefaultDeadline(blockingStub)
                     .getUserCount(request);
 
             logger.debug("User count: {}", response.getCount());
@@ -453,8 +348,7 @@ public class AdminClient implements AutoCloseable {
         logger.debug("Getting event count for boundary: {}", request.getBoundary());
 
         try {
-            GetEventCountResponse response = blockingStub
-                    .withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS)
+            GetEventCountResponse response = withDefaultDeadline(blockingStub)
                     .getEventCount(request);
 
             logger.debug("Event count for boundary '{}': {}", request.getBoundary(), response.getCount());
@@ -481,18 +375,22 @@ public class AdminClient implements AutoCloseable {
         return new OrisunException("Admin operation failed: " + operation, e, context);
     }
 
+    /**
+     * @return the transport this client sends its calls through
+     */
+    public OrisunTransport getTransport() {
+        return transport;
+    }
+
     @Override
     public void close() {
-        logger.debug("Closing AdminClient connection");
-
-        if (channel != null && !channel.isShutdown()) {
-            try {
-                channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
-                logger.info("AdminClient connection closed successfully");
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.error("Interrupted while closing AdminClient connection", e);
-            }
+        // A shared transport is closed by its owner
+        if (!ownsTransport) {
+            return;
         }
+
+        logger.debug("Closing AdminClient connection");
+        transport.close();
+        logger.info("AdminClient connection closed successfully");
     }
 }
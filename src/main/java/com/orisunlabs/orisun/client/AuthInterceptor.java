@@ -0,0 +1,416 @@
+package com.orisunlabs.orisun.client;
+
+import io.grpc.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Adds authentication headers to every call (the cached token, or basic credentials until a token
+ * is issued) and caches the token returned in response headers.
+ * <p>
+ * When a token is rejected with {@code UNAUTHENTICATED} and basic credentials are configured, the
+ * token is renewed through the {@link TokenRefresher} and unary calls are retried once with the new
+ * token. Streaming calls are not retried, but still trigger the renewal.
+ */
+class AuthInterceptor implements ClientInterceptor {
+    /**
+     * Send basic credentials even if a token is cached. Used by re-authentication itself.
+     */
+    static final CallOptions.Key<Boolean> BASIC_AUTH_ONLY =
+            CallOptions.Key.createWithDefault("orisun-basic-auth-only", false);
+
+    private final TokenCache tokenCache;
+    private final TokenRefresher refresher;
+
+    AuthInterceptor(TokenCache tokenCache, String username, String password) {
+        this(tokenCache, username, password, null);
+    }
+
+    AuthInterceptor(TokenCache tokenCache, String username, String password, TokenRefresher refresher) {
+        this.tokenCache = tokenCache;
+        this.refresher = refresher;
+
+        // Encoded once, the header value never changes for the lifetime of the transport
+        if (username != null && password != null) {
+            tokenCache.setBasicAuth("Basic " + Base64.getEncoder()
+                    .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+            MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+
+        final boolean basicAuthOnly = callOptions.getOption(BASIC_AUTH_ONLY);
+        if (refresher != null && !basicAuthOnly && method.getType() == MethodDescriptor.MethodType.UNARY) {
+            return new ReauthenticatingCall<>(method, callOptions, next);
+        }
+
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(
+                next.newCall(method, callOptions)) {
+
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                final String usedToken;
+                if (basicAuthOnly) {
+                    tokenCache.applyBasicAuth(headers);
+                    usedToken = null;
+                } else {
+                    usedToken = tokenCache.applyAuthHeaders(headers);
+                }
+
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onHeaders(Metadata headers) {
+                        // Extract and cache token from response headers
+                        tokenCache.extractAndCacheToken(headers);
+
+                        super.onHeaders(headers);
+                    }
+
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        if (refresher != null && usedToken != null
+                                && status.getCode() == Status.Code.UNAUTHENTICATED) {
+                            refresher.reauthenticate(usedToken);
+                        }
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    /**
+     * A unary call that is replayed once with a renewed token if its token is rejected. Response
+     * headers of the first attempt are held back so the caller only ever sees one attempt.
+     * <p>
+     * Until then, the caller's operations are forwarded to the first attempt as they come, and only
+     * recorded in a few fields: the request message is kept while the call may still be retried.
+     * From the rejection until the retry has started, operations are only recorded; the retry then
+     * replays what was recorded, catching up with whatever the caller did while it was replaying.
+     */
+    private final class ReauthenticatingCall<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+        private final MethodDescriptor<ReqT, RespT> method;
+        private final CallOptions callOptions;
+        private final Channel next;
+
+        private Listener<RespT> listener;
+        private Metadata headers;
+
+        // Guarded by this
+        private ClientCall<ReqT, RespT> delegate;
+        private Status cancelStatus;
+        // Whether operations go straight to the delegate, false while an attempt is being started
+        private boolean forwarding;
+        // From the rejection of the first attempt until the retry is started
+        private boolean retrying;
+        // Whether the request message is kept for a retry
+        private boolean replayable;
+        private ReqT message;
+        private boolean messageSent;
+        private int requested;
+        private boolean halfClosed;
+        private Boolean messageCompression;
+
+        ReauthenticatingCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+            this.method = method;
+            this.callOptions = callOptions;
+            this.next = next;
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            this.listener = responseListener;
+            this.headers = headers;
+            startAttempt(headers, false);
+        }
+
+        private void startAttempt(Metadata attemptHeaders, boolean lastAttempt) {
+            Status cancelled;
+            synchronized (this) {
+                cancelled = cancelStatus;
+            }
+            if (cancelled != null) {
+                listener.onClose(cancelled, new Metadata());
+                return;
+            }
+
+            final String usedToken = tokenCache.applyAuthHeaders(attemptHeaders);
+            final boolean last = lastAttempt || usedToken == null;
+            final ClientCall<ReqT, RespT> call = next.newCall(method, callOptions);
+            synchronized (this) {
+                // Checked again where the attempt is published, a cancel cannot slip in between
+                cancelled = cancelStatus;
+                if (cancelled == null) {
+                    delegate = call;
+                    retrying = false;
+                    replayable = !last;
+                }
+            }
+            if (cancelled != null) {
+                // Cancelled while the token was being renewed: the new attempt is never started
+                listener.onClose(cancelled, new Metadata());
+                return;
+            }
+
+            call.start(new AttemptListener(usedToken, last), attemptHeaders);
+            catchUp(call);
+        }
+
+        /**
+         * Replay on a started attempt what the caller did so far, until it has caught up and
+         * operations can be forwarded directly. The first attempt starts before any operation, so
+         * it catches up at once.
+         */
+        private void catchUp(ClientCall<ReqT, RespT> call) {
+            Boolean replayedCompression = null;
+            int replayedRequested = 0;
+            boolean replayedMessage = false;
+            boolean replayedHalfClose = false;
+            while (true) {
+                final Status cancelled;
+                final Boolean compression;
+                final int request;
+                final ReqT send;
+                final boolean halfClose;
+                synchronized (this) {
+                    if (delegate != call || retrying) {
+                        // Rejected while starting, the retry replays everything itself
+                        return;
+                    }
+                    cancelled = cancelStatus;
+                    compression = Objects.equals(messageCompression, replayedCompression) ? null : messageCompression;
+                    request = requested - replayedRequested;
+                    send = messageSent && !replayedMessage ? message : null;
+                    halfClose = halfClosed && !replayedHalfClose;
+                    if (cancelled != null || (compression == null && request == 0 && send == null && !halfClose)) {
+                        forwarding = true;
+                        if (!replayable) {
+                            message = null;
+                        }
+                    }
+                }
+                if (cancelled != null) {
+                    call.cancel(cancelled.getDescription(), cancelled.getCause());
+                    return;
+                }
+                if (compression == null && request == 0 && send == null && !halfClose) {
+                    return;
+                }
+
+                if (compression != null) {
+                    call.setMessageCompression(compression);
+                    replayedCompression = compression;
+                }
+                if (request > 0) {
+                    call.request(request);
+                    replayedRequested += request;
+                }
+                if (send != null) {
+                    call.sendMessage(send);
+                    replayedMessage = true;
+                }
+                if (halfClose) {
+                    call.halfClose();
+                    replayedHalfClose = true;
+                }
+            }
+        }
+
+        private void retry(String staleToken, Status status, Metadata trailers) {
+            refresher.reauthenticate(staleToken).whenComplete((ignored, error) -> {
+                final Status cancelled;
+                synchronized (this) {
+                    cancelled = cancelStatus;
+                }
+                if (cancelled != null) {
+                    listener.onClose(cancelled, new Metadata());
+                    return;
+                }
+                if (error != null) {
+                    listener.onClose(status, trailers);
+                    return;
+                }
+
+                final Metadata retryHeaders = new Metadata();
+                retryHeaders.merge(headers);
+                retryHeaders.discardAll(TokenCache.TOKEN_HEADER);
+                retryHeaders.discardAll(TokenCache.AUTHORIZATION_HEADER);
+                startAttempt(retryHeaders, true);
+            });
+        }
+
+        /**
+         * @return the delegate if operations go straight to it, null if they are only recorded
+         */
+        private ClientCall<ReqT, RespT> forwardingDelegate() {
+            return forwarding ? delegate : null;
+        }
+
+        @Override
+        public void request(int numMessages) {
+            final ClientCall<ReqT, RespT> call;
+            synchronized (this) {
+                requested += numMessages;
+                call = forwardingDelegate();
+            }
+            if (call != null) {
+                call.request(numMessages);
+            }
+        }
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+            final ClientCall<ReqT, RespT> call;
+            synchronized (this) {
+                if (cancelStatus != null) {
+                    return;
+                }
+                Status status = Status.CANCELLED;
+                if (message != null) {
+                    status = status.withDescription(message);
+                }
+                cancelStatus = cause != null ? status.withCause(cause) : status;
+                // An attempt being started cancels itself once started; between attempts, the next
+                // one is not started
+                call = forwardingDelegate();
+            }
+            if (call != null) {
+                call.cancel(message, cause);
+            }
+        }
+
+        @Override
+        public void halfClose() {
+            final ClientCall<ReqT, RespT> call;
+            synchronized (this) {
+                halfClosed = true;
+                call = forwardingDelegate();
+            }
+            if (call != null) {
+                call.halfClose();
+            }
+        }
+
+        @Override
+        public void sendMessage(ReqT message) {
+            final ClientCall<ReqT, RespT> call;
+            synchronized (this) {
+                messageSent = true;
+                call = forwardingDelegate();
+                if (replayable || call == null) {
+                    this.message = message;
+                }
+            }
+            if (call != null) {
+                call.sendMessage(message);
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            final ClientCall<ReqT, RespT> call;
+            synchronized (this) {
+                call = forwardingDelegate();
+            }
+            return call != null && call.isReady();
+        }
+
+        @Override
+        public void setMessageCompression(boolean enabled) {
+            final ClientCall<ReqT, RespT> call;
+            synchronized (this) {
+                messageCompression = enabled;
+                call = forwardingDelegate();
+            }
+            if (call != null) {
+                call.setMessageCompression(enabled);
+            }
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            final ClientCall<ReqT, RespT> call;
+            synchronized (this) {
+                call = forwardingDelegate();
+            }
+            return call != null ? call.getAttributes() : Attributes.EMPTY;
+        }
+
+        private final class AttemptListener extends Listener<RespT> {
+            private final String usedToken;
+            private final boolean lastAttempt;
+            private Metadata pendingHeaders;
+            private boolean responded;
+
+            AttemptListener(String usedToken, boolean lastAttempt) {
+                this.usedToken = usedToken;
+                this.lastAttempt = lastAttempt;
+            }
+
+            @Override
+            public void onHeaders(Metadata headers) {
+                tokenCache.extractAndCacheToken(headers);
+                if (lastAttempt) {
+                    listener.onHeaders(headers);
+                } else {
+                    pendingHeaders = headers;
+                }
+            }
+
+            @Override
+            public void onMessage(RespT message) {
+                if (!responded && !lastAttempt) {
+                    synchronized (ReauthenticatingCall.this) {
+                        // Answered, so the call will not be retried
+                        replayable = false;
+                        ReauthenticatingCall.this.message = null;
+                    }
+                }
+                responded = true;
+                flushHeaders();
+                listener.onMessage(message);
+            }
+
+            @Override
+            public void onReady() {
+                listener.onReady();
+            }
+
+            @Override
+            public void onClose(Status status, Metadata trailers) {
+                final boolean retry;
+                synchronized (ReauthenticatingCall.this) {
+                    retry = !lastAttempt && !responded && cancelStatus == null
+                            && status.getCode() == Status.Code.UNAUTHENTICATED;
+                    if (retry) {
+                        // Until the next attempt starts, operations are only recorded and a cancel
+                        // ends the call without touching this closed attempt
+                        retrying = true;
+                        forwarding = false;
+                    } else {
+                        // The request is no longer needed once the call is done
+                        replayable = false;
+                        message = null;
+                    }
+                }
+                if (retry) {
+                    retry(usedToken, status, trailers);
+                    return;
+                }
+                flushHeaders();
+                listener.onClose(status, trailers);
+            }
+
+            private void flushHeaders() {
+                if (pendingHeaders != null) {
+                    listener.onHeaders(pendingHeaders);
+                    pendingHeaders = null;
+                }
+            }
+        }
+    }
+}
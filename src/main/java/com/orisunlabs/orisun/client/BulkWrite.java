@@ -0,0 +1,142 @@
+package com.orisunlabs.orisun.client;
+
+import com.google.protobuf.CodedOutputStream;
+import com.orisun.eventstore.Eventstore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Splits events into requests under a size limit and sends them with a bounded number in flight,
+ * starting the next request as each one completes.
+ */
+final class BulkWrite {
+    private static final int BOUNDARY_FIELD = 1;
+    private static final int EVENTS_FIELD = 3;
+
+    private final List<Eventstore.SaveEventsRequest> chunks;
+    private final int[] firstEventIndexes;
+    private final int maxInFlight;
+    private final Function<Eventstore.SaveEventsRequest, CompletableFuture<Eventstore.WriteResult>> sender;
+    private final AtomicReferenceArray<BulkWriteResult.Chunk> results;
+    private final AtomicInteger nextChunk = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final CompletableFuture<BulkWriteResult> done = new CompletableFuture<>();
+    private volatile boolean failed;
+
+    BulkWrite(List<Eventstore.SaveEventsRequest> chunks, int maxInFlight,
+              Function<Eventstore.SaveEventsRequest, CompletableFuture<Eventstore.WriteResult>> sender) {
+        this.chunks = chunks;
+        this.maxInFlight = maxInFlight;
+        this.sender = sender;
+        this.results = new AtomicReferenceArray<>(chunks.size());
+        this.remaining = new AtomicInteger(chunks.size());
+        this.firstEventIndexes = new int[chunks.size()];
+        for (int i = 1; i < chunks.size(); i++) {
+            firstEventIndexes[i] = firstEventIndexes[i - 1] + chunks.get(i - 1).getEventsCount();
+        }
+    }
+
+    /**
+     * Split events into the fewest requests in order, each as large as fits in
+     * {@code maxRequestSize} bytes. Sizes are added up event by event from their serialized sizes,
+     * without serializing anything.
+     *
+     * @param reservedPerEvent Bytes each event may still grow by once sent, such as the
+     *                         {@code traceparent} tracing adds to its metadata
+     * @throws OrisunException if a single event does not fit in a request
+     */
+    static List<Eventstore.SaveEventsRequest> split(String boundary, List<Eventstore.EventToSave> events,
+                                                    int maxRequestSize, int reservedPerEvent) {
+        final int baseSize = CodedOutputStream.computeStringSize(BOUNDARY_FIELD, boundary);
+        final List<Eventstore.SaveEventsRequest> chunks = new ArrayList<>();
+        int start = 0;
+        int size = baseSize;
+        for (int i = 0; i < events.size(); i++) {
+            // Tag, length and the event itself
+            final int eventSize = CodedOutputStream.computeMessageSize(EVENTS_FIELD, events.get(i))
+                    + reservedPerEvent;
+            if (baseSize + eventSize > maxRequestSize) {
+                throw new OrisunException("Event at index " + i + " is larger than the maximum request size")
+                        .addContext("operation", "saveEventsInBulk")
+                        .addContext("eventIndex", i)
+                        .addContext("eventSize", eventSize)
+                        .addContext("maxRequestSize", maxRequestSize);
+            }
+            if (size + eventSize > maxRequestSize) {
+                chunks.add(request(boundary, events.subList(start, i)));
+                start = i;
+                size = baseSize;
+            }
+            size += eventSize;
+        }
+        chunks.add(request(boundary, events.subList(start, events.size())));
+        return chunks;
+    }
+
+    private static Eventstore.SaveEventsRequest request(String boundary, List<Eventstore.EventToSave> events) {
+        return Eventstore.SaveEventsRequest.newBuilder()
+                .setBoundary(boundary)
+                .addAllEvents(events)
+                .build();
+    }
+
+    CompletableFuture<BulkWriteResult> start() {
+        for (int i = 0; i < Math.min(maxInFlight, chunks.size()); i++) {
+            sendNext();
+        }
+        return done;
+    }
+
+    private void sendNext() {
+        int index;
+        while ((index = nextChunk.getAndIncrement()) < chunks.size()) {
+            if (!failed) {
+                send(index);
+                return;
+            }
+            // An earlier chunk failed, the rest are not sent
+            finish(index, null, null);
+        }
+    }
+
+    private void send(int index) {
+        final CompletableFuture<Eventstore.WriteResult> response;
+        try {
+            response = sender.apply(chunks.get(index));
+        } catch (RuntimeException e) {
+            failed = true;
+            finish(index, null, e);
+            sendNext();
+            return;
+        }
+        response.whenComplete((result, error) -> {
+            if (error != null) {
+                failed = true;
+                finish(index, null, error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                finish(index, result, null);
+            }
+            sendNext();
+        });
+    }
+
+    private void finish(int index, Eventstore.WriteResult result, Throwable error) {
+        final Eventstore.SaveEventsRequest chunk = chunks.get(index);
+        results.set(index, new BulkWriteResult.Chunk(firstEventIndexes[index], chunk.getEventsCount(),
+                chunk.getSerializedSize(), result, error));
+        if (remaining.decrementAndGet() == 0) {
+            final List<BulkWriteResult.Chunk> chunkResults = new ArrayList<>(chunks.size());
+            for (int i = 0; i < chunks.size(); i++) {
+                chunkResults.add(results.get(i));
+            }
+            done.complete(new BulkWriteResult(chunkResults));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.orisunlabs.orisun.client;
+
+/**
+ * Options of {@link OrisunClient#saveEventsInBulk}: how large each request may grow and how many
+ * are sent at once.
+ */
+public class BulkWriteOptions {
+    /**
+     * gRPC's default maximum message size, less some room to spare. The {@code traceparent} tracing
+     * may add to each event's metadata is reserved per event when splitting, on top of this.
+     */
+    static final int DEFAULT_MAX_REQUEST_SIZE = 4 * 1024 * 1024 - 64 * 1024;
+
+    private final int maxRequestSize;
+    private final int maxInFlightChunks;
+
+    public static class Builder {
+        private int maxRequestSize = DEFAULT_MAX_REQUEST_SIZE;
+        private int maxInFlightChunks = 1;
+
+        /**
+         * Maximum serialized size of each request, in bytes, including the {@code traceparent}
+         * tracing adds to event metadata when enabled. Set it below the server's maximum message
+         * size. Defaults to 64 KiB under gRPC's default of 4 MiB.
+         */
+        public Builder withMaxRequestSize(int bytes) {
+            if (bytes <= 0) {
+                throw new IllegalArgumentException("bytes must be positive");
+            }
+            this.maxRequestSize = bytes;
+            return this;
+        }
+
+        /**
+         * Number of requests sent without waiting for the previous ones to complete. Defaults to
+         * 1, writing the requests one after the other in the order of the events. With more, the
+         * server may commit later chunks before earlier ones, so the events are no longer stored
+         * in their order, and a failed chunk can leave later chunks already written.
+         */
+        public Builder withMaxInFlightChunks(int chunks) {
+            if (chunks <= 0) {
+                throw new IllegalArgumentException("chunks must be positive");
+            }
+            this.maxInFlightChunks = chunks;
+            return this;
+        }
+
+        public BulkWriteOptions build() {
+            return new BulkWriteOptions(this);
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the default options
+     */
+    public static BulkWriteOptions defaults() {
+        return newBuilder().build();
+    }
+
+    private BulkWriteOptions(Builder builder) {
+        this.maxRequestSize = builder.maxRequestSize;
+        this.maxInFlightChunks = builder.maxInFlightChunks;
+    }
+
+    public int getMaxRequestSize() {
+        return maxRequestSize;
+    }
+
+    public int getMaxInFlightChunks() {
+        return maxInFlightChunks;
+    }
+}
@@ -0,0 +1,136 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.Eventstore;
+
+import java.util.List;
+
+/**
+ * Outcome of {@link OrisunClient#saveEventsInBulk}, one {@link Chunk} per request the events were
+ * split into, in the order of the events.
+ * <p>
+ * Chunks are written independently: when one fails, the chunks already written stay written and
+ * the chunks not yet sent are not sent.
+ */
+public class BulkWriteResult {
+    private final List<Chunk> chunks;
+
+    /**
+     * The result of one request of a bulk write.
+     */
+    public static final class Chunk {
+        private final int firstEventIndex;
+        private final int eventCount;
+        private final int requestSize;
+        private final Eventstore.WriteResult result;
+        private final Throwable error;
+
+        Chunk(int firstEventIndex, int eventCount, int requestSize, Eventstore.WriteResult result, Throwable error) {
+            this.firstEventIndex = firstEventIndex;
+            this.eventCount = eventCount;
+            this.requestSize = requestSize;
+            this.result = result;
+            this.error = error;
+        }
+
+        /**
+         * @return the index, in the events given, of the chunk's first event
+         */
+        public int getFirstEventIndex() {
+            return firstEventIndex;
+        }
+
+        public int getEventCount() {
+            return eventCount;
+        }
+
+        /**
+         * @return the serialized size of the chunk's request, in bytes, before tracing adds to
+         * event metadata
+         */
+        public int getRequestSize() {
+            return requestSize;
+        }
+
+        public boolean isWritten() {
+            return result != null;
+        }
+
+        /**
+         * @return true if the chunk was not sent because an earlier chunk failed
+         */
+        public boolean isSkipped() {
+            return result == null && error == null;
+        }
+
+        /**
+         * @return the write result, null unless the chunk was written
+         */
+        public Eventstore.WriteResult getResult() {
+            return result;
+        }
+
+        /**
+         * @return why the chunk failed, null unless it was sent and failed
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "Chunk{events=" + firstEventIndex + ".." + (firstEventIndex + eventCount - 1)
+                    + ", bytes=" + requestSize
+                    + (isWritten() ? ", written" : isSkipped() ? ", skipped" : ", failed: " + error) + "}";
+        }
+    }
+
+    BulkWriteResult(List<Chunk> chunks) {
+        this.chunks = List.copyOf(chunks);
+    }
+
+    public List<Chunk> getChunks() {
+        return chunks;
+    }
+
+    /**
+     * @return true if every chunk was written
+     */
+    public boolean isComplete() {
+        for (Chunk chunk : chunks) {
+            if (!chunk.isWritten()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of events written
+     */
+    public int getWrittenEventCount() {
+        int written = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.isWritten()) {
+                written += chunk.getEventCount();
+            }
+        }
+        return written;
+    }
+
+    /**
+     * @return the error of the first failed chunk, null if none failed
+     */
+    public Throwable getFirstError() {
+        for (Chunk chunk : chunks) {
+            if (chunk.getError() != null) {
+                return chunk.getError();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkWriteResult" + chunks;
+    }
+}
@@ -0,0 +1,190 @@
+package com.orisunlabs.orisun.client;
+
+import java.util.function.Consumer;
+
+/**
+ * Circuit breaker guarding a single endpoint (subchannel address).
+ * <p>
+ * While {@link State#CLOSED} the breaker records the outcome of every unary call in a count based
+ * sliding window. When the failure rate or the slow call rate crosses the configured threshold it
+ * opens and the endpoint no longer receives traffic. After the open duration the breaker moves to
+ * {@link State#HALF_OPEN}, a single {@code ping} probe is sent and its outcome decides whether the
+ * breaker closes again or re-opens.
+ */
+public class CircuitBreaker {
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String endpoint;
+    private final CircuitBreakerConfig config;
+    private final byte[] window;
+
+    // Guarded by "this"
+    private int nextIndex;
+    private int recordedCalls;
+    private int failedCalls;
+    private int slowCalls;
+    private long openedAtNanos;
+
+    private volatile State state = State.CLOSED;
+    private volatile Consumer<CircuitBreaker> openListener;
+
+    CircuitBreaker(String endpoint, CircuitBreakerConfig config) {
+        this.endpoint = endpoint;
+        this.config = config;
+        this.window = new byte[config.getSlidingWindowSize()];
+    }
+
+    /**
+     * @return true if the endpoint may receive regular traffic
+     */
+    public boolean allowsTraffic() {
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Record the outcome of a call made to this endpoint.
+     *
+     * @param failed        whether the call failed in a way attributable to the endpoint
+     * @param durationNanos how long the call took
+     */
+    void record(boolean failed, long durationNanos) {
+        Consumer<CircuitBreaker> listener = null;
+
+        synchronized (this) {
+            if (state != State.CLOSED) {
+                return;
+            }
+
+            byte outcome = 0;
+            if (failed) {
+                outcome |= FAILURE;
+            }
+            if (durationNanos >= config.getSlowCallDurationNanos()) {
+                outcome |= SLOW;
+            }
+
+            if (recordedCalls == window.length) {
+                byte evicted = window[nextIndex];
+                if ((evicted & FAILURE) != 0) {
+                    failedCalls--;
+                }
+                if ((evicted & SLOW) != 0) {
+                    slowCalls--;
+                }
+            } else {
+                recordedCalls++;
+            }
+
+            window[nextIndex] = outcome;
+            nextIndex = (nextIndex + 1) % window.length;
+            if ((outcome & FAILURE) != 0) {
+                failedCalls++;
+            }
+            if ((outcome & SLOW) != 0) {
+                slowCalls++;
+            }
+
+            if (recordedCalls >= config.getMinimumCalls()
+                    && (rate(failedCalls) >= config.getFailureRateThreshold()
+                    || rate(slowCalls) >= config.getSlowCallRateThreshold())) {
+                open();
+                listener = openListener;
+            }
+        }
+
+        if (listener != null) {
+            listener.accept(this);
+        }
+    }
+
+    /**
+     * Move an open breaker whose open duration has elapsed to half-open.
+     *
+     * @return true if the caller should now send a probe
+     */
+    synchronized boolean tryStartProbe() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= config.getOpenDurationNanos()) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Complete a half-open probe.
+     *
+     * @param healthy whether the probe succeeded
+     */
+    void onProbeResult(boolean healthy) {
+        Consumer<CircuitBreaker> listener = null;
+
+        synchronized (this) {
+            if (state != State.HALF_OPEN) {
+                return;
+            }
+            if (healthy) {
+                reset();
+                state = State.CLOSED;
+            } else {
+                open();
+                listener = openListener;
+            }
+        }
+
+        if (listener != null) {
+            listener.accept(this);
+        }
+    }
+
+    void setOpenListener(Consumer<CircuitBreaker> openListener) {
+        this.openListener = openListener;
+    }
+
+    private void open() {
+        reset();
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+    }
+
+    private void reset() {
+        nextIndex = 0;
+        recordedCalls = 0;
+        failedCalls = 0;
+        slowCalls = 0;
+    }
+
+    private float rate(int calls) {
+        return recordedCalls == 0 ? 0 : calls * 100f / recordedCalls;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return failure rate in percent over the current window
+     */
+    public synchronized float getFailureRate() {
+        return rate(failedCalls);
+    }
+
+    /**
+     * @return slow call rate in percent over the current window
+     */
+    public synchronized float getSlowCallRate() {
+        return rate(slowCalls);
+    }
+
+    CircuitBreakerConfig getConfig() {
+        return config;
+    }
+}
@@ -0,0 +1,125 @@
+package com.orisunlabs.orisun.client;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thresholds for the per-endpoint circuit breakers.
+ * <p>
+ * Every endpoint keeps a count based sliding window of its most recent unary calls. Once at
+ * least {@code minimumCalls} outcomes are recorded and either the failure rate or the slow call
+ * rate crosses its threshold, the endpoint is ejected from load balancing for
+ * {@code openDuration}, after which it is probed with a {@code ping} before receiving traffic again.
+ */
+public class CircuitBreakerConfig {
+    private final int slidingWindowSize;
+    private final int minimumCalls;
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final long openDurationNanos;
+    private final long probeTimeoutNanos;
+
+    public static class Builder {
+        private int slidingWindowSize = 50;
+        private int minimumCalls = 10;
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 80;
+        private long slowCallDurationNanos = TimeUnit.SECONDS.toNanos(2);
+        private long openDurationNanos = TimeUnit.SECONDS.toNanos(30);
+        private long probeTimeoutNanos = TimeUnit.SECONDS.toNanos(2);
+
+        public Builder withSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+            return this;
+        }
+
+        public Builder withMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * @param percent failure rate (0-100) at which an endpoint is ejected
+         */
+        public Builder withFailureRateThreshold(float percent) {
+            this.failureRateThreshold = percent;
+            return this;
+        }
+
+        /**
+         * @param percent slow call rate (0-100) at which an endpoint is ejected
+         */
+        public Builder withSlowCallRateThreshold(float percent) {
+            this.slowCallRateThreshold = percent;
+            return this;
+        }
+
+        public Builder withSlowCallDuration(long duration, TimeUnit unit) {
+            this.slowCallDurationNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        public Builder withOpenDuration(long duration, TimeUnit unit) {
+            this.openDurationNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        public Builder withProbeTimeout(long duration, TimeUnit unit) {
+            this.probeTimeoutNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        public CircuitBreakerConfig build() {
+            if (slidingWindowSize < 1 || minimumCalls < 1 || minimumCalls > slidingWindowSize) {
+                throw new IllegalArgumentException("Window size and minimum calls must satisfy 1 <= minimumCalls <= slidingWindowSize");
+            }
+            if (failureRateThreshold <= 0 || failureRateThreshold > 100
+                    || slowCallRateThreshold <= 0 || slowCallRateThreshold > 100) {
+                throw new IllegalArgumentException("Rate thresholds must be in (0, 100]");
+            }
+            return new CircuitBreakerConfig(this);
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    private CircuitBreakerConfig(Builder builder) {
+        this.slidingWindowSize = builder.slidingWindowSize;
+        this.minimumCalls = builder.minimumCalls;
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallDurationNanos = builder.slowCallDurationNanos;
+        this.openDurationNanos = builder.openDurationNanos;
+        this.probeTimeoutNanos = builder.probeTimeoutNanos;
+    }
+
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public float getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public float getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public long getSlowCallDurationNanos() {
+        return slowCallDurationNanos;
+    }
+
+    public long getOpenDurationNanos() {
+        return openDurationNanos;
+    }
+
+    public long getProbeTimeoutNanos() {
+        return probeTimeoutNanos;
+    }
+}
@@ -0,0 +1,354 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import io.grpc.*;
+import io.grpc.stub.StreamObserver;
+import io.grpc.util.ForwardingClientStreamTracer;
+import io.grpc.util.ForwardingLoadBalancerHelper;
+import io.grpc.util.ForwardingSubchannel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load balancing policy that wraps a child policy (round_robin, pick_first, ...) with per-endpoint
+ * circuit breakers.
+ * <p>
+ * Outcomes of unary calls are recorded per subchannel address through a stream tracer attached at
+ * pick time. When the child picks an endpoint whose breaker is not closed, the call goes to one of
+ * the child's READY endpoints whose breaker is, in turn; when there is none, calls fail fast with
+ * {@code UNAVAILABLE} instead of waiting out their deadline.
+ */
+class CircuitBreakerLoadBalancer extends LoadBalancer {
+    static final String POLICY_NAME = "orisun_circuit_breaker";
+
+    private static final AtomicBoolean REGISTERED = new AtomicBoolean();
+    private static final ClientStreamTracer NOOP_TRACER = new ClientStreamTracer() {
+    };
+
+    private final Helper helper;
+    private final Map<String, Subchannel> subchannels = new ConcurrentHashMap<>();
+    private CircuitBreakerRegistry registry;
+    private LoadBalancerProvider childProvider;
+    private LoadBalancer child;
+    private volatile boolean shutdown;
+
+    /**
+     * Register the policy with the default registry so channels can select it through their
+     * service config. Safe to call more than once.
+     */
+    static void register() {
+        if (REGISTERED.compareAndSet(false, true)) {
+            LoadBalancerRegistry.getDefaultRegistry().register(new Provider());
+        }
+    }
+
+    private CircuitBreakerLoadBalancer(Helper helper) {
+        this.helper = helper;
+    }
+
+    @Override
+    public Status acceptResolvedAddresses(ResolvedAddresses resolvedAddresses) {
+        PolicyConfig config = (PolicyConfig) resolvedAddresses.getLoadBalancingPolicyConfig();
+        registry = config.registry;
+
+        if (child == null || !childProvider.equals(config.childProvider)) {
+            if (child != null) {
+                child.shutdown();
+            }
+            childProvider = config.childProvider;
+            child = childProvider.newLoadBalancer(new BreakerHelper());
+        }
+
+        return child.acceptResolvedAddresses(resolvedAddresses.toBuilder()
+                .setLoadBalancingPolicyConfig(config.childConfig)
+                .build());
+    }
+
+    @Override
+    public void handleNameResolutionError(Status error) {
+        if (child != null) {
+            child.handleNameResolutionError(error);
+        } else {
+            helper.updateBalancingState(ConnectivityState.TRANSIENT_FAILURE,
+                    new FixedResultPicker(PickResult.withError(error)));
+        }
+    }
+
+    @Override
+    public void requestConnection() {
+        if (child != null) {
+            child.requestConnection();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        if (child != null) {
+            child.shutdown();
+        }
+    }
+
+    private static String endpointOf(List<EquivalentAddressGroup> groups) {
+        if (groups.isEmpty() || groups.get(0).getAddresses().isEmpty()) {
+            return "unknown";
+        }
+        return groups.get(0).getAddresses().get(0).toString();
+    }
+
+    private void scheduleProbe(CircuitBreaker breaker) {
+        if (shutdown) {
+            return;
+        }
+        helper.getScheduledExecutorService().schedule(
+                () -> helper.getSynchronizationContext().execute(() -> probe(breaker)),
+                breaker.getConfig().getOpenDurationNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void probe(CircuitBreaker breaker) {
+        if (shutdown || !breaker.tryStartProbe()) {
+            return;
+        }
+
+        Subchannel subchannel = subchannels.get(breaker.getEndpoint());
+        if (subchannel == null) {
+            // The endpoint disappeared from resolution; keep it open until it comes back
+            breaker.onProbeResult(false);
+            return;
+        }
+
+        Channel probeChannel = ClientInterceptors.intercept(subchannel.asChannel(), registry.getProbeInterceptors());
+        EventStoreGrpc.newStub(probeChannel)
+                .withDeadlineAfter(breaker.getConfig().getProbeTimeoutNanos(), TimeUnit.NANOSECONDS)
+                .ping(Eventstore.PingRequest.getDefaultInstance(), new StreamObserver<>() {
+                    @Override
+                    public void onNext(Eventstore.PingResponse value) {
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        breaker.onProbeResult(false);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        breaker.onProbeResult(true);
+                    }
+                });
+    }
+
+    private static boolean isEndpointFailure(Status.Code code) {
+        return switch (code) {
+            case UNAVAILABLE, DEADLINE_EXCEEDED, INTERNAL, UNKNOWN, DATA_LOSS -> true;
+            default -> false;
+        };
+    }
+
+    private final class BreakerHelper extends ForwardingLoadBalancerHelper {
+        @Override
+        protected Helper delegate() {
+            return helper;
+        }
+
+        @Override
+        public Subchannel createSubchannel(CreateSubchannelArgs args) {
+            return new TrackedSubchannel(helper.createSubchannel(args), endpointOf(args.getAddresses()));
+        }
+
+        @Override
+        public void updateBalancingState(ConnectivityState newState, SubchannelPicker newPicker) {
+            final List<TrackedSubchannel> ready = new ArrayList<>();
+            for (Subchannel subchannel : subchannels.values()) {
+                if (subchannel instanceof TrackedSubchannel tracked && tracked.state == ConnectivityState.READY) {
+                    ready.add(tracked);
+                }
+            }
+            helper.updateBalancingState(newState, new BreakerPicker(newPicker, ready));
+        }
+    }
+
+    private final class TrackedSubchannel extends ForwardingSubchannel {
+        private final Subchannel delegate;
+        private volatile String endpoint;
+        private volatile CircuitBreaker breaker;
+        private volatile ConnectivityState state = ConnectivityState.IDLE;
+
+        TrackedSubchannel(Subchannel delegate, String endpoint) {
+            this.delegate = delegate;
+            track(endpoint);
+        }
+
+        private void track(String endpoint) {
+            this.endpoint = endpoint;
+            this.breaker = registry.breakerFor(endpoint);
+            this.breaker.setOpenListener(CircuitBreakerLoadBalancer.this::scheduleProbe);
+            subchannels.put(endpoint, this);
+        }
+
+        @Override
+        protected Subchannel delegate() {
+            return delegate;
+        }
+
+        @Override
+        public void start(SubchannelStateListener listener) {
+            super.start(stateInfo -> {
+                // Recorded before the child sees it, so the picker it builds next knows it
+                state = stateInfo.getState();
+                listener.onSubchannelState(stateInfo);
+            });
+        }
+
+        @Override
+        public void updateAddresses(List<EquivalentAddressGroup> addrs) {
+            subchannels.remove(endpoint, this);
+            track(endpointOf(addrs));
+            super.updateAddresses(addrs);
+        }
+
+        @Override
+        public void shutdown() {
+            subchannels.remove(endpoint, this);
+            super.shutdown();
+        }
+    }
+
+    /**
+     * Keeps the child's pick when its breaker allows traffic. Otherwise the call goes to the next
+     * READY endpoint allowed, rather than picking from the child again: pick_first always picks the
+     * same endpoint, and round_robin's position is shared with concurrent picks.
+     */
+    private final class BreakerPicker extends SubchannelPicker {
+        private final SubchannelPicker delegate;
+        private final List<TrackedSubchannel> ready;
+        private final AtomicInteger next = new AtomicInteger();
+
+        BreakerPicker(SubchannelPicker delegate, List<TrackedSubchannel> ready) {
+            this.delegate = delegate;
+            this.ready = ready;
+        }
+
+        @Override
+        public PickResult pickSubchannel(PickSubchannelArgs args) {
+            boolean unary = args.getMethodDescriptor().getType() == MethodDescriptor.MethodType.UNARY;
+            PickResult result = delegate.pickSubchannel(args);
+            if (!(result.getSubchannel() instanceof TrackedSubchannel subchannel)) {
+                return result;
+            }
+            if (subchannel.breaker.allowsTraffic()) {
+                return unary ? withOutcome(subchannel, result.getStreamTracerFactory()) : result;
+            }
+
+            for (int i = 0; i < ready.size(); i++) {
+                TrackedSubchannel candidate = ready.get(Math.floorMod(next.getAndIncrement(), ready.size()));
+                if (candidate != subchannel && candidate.breaker.allowsTraffic()) {
+                    // Long lived streams would always count as slow calls
+                    return unary ? withOutcome(candidate, null) : PickResult.withSubchannel(candidate);
+                }
+            }
+
+            return PickResult.withError(Status.UNAVAILABLE
+                    .withDescription("All endpoints are ejected by their circuit breakers"));
+        }
+
+        private PickResult withOutcome(TrackedSubchannel subchannel, ClientStreamTracer.Factory tracerFactory) {
+            return PickResult.withSubchannel(subchannel, new OutcomeTracerFactory(subchannel.breaker, tracerFactory));
+        }
+    }
+
+    private static final class OutcomeTracerFactory extends ClientStreamTracer.Factory {
+        private final CircuitBreaker breaker;
+        private final ClientStreamTracer.Factory delegate;
+
+        OutcomeTracerFactory(CircuitBreaker breaker, ClientStreamTracer.Factory delegate) {
+            this.breaker = breaker;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+            final ClientStreamTracer inner = delegate != null ? delegate.newClientStreamTracer(info, headers) : NOOP_TRACER;
+            final long startNanos = System.nanoTime();
+
+            return new ForwardingClientStreamTracer() {
+                @Override
+                protected ClientStreamTracer delegate() {
+                    return inner;
+                }
+
+                @Override
+                public void streamClosed(Status status) {
+                    breaker.record(isEndpointFailure(status.getCode()), System.nanoTime() - startNanos);
+                    super.streamClosed(status);
+                }
+            };
+        }
+    }
+
+    private static final class PolicyConfig {
+        final CircuitBreakerRegistry registry;
+        final LoadBalancerProvider childProvider;
+        final Object childConfig;
+
+        PolicyConfig(CircuitBreakerRegistry registry, LoadBalancerProvider childProvider, Object childConfig) {
+            this.registry = registry;
+            this.childProvider = childProvider;
+            this.childConfig = childConfig;
+        }
+    }
+
+    static final class Provider extends LoadBalancerProvider {
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public int getPriority() {
+            return 5;
+        }
+
+        @Override
+        public String getPolicyName() {
+            return POLICY_NAME;
+        }
+
+        @Override
+        public LoadBalancer newLoadBalancer(Helper helper) {
+            return new CircuitBreakerLoadBalancer(helper);
+        }
+
+        @Override
+        public NameResolver.ConfigOrError parseLoadBalancingPolicyConfig(Map<String, ?> rawConfig) {
+            Object registryId = rawConfig.get("registryId");
+            CircuitBreakerRegistry registry = registryId instanceof String id ? CircuitBreakerRegistry.lookup(id) : null;
+            if (registry == null) {
+                return NameResolver.ConfigOrError.fromError(Status.INTERNAL
+                        .withDescription("Unknown circuit breaker registry: " + registryId));
+            }
+
+            Object childPolicy = rawConfig.get("childPolicy");
+            LoadBalancerProvider childProvider = LoadBalancerRegistry.getDefaultRegistry()
+                    .getProvider(childPolicy instanceof String name ? name : "pick_first");
+            if (childProvider == null) {
+                return NameResolver.ConfigOrError.fromError(Status.INTERNAL
+                        .withDescription("Unknown child load balancing policy: " + childPolicy));
+            }
+
+            NameResolver.ConfigOrError childConfig = childProvider.parseLoadBalancingPolicyConfig(Map.of());
+            if (childConfig.getError() != null) {
+                return childConfig;
+            }
+
+            return NameResolver.ConfigOrError.fromConfig(
+                    new PolicyConfig(registry, childProvider, childConfig.getConfig()));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.orisunlabs.orisun.client;
+
+import io.grpc.ClientInterceptor;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the circuit breakers of one client, keyed by endpoint address.
+ * <p>
+ * The breakers are driven by the {@code orisun_circuit_breaker} load balancing policy, which finds
+ * its registry through the id embedded in the channel's service config.
+ */
+public class CircuitBreakerRegistry implements AutoCloseable {
+    private static final ConcurrentMap<String, CircuitBreakerRegistry> REGISTRIES = new ConcurrentHashMap<>();
+
+    private final String id = UUID.randomUUID().toString();
+    private final CircuitBreakerConfig config;
+    private final List<ClientInterceptor> probeInterceptors;
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    CircuitBreakerRegistry(CircuitBreakerConfig config, List<ClientInterceptor> probeInterceptors) {
+        this.config = config;
+        this.probeInterceptors = List.copyOf(probeInterceptors);
+        REGISTRIES.put(id, this);
+    }
+
+    static CircuitBreakerRegistry lookup(String id) {
+        return REGISTRIES.get(id);
+    }
+
+    CircuitBreaker breakerFor(String endpoint) {
+        return breakers.computeIfAbsent(endpoint, key -> new CircuitBreaker(key, config));
+    }
+
+    /**
+     * Service config selecting the circuit breaking policy on top of the given child policy.
+     */
+    Map<String, ?> serviceConfig(String childPolicy) {
+        Map<String, Object> policyConfig = new HashMap<>();
+        policyConfig.put("registryId", id);
+        policyConfig.put("childPolicy", childPolicy);
+
+        return Map.of("loadBalancingConfig",
+                List.of(Map.of(CircuitBreakerLoadBalancer.POLICY_NAME, policyConfig)));
+    }
+
+    List<ClientInterceptor> getProbeInterceptors() {
+        return probeInterceptors;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    /**
+     * Get the breaker of an endpoint
+     *
+     * @param endpoint The endpoint address
+     * @return The breaker, or null if the endpoint is unknown
+     */
+    public CircuitBreaker get(String endpoint) {
+        return breakers.get(endpoint);
+    }
+
+    /**
+     * @return the current state of every known endpoint
+     */
+    public Map<String, CircuitBreaker.State> getStates() {
+        Map<String, CircuitBreaker.State> states = new HashMap<>();
+        breakers.forEach((endpoint, breaker) -> states.put(endpoint, breaker.getState()));
+        return states;
+    }
+
+    @Override
+    public void close() {
+        REGISTRIES.remove(id);
+    }
+}
@@ -0,0 +1,130 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.Eventstore;
+import io.grpc.ConnectivityState;
+import io.grpc.Deadline;
+import io.grpc.ManagedChannel;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the warm-up phase of an {@link OrisunClient} on a background thread. Every call it makes
+ * runs under the time left of the warm-up timeout, so a slow server fails warm-up on time.
+ */
+class ClientWarmup {
+
+    private ClientWarmup() {
+    }
+
+    /**
+     * Start warming up a client.
+     *
+     * @param client        The client to warm up
+     * @param channel       The client's channel
+     * @param options       The warm-up options
+     * @param endpointCount Number of configured endpoints, used as the default ping count
+     * @param logger        The client's logger
+     * @return a future completing once the client is ready, or exceptionally if warm-up failed
+     */
+    static CompletableFuture<Void> start(OrisunClient client, ManagedChannel channel, WarmupOptions options,
+                                         int endpointCount, Logger logger) {
+        return CompletableFuture.runAsync(() -> run(client, channel, options, endpointCount, logger), runnable -> {
+            Thread thread = new Thread(runnable, "orisun-client-warmup");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    private static void run(OrisunClient client, ManagedChannel channel, WarmupOptions options,
+                            int endpointCount, Logger logger) {
+        final long startNanos = System.nanoTime();
+        final Deadline deadline = Deadline.after(options.getTimeoutNanos(), TimeUnit.NANOSECONDS);
+
+        awaitReady(channel, deadline);
+        logger.debug("Warm-up: channel ready after {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+
+        // Each ping goes through the interceptor chain, so the first response also caches the auth token
+        final int pings = options.getPingCount() > 0 ? options.getPingCount() : Math.max(1, endpointCount);
+        for (int i = 0; i < pings; i++) {
+            checkDeadline(deadline, "ping");
+            try {
+                client.ping(deadline);
+            } catch (OrisunException e) {
+                throw deadline.isExpired() ? timeout("ping", e) : e;
+            }
+        }
+
+        final Eventstore.GetEventsRequest syntheticRequest = options.getSyntheticCalls() > 0
+                ? Eventstore.GetEventsRequest.newBuilder()
+                .setBoundary(options.getSyntheticBoundary())
+                .setCount(1)
+                .build()
+                : null;
+        int failedSyntheticCalls = 0;
+        for (int i = 0; i < options.getSyntheticCalls(); i++) {
+            checkDeadline(deadline, "synthetic");
+            try {
+                client.getEvents(syntheticRequest, deadline);
+            } catch (OrisunException e) {
+                if (deadline.isExpired()) {
+                    throw timeout("synthetic", e);
+                }
+                failedSyntheticCalls++;
+            }
+        }
+
+        logger.info("OrisunClient warmed up in {} ms ({} pings, {} synthetic calls, {} failed)",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), pings,
+                options.getSyntheticCalls(), failedSyntheticCalls);
+    }
+
+    private static void awaitReady(ManagedChannel channel, Deadline deadline) {
+        ConnectivityState state = channel.getState(true);
+        while (state != ConnectivityState.READY) {
+            if (state == ConnectivityState.SHUTDOWN) {
+                throw failure("Channel was shut down during warm-up", "connect");
+            }
+
+            CountDownLatch changed = new CountDownLatch(1);
+            channel.notifyWhenStateChanged(state, changed::countDown);
+            try {
+                long remaining = deadline.timeRemaining(TimeUnit.NANOSECONDS);
+                if (remaining <= 0 || !changed.await(remaining, TimeUnit.NANOSECONDS)) {
+                    throw failure("Timed out waiting for the channel to become ready (last state: " + state + ")",
+                            "connect");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw failure("Interrupted while waiting for the channel to become ready", "connect");
+            }
+
+            // Keep asking for a connection, an idle or failed channel will not reconnect on its own
+            state = channel.getState(true);
+        }
+    }
+
+    private static void checkDeadline(Deadline deadline, String phase) {
+        if (deadline.isExpired()) {
+            throw timeout(phase, null);
+        }
+    }
+
+    private static OrisunException timeout(String phase, Throwable cause) {
+        return failure("Warm-up timed out", phase, cause);
+    }
+
+    private static OrisunException failure(String message, String phase) {
+        return failure(message, phase, null);
+    }
+
+    private static OrisunException failure(String message, String phase, Throwable cause) {
+        Map<String, Object> context = new HashMap<>();
+        context.put("operation", "warmup");
+        context.put("phase", phase);
+        return new OrisunException(message, cause, context);
+    }
+}
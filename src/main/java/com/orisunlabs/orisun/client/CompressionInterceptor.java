@@ -0,0 +1,108 @@
+package com.orisunlabs.orisun.client;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies a {@link CompressionPolicy} per method: names the compressor on the call and sends
+ * messages below the policy's minimum size uncompressed.
+ * <p>
+ * With metrics enabled, the bytes of compressed methods are counted before and after compression,
+ * tagged method and direction ({@code outbound} or {@code inbound}):
+ * <ul>
+ *     <li>{@value #UNCOMPRESSED_BYTES}: serialized message sizes</li>
+ *     <li>{@value #WIRE_BYTES}: sizes as sent or received, compressed or not</li>
+ * </ul>
+ * Their ratio is the compression ratio achieved.
+ */
+class CompressionInterceptor implements ClientInterceptor {
+    static final String UNCOMPRESSED_BYTES = "orisun.client.compression.uncompressed.bytes";
+    static final String WIRE_BYTES = "orisun.client.compression.wire.bytes";
+
+    private final Map<String, CompressionPolicy> policies;
+    private final MetricsRegistry registry;
+    private final ConcurrentHashMap<String, ClientStreamTracer.Factory> tracers = new ConcurrentHashMap<>();
+
+    /**
+     * @param policies Policies by full method name
+     */
+    CompressionInterceptor(Map<String, CompressionPolicy> policies, MetricsRegistry registry) {
+        this.policies = Map.copyOf(policies);
+        this.registry = registry;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+            MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        final CompressionPolicy policy = policies.get(method.getFullMethodName());
+        if (policy == null) {
+            return next.newCall(method, callOptions);
+        }
+
+        CallOptions options = callOptions.withCompression(policy.getCompressor());
+        if (registry != MetricsRegistry.noop()) {
+            options = options.withStreamTracerFactory(tracerFor(method));
+        }
+        final int minMessageSize = policy.getMinMessageSize();
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, options)) {
+            @Override
+            public void sendMessage(ReqT message) {
+                // Serialized sizes are memoized, so sending the message does not compute it again
+                delegate().setMessageCompression(
+                        !(message instanceof MessageLite lite) || lite.getSerializedSize() >= minMessageSize);
+                super.sendMessage(message);
+            }
+        };
+    }
+
+    private ClientStreamTracer.Factory tracerFor(MethodDescriptor<?, ?> method) {
+        ClientStreamTracer.Factory factory = tracers.get(method.getFullMethodName());
+        if (factory == null) {
+            factory = tracers.computeIfAbsent(method.getFullMethodName(),
+                    name -> new SizeTracerFactory(method.getBareMethodName()));
+        }
+        return factory;
+    }
+
+    private final class SizeTracerFactory extends ClientStreamTracer.Factory {
+        private final MetricsRegistry.Counter outboundUncompressed;
+        private final MetricsRegistry.Counter outboundWire;
+        private final MetricsRegistry.Counter inboundUncompressed;
+        private final MetricsRegistry.Counter inboundWire;
+
+        SizeTracerFactory(String method) {
+            this.outboundUncompressed = registry.counter(UNCOMPRESSED_BYTES, "method", method, "direction", "outbound");
+            this.outboundWire = registry.counter(WIRE_BYTES, "method", method, "direction", "outbound");
+            this.inboundUncompressed = registry.counter(UNCOMPRESSED_BYTES, "method", method, "direction", "inbound");
+            this.inboundWire = registry.counter(WIRE_BYTES, "method", method, "direction", "inbound");
+        }
+
+        @Override
+        public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+            return new ClientStreamTracer() {
+                @Override
+                public void outboundUncompressedSize(long bytes) {
+                    outboundUncompressed.increment(bytes);
+                }
+
+                @Override
+                public void outboundWireSize(long bytes) {
+                    outboundWire.increment(bytes);
+                }
+
+                @Override
+                public void inboundUncompressedSize(long bytes) {
+                    inboundUncompressed.increment(bytes);
+                }
+
+                @Override
+                public void inboundWireSize(long bytes) {
+                    inboundWire.increment(bytes);
+                }
+            };
+        }
+    }
+}
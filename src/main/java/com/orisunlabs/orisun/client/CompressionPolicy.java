@@ -0,0 +1,70 @@
+package com.orisunlabs.orisun.client;
+
+/**
+ * Message compression of one kind of call, see {@link OrisunTransport.Builder#withWriteCompression}.
+ * <p>
+ * Calls name their compressor in the {@code grpc-encoding} header. The client compresses the
+ * messages it sends once they reach the minimum size; servers that follow the usual gRPC behaviour
+ * answer with the same compressor, which is where reads and subscriptions save bandwidth.
+ */
+public class CompressionPolicy {
+    private final String compressor;
+    private final int minMessageSize;
+
+    public static class Builder {
+        private String compressor = "gzip";
+        private int minMessageSize = 1024;
+
+        /**
+         * Name of the compressor, registered in the transport's {@code CompressorRegistry}. Defaults
+         * to {@code gzip}.
+         */
+        public Builder withCompressor(String compressor) {
+            if (compressor == null || compressor.isBlank()) {
+                throw new IllegalArgumentException("compressor is required");
+            }
+            this.compressor = compressor;
+            return this;
+        }
+
+        /**
+         * Send messages smaller than {@code bytes} uncompressed, as compressing them costs more than
+         * it saves. Defaults to 1 KiB.
+         */
+        public Builder withMinMessageSize(int bytes) {
+            if (bytes < 0) {
+                throw new IllegalArgumentException("bytes must not be negative");
+            }
+            this.minMessageSize = bytes;
+            return this;
+        }
+
+        public CompressionPolicy build() {
+            return new CompressionPolicy(this);
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * @return gzip compression of messages of 1 KiB or more
+     */
+    public static CompressionPolicy gzip() {
+        return newBuilder().build();
+    }
+
+    private CompressionPolicy(Builder builder) {
+        this.compressor = builder.compressor;
+        this.minMessageSize = builder.minMessageSize;
+    }
+
+    public String getCompressor() {
+        return compressor;
+    }
+
+    public int getMinMessageSize() {
+        return minMessageSize;
+    }
+}
@@ -0,0 +1,226 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.EventStoreGrpc;
+import io.grpc.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Client interceptor applying separate {@link ConcurrencyLimiter}s to read and write RPCs.
+ * <p>
+ * Calls that cannot obtain a permit are failed with {@code RESOURCE_EXHAUSTED} without ever
+ * reaching the network. Waiting for a permit never blocks the thread creating or starting a call,
+ * which may be a gRPC callback thread. Long-lived streams (subscriptions) and pings are never
+ * limited.
+ */
+class ConcurrencyLimitInterceptor implements ClientInterceptor {
+    private static final String SAVE_EVENTS = EventStoreGrpc.getSaveEventsMethod().getFullMethodName();
+    private static final String GET_EVENTS = EventStoreGrpc.getGetEventsMethod().getFullMethodName();
+    private static final String GET_LATEST_BY_CRITERIA =
+            EventStoreGrpc.getGetLatestByCriteriaMethod().getFullMethodName();
+
+    private final ConcurrencyLimiter readLimiter;
+    private final ConcurrencyLimiter writeLimiter;
+
+    ConcurrencyLimitInterceptor(ConcurrencyLimiter readLimiter, ConcurrencyLimiter writeLimiter) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+    }
+
+    private ConcurrencyLimiter limiterFor(MethodDescriptor<?, ?> method) {
+        String name = method.getFullMethodName();
+        if (SAVE_EVENTS.equals(name)) {
+            return writeLimiter;
+        }
+        if (GET_EVENTS.equals(name) || GET_LATEST_BY_CRITERIA.equals(name)) {
+            return readLimiter;
+        }
+        return null;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+            MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        final ConcurrencyLimiter limiter = limiterFor(method);
+        if (limiter == null) {
+            return next.newCall(method, callOptions);
+        }
+        return new LimitedCall<>(limiter, method, callOptions, next);
+    }
+
+    /**
+     * A call started once it holds a permit. The permit is acquired when the call is started,
+     * without blocking: a queued call is started by the thread releasing a permit, and operations
+     * issued before then are queued and replayed in order.
+     */
+    private static final class LimitedCall<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+        private final ConcurrencyLimiter limiter;
+        private final MethodDescriptor<ReqT, RespT> method;
+        private final CallOptions callOptions;
+        private final Channel next;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private Listener<RespT> listener;
+        private Metadata headers;
+
+        // Guarded by this
+        private final List<Runnable> pending = new ArrayList<>();
+        private ClientCall<ReqT, RespT> delegate;
+        private boolean passThrough;
+        private boolean cancelled;
+
+        LimitedCall(ConcurrencyLimiter limiter, MethodDescriptor<ReqT, RespT> method, CallOptions callOptions,
+                    Channel next) {
+            this.limiter = limiter;
+            this.method = method;
+            this.callOptions = callOptions;
+            this.next = next;
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            this.listener = responseListener;
+            this.headers = headers;
+            final boolean wasCancelled;
+            synchronized (this) {
+                wasCancelled = cancelled;
+            }
+            if (wasCancelled) {
+                closeLocally(Status.CANCELLED.withDescription("Call cancelled before start"));
+                return;
+            }
+            if (limiter.tryAcquire()) {
+                begin();
+                return;
+            }
+            limiter.acquireAsync().thenAccept(acquired -> {
+                if (acquired) {
+                    begin();
+                } else {
+                    closeLocally(Status.RESOURCE_EXHAUSTED
+                            .withDescription("Client concurrency limit reached (limit=" + limiter.getLimit() + ")"));
+                }
+            });
+        }
+
+        private void begin() {
+            final ClientCall<ReqT, RespT> call = next.newCall(method, callOptions);
+            synchronized (this) {
+                if (cancelled) {
+                    // Cancelled while waiting, the listener is already closed
+                    limiter.onIgnore();
+                    return;
+                }
+                delegate = call;
+            }
+
+            final long startNanos = System.nanoTime();
+            call.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(listener) {
+                @Override
+                public void onClose(Status status, Metadata trailers) {
+                    switch (status.getCode()) {
+                        case OK -> limiter.onSuccess(System.nanoTime() - startNanos);
+                        case DEADLINE_EXCEEDED, UNAVAILABLE, RESOURCE_EXHAUSTED -> limiter.onDropped();
+                        default -> limiter.onIgnore();
+                    }
+                    super.onClose(status, trailers);
+                }
+            }, headers);
+            while (true) {
+                final List<Runnable> operations;
+                synchronized (this) {
+                    if (pending.isEmpty()) {
+                        passThrough = true;
+                        return;
+                    }
+                    operations = new ArrayList<>(pending);
+                    pending.clear();
+                }
+                for (Runnable operation : operations) {
+                    operation.run();
+                }
+            }
+        }
+
+        private void callOrQueue(Runnable operation) {
+            synchronized (this) {
+                if (!passThrough) {
+                    pending.add(operation);
+                    return;
+                }
+            }
+            operation.run();
+        }
+
+        /**
+         * Complete a call that never reached the channel, exactly once.
+         */
+        private void closeLocally(Status status) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            final Runnable close = () -> listener.onClose(status, new Metadata());
+            // Blocking stubs wait for callbacks on their call executor
+            if (callOptions.getExecutor() != null) {
+                callOptions.getExecutor().execute(close);
+            } else {
+                close.run();
+            }
+        }
+
+        @Override
+        public void request(int numMessages) {
+            callOrQueue(() -> delegate.request(numMessages));
+        }
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+            final boolean wasStarted;
+            synchronized (this) {
+                cancelled = true;
+                wasStarted = delegate != null;
+            }
+            if (wasStarted) {
+                callOrQueue(() -> delegate.cancel(message, cause));
+            } else if (listener != null) {
+                closeLocally(Status.CANCELLED.withDescription(message).withCause(cause));
+            }
+        }
+
+        @Override
+        public void halfClose() {
+            callOrQueue(() -> delegate.halfClose());
+        }
+
+        @Override
+        public void sendMessage(ReqT message) {
+            callOrQueue(() -> delegate.sendMessage(message));
+        }
+
+        @Override
+        public void setMessageCompression(boolean enabled) {
+            callOrQueue(() -> delegate.setMessageCompression(enabled));
+        }
+
+        @Override
+        public boolean isReady() {
+            synchronized (this) {
+                if (!passThrough) {
+                    return false;
+                }
+            }
+            return delegate.isReady();
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            synchronized (this) {
+                if (!passThrough) {
+                    return Attributes.EMPTY;
+                }
+            }
+            return delegate.getAttributes();
+        }
+    }
+}
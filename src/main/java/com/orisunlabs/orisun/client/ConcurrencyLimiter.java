@@ -0,0 +1,356 @@
+package com.orisunlabs.orisun.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive concurrency limiter based on the TCP Vegas congestion control algorithm.
+ * <p>
+ * The limiter keeps track of the lowest observed round trip time (the "no load" RTT) and
+ * compares every new sample against it to estimate how many requests are queued on the
+ * server side. When the estimated queue is small the limit grows, when it is large or calls
+ * are being dropped (timeouts, {@code UNAVAILABLE}, {@code RESOURCE_EXHAUSTED}) the limit
+ * shrinks. Calls above the limit are either rejected immediately or queued for a bounded
+ * amount of time, depending on {@link Builder#withMaxQueueWait(long, TimeUnit)}. Queued calls
+ * either block in {@link #acquire()} or wait without a thread through {@link #acquireAsync()}.
+ */
+public class ConcurrencyLimiter {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final int probeMultiplier;
+    private final long maxQueueWaitNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final ReentrantLock queueLock = new ReentrantLock();
+    private final Condition permitReleased = queueLock.newCondition();
+    private final ConcurrentLinkedQueue<CompletableFuture<Boolean>> asyncWaiters = new ConcurrentLinkedQueue<>();
+
+    // Guarded by "this"; limit is published through the volatile field for the acquire fast path
+    private volatile int limit;
+    private double estimatedLimit;
+    private long rttNoLoadNanos;
+    private long samplesUntilProbe;
+
+    public static class Builder {
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 1000;
+        private double smoothing = 1.0;
+        private int probeMultiplier = 30;
+        private long maxQueueWaitNanos = 0;
+
+        public Builder withInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        public Builder withMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        public Builder withMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * Weight given to a newly computed limit, between 0 (never move) and 1 (no smoothing).
+         */
+        public Builder withSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        /**
+         * The no-load RTT is re-probed every {@code probeMultiplier * limit} samples so the limiter
+         * can adapt when the baseline latency of the server shifts.
+         */
+        public Builder withProbeMultiplier(int probeMultiplier) {
+            this.probeMultiplier = probeMultiplier;
+            return this;
+        }
+
+        /**
+         * How long a call may wait for a permit before being rejected. Zero (the default) sheds
+         * excess calls immediately. Calls made through the client wait without blocking a thread;
+         * only {@link ConcurrencyLimiter#acquire()} blocks its caller.
+         */
+        public Builder withMaxQueueWait(long duration, TimeUnit unit) {
+            this.maxQueueWaitNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        public ConcurrencyLimiter build() {
+            if (minLimit < 1 || maxLimit < minLimit) {
+                throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= maxLimit");
+            }
+            if (initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("Initial limit must be between minLimit and maxLimit");
+            }
+            if (smoothing <= 0 || smoothing > 1) {
+                throw new IllegalArgumentException("Smoothing must be in (0, 1]");
+            }
+            return new ConcurrencyLimiter(this);
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    private ConcurrencyLimiter(Builder builder) {
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.smoothing = builder.smoothing;
+        this.probeMultiplier = builder.probeMultiplier;
+        this.maxQueueWaitNanos = builder.maxQueueWaitNanos;
+        this.limit = builder.initialLimit;
+        this.estimatedLimit = builder.initialLimit;
+        this.samplesUntilProbe = (long) builder.probeMultiplier * builder.initialLimit;
+    }
+
+    /**
+     * Try to acquire a permit, waiting up to the configured queue time if the limit is reached.
+     *
+     * @return true if a permit was acquired and must later be released through one of the
+     * {@code on*} callbacks
+     */
+    public boolean acquire() {
+        if (tryAcquireFast()) {
+            return true;
+        }
+        if (maxQueueWaitNanos > 0 && acquireQueued()) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Acquire a permit without blocking. The future completes with true once a permit is acquired,
+     * on the thread releasing it if none was free, or with false if none was released within the
+     * configured queue time.
+     */
+    public CompletableFuture<Boolean> acquireAsync() {
+        if (tryAcquireFast()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        if (maxQueueWaitNanos == 0) {
+            rejected.increment();
+            return CompletableFuture.completedFuture(false);
+        }
+
+        final FlightEvents.BackpressureStall stall = new FlightEvents.BackpressureStall();
+        stall.begin();
+        final CompletableFuture<Boolean> waiter = new CompletableFuture<>();
+        waiter.whenComplete((result, error) -> {
+            final boolean acquired = Boolean.TRUE.equals(result);
+            if (!acquired) {
+                asyncWaiters.remove(waiter);
+                rejected.increment();
+            }
+            stall.end();
+            if (stall.shouldCommit()) {
+                stall.source = "concurrency limiter";
+                stall.acquired = acquired;
+                stall.commit();
+            }
+        });
+        asyncWaiters.add(waiter);
+        waiter.completeOnTimeout(false, maxQueueWaitNanos, TimeUnit.NANOSECONDS);
+        // A permit released before the waiter was queued was not handed to it
+        grantQueued();
+        return waiter;
+    }
+
+    /**
+     * Acquire a permit if one is free, without waiting or counting a rejection.
+     */
+    boolean tryAcquire() {
+        return tryAcquireFast();
+    }
+
+    private boolean tryAcquireFast() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean acquireQueued() {
+        final FlightEvents.BackpressureStall stall = new FlightEvents.BackpressureStall();
+        stall.begin();
+        boolean acquired = false;
+        long remaining = maxQueueWaitNanos;
+        waiting.incrementAndGet();
+        queueLock.lock();
+        try {
+            while (!tryAcquireFast()) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = permitReleased.awaitNanos(remaining);
+            }
+            acquired = true;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            queueLock.unlock();
+            waiting.decrementAndGet();
+            stall.end();
+            if (stall.shouldCommit()) {
+                stall.source = "concurrency limiter";
+                stall.acquired = acquired;
+                stall.commit();
+            }
+        }
+    }
+
+    /**
+     * Release a permit for a call that completed successfully and record its round trip time.
+     */
+    public void onSuccess(long rttNanos) {
+        release();
+        update(rttNanos, false);
+    }
+
+    /**
+     * Release a permit for a call that was dropped because of overload (timeout, unavailable
+     * or resource exhausted). This shrinks the limit.
+     */
+    public void onDropped() {
+        release();
+        dropped.increment();
+        update(0, true);
+    }
+
+    /**
+     * Release a permit without taking a sample, e.g. for application level errors.
+     */
+    public void onIgnore() {
+        release();
+    }
+
+    private void release() {
+        returnPermit();
+        grantQueued();
+    }
+
+    private void grantQueued() {
+        while (!asyncWaiters.isEmpty() && tryAcquireFast()) {
+            final CompletableFuture<Boolean> waiter = asyncWaiters.poll();
+            // Completing the waiter runs its continuation, usually starting a call, on this thread
+            if (waiter == null || !waiter.complete(true)) {
+                // Taken by another thread or timed out meanwhile
+                returnPermit();
+            }
+        }
+    }
+
+    private void returnPermit() {
+        inFlight.decrementAndGet();
+        if (waiting.get() > 0) {
+            queueLock.lock();
+            try {
+                permitReleased.signal();
+            } finally {
+                queueLock.unlock();
+            }
+        }
+    }
+
+    private synchronized void update(long rttNanos, boolean didDrop) {
+        double current = estimatedLimit;
+        double newLimit;
+
+        if (didDrop) {
+            newLimit = current - Math.max(1, Math.log10(current));
+        } else {
+            if (rttNanos <= 0) {
+                return;
+            }
+
+            if (--samplesUntilProbe <= 0) {
+                // Forget the baseline periodically so that a permanently slower server is not
+                // mistaken for a permanently overloaded one
+                samplesUntilProbe = (long) probeMultiplier * limit;
+                rttNoLoadNanos = rttNanos;
+                return;
+            }
+
+            if (rttNoLoadNanos == 0 || rttNanos < rttNoLoadNanos) {
+                rttNoLoadNanos = rttNanos;
+                return;
+            }
+
+            // Application limited, we have no signal on whether a higher limit would help
+            if (inFlight.get() * 2 < current) {
+                return;
+            }
+
+            double log = Math.max(1, Math.log10(current));
+            double alpha = 3 * log;
+            double beta = 6 * log;
+            double queueSize = Math.ceil(current * (1 - (double) rttNoLoadNanos / rttNanos));
+
+            if (queueSize <= log) {
+                newLimit = current + beta;
+            } else if (queueSize < alpha) {
+                newLimit = current + log;
+            } else if (queueSize > beta) {
+                newLimit = current - log;
+            } else {
+                return;
+            }
+        }
+
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        estimatedLimit = (1 - smoothing) * current + smoothing * newLimit;
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * @return the current concurrency limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the number of calls currently holding a permit
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return the total number of calls rejected because the limit was reached
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return the total number of calls that completed with an overload status
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
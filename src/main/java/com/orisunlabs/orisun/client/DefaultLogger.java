@@ -1,93 +1,269 @@
 package com.orisunlabs.orisun.client;
 
+import java.io.PrintStream;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 /**
  * Default logger implementation that outputs to console
+ * <p>
+ * By default lines are written synchronously by the calling thread. In async mode (see
+ * {@link Builder#withAsync(int)}) callers only publish a record into a preallocated ring buffer, and
+ * a single background thread formats and writes records in batches. Close an async logger to flush
+ * the records still buffered.
  */
-public class DefaultLogger implements Logger {
+public class DefaultLogger implements Logger, AutoCloseable {
     private final LogLevel level;
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
-    
+    private final LogRingBuffer ring;
+
+    /**
+     * What async loggers do when their buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Discard the record and count it, see {@link #getDroppedCount()}.
+         */
+        DROP,
+        /**
+         * Make the caller wait until the writer frees a slot.
+         */
+        BLOCK
+    }
+
+    public static class Builder {
+        private LogLevel level = LogLevel.INFO;
+        private int asyncCapacity;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+        public Builder withLevel(LogLevel level) {
+            this.level = level;
+            return this;
+        }
+
+        /**
+         * Write asynchronously through a ring buffer of {@code capacity} records (rounded up to a
+         * power of two).
+         */
+        public Builder withAsync(int capacity) {
+            this.asyncCapacity = capacity;
+            return this;
+        }
+
+        public Builder withOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        public DefaultLogger build() {
+            return new DefaultLogger(this);
+        }
+    }
+
     public enum LogLevel {
         DEBUG(0), INFO(1), WARN(2), ERROR(3);
-        
+
         private final int value;
-        
+
         LogLevel(int value) {
             this.value = value;
         }
-        
+
         public int getValue() {
             return value;
         }
-        
+
         public boolean isEnabled(LogLevel otherLevel) {
             return this.value <= otherLevel.getValue();
         }
     }
-    
+
     public DefaultLogger(LogLevel level) {
         this.level = level;
+        this.ring = null;
     }
-    
+
     public DefaultLogger() {
         this(LogLevel.INFO);
     }
-    
+
+    private DefaultLogger(Builder builder) {
+        this.level = builder.level;
+        this.ring = builder.asyncCapacity > 0
+                ? new LogRingBuffer(builder.asyncCapacity, builder.overflowPolicy, new BatchWriter())
+                : null;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
     @Override
     public void debug(String message, Object... args) {
         if (isDebugEnabled()) {
-            log("DEBUG", message, null, args);
+            log(LogLevel.DEBUG, message, null, args);
         }
     }
-    
+
     @Override
     public void info(String message, Object... args) {
         if (isInfoEnabled()) {
-            log("INFO", message, null, args);
+            log(LogLevel.INFO, message, null, args);
         }
     }
-    
+
     @Override
     public void warn(String message, Object... args) {
-        log("WARN", message, null, args);
+        if (isWarnEnabled()) {
+            log(LogLevel.WARN, message, null, args);
+        }
     }
-    
+
     @Override
     public void error(String message, Object... args) {
         error(message, null, args);
     }
-    
+
     @Override
     public void error(String message, Throwable throwable, Object... args) {
-        log("ERROR", message, throwable, args);
+        log(LogLevel.ERROR, message, throwable, args);
     }
-    
+
     @Override
     public boolean isDebugEnabled() {
         return level.isEnabled(LogLevel.DEBUG);
     }
-    
+
     @Override
     public boolean isInfoEnabled() {
         return level.isEnabled(LogLevel.INFO);
     }
-    
-    private void log(String level, String message, Throwable throwable, Object... args) {
-        String timestamp = LocalDateTime.now().format(formatter);
-        String formattedMessage = args.length > 0 ? String.format(message.replace("{}", "%s"), args) : message;
-        
-        String logLine = String.format("[%s] %s [%s] %s", timestamp, level, Thread.currentThread().getName(), formattedMessage);
-        
-        if (throwable != null) {
-            System.err.println(logLine);
-            throwable.printStackTrace();
-        } else if ("ERROR".equals(level) || "WARN".equals(level)) {
-            System.err.println(logLine);
-        } else {
-            System.out.println(logLine);
-        }
-    }
-}
\ No newline at end of file
+
+    @Override
+    public boolean isWarnEnabled() {
+        return level.isEnabled(LogLevel.WARN);
+    }
+
+    /**
+     * @return the number of records an async logger dropped because its buffer was full, 0 for a
+     * synchronous logger
+     */
+    public long getDroppedCount() {
+        return ring != null ? ring.getDroppedCount() : 0;
+    }
+
+    public boolean isAsync() {
+        return ring != null;
+    }
+
+    /**
+     * Flush and stop an async logger. Records logged afterwards are dropped. Does nothing for a
+     * synchronous logger.
+     */
+    @Override
+    public void close() {
+        if (ring != null) {
+            ring.close();
+        }
+    }
+
+    private void log(LogLevel level, String message, Throwable throwable, Object... args) {
+        if (ring != null) {
+            ring.publish(level, message, throwable, args);
+            return;
+        }
+
+        StringBuilder logLine = new StringBuilder(64 + message.length());
+        Throwable logged = format(logLine, System.currentTimeMillis(), level, Thread.currentThread().getName(),
+                message, throwable, args);
+
+        PrintStream out = isStandardOut(level) ? System.out : System.err;
+        out.println(logLine);
+        if (logged != null) {
+            logged.printStackTrace();
+        }
+    }
+
+    /**
+     * Single pass: timestamp, level, thread and message are appended to one builder.
+     *
+     * @return the throwable to print after the line, or null
+     */
+    private Throwable format(StringBuilder logLine, long timestampMillis, LogLevel level, String threadName,
+                             String message, Throwable throwable, Object[] args) {
+        logLine.append('[');
+        formatter.formatTo(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault()),
+                logLine);
+        logLine.append("] ").append(level.name())
+                .append(" [").append(threadName).append("] ");
+        Throwable trailing = appendFormatted(logLine, message, args);
+        return throwable != null ? throwable : trailing;
+    }
+
+    private static boolean isStandardOut(LogLevel level) {
+        return level == LogLevel.DEBUG || level == LogLevel.INFO;
+    }
+
+    /**
+     * Formats drained records into one buffer per stream and writes each buffer once per batch.
+     * Runs on the ring's writer thread only.
+     */
+    private final class BatchWriter implements LogRingBuffer.Consumer {
+        private final StringBuilder out = new StringBuilder(4096);
+        private final StringBuilder err = new StringBuilder(4096);
+
+        @Override
+        public void onRecord(LogRingBuffer.Record record) {
+            final boolean standardOut = isStandardOut(record.level);
+            final StringBuilder target = standardOut ? out : err;
+            final Throwable throwable = format(target, record.timestampMillis, record.level, record.threadName,
+                    record.message, record.throwable, record.args);
+            target.append(System.lineSeparator());
+
+            if (throwable != null) {
+                // Keep the stack trace right after its line
+                endOfBatch();
+                throwable.printStackTrace();
+            }
+        }
+
+        @Override
+        public void endOfBatch() {
+            write(out, System.out);
+            write(err, System.err);
+        }
+
+        private void write(StringBuilder buffer, PrintStream stream) {
+            if (!buffer.isEmpty()) {
+                stream.print(buffer);
+                stream.flush();
+                buffer.setLength(0);
+            }
+        }
+    }
+
+    /**
+     * Append {@code message} with each {@code {}} replaced by the next argument.
+     *
+     * @return a trailing {@link Throwable} argument left without a placeholder, or null
+     */
+    static Throwable appendFormatted(StringBuilder target, String message, Object[] args) {
+        int argIndex = 0;
+        int start = 0;
+        if (args != null && args.length > 0) {
+            int placeholder;
+            while (argIndex < args.length && (placeholder = message.indexOf("{}", start)) >= 0) {
+                target.append(message, start, placeholder).append(args[argIndex++]);
+                start = placeholder + 2;
+            }
+        }
+        target.append(message, start, message.length());
+
+        if (args != null && argIndex == args.length - 1 && args[argIndex] instanceof Throwable throwable) {
+            return throwable;
+        }
+        return null;
+    }
+}
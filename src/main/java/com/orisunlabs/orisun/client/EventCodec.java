@@ -0,0 +1,38 @@
+package com.orisunlabs.orisun.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Converts one type of application event to and from the UTF-8 data of an event.
+ * <p>
+ * Codecs write into, and read from, the bytes carried by the request and response, so no
+ * intermediate {@link String} is built in either direction. Register them with
+ * {@link EventCodecs.Builder#withCodec}, or list them in
+ * {@code META-INF/services/com.orisunlabs.orisun.client.EventCodec} to have
+ * {@link EventCodecs.Builder#withDiscoveredCodecs()} find them.
+ *
+ * @param <T> The application event type
+ */
+public interface EventCodec<T> {
+    /**
+     * @return the {@code eventType} of the events this codec writes and reads
+     */
+    String eventType();
+
+    /**
+     * @return the class of the events this codec writes, subclasses included
+     */
+    Class<T> type();
+
+    /**
+     * Write an event as UTF-8 encoded data, usually JSON.
+     */
+    void encode(T event, OutputStream data) throws IOException;
+
+    /**
+     * Read an event from its UTF-8 encoded data.
+     */
+    T decode(InputStream data) throws IOException;
+}
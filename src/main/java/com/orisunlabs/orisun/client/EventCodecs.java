@@ -0,0 +1,225 @@
+package com.orisunlabs.orisun.client;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import com.orisun.eventstore.Eventstore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of {@link EventCodec}s, by {@code eventType} for reading and by class for writing.
+ * <p>
+ * The codec of a class is resolved once, looking through its superclasses and interfaces when it
+ * has none of its own, and cached with the class.
+ */
+public class EventCodecs {
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private final Map<String, EventCodec<?>> byEventType;
+    private final Map<Class<?>, EventCodec<?>> byType;
+    private final ClassValue<EventCodec<?>> resolved = new ClassValue<>() {
+        @Override
+        protected EventCodec<?> computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    public static class Builder {
+        private final Map<String, EventCodec<?>> byEventType = new HashMap<>();
+        private final Map<Class<?>, EventCodec<?>> byType = new HashMap<>();
+
+        /**
+         * @throws IllegalArgumentException if the codec has a blank event type, or another codec
+         *                                  was registered for the same event type or class
+         */
+        public Builder withCodec(EventCodec<?> codec) {
+            if (RequestValidator.isBlank(codec.eventType())) {
+                throw new IllegalArgumentException("Codec " + codec.getClass().getName() + " has no event type");
+            }
+            final EventCodec<?> sameEventType = byEventType.putIfAbsent(codec.eventType(), codec);
+            if (sameEventType != null && sameEventType != codec) {
+                throw new IllegalArgumentException("Codecs " + sameEventType.getClass().getName() + " and "
+                        + codec.getClass().getName() + " both handle event type " + codec.eventType());
+            }
+            final EventCodec<?> sameType = byType.putIfAbsent(codec.type(), codec);
+            if (sameType != null && sameType != codec) {
+                throw new IllegalArgumentException("Codecs " + sameType.getClass().getName() + " and "
+                        + codec.getClass().getName() + " both handle " + codec.type().getName());
+            }
+            return this;
+        }
+
+        /**
+         * Register the codecs listed as {@link EventCodec} services on the context class loader.
+         */
+        public Builder withDiscoveredCodecs() {
+            return withDiscoveredCodecs(Thread.currentThread().getContextClassLoader());
+        }
+
+        public Builder withDiscoveredCodecs(ClassLoader classLoader) {
+            for (EventCodec<?> codec : ServiceLoader.load(EventCodec.class, classLoader)) {
+                withCodec(codec);
+            }
+            return this;
+        }
+
+        public EventCodecs build() {
+            return new EventCodecs(this);
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    private EventCodecs(Builder builder) {
+        this.byEventType = Map.copyOf(builder.byEventType);
+        this.byType = Map.copyOf(builder.byType);
+    }
+
+    private EventCodec<?> resolve(Class<?> type) {
+        // Breadth first, so the closest registered supertype wins
+        final Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.add(type);
+        while (!pending.isEmpty()) {
+            final Class<?> candidate = pending.poll();
+            final EventCodec<?> codec = byType.get(candidate);
+            if (codec != null) {
+                return codec;
+            }
+            if (candidate.getSuperclass() != null) {
+                pending.add(candidate.getSuperclass());
+            }
+            for (Class<?> implemented : candidate.getInterfaces()) {
+                pending.add(implemented);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the codec writing events of {@code type}, null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public <T> EventCodec<? super T> codecFor(Class<T> type) {
+        return (EventCodec<? super T>) resolved.get(type);
+    }
+
+    /**
+     * @return the codec reading events of {@code eventType}, null if there is none
+     */
+    public EventCodec<?> codecFor(String eventType) {
+        return byEventType.get(eventType);
+    }
+
+    /**
+     * Encode an application event into an event to save, with a new time-ordered id.
+     *
+     * @throws OrisunException if no codec handles the event's class, or the codec fails or writes
+     *                         blank data
+     */
+    public <T> Eventstore.EventToSave encode(T event) {
+        @SuppressWarnings("unchecked")
+        final EventCodec<? super T> codec = codecFor((Class<T>) event.getClass());
+        if (codec == null) {
+            throw new OrisunException("No codec registered for " + event.getClass().getName())
+                    .addContext("operation", "encode");
+        }
+
+        final Utf8Output data = new Utf8Output();
+        try {
+            codec.encode(event, data);
+        } catch (IOException | RuntimeException e) {
+            throw new OrisunException("Failed to encode event", e)
+                    .addContext("operation", "encode")
+                    .addContext("eventType", codec.eventType());
+        }
+        if (data.isBlank()) {
+            throw new OrisunException("Codec wrote no data")
+                    .addContext("operation", "encode")
+                    .addContext("eventType", codec.eventType());
+        }
+
+        try {
+            return Eventstore.EventToSave.newBuilder()
+                    .setEventId(EventIds.newId())
+                    .setEventType(codec.eventType())
+                    .setDataBytes(data.toByteString())
+                    .build();
+        } catch (IllegalArgumentException e) {
+            throw new OrisunException("Codec wrote invalid UTF-8", e)
+                    .addContext("operation", "encode")
+                    .addContext("eventType", codec.eventType());
+        }
+    }
+
+    /**
+     * Decode an event with the codec of its type. The data of a parsed {@link Eventstore.Event} is
+     * already a string, so it is encoded back to bytes first; decode {@link EventView}s to read
+     * straight from the response.
+     *
+     * @throws OrisunException if no codec handles the event's type or the codec fails
+     */
+    public Object decode(Eventstore.Event event) {
+        return decode(event.getEventType(), event.getDataBytes());
+    }
+
+    public <T> T decode(Eventstore.Event event, Class<T> type) {
+        return type.cast(decode(event));
+    }
+
+    /**
+     * Decode an event view with the codec of its type, streaming from the response's bytes.
+     *
+     * @throws OrisunException if no codec handles the event's type or the codec fails
+     */
+    public Object decode(EventView event) {
+        return decode(event.getEventType(), event.getData());
+    }
+
+    public <T> T decode(EventView event, Class<T> type) {
+        return type.cast(decode(event));
+    }
+
+    private Object decode(String eventType, ByteString data) {
+        final EventCodec<?> codec = byEventType.get(eventType);
+        if (codec == null) {
+            throw new OrisunException("No codec registered for event type " + eventType)
+                    .addContext("operation", "decode")
+                    .addContext("eventType", eventType);
+        }
+
+        try (InputStream stream = data.newInput()) {
+            return codec.decode(stream);
+        } catch (IOException | RuntimeException e) {
+            throw new OrisunException("Failed to decode event", e)
+                    .addContext("operation", "decode")
+                    .addContext("eventType", eventType);
+        }
+    }
+
+    /**
+     * Collects encoded data and hands its buffer to protobuf without copying it; written once, then
+     * only read.
+     */
+    private static final class Utf8Output extends ByteArrayOutputStream {
+        Utf8Output() {
+            super(INITIAL_BUFFER_SIZE);
+        }
+
+        boolean isBlank() {
+            return RequestValidator.isBlank(buf, 0, count);
+        }
+
+        ByteString toByteString() {
+            return UnsafeByteOperations.unsafeWrap(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.orisunlabs.orisun.client;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates time-ordered event ids: version 7 UUIDs as defined by RFC 9562, which start with the
+ * Unix time in milliseconds. Ids generated close together sort close together, so the server
+ * appends them to its indexes instead of inserting them at random places as it does for
+ * {@link UUID#randomUUID()}, and generating one does not go through {@code SecureRandom}.
+ * <p>
+ * Each thread keeps its own state: ids from one thread are strictly increasing, a 12 bit counter
+ * ordering the ids of the same millisecond, and ids from different threads are ordered to the
+ * millisecond. No locks or shared writes are involved.
+ */
+public final class EventIds {
+    private static final EventIds DEFAULT = new EventIds(System::currentTimeMillis);
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int COUNTER_MASK = 0xFFF;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long VARIANT_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    private final LongSupplier clock;
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+    private static final class State {
+        long millis = Long.MIN_VALUE;
+        int counter;
+        final char[] chars = new char[36];
+    }
+
+    EventIds(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @return a new time-ordered event id in the canonical 36 character form
+     */
+    public static String newId() {
+        return DEFAULT.nextId();
+    }
+
+    /**
+     * @return a new time-ordered event id
+     */
+    public static UUID newUuid() {
+        return DEFAULT.nextUuid();
+    }
+
+    /**
+     * @return the Unix time in milliseconds stored in a version 7 UUID
+     */
+    public static long timestampOf(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    /**
+     * Write a UUID in its canonical lower case form.
+     *
+     * @param uuid   The UUID to format
+     * @param chars  Destination, with room for 36 characters from {@code offset}
+     * @param offset Index of the first character written
+     */
+    public static void format(UUID uuid, char[] chars, int offset) {
+        format(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), chars, offset);
+    }
+
+    static void format(long msb, long lsb, char[] chars, int offset) {
+        hex(msb >>> 32, 8, chars, offset);
+        chars[offset + 8] = '-';
+        hex(msb >>> 16, 4, chars, offset + 9);
+        chars[offset + 13] = '-';
+        hex(msb, 4, chars, offset + 14);
+        chars[offset + 18] = '-';
+        hex(lsb >>> 48, 4, chars, offset + 19);
+        chars[offset + 23] = '-';
+        hex(lsb, 12, chars, offset + 24);
+    }
+
+    private static void hex(long value, int digits, char[] chars, int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = HEX[(int) value & 0xF];
+            value >>>= 4;
+        }
+    }
+
+    String nextId() {
+        final State current = state.get();
+        final long msb = nextMostSignificantBits(current);
+        format(msb, nextLeastSignificantBits(), current.chars, 0);
+        return new String(current.chars);
+    }
+
+    UUID nextUuid() {
+        return new UUID(nextMostSignificantBits(state.get()), nextLeastSignificantBits());
+    }
+
+    private long nextMostSignificantBits(State current) {
+        final long now = clock.getAsLong();
+        if (now > current.millis) {
+            current.millis = now;
+            // A random start within the lower half leaves room for the ids of a busy millisecond
+            current.counter = ThreadLocalRandom.current().nextInt(COUNTER_MASK >> 1);
+        } else if (++current.counter > COUNTER_MASK) {
+            // Same millisecond, or the clock went back, and the counter ran out: borrow the next one
+            current.millis++;
+            current.counter = 0;
+        }
+        return current.millis << 16 | VERSION | current.counter;
+    }
+
+    private static long nextLeastSignificantBits() {
+        return ThreadLocalRandom.current().nextLong() & VARIANT_MASK | VARIANT;
+    }
+}
@@ -2,22 +2,28 @@ package com.orisunlabs.orisun.client;
 
 import com.orisun.eventstore.EventStoreGrpc;
 import com.orisun.eventstore.Eventstore;
-import io.grpc.stub.StreamObserver;
-import io.grpc.ClientInterceptor;
-import io.grpc.ForwardingClientCall;
-import io.grpc.Metadata;
-import io.grpc.MethodDescriptor;
-import io.grpc.CallOptions;
-import io.grpc.ClientCall;
-import io.grpc.Channel;
-
-import java.util.Objects;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class EventSubscription implements AutoCloseable {
-    private final StreamObserver<Eventstore.Event> observer;
+    private final ClientResponseObserver<Eventstore.CatchUpSubscribeToEventStoreRequest, Eventstore.Event> observer;
+    // The subscription's call, cancelled on close so the server ends the stream and the client frees it
+    private volatile ClientCallStreamObserver<Eventstore.CatchUpSubscribeToEventStoreRequest> call;
     private volatile boolean closed = false;
     private final Logger logger;
+    private final SubscriptionMetrics metrics;
+    private final String subscriberName;
+    private final String boundary;
+    private final Tracing tracing;
+    private final String spanName;
+
+    // Spans the subscription for JFR, committed once when the stream ends or is closed
+    private final FlightEvents.SubscriptionEnd endEvent = new FlightEvents.SubscriptionEnd();
+    private final AtomicBoolean ended = new AtomicBoolean();
+    private volatile long deliveredEvents;
 
     public interface EventHandler {
         void onEvent(Eventstore.Event event);
@@ -32,66 +38,27 @@ public class EventSubscription implements AutoCloseable {
                       EventHandler handler,
                       int timeoutSeconds,
                       Logger logger,
-                      TokenCache tokenCache,
-                      String username,
-                      String password) {
-        this.logger = logger != null ? logger : new DefaultLogger(DefaultLogger.LogLevel.WARN);
-
-        // Create metadata with authentication
-        Metadata metadata = tokenCache != null ? tokenCache.createAuthMetadata(
-                username != null && password != null ?
-                        () -> "Basic " + java.util.Base64.getEncoder().encodeToString((username + ":" + password).getBytes()) : null
-        ) : new Metadata();
-
-        this.observer = new StreamObserver<>() {
-            @Override
-            public void onNext(Eventstore.Event event) {
-                if (!closed) {
-                    logger.debug("Received event: {}", event.getEventType());
-                    handler.onEvent(event);
-                }
-            }
-
-            @Override
-            public void onError(Throwable t) {
-                if (!closed) {
-                    logger.error("Subscription error: {}", t.getMessage(), t);
-                    handler.onError(t);
-                }
-            }
-
-            @Override
-            public void onCompleted() {
-                if (!closed) {
-                    logger.debug("Subscription completed");
-                    handler.onCompleted();
-                }
-            }
-        };
-
-        EventStoreGrpc.EventStoreStub enhancedStub = stub.withInterceptors(new ClientInterceptor() {
-            @Override
-            public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
-                    MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
-
-                return new ForwardingClientCall.SimpleForwardingClientCall<>(
-                        next.newCall(method, callOptions)) {
-
-                    @Override
-                    public void start(Listener<RespT> responseListener, Metadata headers) {
-                        // Copy metadata from our prepared metadata
-                        metadata.keys().forEach(key -> {
-                            for (String value : Objects.requireNonNull(metadata.getAll(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER)))) {
-                                headers.put(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER), value);
-                            }
-                        });
-                        super.start(responseListener, headers);
-                    }
-                };
-            }
-        });
+                      SubscriptionMetrics metrics,
+                      Tracing tracing) {
+        this.logger = logger != null ? logger : Loggers.defaultLogger();
+        this.metrics = metrics;
+        this.tracing = tracing;
+        this.subscriberName = request.getSubscriberName();
+        this.boundary = request.getBoundary();
+        this.spanName = "orisun.subscription/" + subscriberName;
+        this.observer = createObserver(handler);
+
+        final FlightEvents.SubscriptionStart startEvent = new FlightEvents.SubscriptionStart();
+        if (startEvent.shouldCommit()) {
+            startEvent.subscriber = subscriberName;
+            startEvent.boundary = boundary;
+            startEvent.afterCommitPosition = request.getAfterPosition().getCommitPosition();
+            startEvent.commit();
+        }
+        endEvent.begin();
 
-        enhancedStub
+        // Authentication headers are added by the transport's interceptor chain the stub was created from
+        stub
                 .withDeadlineAfter(timeoutSeconds, TimeUnit.SECONDS)
                 .catchUpSubscribeToEvents(request, observer);
     }
@@ -100,29 +67,48 @@ public class EventSubscription implements AutoCloseable {
     EventSubscription(EventStoreGrpc.EventStoreStub stub,
                       EventHandler handler,
                       int timeoutSeconds,
-                      Logger logger,
-                      TokenCache tokenCache,
-                      String username,
-                      String password) {
-        this.logger = logger != null ? logger : new DefaultLogger(DefaultLogger.LogLevel.WARN);
-
-        // Create metadata with authentication
-        Metadata metadata = tokenCache != null ? tokenCache.createAuthMetadata(
-                username != null && password != null ?
-                        () -> "Basic " + java.util.Base64.getEncoder().encodeToString((username + ":" + password).getBytes()) : null
-        ) : new Metadata();
-
-        this.observer = new StreamObserver<>() {
+                      Logger logger) {
+        this.logger = logger != null ? logger : Loggers.defaultLogger();
+        this.metrics = null;
+        this.tracing = null;
+        this.subscriberName = "";
+        this.boundary = "";
+        this.spanName = null;
+        this.observer = createObserver(handler);
+        endEvent.begin();
+    }
+
+    private ClientResponseObserver<Eventstore.CatchUpSubscribeToEventStoreRequest, Eventstore.Event> createObserver(
+            EventHandler handler) {
+        return new ClientResponseObserver<>() {
+            @Override
+            public void beforeStart(ClientCallStreamObserver<Eventstore.CatchUpSubscribeToEventStoreRequest> requestStream) {
+                call = requestStream;
+            }
+
             @Override
             public void onNext(Eventstore.Event event) {
                 if (!closed) {
                     logger.debug("Received event: {}", event.getEventType());
-                    handler.onEvent(event);
+                    deliveredEvents++;
+                    if (metrics == null && tracing == null) {
+                        handler.onEvent(event);
+                        return;
+                    }
+                    final long receivedNanos = metrics != null ? metrics.onReceived(event) : 0;
+                    try {
+                        deliver(handler, event);
+                    } finally {
+                        if (metrics != null) {
+                            metrics.onHandled(receivedNanos);
+                        }
+                    }
                 }
             }
 
             @Override
             public void onError(Throwable t) {
+                onEnded(t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName());
                 if (!closed) {
                     logger.error("Subscription error: {}", t.getMessage(), t);
                     handler.onError(t);
@@ -131,37 +117,50 @@ public class EventSubscription implements AutoCloseable {
 
             @Override
             public void onCompleted() {
+                onEnded("Completed");
                 if (!closed) {
                     logger.debug("Subscription completed");
                     handler.onCompleted();
                 }
             }
         };
+    }
 
-        EventStoreGrpc.EventStoreStub enhancedStub = stub.withInterceptors(new ClientInterceptor() {
-            @Override
-            public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
-                    MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
-
-                return new ForwardingClientCall.SimpleForwardingClientCall<>(
-                        next.newCall(method, callOptions)) {
-
-                    @Override
-                    public void start(Listener<RespT> responseListener, Metadata headers) {
-                        // Copy metadata from our prepared metadata
-                        metadata.keys().forEach(key -> {
-                            for (String value : Objects.requireNonNull(metadata.getAll(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER)))) {
-                                headers.put(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER), value);
-                            }
-                        });
-                        super.start(responseListener, headers);
-                    }
-                };
-            }
-        });
+    private void deliver(EventHandler handler, Eventstore.Event event) {
+        final Span span = tracing != null ? tracing.startConsumerSpan(spanName, event) : null;
+        if (span == null) {
+            handler.onEvent(event);
+            return;
+        }
+        span.setAttribute("orisun.boundary", boundary);
+        final Span.Scope scope = span.makeCurrent();
+        Throwable error = null;
+        try {
+            handler.onEvent(event);
+        } catch (RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            scope.close();
+            span.end(error);
+        }
+    }
 
-        enhancedStub
-                .withDeadlineAfter(timeoutSeconds, TimeUnit.SECONDS);
+    private void onEnded(String outcome) {
+        if (!ended.compareAndSet(false, true)) {
+            return;
+        }
+        if (metrics != null) {
+            metrics.stop();
+        }
+        endEvent.end();
+        if (endEvent.shouldCommit()) {
+            endEvent.subscriber = subscriberName;
+            endEvent.boundary = boundary;
+            endEvent.outcome = outcome;
+            endEvent.events = deliveredEvents;
+            endEvent.commit();
+        }
     }
 
     @Override
@@ -169,7 +168,11 @@ public class EventSubscription implements AutoCloseable {
         if (!closed) {
             closed = true;
             logger.debug("Closing subscription");
-            observer.onCompleted();
+            onEnded("Closed");
+            final ClientCallStreamObserver<Eventstore.CatchUpSubscribeToEventStoreRequest> call = this.call;
+            if (call != null) {
+                call.cancel("Subscription closed", null);
+            }
         }
     }
 }
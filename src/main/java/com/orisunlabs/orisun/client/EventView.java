@@ -0,0 +1,217 @@
+package com.orisunlabs.orisun.client;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.Timestamp;
+import com.google.protobuf.UnsafeByteOperations;
+import com.google.protobuf.WireFormat;
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A read-only event whose data and metadata stay the UTF-8 bytes received from the server.
+ * <p>
+ * {@link Eventstore.Event} decodes its {@code data} and {@code metadata} strings while the response
+ * is parsed, holding each payload as a {@link String} next to the bytes it came from. A view keeps
+ * the response's bytes and only points into them, so large payloads can be handed to a streaming
+ * JSON parser through {@link #getDataStream()} or {@link #getDataBuffer()} without ever building a
+ * string. The views of a response share its buffer, which stays reachable while any of them is.
+ */
+public final class EventView {
+    // Field 1 of GetEventsResponse, the repeated events
+    private static final int EVENTS_TAG = 1 << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int EVENT_ID_FIELD = 1;
+    private static final int EVENT_TYPE_FIELD = 2;
+    private static final int DATA_FIELD = 3;
+    private static final int METADATA_FIELD = 4;
+    private static final int POSITION_FIELD = 5;
+    private static final int DATE_CREATED_FIELD = 6;
+
+    /**
+     * GetEvents, answered with views rather than {@link Eventstore.GetEventsResponse}. The method
+     * name is unchanged, so the server and every interceptor see the usual call.
+     */
+    static final MethodDescriptor<Eventstore.GetEventsRequest, List<EventView>> GET_EVENTS_METHOD =
+            EventStoreGrpc.getGetEventsMethod().toBuilder(
+                    EventStoreGrpc.getGetEventsMethod().getRequestMarshaller(),
+                    new ResponseMarshaller()).build();
+
+    private final String eventId;
+    private final String eventType;
+    private final ByteString data;
+    private final ByteString metadata;
+    private final Eventstore.Position position;
+    private final Timestamp dateCreated;
+
+    private EventView(String eventId, String eventType, ByteString data, ByteString metadata,
+                      Eventstore.Position position, Timestamp dateCreated) {
+        this.eventId = eventId;
+        this.eventType = eventType;
+        this.data = data;
+        this.metadata = metadata;
+        this.position = position;
+        this.dateCreated = dateCreated;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    /**
+     * @return the UTF-8 bytes of the data, sharing the response's buffer
+     */
+    public ByteString getData() {
+        return data;
+    }
+
+    /**
+     * @return a read-only buffer over the UTF-8 bytes of the data, without copying them
+     */
+    public ByteBuffer getDataBuffer() {
+        return data.asReadOnlyByteBuffer();
+    }
+
+    /**
+     * @return a stream over the UTF-8 bytes of the data, for streaming parsers
+     */
+    public InputStream getDataStream() {
+        return data.newInput();
+    }
+
+    /**
+     * @return the data decoded to a string, decoding it again on each call
+     */
+    public String getDataString() {
+        return data.toStringUtf8();
+    }
+
+    /**
+     * @return the UTF-8 bytes of the metadata, empty if the event has none
+     */
+    public ByteString getMetadata() {
+        return metadata;
+    }
+
+    public ByteBuffer getMetadataBuffer() {
+        return metadata.asReadOnlyByteBuffer();
+    }
+
+    public String getMetadataString() {
+        return metadata.toStringUtf8();
+    }
+
+    public Eventstore.Position getPosition() {
+        return position;
+    }
+
+    public Timestamp getDateCreated() {
+        return dateCreated;
+    }
+
+    /**
+     * @return the event as the generated message, decoding its data and metadata
+     */
+    public Eventstore.Event toEvent() {
+        return Eventstore.Event.newBuilder()
+                .setEventId(eventId)
+                .setEventType(eventType)
+                .setDataBytes(data)
+                .setMetadataBytes(metadata)
+                .setPosition(position)
+                .setDateCreated(dateCreated)
+                .build();
+    }
+
+    @Override
+    public String toString() {
+        return "EventView{eventId=" + eventId + ", eventType=" + eventType
+                + ", position=" + position.getCommitPosition() + ":" + position.getPreparePosition()
+                + ", data=" + data.size() + " bytes}";
+    }
+
+    /**
+     * Parse the events of a serialized {@link Eventstore.GetEventsResponse}. The data and metadata of
+     * each event are slices of {@code bytes}, which must not change afterwards.
+     */
+    static List<EventView> parseEvents(byte[] bytes) throws IOException {
+        // Protobuf only aliases input it knows to be immutable
+        final CodedInputStream input = UnsafeByteOperations.unsafeWrap(bytes).newCodedInput();
+        input.enableAliasing(true);
+
+        final List<EventView> events = new ArrayList<>();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == EVENTS_TAG) {
+                final int limit = input.pushLimit(input.readRawVarint32());
+                events.add(parseEvent(input));
+                input.popLimit(limit);
+            } else if (!input.skipField(tag)) {
+                break;
+            }
+        }
+        return events;
+    }
+
+    private static EventView parseEvent(CodedInputStream input) throws IOException {
+        String eventId = "";
+        String eventType = "";
+        ByteString data = ByteString.EMPTY;
+        ByteString metadata = ByteString.EMPTY;
+        Eventstore.Position position = Eventstore.Position.getDefaultInstance();
+        Timestamp dateCreated = Timestamp.getDefaultInstance();
+
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case EVENT_ID_FIELD -> eventId = input.readStringRequireUtf8();
+                case EVENT_TYPE_FIELD -> eventType = input.readStringRequireUtf8();
+                // Left undecoded, so not checked for valid UTF-8 until decoded
+                case DATA_FIELD -> data = input.readBytes();
+                case METADATA_FIELD -> metadata = input.readBytes();
+                case POSITION_FIELD -> position = input.readMessage(Eventstore.Position.parser(),
+                        ExtensionRegistryLite.getEmptyRegistry());
+                case DATE_CREATED_FIELD -> dateCreated = input.readMessage(Timestamp.parser(),
+                        ExtensionRegistryLite.getEmptyRegistry());
+                default -> input.skipField(tag);
+            }
+        }
+        return new EventView(eventId, eventType, data, metadata, position, dateCreated);
+    }
+
+    private static final class ResponseMarshaller implements MethodDescriptor.Marshaller<List<EventView>> {
+        @Override
+        public InputStream stream(List<EventView> events) {
+            final Eventstore.GetEventsResponse.Builder response = Eventstore.GetEventsResponse.newBuilder();
+            for (EventView event : events) {
+                response.addEvents(event.toEvent());
+            }
+            return response.build().toByteString().newInput();
+        }
+
+        @Override
+        public List<EventView> parse(InputStream stream) {
+            try {
+                // The one copy made: the message's bytes, which the views then slice
+                return parseEvents(stream.readAllBytes());
+            } catch (IOException e) {
+                throw Status.INTERNAL
+                        .withDescription("Invalid GetEventsResponse")
+                        .withCause(e)
+                        .asRuntimeException();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.orisunlabs.orisun.client;
+
+import io.grpc.MethodDescriptor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Client-side faults for resilience and load testing: added latency, failed calls, stream resets
+ * and slow reading, configured per method with a default for the others.
+ * <p>
+ * Each call draws its faults from a random sequence derived from the seed, its method and the
+ * number of calls of that method started before it. A run with the same seed that starts each
+ * method's calls in the same order injects the same faults, whatever the interleaving of different
+ * methods. Calls of the same method started concurrently from several threads race for their
+ * numbers, so which of them gets which faults is not reproducible.
+ * <p>
+ * Faults are injected beneath authentication, metrics and tracing, which see them as coming from
+ * the server, but above the channel. The channel's retries do not retry injected errors, and its
+ * circuit breaker does not count them against any endpoint, as the calls never reach one.
+ */
+public class FaultInjection {
+
+    private final long seed;
+    private final FaultPolicy defaultPolicy;
+    private final Map<String, FaultPolicy> policies;
+
+    public static class Builder {
+        private long seed;
+        private FaultPolicy defaultPolicy;
+        private final Map<String, FaultPolicy> policies = new HashMap<>();
+
+        public Builder withSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Faults of the methods without their own policy. Without a default, other methods are
+         * left alone.
+         */
+        public Builder withDefaultPolicy(FaultPolicy policy) {
+            this.defaultPolicy = policy;
+            return this;
+        }
+
+        public Builder withPolicy(MethodDescriptor<?, ?> method, FaultPolicy policy) {
+            this.policies.put(method.getFullMethodName(), policy);
+            return this;
+        }
+
+        public FaultInjection build() {
+            return new FaultInjection(this);
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    private FaultInjection(Builder builder) {
+        this.seed = builder.seed;
+        this.defaultPolicy = builder.defaultPolicy;
+        this.policies = Map.copyOf(builder.policies);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return the policy of a method, or null if its calls are left alone
+     */
+    FaultPolicy policyFor(String fullMethodName) {
+        return policies.getOrDefault(fullMethodName, defaultPolicy);
+    }
+
+    /**
+     * @return the random sequence of the {@code sequence}th call of a method, counting from 0
+     */
+    SplittableRandom randomForCall(String fullMethodName, long sequence) {
+        // Mixed, as seeds one gamma apart would give sequences shifted by one value
+        return new SplittableRandom(mix(mix(seed + fullMethodName.hashCode()) + sequence));
+    }
+
+    // Stafford's variant 13 of the MurmurHash3 finalizer, as used by SplittableRandom
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,285 @@
+package com.orisunlabs.orisun.client;
+
+import io.grpc.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies a {@link FaultInjection} to calls. Delayed and failed calls are completed from a daemon
+ * thread owned by the interceptor, closed with the transport.
+ * <p>
+ * Calls are numbered per method in the order they reach the interceptor; concurrent calls of one
+ * method get their numbers in whatever order their threads get here. The interceptor sits above the
+ * channel, so injected faults are invisible to the channel's retries and circuit breaker.
+ */
+final class FaultInjectionInterceptor implements ClientInterceptor, AutoCloseable {
+    private final FaultInjection faults;
+    // Calls started per full method name
+    private final ConcurrentHashMap<String, AtomicLong> calls = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    FaultInjectionInterceptor(FaultInjection faults) {
+        this.faults = faults;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "orisun-fault-injection");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+            MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        final FaultPolicy policy = faults.policyFor(method.getFullMethodName());
+        if (policy == null) {
+            return next.newCall(method, callOptions);
+        }
+        final String methodName = method.getFullMethodName();
+        final SplittableRandom random = faults.randomForCall(methodName,
+                calls.computeIfAbsent(methodName, name -> new AtomicLong()).getAndIncrement());
+        final long delayNanos = policy.sampleLatencyNanos(random);
+        final Status error = policy.sampleError(random);
+        if (delayNanos == 0 && error == null && policy.getStreamResetRate() == 0
+                && policy.getSlowReaderDelayNanos() == 0) {
+            return next.newCall(method, callOptions);
+        }
+        return new FaultyCall<>(error == null ? next.newCall(method, callOptions) : null,
+                callOptions.getExecutor(), policy, random, delayNanos, error);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Run {@code task} after {@code delayNanos}, or right away for calls outliving the interceptor.
+     */
+    private void runAfter(Runnable task, long delayNanos) {
+        if (!scheduler.isShutdown()) {
+            try {
+                scheduler.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                // Closed in the meantime
+            }
+        }
+        task.run();
+    }
+
+    /**
+     * A call started after the injected latency, or failed without reaching the server. Operations
+     * issued before the delegate is started are queued and replayed in order.
+     */
+    private final class FaultyCall<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+        private final ClientCall<ReqT, RespT> delegate;
+        private final Executor callExecutor;
+        private final FaultPolicy policy;
+        private final SplittableRandom random;
+        private final long delayNanos;
+        private final Status error;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private boolean firstRequest = true;
+
+        // Guarded by this
+        private Listener<RespT> listener;
+        private final List<Runnable> pending = new ArrayList<>();
+        private boolean started;
+        private boolean passThrough;
+        private boolean cancelled;
+
+        FaultyCall(ClientCall<ReqT, RespT> delegate, Executor callExecutor, FaultPolicy policy,
+                   SplittableRandom random, long delayNanos, Status error) {
+            this.delegate = delegate;
+            this.callExecutor = callExecutor;
+            this.policy = policy;
+            this.random = random;
+            this.delayNanos = delayNanos;
+            this.error = error;
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            synchronized (this) {
+                this.listener = responseListener;
+            }
+            if (error != null) {
+                runAfter(() -> closeLocally(error), delayNanos);
+            } else if (delayNanos == 0) {
+                begin(headers);
+            } else {
+                runAfter(() -> begin(headers), delayNanos);
+            }
+        }
+
+        private void begin(Metadata headers) {
+            final Listener<RespT> listener;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                started = true;
+                listener = this.listener;
+            }
+            delegate.start(new FaultyListener(listener), headers);
+            while (true) {
+                final List<Runnable> operations;
+                synchronized (this) {
+                    if (pending.isEmpty()) {
+                        passThrough = true;
+                        return;
+                    }
+                    operations = new ArrayList<>(pending);
+                    pending.clear();
+                }
+                for (Runnable operation : operations) {
+                    operation.run();
+                }
+            }
+        }
+
+        private void callOrQueue(Runnable operation) {
+            synchronized (this) {
+                if (!passThrough) {
+                    pending.add(operation);
+                    return;
+                }
+            }
+            operation.run();
+        }
+
+        /**
+         * Complete a call that never reached the server, exactly once.
+         */
+        private void closeLocally(Status status) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            final Listener<RespT> listener;
+            synchronized (this) {
+                listener = this.listener;
+            }
+            final Runnable close = () -> listener.onClose(status, new Metadata());
+            // Blocking stubs wait for callbacks on their call executor
+            if (callExecutor != null) {
+                callExecutor.execute(close);
+            } else {
+                close.run();
+            }
+        }
+
+        @Override
+        public void request(int numMessages) {
+            if (delegate == null) {
+                return;
+            }
+            final long slowReaderDelayNanos = policy.getSlowReaderDelayNanos();
+            if (firstRequest || slowReaderDelayNanos == 0) {
+                firstRequest = false;
+                callOrQueue(() -> delegate.request(numMessages));
+            } else {
+                // request() may be called from any thread
+                runAfter(() -> callOrQueue(() -> delegate.request(numMessages)), slowReaderDelayNanos);
+            }
+        }
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+            final boolean wasStarted;
+            final boolean hasListener;
+            synchronized (this) {
+                cancelled = true;
+                wasStarted = started;
+                hasListener = listener != null;
+            }
+            // A call cancelled before start() has no listener to close
+            if (wasStarted) {
+                callOrQueue(() -> delegate.cancel(message, cause));
+            } else if (hasListener) {
+                closeLocally(Status.CANCELLED.withDescription(message).withCause(cause));
+            }
+        }
+
+        @Override
+        public void halfClose() {
+            if (delegate != null) {
+                callOrQueue(delegate::halfClose);
+            }
+        }
+
+        @Override
+        public void sendMessage(ReqT message) {
+            if (delegate != null) {
+                callOrQueue(() -> delegate.sendMessage(message));
+            }
+        }
+
+        @Override
+        public void setMessageCompression(boolean enabled) {
+            if (delegate != null) {
+                callOrQueue(() -> delegate.setMessageCompression(enabled));
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            synchronized (this) {
+                if (!passThrough) {
+                    return false;
+                }
+            }
+            return delegate.isReady();
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            synchronized (this) {
+                if (!passThrough) {
+                    return Attributes.EMPTY;
+                }
+            }
+            return delegate.getAttributes();
+        }
+
+        private final class FaultyListener extends ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT> {
+            private boolean reset;
+
+            FaultyListener(Listener<RespT> delegate) {
+                super(delegate);
+            }
+
+            @Override
+            public void onMessage(RespT message) {
+                if (reset) {
+                    return;
+                }
+                final double resetRate = policy.getStreamResetRate();
+                if (resetRate > 0 && random.nextDouble() < resetRate) {
+                    reset = true;
+                    delegate.cancel("Injected stream reset", null);
+                    return;
+                }
+                super.onMessage(message);
+            }
+
+            @Override
+            public void onClose(Status status, Metadata trailers) {
+                if (reset) {
+                    super.onClose(Status.UNAVAILABLE.withDescription("Injected stream reset"), new Metadata());
+                } else {
+                    super.onClose(status, trailers);
+                }
+            }
+        }
+    }
+}
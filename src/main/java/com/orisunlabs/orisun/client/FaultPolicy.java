@@ -0,0 +1,118 @@
+package com.orisunlabs.orisun.client;
+
+import io.grpc.Status;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Faults injected into the calls of one RPC method, see {@link FaultInjection}.
+ */
+public class FaultPolicy {
+    private final LatencyDistribution latency;
+    private final Map<Status.Code, Double> errorRates;
+    private final double streamResetRate;
+    private final long slowReaderDelayNanos;
+
+    public static class Builder {
+        private LatencyDistribution latency;
+        private final Map<Status.Code, Double> errorRates = new EnumMap<>(Status.Code.class);
+        private double streamResetRate;
+        private long slowReaderDelayNanos;
+
+        /**
+         * Delay the start of each call by a latency drawn from {@code latency}.
+         */
+        public Builder withLatency(LatencyDistribution latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * Fail this fraction of calls with {@code code}, without sending them to the server. Can be
+         * repeated for several codes, whose rates add up.
+         */
+        public Builder withError(Status.Code code, double rate) {
+            if (code == Status.Code.OK || rate < 0 || rate > 1) {
+                throw new IllegalArgumentException("Errors need a non-OK code and a rate between 0 and 1");
+            }
+            this.errorRates.put(code, rate);
+            return this;
+        }
+
+        /**
+         * Reset streaming calls with {@code UNAVAILABLE}, as a dropped connection would, with this
+         * probability for each received message.
+         */
+        public Builder withStreamReset(double ratePerMessage) {
+            if (ratePerMessage < 0 || ratePerMessage > 1) {
+                throw new IllegalArgumentException("Stream reset rate must be between 0 and 1");
+            }
+            this.streamResetRate = ratePerMessage;
+            return this;
+        }
+
+        /**
+         * Read streaming responses slowly: each message after the first is requested from the
+         * server {@code delay} late, so flow control pushes back on the server.
+         */
+        public Builder withSlowReader(long delay, TimeUnit unit) {
+            this.slowReaderDelayNanos = unit.toNanos(delay);
+            return this;
+        }
+
+        public FaultPolicy build() {
+            double total = 0;
+            for (double rate : errorRates.values()) {
+                total += rate;
+            }
+            if (total > 1) {
+                throw new IllegalArgumentException("Error rates add up to more than 1");
+            }
+            return new FaultPolicy(this);
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    private FaultPolicy(Builder builder) {
+        this.latency = builder.latency;
+        this.errorRates = new EnumMap<>(builder.errorRates);
+        this.streamResetRate = builder.streamResetRate;
+        this.slowReaderDelayNanos = builder.slowReaderDelayNanos;
+    }
+
+    long sampleLatencyNanos(SplittableRandom random) {
+        return latency != null ? Math.max(0, latency.sampleNanos(random)) : 0;
+    }
+
+    /**
+     * @return the status to fail the call with, or null to let it through
+     */
+    Status sampleError(SplittableRandom random) {
+        if (errorRates.isEmpty()) {
+            return null;
+        }
+        final double draw = random.nextDouble();
+        double cumulative = 0;
+        for (Map.Entry<Status.Code, Double> entry : errorRates.entrySet()) {
+            cumulative += entry.getValue();
+            if (draw < cumulative) {
+                return Status.fromCode(entry.getKey()).withDescription("Injected fault");
+            }
+        }
+        return null;
+    }
+
+    double getStreamResetRate() {
+        return streamResetRate;
+    }
+
+    long getSlowReaderDelayNanos() {
+        return slowReaderDelayNanos;
+    }
+}
@@ -0,0 +1,108 @@
+package com.orisunlabs.orisun.client;
+
+import jdk.jfr.*;
+
+/**
+ * JDK Flight Recorder events emitted by the client, under the "Orisun Client" category.
+ * <p>
+ * Events are enabled by default with thresholds, so only slow calls and stalls are recorded by the
+ * default and profile settings. Override them in a {@code .jfc} file or on the command line, e.g.
+ * {@code -XX:StartFlightRecording:com.orisunlabs.orisun.Rpc#threshold=0ms}. With no recording
+ * running, emitting an event is a check of a disabled flag.
+ */
+final class FlightEvents {
+    private static final String CATEGORY = "Orisun Client";
+
+    private FlightEvents() {
+    }
+
+    @Name("com.orisunlabs.orisun.Rpc")
+    @Label("RPC")
+    @Description("A completed call to the Orisun server")
+    @Category(CATEGORY)
+    @Threshold("20 ms")
+    @StackTrace(false)
+    static final class Rpc extends Event {
+        @Label("Method")
+        String method;
+
+        @Label("Boundary")
+        String boundary;
+
+        @Label("Status")
+        String status;
+
+        @Label("Request Size")
+        @DataAmount
+        long requestBytes;
+
+        @Label("Response Size")
+        @DataAmount
+        long responseBytes;
+    }
+
+    @Name("com.orisunlabs.orisun.SubscriptionStart")
+    @Label("Subscription Start")
+    @Description("A subscription was started, or restarted after it ended")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class SubscriptionStart extends Event {
+        @Label("Subscriber")
+        String subscriber;
+
+        @Label("Boundary")
+        String boundary;
+
+        @Label("After Commit Position")
+        long afterCommitPosition;
+    }
+
+    @Name("com.orisunlabs.orisun.SubscriptionEnd")
+    @Label("Subscription End")
+    @Description("A subscription stream ended, spanning its whole lifetime")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class SubscriptionEnd extends Event {
+        @Label("Subscriber")
+        String subscriber;
+
+        @Label("Boundary")
+        String boundary;
+
+        @Label("Outcome")
+        @Description("Completed, Closed, or the error that ended the stream")
+        String outcome;
+
+        @Label("Events Delivered")
+        long events;
+    }
+
+    @Name("com.orisunlabs.orisun.ConcurrencyConflict")
+    @Label("Optimistic Concurrency Conflict")
+    @Description("A write was rejected because the expected version did not match")
+    @Category(CATEGORY)
+    static final class ConcurrencyConflict extends Event {
+        @Label("Boundary")
+        String boundary;
+
+        @Label("Expected Version")
+        long expectedVersion;
+
+        @Label("Actual Version")
+        long actualVersion;
+    }
+
+    @Name("com.orisunlabs.orisun.BackpressureStall")
+    @Label("Backpressure Stall")
+    @Description("A thread waited for capacity: a concurrency limit permit or space in the async log buffer")
+    @Category(CATEGORY)
+    @Threshold("1 ms")
+    static final class BackpressureStall extends Event {
+        @Label("Source")
+        String source;
+
+        @Label("Acquired")
+        @Description("False if the thread gave up waiting")
+        boolean acquired;
+    }
+}
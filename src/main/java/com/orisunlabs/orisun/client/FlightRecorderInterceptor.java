@@ -0,0 +1,74 @@
+package com.orisunlabs.orisun.client;
+
+import io.grpc.*;
+
+/**
+ * Emits a {@link FlightEvents.Rpc} event per call. Calls are passed through untouched while the
+ * event is disabled, i.e. when no recording is running, and for background calls the client makes
+ * on its own behalf.
+ */
+class FlightRecorderInterceptor implements ClientInterceptor {
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+            MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        if (callOptions.getOption(OrisunTransport.BACKGROUND_CALL)) {
+            return next.newCall(method, callOptions);
+        }
+        final FlightEvents.Rpc event = new FlightEvents.Rpc();
+        if (!event.isEnabled()) {
+            return next.newCall(method, callOptions);
+        }
+        return new RecordedCall<>(next.newCall(method, callOptions), method.getBareMethodName(), event);
+    }
+
+    private static final class RecordedCall<ReqT, RespT> extends ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT> {
+        private final String method;
+        private final FlightEvents.Rpc event;
+        private String boundary = RequestBoundaries.NONE;
+        private long requestBytes;
+
+        RecordedCall(ClientCall<ReqT, RespT> delegate, String method, FlightEvents.Rpc event) {
+            super(delegate);
+            this.method = method;
+            this.event = event;
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            event.begin();
+            super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                private long responseBytes;
+
+                @Override
+                public void onMessage(RespT message) {
+                    responseBytes += MetricsInterceptor.sizeOf(message);
+                    super.onMessage(message);
+                }
+
+                @Override
+                public void onClose(Status status, Metadata trailers) {
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.method = method;
+                        event.boundary = boundary;
+                        event.status = status.getCode().name();
+                        event.requestBytes = requestBytes;
+                        event.responseBytes = responseBytes;
+                        event.commit();
+                    }
+                    super.onClose(status, trailers);
+                }
+            }, headers);
+        }
+
+        @Override
+        public void sendMessage(ReqT message) {
+            if (boundary == RequestBoundaries.NONE) {
+                boundary = RequestBoundaries.of(message);
+            }
+            requestBytes += MetricsInterceptor.sizeOf(message);
+            super.sendMessage(message);
+        }
+    }
+}
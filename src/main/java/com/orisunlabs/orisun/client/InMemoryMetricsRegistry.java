@@ -0,0 +1,69 @@
+package com.orisunlabs.orisun.client;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link MetricsRegistry} keeping all values in memory. Counters are {@link LongAdder}s and
+ * histograms are {@link LatencyHistogram}s, so recording never blocks.
+ */
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+    private final Map<MetricsSnapshot.MetricId, InMemoryCounter> counters = new ConcurrentHashMap<>();
+    private final Map<MetricsSnapshot.MetricId, InMemoryGauge> gauges = new ConcurrentHashMap<>();
+    private final Map<MetricsSnapshot.MetricId, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private static final class InMemoryCounter implements Counter {
+        private final LongAdder value = new LongAdder();
+
+        @Override
+        public void increment(long amount) {
+            value.add(amount);
+        }
+    }
+
+    private static final class InMemoryGauge implements Gauge {
+        private final AtomicLong value = new AtomicLong();
+
+        @Override
+        public void set(long value) {
+            this.value.set(value);
+        }
+
+        @Override
+        public void add(long delta) {
+            value.addAndGet(delta);
+        }
+    }
+
+    @Override
+    public Counter counter(String name, String... tags) {
+        return counters.computeIfAbsent(new MetricsSnapshot.MetricId(name, tags), id -> new InMemoryCounter());
+    }
+
+    @Override
+    public Gauge gauge(String name, String... tags) {
+        return gauges.computeIfAbsent(new MetricsSnapshot.MetricId(name, tags), id -> new InMemoryGauge());
+    }
+
+    @Override
+    public Histogram histogram(String name, String... tags) {
+        return histograms.computeIfAbsent(new MetricsSnapshot.MetricId(name, tags), id -> new LatencyHistogram());
+    }
+
+    @Override
+    public MetricsSnapshot snapshot() {
+        final Map<MetricsSnapshot.MetricId, Long> counterValues = new HashMap<>();
+        counters.forEach((id, counter) -> counterValues.put(id, counter.value.sum()));
+
+        final Map<MetricsSnapshot.MetricId, Long> gaugeValues = new HashMap<>();
+        gauges.forEach((id, gauge) -> gaugeValues.put(id, gauge.value.get()));
+
+        final Map<MetricsSnapshot.MetricId, LatencyHistogram.Snapshot> histogramValues = new HashMap<>();
+        histograms.forEach((id, histogram) -> histogramValues.put(id, histogram.snapshot()));
+
+        return new MetricsSnapshot(counterValues, gaugeValues, histogramValues);
+    }
+}
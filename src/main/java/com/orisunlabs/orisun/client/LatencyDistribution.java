@@ -0,0 +1,51 @@
+package com.orisunlabs.orisun.client;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribution of the latency added to calls by {@link FaultInjection}.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+    /**
+     * @return a latency in nanoseconds, drawn from {@code random}
+     */
+    long sampleNanos(SplittableRandom random);
+
+    static LatencyDistribution fixed(long latency, TimeUnit unit) {
+        final long nanos = unit.toNanos(latency);
+        return random -> nanos;
+    }
+
+    static LatencyDistribution uniform(long min, long max, TimeUnit unit) {
+        if (min > max) {
+            throw new IllegalArgumentException("min must not be greater than max");
+        }
+        final long minNanos = unit.toNanos(min);
+        final long maxNanos = unit.toNanos(max);
+        return random -> minNanos == maxNanos ? minNanos : random.nextLong(minNanos, maxNanos + 1);
+    }
+
+    /**
+     * Exponentially distributed latency, as from a queue in front of a busy server.
+     */
+    static LatencyDistribution exponential(long mean, TimeUnit unit) {
+        final double meanNanos = unit.toNanos(mean);
+        return random -> (long) (-meanNanos * Math.log(1 - random.nextDouble()));
+    }
+
+    /**
+     * Log-normal latency with the given median and 99th percentile, a long tail typical of real
+     * services.
+     */
+    static LatencyDistribution logNormal(long median, long p99, TimeUnit unit) {
+        if (median <= 0 || p99 < median) {
+            throw new IllegalArgumentException("median must be positive and not greater than p99");
+        }
+        final double medianNanos = unit.toNanos(median);
+        // 2.326 is the z-score of the 99th percentile
+        final double sigma = Math.log((double) p99 / median) / 2.326;
+        return random -> (long) (medianNanos * Math.exp(sigma * random.nextGaussian()));
+    }
+}
@@ -0,0 +1,190 @@
+package com.orisunlabs.orisun.client;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free latency histogram with HDR-style log-linear buckets.
+ * <p>
+ * Values are nanoseconds, bucketed in 32 linear steps per power of two up to roughly 73 minutes;
+ * larger values land in the last bucket. Percentiles report the highest value of their bucket, so
+ * they overstate the recorded value by up to about 3.1%. Recording is a few atomic increments on a stripe picked
+ * by the calling thread, so threads rarely touch the same counters. Stripes are allocated on first
+ * use and merged when a {@link Snapshot} is taken.
+ */
+public class LatencyHistogram implements MetricsRegistry.Histogram {
+    // 2^SUB_BUCKET_BITS linear sub-buckets per power of two
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+    private static final long MAX_TRACKABLE_VALUE = (1L << 42) - 1;
+    private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_VALUE) + 1;
+
+    // Extra slots after the buckets of each stripe
+    private static final int SUM = BUCKET_COUNT;
+    private static final int MAX = BUCKET_COUNT + 1;
+    private static final int STRIPE_LENGTH = BUCKET_COUNT + 2;
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes;
+    private final int stripeMask;
+
+    public LatencyHistogram() {
+        this(Math.min(8, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1));
+    }
+
+    /**
+     * @param stripes Number of stripes, rounded up to a power of two
+     */
+    public LatencyHistogram(int stripes) {
+        final int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new AtomicReferenceArray<>(size);
+        this.stripeMask = size - 1;
+    }
+
+    @Override
+    public void record(long nanos) {
+        final long value = Math.max(0, Math.min(nanos, MAX_TRACKABLE_VALUE));
+        final AtomicLongArray stripe = stripe();
+        stripe.incrementAndGet(indexOf(value));
+        stripe.addAndGet(SUM, value);
+
+        long max = stripe.get(MAX);
+        while (value > max && !stripe.compareAndSet(MAX, max, value)) {
+            max = stripe.get(MAX);
+        }
+    }
+
+    private AtomicLongArray stripe() {
+        int hash = System.identityHashCode(Thread.currentThread());
+        hash ^= hash >>> 16;
+        final int index = hash & stripeMask;
+
+        AtomicLongArray stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new AtomicLongArray(STRIPE_LENGTH));
+            stripe = stripes.get(index);
+        }
+        return stripe;
+    }
+
+    /**
+     * Merge all stripes into an immutable snapshot. Recording may continue concurrently; values
+     * recorded meanwhile may or may not be included.
+     */
+    public Snapshot snapshot() {
+        final long[] counts = new long[BUCKET_COUNT];
+        long sum = 0;
+        long max = 0;
+        for (int s = 0; s < stripes.length(); s++) {
+            final AtomicLongArray stripe = stripes.get(s);
+            if (stripe == null) {
+                continue;
+            }
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] += stripe.get(i);
+            }
+            sum += stripe.get(SUM);
+            max = Math.max(max, stripe.get(MAX));
+        }
+        return new Snapshot(counts, sum, max);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return (shift << (SUB_BUCKET_BITS - 1)) + (int) (value >>> shift);
+    }
+
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = (index >> (SUB_BUCKET_BITS - 1)) - 1;
+        final long subBucket = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Immutable, mergeable view of a histogram.
+     */
+    public static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(new long[BUCKET_COUNT], 0, 0);
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long sum, long max) {
+            this.counts = counts;
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            this.count = total;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public static Snapshot empty() {
+            return EMPTY;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the sum of all recorded values in nanoseconds
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * @param percentile Percentile between 0 and 100
+         * @return the highest value equivalent to the one at {@code percentile}, in nanoseconds
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueOf(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * @return a snapshot holding the values of both snapshots
+         */
+        public Snapshot merge(Snapshot other) {
+            final long[] merged = counts.clone();
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] += other.counts[i];
+            }
+            return new Snapshot(merged, sum + other.sum, Math.max(max, other.max));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.0fns p50=%dns p99=%dns max=%dns",
+                    count, getMean(), getValueAtPercentile(50), getValueAtPercentile(99), max);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.orisunlabs.orisun.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated log records.
+ * <p>
+ * Producers claim a sequence with a CAS, fill the slot in place and publish it by writing the
+ * sequence into the slot. A single daemon thread drains published records in order and hands them
+ * to the {@link Consumer} in batches. No locks are taken on the logging path.
+ */
+class LogRingBuffer implements AutoCloseable {
+
+    /**
+     * Receives drained records on the writer thread.
+     */
+    interface Consumer {
+        void onRecord(Record record);
+
+        /**
+         * Called after each batch.
+         */
+        void endOfBatch();
+    }
+
+    static final class Record {
+        // Sequence the slot was last published with, -1 until first use
+        private volatile long published = -1;
+        DefaultLogger.LogLevel level;
+        long timestampMillis;
+        String threadName;
+        String message;
+        Throwable throwable;
+        Object[] args;
+
+        private void clear() {
+            threadName = null;
+            message = null;
+            throwable = null;
+            args = null;
+        }
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Record[] slots;
+    private final int mask;
+    private final DefaultLogger.OverflowPolicy overflowPolicy;
+    private final Consumer consumer;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile long consumed;
+    private volatile boolean writerParked;
+    private volatile boolean closed;
+
+    LogRingBuffer(int capacity, DefaultLogger.OverflowPolicy overflowPolicy, Consumer consumer) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        // Round up to a power of two so a slot index is a mask away from its sequence
+        final int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new Record[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Record();
+        }
+        this.mask = size - 1;
+        this.overflowPolicy = overflowPolicy;
+        this.consumer = consumer;
+        this.writer = new Thread(this::drainLoop, "orisun-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    private static void endStall(FlightEvents.BackpressureStall stall, boolean acquired) {
+        if (stall == null) {
+            return;
+        }
+        stall.end();
+        if (stall.shouldCommit()) {
+            stall.source = "async log buffer";
+            stall.acquired = acquired;
+            stall.commit();
+        }
+    }
+
+    /**
+     * Publish a record.
+     *
+     * @return false if the record was dropped because the ring was full or closed
+     */
+    boolean publish(DefaultLogger.LogLevel level, String message, Throwable throwable, Object[] args) {
+        long sequence;
+        // Only created when a BLOCK producer has to wait for the writer
+        FlightEvents.BackpressureStall stall = null;
+        while (true) {
+            if (closed) {
+                dropped.incrementAndGet();
+                endStall(stall, false);
+                return false;
+            }
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                if (overflowPolicy == DefaultLogger.OverflowPolicy.DROP) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                if (stall == null) {
+                    stall = new FlightEvents.BackpressureStall();
+                    stall.begin();
+                }
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+                continue;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+        endStall(stall, true);
+
+        final Record record = slots[(int) sequence & mask];
+        record.level = level;
+        record.timestampMillis = System.currentTimeMillis();
+        record.threadName = Thread.currentThread().getName();
+        record.message = message;
+        record.throwable = throwable;
+        record.args = args;
+        record.published = sequence;
+
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of records dropped because the ring was full or closed
+     */
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    int getCapacity() {
+        return slots.length;
+    }
+
+    private void drainLoop() {
+        while (true) {
+            if (drain() > 0) {
+                continue;
+            }
+            if (closed && consumed == claimed.get()) {
+                return;
+            }
+
+            // Announce the park before re-checking, a producer publishing in between will unpark us
+            writerParked = true;
+            if (!isAvailable(consumed) && !closed) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            writerParked = false;
+        }
+    }
+
+    private int drain() {
+        long next = consumed;
+        int count = 0;
+        while (isAvailable(next)) {
+            final Record record = slots[(int) next & mask];
+            try {
+                consumer.onRecord(record);
+            } catch (RuntimeException e) {
+                // A broken record must not stop the writer
+            }
+            record.clear();
+            next++;
+            count++;
+            // Free the slot for producers as soon as it has been read
+            consumed = next;
+        }
+        if (count > 0) {
+            consumer.endOfBatch();
+        }
+        return count;
+    }
+
+    private boolean isAvailable(long sequence) {
+        return slots[(int) sequence & mask].published == sequence;
+    }
+
+    /**
+     * Stop accepting records and wait for the writer to drain the ones already published.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
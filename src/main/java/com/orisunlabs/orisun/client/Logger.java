@@ -1,7 +1,13 @@
 package com.orisunlabs.orisun.client;
 
+import java.util.function.Supplier;
+
 /**
  * Logger interface for the Orisun client
+ * <p>
+ * Implementations only need the varargs methods and the level checks. The fixed-arity and
+ * {@link Supplier} overloads check the level first, so a disabled statement costs neither a varargs
+ * array nor building its arguments. Messages use {@code {}} placeholders.
  */
 public interface Logger {
     void debug(String message, Object... args);
@@ -9,16 +15,96 @@ public interface Logger {
     void warn(String message, Object... args);
     void error(String message, Object... args);
     void error(String message, Throwable throwable, Object... args);
-    
+
     /**
      * Check if debug logging is enabled
      * @return true if debug logging is enabled
      */
     boolean isDebugEnabled();
-    
+
     /**
      * Check if info logging is enabled
      * @return true if info logging is enabled
      */
     boolean isInfoEnabled();
-}
\ No newline at end of file
+
+    /**
+     * Check if warn logging is enabled
+     * @return true if warn logging is enabled
+     */
+    default boolean isWarnEnabled() {
+        return true;
+    }
+
+    default void debug(String message) {
+        if (isDebugEnabled()) {
+            debug(message, new Object[0]);
+        }
+    }
+
+    default void debug(String message, Object arg) {
+        if (isDebugEnabled()) {
+            debug(message, new Object[]{arg});
+        }
+    }
+
+    default void debug(String message, Object arg1, Object arg2) {
+        if (isDebugEnabled()) {
+            debug(message, new Object[]{arg1, arg2});
+        }
+    }
+
+    /**
+     * Log a message built only if debug logging is enabled
+     */
+    default void debug(Supplier<String> message) {
+        if (isDebugEnabled()) {
+            debug(message.get(), new Object[0]);
+        }
+    }
+
+    default void info(String message) {
+        if (isInfoEnabled()) {
+            info(message, new Object[0]);
+        }
+    }
+
+    default void info(String message, Object arg) {
+        if (isInfoEnabled()) {
+            info(message, new Object[]{arg});
+        }
+    }
+
+    default void info(String message, Object arg1, Object arg2) {
+        if (isInfoEnabled()) {
+            info(message, new Object[]{arg1, arg2});
+        }
+    }
+
+    /**
+     * Log a message built only if info logging is enabled
+     */
+    default void info(Supplier<String> message) {
+        if (isInfoEnabled()) {
+            info(message.get(), new Object[0]);
+        }
+    }
+
+    default void warn(String message) {
+        if (isWarnEnabled()) {
+            warn(message, new Object[0]);
+        }
+    }
+
+    default void warn(String message, Object arg) {
+        if (isWarnEnabled()) {
+            warn(message, new Object[]{arg});
+        }
+    }
+
+    default void warn(String message, Object arg1, Object arg2) {
+        if (isWarnEnabled()) {
+            warn(message, new Object[]{arg1, arg2});
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.orisunlabs.orisun.client;
+
+/**
+ * Picks the logger used when none is configured.
+ */
+final class Loggers {
+    private static final String LOGGER_NAME = "com.orisunlabs.orisun.client";
+    private static final boolean SLF4J_AVAILABLE = isSlf4jAvailable();
+
+    private Loggers() {
+    }
+
+    /**
+     * SLF4J if it is on the classpath, otherwise a console logger printing warnings and errors.
+     */
+    static Logger defaultLogger() {
+        // Slf4jLogger is only loaded on this branch, so SLF4J stays an optional dependency
+        return SLF4J_AVAILABLE ? new Slf4jLogger(LOGGER_NAME) : new DefaultLogger(DefaultLogger.LogLevel.WARN);
+    }
+
+    private static boolean isSlf4jAvailable() {
+        try {
+            Class.forName("org.slf4j.LoggerFactory", false, Loggers.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.admin.AdminGrpc;
+import com.orisun.eventstore.EventStoreGrpc;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Table of per-method deadline and retry policies, applied to a channel through its service config.
+ * <p>
+ * Reads are safe to retry. Writes are only retried when they are idempotent, which is the case for
+ * {@code SaveEvents} because the server deduplicates events by their {@code eventId}: a retried
+ * request carries the same event IDs as the original one. Streaming subscriptions are never retried.
+ */
+public class MethodPolicies {
+    private final Map<String, MethodPolicy> policies;
+    private final long retryBufferSize;
+    private final long perRpcBufferLimit;
+
+    public static class Builder {
+        private final Map<String, MethodPolicy> policies = new LinkedHashMap<>();
+        private long retryBufferSize;
+        private long perRpcBufferLimit;
+
+        public Builder withPolicy(MethodDescriptor<?, ?> method, MethodPolicy policy) {
+            return withPolicy(method.getFullMethodName(), policy);
+        }
+
+        /**
+         * @param fullMethodName method name in the form {@code package.Service/Method}
+         */
+        public Builder withPolicy(String fullMethodName, MethodPolicy policy) {
+            if (MethodDescriptor.extractFullServiceName(fullMethodName) == null) {
+                throw new IllegalArgumentException("Invalid full method name: " + fullMethodName);
+            }
+            policies.put(fullMethodName, Objects.requireNonNull(policy, "policy"));
+            return this;
+        }
+
+        /**
+         * Add every policy of another table, replacing existing entries for the same methods.
+         */
+        public Builder withPolicies(MethodPolicies other) {
+            policies.putAll(other.policies);
+            if (other.retryBufferSize > 0) {
+                retryBufferSize = other.retryBufferSize;
+            }
+            if (other.perRpcBufferLimit > 0) {
+                perRpcBufferLimit = other.perRpcBufferLimit;
+            }
+            return this;
+        }
+
+        /**
+         * Total memory the channel may use to buffer requests for retries. Zero keeps the gRPC default.
+         */
+        public Builder withRetryBufferSize(long bytes) {
+            this.retryBufferSize = bytes;
+            return this;
+        }
+
+        /**
+         * Memory a single call may use to buffer its request for retries. Zero keeps the gRPC default.
+         */
+        public Builder withPerRpcBufferLimit(long bytes) {
+            this.perRpcBufferLimit = bytes;
+            return this;
+        }
+
+        public MethodPolicies build() {
+            return new MethodPolicies(this);
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Default policy for reads: the client timeout and up to three attempts on {@code UNAVAILABLE}.
+     */
+    public static MethodPolicy defaultReadPolicy(int timeoutSeconds) {
+        return MethodPolicy.newBuilder()
+                .withTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .withMaxAttempts(3)
+                .withInitialBackoff(100, TimeUnit.MILLISECONDS)
+                .withMaxBackoff(1, TimeUnit.SECONDS)
+                .withRetryableStatusCodes(Status.Code.UNAVAILABLE)
+                .build();
+    }
+
+    /**
+     * Default policy for idempotent writes: the client timeout and up to three attempts on
+     * {@code UNAVAILABLE}, backing off more slowly than reads.
+     */
+    public static MethodPolicy defaultIdempotentWritePolicy(int timeoutSeconds) {
+        return MethodPolicy.newBuilder()
+                .withTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .withMaxAttempts(3)
+                .withInitialBackoff(250, TimeUnit.MILLISECONDS)
+                .withMaxBackoff(2, TimeUnit.SECONDS)
+                .withRetryableStatusCodes(Status.Code.UNAVAILABLE)
+                .build();
+    }
+
+    /**
+     * Default policy for calls that must not be retried: the client timeout only.
+     */
+    public static MethodPolicy defaultNonRetryablePolicy(int timeoutSeconds) {
+        return MethodPolicy.newBuilder()
+                .withTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Defaults for the event store service.
+     */
+    static Builder eventStoreDefaults(int timeoutSeconds) {
+        return newBuilder()
+                .withPolicy(EventStoreGrpc.getGetEventsMethod(), defaultReadPolicy(timeoutSeconds))
+                .withPolicy(EventStoreGrpc.getGetLatestByCriteriaMethod(), defaultReadPolicy(timeoutSeconds))
+                .withPolicy(EventStoreGrpc.getPingMethod(), defaultReadPolicy(timeoutSeconds))
+                .withPolicy(EventStoreGrpc.getSaveEventsMethod(), defaultIdempotentWritePolicy(timeoutSeconds))
+                .withPolicy(EventStoreGrpc.getCreateIndexMethod(), defaultNonRetryablePolicy(timeoutSeconds))
+                .withPolicy(EventStoreGrpc.getDropIndexMethod(), defaultNonRetryablePolicy(timeoutSeconds));
+    }
+
+    /**
+     * Defaults for the admin service.
+     */
+    static Builder adminDefaults(int timeoutSeconds) {
+        return newBuilder()
+                .withPolicy(AdminGrpc.getListUsersMethod(), defaultReadPolicy(timeoutSeconds))
+                .withPolicy(AdminGrpc.getGetUserCountMethod(), defaultReadPolicy(timeoutSeconds))
+                .withPolicy(AdminGrpc.getGetEventCountMethod(), defaultReadPolicy(timeoutSeconds))
+                .withPolicy(AdminGrpc.getValidateCredentialsMethod(), defaultReadPolicy(timeoutSeconds))
+                .withPolicy(AdminGrpc.getCreateUserMethod(), defaultNonRetryablePolicy(timeoutSeconds))
+                .withPolicy(AdminGrpc.getDeleteUserMethod(), defaultNonRetryablePolicy(timeoutSeconds))
+                .withPolicy(AdminGrpc.getChangePasswordMethod(), defaultNonRetryablePolicy(timeoutSeconds));
+    }
+
+    private MethodPolicies(Builder builder) {
+        this.policies = Collections.unmodifiableMap(new LinkedHashMap<>(builder.policies));
+        this.retryBufferSize = builder.retryBufferSize;
+        this.perRpcBufferLimit = builder.perRpcBufferLimit;
+    }
+
+    /**
+     * Get the policy of a method
+     *
+     * @param fullMethodName method name in the form {@code package.Service/Method}
+     * @return The policy, or null if the method has none
+     */
+    public MethodPolicy get(String fullMethodName) {
+        return policies.get(fullMethodName);
+    }
+
+    public Map<String, MethodPolicy> getPolicies() {
+        return policies;
+    }
+
+    /**
+     * Service config "methodConfig" entries for every policy in the table.
+     */
+    List<Map<String, Object>> toMethodConfigs() {
+        List<Map<String, Object>> methodConfigs = new ArrayList<>(policies.size());
+        policies.forEach((fullMethodName, policy) -> methodConfigs.add(policy.toMethodConfig(
+                MethodDescriptor.extractFullServiceName(fullMethodName),
+                MethodDescriptor.extractBareMethodName(fullMethodName))));
+        return methodConfigs;
+    }
+
+    /**
+     * Enable retries on a channel builder and apply the buffer limits. The policies themselves are
+     * part of the service config.
+     */
+    void applyTo(ManagedChannelBuilder<?> channelBuilder) {
+        channelBuilder.enableRetry();
+        if (retryBufferSize > 0) {
+            channelBuilder.retryBufferSize(retryBufferSize);
+        }
+        if (perRpcBufferLimit > 0) {
+            channelBuilder.perRpcBufferLimit(perRpcBufferLimit);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.orisunlabs.orisun.client;
+
+import io.grpc.Status;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline and retry policy of a single RPC method.
+ * <p>
+ * Policies are rendered into the channel's gRPC service config, so retries are performed by the
+ * gRPC retry machinery itself: they are transparent to the caller, respect the overall deadline
+ * and replay the buffered request without going through application code again.
+ */
+public class MethodPolicy {
+    private final long timeoutNanos;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final double backoffMultiplier;
+    private final Set<Status.Code> retryableStatusCodes;
+
+    public static class Builder {
+        private long timeoutNanos;
+        private int maxAttempts = 1;
+        private long initialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(100);
+        private long maxBackoffNanos = TimeUnit.SECONDS.toNanos(1);
+        private double backoffMultiplier = 2.0;
+        private final Set<Status.Code> retryableStatusCodes = EnumSet.noneOf(Status.Code.class);
+
+        /**
+         * Overall deadline of the call, including all retry attempts. Zero means no deadline.
+         */
+        public Builder withTimeout(long duration, TimeUnit unit) {
+            this.timeoutNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Maximum number of attempts including the original call. One disables retries.
+         */
+        public Builder withMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder withInitialBackoff(long duration, TimeUnit unit) {
+            this.initialBackoffNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        public Builder withMaxBackoff(long duration, TimeUnit unit) {
+            this.maxBackoffNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        public Builder withBackoffMultiplier(double backoffMultiplier) {
+            this.backoffMultiplier = backoffMultiplier;
+            return this;
+        }
+
+        public Builder withRetryableStatusCodes(Status.Code... codes) {
+            this.retryableStatusCodes.clear();
+            this.retryableStatusCodes.addAll(Arrays.asList(codes));
+            return this;
+        }
+
+        public MethodPolicy build() {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be at least 1");
+            }
+            if (maxAttempts > 1) {
+                if (retryableStatusCodes.isEmpty()) {
+                    throw new IllegalArgumentException("Retryable status codes are required when retries are enabled");
+                }
+                if (initialBackoffNanos <= 0 || maxBackoffNanos <= 0 || backoffMultiplier <= 0) {
+                    throw new IllegalArgumentException("Backoff settings must be positive");
+                }
+            }
+            return new MethodPolicy(this);
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    private MethodPolicy(Builder builder) {
+        this.timeoutNanos = builder.timeoutNanos;
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoffNanos = builder.initialBackoffNanos;
+        this.maxBackoffNanos = builder.maxBackoffNanos;
+        this.backoffMultiplier = builder.backoffMultiplier;
+        Set<Status.Code> codes = EnumSet.noneOf(Status.Code.class);
+        codes.addAll(builder.retryableStatusCodes);
+        this.retryableStatusCodes = Collections.unmodifiableSet(codes);
+    }
+
+    public long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getInitialBackoffNanos() {
+        return initialBackoffNanos;
+    }
+
+    public long getMaxBackoffNanos() {
+        return maxBackoffNanos;
+    }
+
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    public Set<Status.Code> getRetryableStatusCodes() {
+        return retryableStatusCodes;
+    }
+
+    /**
+     * Render this policy as a service config "methodConfig" entry.
+     */
+    Map<String, Object> toMethodConfig(String service, String method) {
+        Map<String, Object> methodConfig = new LinkedHashMap<>();
+        methodConfig.put("name", List.of(Map.of("service", service, "method", method)));
+
+        if (timeoutNanos > 0) {
+            methodConfig.put("timeout", duration(timeoutNanos));
+        }
+
+        if (maxAttempts > 1) {
+            List<String> codes = new ArrayList<>();
+            for (Status.Code code : retryableStatusCodes) {
+                codes.add(code.name());
+            }
+
+            Map<String, Object> retryPolicy = new LinkedHashMap<>();
+            retryPolicy.put("maxAttempts", (double) maxAttempts);
+            retryPolicy.put("initialBackoff", duration(initialBackoffNanos));
+            retryPolicy.put("maxBackoff", duration(maxBackoffNanos));
+            retryPolicy.put("backoffMultiplier", backoffMultiplier);
+            retryPolicy.put("retryableStatusCodes", codes);
+            methodConfig.put("retryPolicy", retryPolicy);
+        }
+
+        return methodConfig;
+    }
+
+    private static String duration(long nanos) {
+        return String.format(Locale.ROOT, "%d.%09ds", nanos / 1_000_000_000L, nanos % 1_000_000_000L);
+    }
+}
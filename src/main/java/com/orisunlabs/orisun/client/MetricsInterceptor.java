@@ -0,0 +1,153 @@
+package com.orisunlabs.orisun.client;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.*;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records per-method and per-boundary call metrics into a {@link MetricsRegistry}:
+ * <ul>
+ *     <li>{@value #DURATION}: latency histogram from start to close, tagged method and boundary</li>
+ *     <li>{@value #CALLS}: completed calls, tagged method, boundary and status</li>
+ *     <li>{@value #REQUEST_BYTES} and {@value #RESPONSE_BYTES}: serialized message sizes</li>
+ *     <li>{@value #IN_FLIGHT}: calls started but not closed, tagged method</li>
+ * </ul>
+ * Calls whose request has no boundary are tagged {@value #NO_BOUNDARY}. Background calls of the
+ * client itself are not recorded.
+ * Instruments are resolved once per method and boundary.
+ */
+class MetricsInterceptor implements ClientInterceptor {
+    static final String DURATION = "orisun.client.rpc.duration";
+    static final String CALLS = "orisun.client.rpc.calls";
+    static final String REQUEST_BYTES = "orisun.client.rpc.request.bytes";
+    static final String RESPONSE_BYTES = "orisun.client.rpc.response.bytes";
+    static final String IN_FLIGHT = "orisun.client.rpc.in_flight";
+    static final String NO_BOUNDARY = RequestBoundaries.NONE;
+
+    private static final Status.Code[] CODES = Status.Code.values();
+
+    private final MetricsRegistry registry;
+    private final ConcurrentHashMap<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    MetricsInterceptor(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+            MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        if (callOptions.getOption(OrisunTransport.BACKGROUND_CALL)) {
+            return next.newCall(method, callOptions);
+        }
+        MethodMetrics metrics = methods.get(method.getFullMethodName());
+        if (metrics == null) {
+            metrics = methods.computeIfAbsent(method.getFullMethodName(),
+                    name -> new MethodMetrics(method.getBareMethodName()));
+        }
+        return new MeteredCall<>(next.newCall(method, callOptions), metrics);
+    }
+
+    static long sizeOf(Object message) {
+        return message instanceof MessageLite lite ? lite.getSerializedSize() : 0;
+    }
+
+    private final class MethodMetrics {
+        private final String method;
+        private final MetricsRegistry.Gauge inFlight;
+        private final ConcurrentHashMap<String, BoundaryMetrics> boundaries = new ConcurrentHashMap<>();
+
+        MethodMetrics(String method) {
+            this.method = method;
+            this.inFlight = registry.gauge(IN_FLIGHT, "method", method);
+        }
+
+        BoundaryMetrics forBoundary(String boundary) {
+            BoundaryMetrics metrics = boundaries.get(boundary);
+            if (metrics == null) {
+                metrics = boundaries.computeIfAbsent(boundary, b -> new BoundaryMetrics(method, b));
+            }
+            return metrics;
+        }
+    }
+
+    private final class BoundaryMetrics {
+        private final String method;
+        private final String boundary;
+        private final MetricsRegistry.Histogram duration;
+        private final MetricsRegistry.Counter requestBytes;
+        private final MetricsRegistry.Counter responseBytes;
+        private final AtomicReferenceArray<MetricsRegistry.Counter> calls = new AtomicReferenceArray<>(CODES.length);
+
+        BoundaryMetrics(String method, String boundary) {
+            this.method = method;
+            this.boundary = boundary;
+            this.duration = registry.histogram(DURATION, "method", method, "boundary", boundary);
+            this.requestBytes = registry.counter(REQUEST_BYTES, "method", method, "boundary", boundary);
+            this.responseBytes = registry.counter(RESPONSE_BYTES, "method", method, "boundary", boundary);
+        }
+
+        MetricsRegistry.Counter calls(Status.Code code) {
+            MetricsRegistry.Counter counter = calls.get(code.ordinal());
+            if (counter == null) {
+                counter = registry.counter(CALLS, "method", method, "boundary", boundary, "status", code.name());
+                calls.set(code.ordinal(), counter);
+            }
+            return counter;
+        }
+    }
+
+    private static final class MeteredCall<ReqT, RespT> extends ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT> {
+        private final MethodMetrics metrics;
+        private long startNanos;
+        private String boundary = NO_BOUNDARY;
+        private long requestBytes;
+
+        MeteredCall(ClientCall<ReqT, RespT> delegate, MethodMetrics metrics) {
+            super(delegate);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            startNanos = System.nanoTime();
+            metrics.inFlight.add(1);
+            super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                private long responseBytes;
+
+                @Override
+                public void onMessage(RespT message) {
+                    responseBytes += sizeOf(message);
+                    super.onMessage(message);
+                }
+
+                @Override
+                public void onClose(Status status, Metadata trailers) {
+                    final long durationNanos = System.nanoTime() - startNanos;
+                    metrics.inFlight.add(-1);
+
+                    final BoundaryMetrics boundaryMetrics = metrics.forBoundary(boundary);
+                    boundaryMetrics.duration.record(durationNanos);
+                    boundaryMetrics.calls(status.getCode()).increment(1);
+                    if (requestBytes > 0) {
+                        boundaryMetrics.requestBytes.increment(requestBytes);
+                    }
+                    if (responseBytes > 0) {
+                        boundaryMetrics.responseBytes.increment(responseBytes);
+                    }
+                    super.onClose(status, trailers);
+                }
+            }, headers);
+        }
+
+        @Override
+        public void sendMessage(ReqT message) {
+            if (boundary == NO_BOUNDARY) {
+                boundary = RequestBoundaries.of(message);
+            }
+            requestBytes += sizeOf(message);
+            super.sendMessage(message);
+        }
+    }
+}
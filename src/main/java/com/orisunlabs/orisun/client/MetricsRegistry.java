@@ -0,0 +1,90 @@
+package com.orisunlabs.orisun.client;
+
+/**
+ * Where the client records its metrics.
+ * <p>
+ * Instruments are looked up by name and tags, given as alternating key and value strings, and are
+ * cached by the caller, so lookups stay off the per-call path. The default {@link #noop()} registry
+ * discards everything; {@link InMemoryMetricsRegistry} keeps values in memory and exposes them
+ * through {@link #snapshot()}. Implement this interface to bridge to another metrics library.
+ */
+public interface MetricsRegistry {
+
+    interface Counter {
+        void increment(long amount);
+    }
+
+    interface Gauge {
+        void set(long value);
+
+        void add(long delta);
+    }
+
+    interface Histogram {
+        /**
+         * @param nanos A duration in nanoseconds
+         */
+        void record(long nanos);
+    }
+
+    Counter counter(String name, String... tags);
+
+    Gauge gauge(String name, String... tags);
+
+    Histogram histogram(String name, String... tags);
+
+    /**
+     * @return the current values of all instruments, empty if this registry does not keep values
+     */
+    MetricsSnapshot snapshot();
+
+    /**
+     * @return a registry that discards all measurements
+     */
+    static MetricsRegistry noop() {
+        return NoopMetricsRegistry.INSTANCE;
+    }
+
+    final class NoopMetricsRegistry implements MetricsRegistry, Counter, Gauge, Histogram {
+        static final NoopMetricsRegistry INSTANCE = new NoopMetricsRegistry();
+
+        private NoopMetricsRegistry() {
+        }
+
+        @Override
+        public Counter counter(String name, String... tags) {
+            return this;
+        }
+
+        @Override
+        public Gauge gauge(String name, String... tags) {
+            return this;
+        }
+
+        @Override
+        public Histogram histogram(String name, String... tags) {
+            return this;
+        }
+
+        @Override
+        public MetricsSnapshot snapshot() {
+            return MetricsSnapshot.EMPTY;
+        }
+
+        @Override
+        public void increment(long amount) {
+        }
+
+        @Override
+        public void set(long value) {
+        }
+
+        @Override
+        public void add(long delta) {
+        }
+
+        @Override
+        public void record(long nanos) {
+        }
+    }
+}
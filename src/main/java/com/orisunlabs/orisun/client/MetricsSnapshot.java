@@ -0,0 +1,131 @@
+package com.orisunlabs.orisun.client;
+
+import java.util.*;
+
+/**
+ * Immutable point-in-time values of the instruments of a {@link MetricsRegistry}.
+ */
+public class MetricsSnapshot {
+    static final MetricsSnapshot EMPTY = new MetricsSnapshot(Map.of(), Map.of(), Map.of());
+
+    private final Map<MetricId, Long> counters;
+    private final Map<MetricId, Long> gauges;
+    private final Map<MetricId, LatencyHistogram.Snapshot> histograms;
+
+    /**
+     * Name and tags of an instrument.
+     */
+    public static final class MetricId {
+        private final String name;
+        private final Map<String, String> tags;
+
+        MetricId(String name, String... tags) {
+            if (tags.length % 2 != 0) {
+                throw new IllegalArgumentException("Tags must be key and value pairs: " + Arrays.toString(tags));
+            }
+            final Map<String, String> tagMap = new TreeMap<>();
+            for (int i = 0; i < tags.length; i += 2) {
+                tagMap.put(tags[i], tags[i + 1]);
+            }
+            this.name = name;
+            this.tags = Collections.unmodifiableMap(tagMap);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Map<String, String> getTags() {
+            return tags;
+        }
+
+        public String getTag(String key) {
+            return tags.get(key);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MetricId other)) {
+                return false;
+            }
+            return name.equals(other.name) && tags.equals(other.tags);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, tags);
+        }
+
+        @Override
+        public String toString() {
+            return name + tags;
+        }
+    }
+
+    MetricsSnapshot(Map<MetricId, Long> counters, Map<MetricId, Long> gauges,
+                    Map<MetricId, LatencyHistogram.Snapshot> histograms) {
+        this.counters = Collections.unmodifiableMap(counters);
+        this.gauges = Collections.unmodifiableMap(gauges);
+        this.histograms = Collections.unmodifiableMap(histograms);
+    }
+
+    public Map<MetricId, Long> getCounters() {
+        return counters;
+    }
+
+    public Map<MetricId, Long> getGauges() {
+        return gauges;
+    }
+
+    public Map<MetricId, LatencyHistogram.Snapshot> getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * Sum of the counters named {@code name} whose tags include all of {@code tags}.
+     */
+    public long counter(String name, String... tags) {
+        long total = 0;
+        for (Map.Entry<MetricId, Long> entry : counters.entrySet()) {
+            if (matches(entry.getKey(), name, tags)) {
+                total += entry.getValue();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Value of the gauge named {@code name} with exactly {@code tags}, or 0 if there is none.
+     */
+    public long gauge(String name, String... tags) {
+        return gauges.getOrDefault(new MetricId(name, tags), 0L);
+    }
+
+    /**
+     * Merge of the histograms named {@code name} whose tags include all of {@code tags}.
+     */
+    public LatencyHistogram.Snapshot histogram(String name, String... tags) {
+        LatencyHistogram.Snapshot merged = LatencyHistogram.Snapshot.empty();
+        for (Map.Entry<MetricId, LatencyHistogram.Snapshot> entry : histograms.entrySet()) {
+            if (matches(entry.getKey(), name, tags)) {
+                merged = merged.merge(entry.getValue());
+            }
+        }
+        return merged;
+    }
+
+    private static boolean matches(MetricId id, String name, String... tags) {
+        if (!id.getName().equals(name)) {
+            return false;
+        }
+        for (int i = 0; i + 1 < tags.length; i += 2) {
+            if (!tags[i + 1].equals(id.getTag(tags[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -5,7 +5,16 @@ public class OptimisticConcurrencyException extends RuntimeException {
     private final long actualVersion;
 
     public OptimisticConcurrencyException(String message, long expectedVersion, long actualVersion) {
-        super(message);
+        this(message, expectedVersion, actualVersion, true);
+    }
+
+    /**
+     * @param writableStackTrace false to skip capturing the stack trace, conflicts are expected under
+     *                           contention and callers retry rather than debug them
+     */
+    public OptimisticConcurrencyException(String message, long expectedVersion, long actualVersion,
+                                          boolean writableStackTrace) {
+        super(message, null, true, writableStackTrace);
         this.expectedVersion = expectedVersion;
         this.actualVersion = actualVersion;
     }
@@ -1,45 +1,56 @@
 package com.orisunlabs.orisun.client;
 
 import io.grpc.*;
+import io.grpc.stub.AbstractStub;
+import io.grpc.stub.ClientCalls;
 import io.grpc.stub.StreamObserver;
 import com.orisun.eventstore.*;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 public class OrisunClient implements AutoCloseable {
-    private final ManagedChannel channel;
+    private final OrisunTransport transport;
+    private final boolean ownsTransport;
+    private final ConcurrencyLimiter readLimiter;
+    private final ConcurrencyLimiter writeLimiter;
     private final EventStoreGrpc.EventStoreBlockingStub blockingStub;
     private final EventStoreGrpc.EventStoreStub asyncStub;
+    private final Channel callChannel;
     private final int defaultTimeoutSeconds;
+    private final boolean applyDefaultDeadlines;
+    private final long lagProbeIntervalMillis;
+    private final boolean validateEvents;
+    private final int parallelValidationThreshold;
+    private final boolean stackTraces;
+    private final EventCodecs codecs;
     private final Logger logger;
-    private final TokenCache tokenCache;
     private final boolean disposed = false;
-    private final String username;
-    private final String password;
+    private volatile CompletableFuture<Void> readiness = CompletableFuture.completedFuture(null);
 
     public static class Builder {
-        private List<ServerAddress> servers = new ArrayList<>();
-        private int timeoutSeconds = 30;
-        private boolean useTls = false;
-        private ManagedChannel channel;
-        private String loadBalancingPolicy = "round_robin";
-        private String username;
-        private String password;
-        private Logger logger;
-        private boolean enableLogging = false;
-        private DefaultLogger.LogLevel logLevel = DefaultLogger.LogLevel.INFO;
-        private boolean useDnsResolver = true;
-
-        // Keep-alive settings
-        private long keepAliveTimeMs = 30000;
-        private long keepAliveTimeoutMs = 10000;
-        private boolean keepAlivePermitWithoutCalls = true;
-
-        // DNS and static target settings
-        private String dnsTarget;
-        private String staticTarget;
+        private final OrisunTransport.Builder transportBuilder = OrisunTransport.newBuilder();
+        private OrisunTransport transport;
+
+        // Adaptive concurrency limits
+        private ConcurrencyLimiter readLimiter;
+        private ConcurrencyLimiter writeLimiter;
+
+        // Warm-up
+        private WarmupOptions warmupOptions;
+
+        // Subscription lag sampling
+        private long lagProbeIntervalMillis = 10000;
+
+        // Validation of saved events
+        private boolean validateEvents = true;
+        private int parallelValidationThreshold;
+        private boolean stackTraces = true;
+
+        // Typed events
+        private EventCodecs codecs = EventCodecs.newBuilder().build();
 
         // Keep the original methods for backward compatibility
         public Builder withHost(String host) {
@@ -47,270 +58,289 @@ public class OrisunClient implements AutoCloseable {
         }
 
         public Builder withPort(int port) {
-            if (servers.isEmpty()) {
-                servers.add(new ServerAddress("localhost", port));
-            } else {
-                // Update the last added server's port
-                ServerAddress lastServer = servers.get(servers.size() - 1);
-                servers.set(servers.size() - 1, new ServerAddress(lastServer.host, port));
-            }
+            transportBuilder.withPort(port);
             return this;
         }
 
         // New methods for multiple servers
         public Builder withServer(String host, int port) {
-            servers.add(new ServerAddress(host, port));
+            transportBuilder.withServer(host, port);
             return this;
         }
 
         public Builder withServers(List<ServerAddress> servers) {
-            this.servers.addAll(servers);
+            for (ServerAddress server : servers) {
+                transportBuilder.withServer(server.host, server.port);
+            }
             return this;
         }
 
         public Builder withLoadBalancingPolicy(String policy) {
-            this.loadBalancingPolicy = policy;
+            transportBuilder.withLoadBalancingPolicy(policy);
             return this;
         }
 
         // DNS-based load balancing
         public Builder withDnsTarget(String dnsTarget) {
-            this.dnsTarget = dnsTarget;
+            transportBuilder.withDnsTarget(dnsTarget);
             return this;
         }
 
         public Builder withStaticTarget(String staticTarget) {
-            this.staticTarget = staticTarget;
+            transportBuilder.withStaticTarget(staticTarget);
             return this;
         }
 
         public Builder withDnsResolver(boolean useDns) {
-            this.useDnsResolver = useDns;
+            transportBuilder.withDnsResolver(useDns);
             return this;
         }
 
         public Builder withTimeout(int seconds) {
-            this.timeoutSeconds = seconds;
+            transportBuilder.withTimeout(seconds);
             return this;
         }
 
         public Builder withTls(boolean useTls) {
-            this.useTls = useTls;
+            transportBuilder.withTls(useTls);
             return this;
         }
 
         public Builder withChannel(ManagedChannel channel) {
-            this.channel = channel;
+            transportBuilder.withChannel(channel);
+            return this;
+        }
+
+        /**
+         * Use a transport shared with other clients. Connection, authentication, logging and
+         * timeout settings of this builder are ignored, and the client does not close the
+         * transport.
+         */
+        public Builder withTransport(OrisunTransport transport) {
+            this.transport = transport;
             return this;
         }
 
         // Add authentication methods
         public Builder withBasicAuth(String username, String password) {
-            this.username = username;
-            this.password = password;
+            transportBuilder.withBasicAuth(username, password);
             return this;
         }
 
         // Add logging methods
         public Builder withLogger(Logger logger) {
-            this.logger = logger;
+            transportBuilder.withLogger(logger);
             return this;
         }
 
         public Builder withLogging(boolean enableLogging) {
-            this.enableLogging = enableLogging;
+            transportBuilder.withLogging(enableLogging);
             return this;
         }
 
         public Builder withLogLevel(DefaultLogger.LogLevel level) {
-            this.logLevel = level;
+            transportBuilder.withLogLevel(level);
             return this;
         }
 
         // Add keep-alive methods
         public Builder withKeepAliveTime(long keepAliveTimeMs) {
-            this.keepAliveTimeMs = keepAliveTimeMs;
+            transportBuilder.withKeepAliveTime(keepAliveTimeMs);
             return this;
         }
 
         public Builder withKeepAliveTimeout(long keepAliveTimeoutMs) {
-            this.keepAliveTimeoutMs = keepAliveTimeoutMs;
+            transportBuilder.withKeepAliveTimeout(keepAliveTimeoutMs);
             return this;
         }
 
         public Builder withKeepAlivePermitWithoutCalls(boolean permitWithoutCalls) {
-            this.keepAlivePermitWithoutCalls = permitWithoutCalls;
+            transportBuilder.withKeepAlivePermitWithoutCalls(permitWithoutCalls);
             return this;
         }
 
-        public OrisunClient build() {
-            // Initialize logger
-            Logger clientLogger;
-            // Minimal logging by default
-            if (enableLogging && logger == null) {
-                clientLogger = new DefaultLogger(logLevel);
-            } else
-                clientLogger = Objects.requireNonNullElseGet(logger,
-                        () -> new DefaultLogger(DefaultLogger.LogLevel.WARN));
-
-            // Initialize token cache
-            TokenCache clientTokenCache = new TokenCache(clientLogger);
-
-            if (this.channel == null) {
-                ManagedChannelBuilder<?> channelBuilder;
-
-                // Check for DNS or static targets first
-                if (dnsTarget != null && !dnsTarget.trim().isEmpty()) {
-                    // DNS-based load balancing
-                    String target = dnsTarget.startsWith("dns:///") ? dnsTarget : "dns:///" + dnsTarget;
-                    channelBuilder = ManagedChannelBuilder.forTarget(target)
-                            .defaultLoadBalancingPolicy(loadBalancingPolicy)
-                            .keepAliveTime(keepAliveTimeMs, TimeUnit.MILLISECONDS)
-                            .keepAliveTimeout(keepAliveTimeoutMs, TimeUnit.MILLISECONDS)
-                            .keepAliveWithoutCalls(keepAlivePermitWithoutCalls);
-
-                    if (!useTls) {
-                        channelBuilder.usePlaintext();
-                    }
+        // Adaptive concurrency limiting
+        public Builder withReadConcurrencyLimiter(ConcurrencyLimiter limiter) {
+            this.readLimiter = limiter;
+            return this;
+        }
 
-                    this.channel = channelBuilder.build();
-                } else if (staticTarget != null && !staticTarget.trim().isEmpty()) {
-                    // Static-based load balancing
-                    String target = staticTarget.startsWith("static:///") ? staticTarget : "static:///" + staticTarget;
-                    channelBuilder = ManagedChannelBuilder.forTarget(target)
-                            .defaultLoadBalancingPolicy(loadBalancingPolicy)
-                            .keepAliveTime(keepAliveTimeMs, TimeUnit.MILLISECONDS)
-                            .keepAliveTimeout(keepAliveTimeoutMs, TimeUnit.MILLISECONDS)
-                            .keepAliveWithoutCalls(keepAlivePermitWithoutCalls);
-
-                    if (!useTls) {
-                        channelBuilder.usePlaintext();
-                    }
+        public Builder withWriteConcurrencyLimiter(ConcurrencyLimiter limiter) {
+            this.writeLimiter = limiter;
+            return this;
+        }
 
-                    this.channel = channelBuilder.build();
-                } else {
-                    // Traditional server-based load balancing
-                    if (servers.isEmpty()) {
-                        // Default to localhost if no servers specified
-                        servers.add(new ServerAddress("localhost", 5005));
-                    }
+        /**
+         * Record call latency, throughput and payload sizes into {@code metrics}.
+         */
+        public Builder withMetrics(MetricsRegistry metrics) {
+            transportBuilder.withMetrics(metrics);
+            return this;
+        }
 
-                    // Create channel with load balancing
-                    if (servers.size() == 1) {
-                        // Single server case
-                        ServerAddress server = servers.getFirst();
-                        channelBuilder = ManagedChannelBuilder.forAddress(server.host, server.port);
-                    } else {
-                        // Multiple servers case - check for comma-separated hosts and use name resolver and load balancing
-                        String target;
-
-                        // Check if any host contains commas for manual load balancing
-                        boolean hasCommaSeparatedHosts = false;
-                        for (ServerAddress server : servers) {
-                            if (server.host.contains(",")) {
-                                hasCommaSeparatedHosts = true;
-                                break;
-                            }
-                        }
+        /**
+         * Trace calls and subscription deliveries, see {@link OrisunTransport.Builder#withTracer(Tracer)}.
+         */
+        public Builder withTracer(Tracer tracer) {
+            transportBuilder.withTracer(tracer);
+            return this;
+        }
 
-                        if (hasCommaSeparatedHosts) {
-                            // Handle comma-separated list of hosts for manual load balancing
-                            StringBuilder hostsBuilder = new StringBuilder();
-                            for (ServerAddress server : servers) {
-                                if (!hostsBuilder.isEmpty()) {
-                                    hostsBuilder.append(",");
-                                }
-                                hostsBuilder.append(server.host).append(":").append(server.port);
-                            }
-                            target = hostsBuilder.toString();
-                        } else {
-                            // Use DNS or static resolver
-                            target = createTargetString(servers);
-                        }
+        public Builder withTraceSampler(Sampler sampler) {
+            transportBuilder.withTraceSampler(sampler);
+            return this;
+        }
 
-                        channelBuilder = ManagedChannelBuilder.forTarget(target)
-                                .defaultLoadBalancingPolicy(loadBalancingPolicy);
-                    }
+        public Builder withTraceEventMetadata(boolean enabled) {
+            transportBuilder.withTraceEventMetadata(enabled);
+            return this;
+        }
 
-                    if (!useTls) {
-                        channelBuilder.usePlaintext();
-                    }
+        /**
+         * Inject faults into calls, see {@link OrisunTransport.Builder#withFaultInjection(FaultInjection)}.
+         */
+        public Builder withFaultInjection(FaultInjection faultInjection) {
+            transportBuilder.withFaultInjection(faultInjection);
+            return this;
+        }
 
-                    // Apply keep-alive settings
-                    channelBuilder.keepAliveTime(keepAliveTimeMs, TimeUnit.MILLISECONDS)
-                            .keepAliveTimeout(keepAliveTimeoutMs, TimeUnit.MILLISECONDS)
-                            .keepAliveWithoutCalls(keepAlivePermitWithoutCalls);
-
-                    channelBuilder.intercept(new ClientInterceptor() {
-                        @Override
-                        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
-                                MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
-
-                            return new ForwardingClientCall.SimpleForwardingClientCall<>(
-                                    next.newCall(method, callOptions)) {
-
-                                @Override
-                                public void start(Listener<RespT> responseListener, Metadata headers) {
-                                    final var metadata = clientTokenCache.createAuthMetadata(() ->
-                                            username != null && password != null ? "Basic " + java.util.Base64.getEncoder()
-                                                    .encodeToString((username + ":" + password).getBytes()) : null);
-                                    // Copy metadata from our prepared metadata
-                                    metadata.keys().forEach(key -> {
-                                        for (String value : Objects.requireNonNull(metadata
-                                                .getAll(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER)))) {
-                                            headers.put(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER), value);
-                                        }
-                                    });
-                                    super.start(new Listener<>() {
-                                                    @Override
-                                                    public void onHeaders(Metadata headers) {
-                                                        // Extract and cache token from response headers
-                                                        clientTokenCache.extractAndCacheToken(headers);
-
-                                                        responseListener.onHeaders(headers);
-                                                    }
-
-                                                    @Override
-                                                    public void onMessage(RespT message) {
-                                                        responseListener.onMessage(message);
-                                                    }
-
-                                                    @Override
-                                                    public void onClose(Status status, Metadata trailers) {
-                                                        responseListener.onClose(status, trailers);
-                                                    }
-
-                                                    @Override
-                                                    public void onReady() {
-                                                        responseListener.onReady();
-                                                    }
-                                                },
-                                            headers
-                                    );
-                                }
-                            };
-                        }
-                    });
+        /**
+         * Compress writes, see {@link OrisunTransport.Builder#withWriteCompression(CompressionPolicy)}.
+         */
+        public Builder withWriteCompression(CompressionPolicy policy) {
+            transportBuilder.withWriteCompression(policy);
+            return this;
+        }
 
-                    this.channel = channelBuilder.build();
-                }
+        /**
+         * Compress reads, see {@link OrisunTransport.Builder#withReadCompression(CompressionPolicy)}.
+         */
+        public Builder withReadCompression(CompressionPolicy policy) {
+            transportBuilder.withReadCompression(policy);
+            return this;
+        }
+
+        /**
+         * Compress subscriptions, see
+         * {@link OrisunTransport.Builder#withSubscriptionCompression(CompressionPolicy)}.
+         */
+        public Builder withSubscriptionCompression(CompressionPolicy policy) {
+            transportBuilder.withSubscriptionCompression(policy);
+            return this;
+        }
+
+        public Builder withCompression(MethodDescriptor<?, ?> method, CompressionPolicy policy) {
+            transportBuilder.withCompression(method, policy);
+            return this;
+        }
+
+        public Builder withCompressorRegistry(CompressorRegistry registry) {
+            transportBuilder.withCompressorRegistry(registry);
+            return this;
+        }
+
+        public Builder withDecompressorRegistry(DecompressorRegistry registry) {
+            transportBuilder.withDecompressorRegistry(registry);
+            return this;
+        }
+
+        /**
+         * How often subscriptions sample their boundary's head to compute lag when metrics are
+         * recorded. Zero disables sampling.
+         */
+        public Builder withLagProbeInterval(long interval, TimeUnit unit) {
+            this.lagProbeIntervalMillis = unit.toMillis(interval);
+            return this;
+        }
+
+        /**
+         * Enable per-endpoint circuit breakers. Endpoints with too many failed or slow calls are
+         * ejected from load balancing and probed with {@code ping} before receiving traffic again.
+         * Only applies to channels created by this builder.
+         */
+        public Builder withCircuitBreaker(CircuitBreakerConfig config) {
+            transportBuilder.withCircuitBreaker(config);
+            return this;
+        }
+
+        /**
+         * Override the deadline and retry policy of a single method. Methods without an override
+         * use the defaults from {@link MethodPolicies}, derived from {@link #withTimeout(int)}.
+         * Only applies to channels created by this builder.
+         */
+        public Builder withMethodPolicy(MethodDescriptor<?, ?> method, MethodPolicy policy) {
+            transportBuilder.withMethodPolicy(method, policy);
+            return this;
+        }
+
+        public Builder withMethodPolicies(MethodPolicies policies) {
+            transportBuilder.withMethodPolicies(policies);
+            return this;
+        }
+
+        /**
+         * Warm the client up in the background once it is built. Use {@link OrisunClient#ready()} to
+         * wait for it. For DNS targets set an explicit ping count to reach every resolved endpoint.
+         */
+        public Builder withWarmup(WarmupOptions options) {
+            this.warmupOptions = options;
+            return this;
+        }
+
+        /**
+         * Whether {@code saveEvents} validates requests before sending them. Enabled by default,
+         * disable it for trusted producers whose events are already valid; the server still rejects
+         * invalid events.
+         */
+        public Builder withEventValidation(boolean enabled) {
+            this.validateEvents = enabled;
+            return this;
+        }
+
+        /**
+         * Validate the events of batches with at least {@code events} events in parallel on the
+         * common fork-join pool. Zero, the default, always validates on the calling thread.
+         */
+        public Builder withParallelValidationThreshold(int events) {
+            if (events < 0) {
+                throw new IllegalArgumentException("events must not be negative");
             }
+            this.parallelValidationThreshold = events;
+            return this;
+        }
 
-            return new OrisunClient(this.channel, timeoutSeconds, clientLogger, clientTokenCache, username, password);
+        /**
+         * Whether validation errors and conflicts of {@code saveEvents} capture a stack trace. Enabled
+         * by default; disable it when they are frequent and handled, such as conflicts retried under
+         * contention, as capturing the stack is most of the cost of throwing.
+         */
+        public Builder withStackTraces(boolean enabled) {
+            this.stackTraces = enabled;
+            return this;
         }
 
-        private String createTargetString(List<ServerAddress> servers) {
-            // Choose between DNS and static resolution based on configuration
-            StringBuilder sb = new StringBuilder(useDnsResolver ? "dns:///" : "static:///");
-            boolean first = true;
-            for (ServerAddress server : servers) {
-                if (!first) {
-                    sb.append(",");
-                }
-                sb.append(server.host).append(":").append(server.port);
-                first = false;
+        /**
+         * Codecs of the application event types written with {@link OrisunClient#save} and read with
+         * {@link OrisunClient#getCodecs()}.
+         */
+        public Builder withCodecs(EventCodecs codecs) {
+            this.codecs = codecs;
+            return this;
+        }
+
+        public OrisunClient build() {
+            final boolean ownsTransport = transport == null;
+            final OrisunTransport clientTransport = ownsTransport ? transportBuilder.build() : transport;
+
+            final OrisunClient client = new OrisunClient(clientTransport, ownsTransport, readLimiter, writeLimiter,
+                    lagProbeIntervalMillis, validateEvents, parallelValidationThreshold, stackTraces, codecs);
+
+            if (warmupOptions != null) {
+                client.readiness = ClientWarmup.start(client, clientTransport.getChannel(), warmupOptions,
+                        clientTransport.getEndpointCount(), clientTransport.getLogger());
             }
-            return sb.toString();
+
+            return client;
         }
     }
 
@@ -336,70 +366,237 @@ public class OrisunClient implements AutoCloseable {
         return new Builder();
     }
 
-    private OrisunClient(ManagedChannel channel, int timeoutSeconds, Logger logger, TokenCache tokenCache,
-                         String username, String password) {
-        this.channel = channel;
-        this.defaultTimeoutSeconds = timeoutSeconds;
-        this.logger = logger;
-        this.tokenCache = tokenCache;
-        this.username = username;
-        this.password = password;
-        this.blockingStub = EventStoreGrpc.newBlockingStub(channel);
-        this.asyncStub = EventStoreGrpc.newStub(channel);
+    private OrisunClient(OrisunTransport transport, boolean ownsTransport, ConcurrencyLimiter readLimiter,
+                         ConcurrencyLimiter writeLimiter, long lagProbeIntervalMillis, boolean validateEvents,
+                         int parallelValidationThreshold, boolean stackTraces, EventCodecs codecs) {
+        this.transport = transport;
+        this.ownsTransport = ownsTransport;
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.lagProbeIntervalMillis = lagProbeIntervalMillis;
+        this.validateEvents = validateEvents;
+        this.parallelValidationThreshold = parallelValidationThreshold;
+        this.stackTraces = stackTraces;
+        this.codecs = codecs;
+        this.defaultTimeoutSeconds = transport.getTimeoutSeconds();
+        this.applyDefaultDeadlines = transport.appliesDefaultDeadlines();
+        this.logger = transport.getLogger();
+
+        // Client-side policies are applied on top of the transport so they work for every target mode,
+        // including caller supplied channels
+        final List<ClientInterceptor> interceptors = new ArrayList<>();
+        if (readLimiter != null || writeLimiter != null) {
+            interceptors.add(new ConcurrencyLimitInterceptor(readLimiter, writeLimiter));
+        }
+        this.callChannel = ClientInterceptors.intercept(transport.getCallChannel(), interceptors);
+
+        this.blockingStub = EventStoreGrpc.newBlockingStub(callChannel);
+        this.asyncStub = EventStoreGrpc.newStub(callChannel);
+
+        this.logger.info("OrisunClient initialized with timeout: {} seconds", defaultTimeoutSeconds);
+    }
 
-        this.logger.info("OrisunClient initialized with timeout: {} seconds", timeoutSeconds);
+    private <S extends AbstractStub<S>> S withDefaultDeadline(S stub) {
+        return applyDefaultDeadlines ? stub.withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS) : stub;
     }
 
     // Synchronous methods
     public Eventstore.WriteResult saveEvents(final Eventstore.SaveEventsRequest request) throws Exception {
         // Validate request
-        RequestValidator.validateSaveEventsRequest(request);
+        if (validateEvents) {
+            RequestValidator.validateSaveEventsRequest(request, parallelValidationThreshold, stackTraces);
+        }
+        return sendSaveEvents(request);
+    }
+
+    /**
+     * Save application events, encoding each with the codec registered for its class and giving it a
+     * new time-ordered id.
+     *
+     * @throws OrisunException if an event has no codec or fails to encode
+     */
+    public <T> Eventstore.WriteResult save(String boundary, List<T> events) throws Exception {
+        return save(boundary, Eventstore.SaveQuery.getDefaultInstance(), events);
+    }
+
+    /**
+     * Save application events, only if the events matching the query have not changed since the
+     * query's expected position.
+     *
+     * @throws OrisunException if an event has no codec or fails to encode
+     */
+    public <T> Eventstore.WriteResult save(String boundary, Eventstore.SaveQuery query, List<T> events)
+            throws Exception {
+        if (RequestValidator.isBlank(boundary)) {
+            throw new OrisunException("Boundary is required", null, stackTraces)
+                    .addContext("operation", "saveEvents");
+        }
+        if (events.isEmpty()) {
+            throw new OrisunException("At least one event is required", null, stackTraces)
+                    .addContext("operation", "saveEvents")
+                    .addContext("boundary", boundary);
+        }
+
+        final Eventstore.SaveEventsRequest.Builder request = Eventstore.SaveEventsRequest.newBuilder()
+                .setBoundary(boundary)
+                .setQuery(query);
+        for (T event : events) {
+            request.addEvents(codecs.encode(event));
+        }
+        // Encoded events have valid ids, types and data; checking the data again would decode it
+        return sendSaveEvents(request.build());
+    }
 
-        logger.debug("Saving {} events in boundary '{}'",
-                request.getEventsCount(), request.getBoundary());
+    /**
+     * @return the codecs of typed events, to decode the events read
+     */
+    public EventCodecs getCodecs() {
+        return codecs;
+    }
+
+    private Eventstore.WriteResult sendSaveEvents(Eventstore.SaveEventsRequest request) throws Exception {
+        // Level checks first: boxing the counts would allocate even with debug disabled
+        if (logger.isDebugEnabled()) {
+            logger.debug("Saving {} events in boundary '{}'",
+                    request.getEventsCount(), request.getBoundary());
+        }
 
         try {
-            Eventstore.WriteResult result = blockingStub
+            Eventstore.WriteResult result = withDefaultDeadline(blockingStub)
                     .saveEvents(request);
 
-            logger.info("Successfully saved {} events'",
-                    request.getEventsCount());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Successfully saved {} events", request.getEventsCount());
+            }
             return result;
 
         } catch (StatusRuntimeException e) {
-            throw handleSaveException(e);
+            throw handleSaveException(request, e);
         }
     }
 
-    private Exception handleSaveException(StatusRuntimeException e) {
-        Map<String, Object> context = new HashMap<>();
-        context.put("operation", "saveEvents");
-        context.put("statusCode", e.getStatus().getCode().name());
-        context.put("statusDescription", e.getStatus().getDescription());
-
+    private Exception handleSaveException(Eventstore.SaveEventsRequest request, StatusRuntimeException e) {
         if (e.getStatus().getCode() == Status.Code.ALREADY_EXISTS) {
-            final var versions = Utils.extractVersionNumbers(e.getStatus().getDescription());
-            context.put("expectedVersion", versions[0]);
-            context.put("actualVersion", versions[1]);
+            final var versions = conflictVersions(request, e.getStatus());
             return new OptimisticConcurrencyException(
-                    e.getStatus().getDescription(), versions[0], versions[1]);
+                    e.getStatus().getDescription(), versions[0], versions[1], stackTraces);
         }
 
-        return new OrisunException("Failed to save events", e, context);
+        return new OrisunException("Failed to save events", e)
+                .addContext("operation", "saveEvents")
+                .addContext("statusCode", e.getStatus().getCode().name())
+                .addContext("statusDescription", e.getStatus().getDescription());
+    }
+
+    private static int[] conflictVersions(Eventstore.SaveEventsRequest request, Status status) {
+        final var versions = Utils.extractVersionNumbers(status.getDescription());
+
+        final FlightEvents.ConcurrencyConflict conflict = new FlightEvents.ConcurrencyConflict();
+        if (conflict.shouldCommit()) {
+            conflict.boundary = request.getBoundary();
+            conflict.expectedVersion = versions[0];
+            conflict.actualVersion = versions[1];
+            conflict.commit();
+        }
+        return versions;
+    }
+
+    /**
+     * Save events, returning a conflict with the expected position as a {@link WriteOutcome} rather
+     * than throwing it. No exception is created for a conflict, which makes this the cheaper call for
+     * writers that retry under contention.
+     *
+     * @throws OrisunException if the request is invalid or the call fails for another reason
+     */
+    public WriteOutcome trySaveEvents(final Eventstore.SaveEventsRequest request) throws Exception {
+        try {
+            return trySaveEventsAsync(request).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Asynchronous {@link #trySaveEvents}: the future completes with the outcome, or exceptionally if
+     * the request is invalid or the call fails for another reason than a conflict.
+     */
+    public CompletableFuture<WriteOutcome> trySaveEventsAsync(final Eventstore.SaveEventsRequest request) {
+        final CompletableFuture<WriteOutcome> future = new CompletableFuture<>();
+        if (validateEvents) {
+            try {
+                RequestValidator.validateSaveEventsRequest(request, parallelValidationThreshold, stackTraces);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                return future;
+            }
+        }
+
+        // A raw call, so a conflict arrives as a status and is never turned into an exception
+        final CallOptions options = applyDefaultDeadlines
+                ? CallOptions.DEFAULT.withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS)
+                : CallOptions.DEFAULT;
+        final ClientCall<Eventstore.SaveEventsRequest, Eventstore.WriteResult> call =
+                callChannel.newCall(EventStoreGrpc.getSaveEventsMethod(), options);
+        call.start(new ClientCall.Listener<>() {
+            private Eventstore.WriteResult result;
+
+            @Override
+            public void onMessage(Eventstore.WriteResult message) {
+                result = message;
+            }
+
+            @Override
+            public void onClose(Status status, Metadata trailers) {
+                if (status.isOk() && result != null) {
+                    future.complete(WriteOutcome.written(result));
+                } else if (status.getCode() == Status.Code.ALREADY_EXISTS) {
+                    try {
+                        final var versions = conflictVersions(request, status);
+                        future.complete(WriteOutcome.conflict(status.getDescription(), versions[0], versions[1]));
+                    } catch (RuntimeException e) {
+                        future.completeExceptionally(new OrisunException("Failed to save events", e));
+                    }
+                } else if (status.isOk()) {
+                    future.completeExceptionally(new OrisunException("Failed to save events: no result returned"));
+                } else {
+                    future.completeExceptionally(handleSaveException(request, status.asRuntimeException(trailers)));
+                }
+            }
+        }, new Metadata());
+        try {
+            call.sendMessage(request);
+            call.halfClose();
+            call.request(1);
+        } catch (RuntimeException e) {
+            call.cancel("Failed to send save request", e);
+            future.completeExceptionally(new OrisunException("Failed to save events", e));
+        }
+        return future;
     }
 
     public Eventstore.GetEventsResponse getEvents(Eventstore.GetEventsRequest request) throws OrisunException {
+        return getEvents(request, null);
+    }
+
+    /**
+     * {@link #getEvents(Eventstore.GetEventsRequest)} under {@code deadline}, or the default deadline if null.
+     */
+    Eventstore.GetEventsResponse getEvents(Eventstore.GetEventsRequest request, Deadline deadline) throws OrisunException {
         // Validate request
         RequestValidator.validateGetEventsRequest(request);
 
         logger.debug("Getting events from boundary: {}", request.getBoundary());
 
         try {
-            final var response = blockingStub
-                    .withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS)
+            final var response = (deadline != null ? blockingStub.withDeadline(deadline) : withDefaultDeadline(blockingStub))
                     .getEvents(request);
 
-            logger.debug("Successfully retrieved {} events", response.getEventsCount());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Successfully retrieved {} events", response.getEventsCount());
+            }
             return response;
 
         } catch (StatusRuntimeException e) {
@@ -412,6 +609,35 @@ public class OrisunClient implements AutoCloseable {
         }
     }
 
+    /**
+     * Get events like {@link #getEvents}, as views whose data and metadata are the UTF-8 bytes the
+     * server sent rather than decoded strings. Use it for large payloads that are parsed as a stream.
+     */
+    public List<EventView> getEventViews(Eventstore.GetEventsRequest request) throws OrisunException {
+        RequestValidator.validateGetEventsRequest(request);
+
+        logger.debug("Getting event views from boundary: {}", request.getBoundary());
+
+        try {
+            final EventStoreGrpc.EventStoreBlockingStub stub = withDefaultDeadline(blockingStub);
+            final List<EventView> events = ClientCalls.blockingUnaryCall(
+                    stub.getChannel(), EventView.GET_EVENTS_METHOD, stub.getCallOptions(), request);
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("Successfully retrieved {} event views", events.size());
+            }
+            return events;
+
+        } catch (StatusRuntimeException e) {
+            Map<String, Object> context = new HashMap<>();
+            context.put("operation", "getEventViews");
+            context.put("boundary", request.getBoundary());
+            context.put("statusCode", e.getStatus().getCode().name());
+
+            throw new OrisunException("Failed to get events", e, context);
+        }
+    }
+
     public Eventstore.GetLatestByCriteriaResponse getLatestByCriteria(Eventstore.GetLatestByCriteriaRequest request)
             throws OrisunException {
         RequestValidator.validateGetLatestByCriteriaRequest(request);
@@ -419,11 +645,12 @@ public class OrisunClient implements AutoCloseable {
         logger.debug("Getting latest events by criteria from boundary: {}", request.getBoundary());
 
         try {
-            final var response = blockingStub
-                    .withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS)
+            final var response = withDefaultDeadline(blockingStub)
                     .getLatestByCriteria(request);
 
-            logger.debug("Successfully retrieved {} latest criteria results", response.getResultsCount());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Successfully retrieved {} latest criteria results", response.getResultsCount());
+            }
             return response;
 
         } catch (StatusRuntimeException e) {
@@ -440,8 +667,7 @@ public class OrisunClient implements AutoCloseable {
     public CompletableFuture<Eventstore.WriteResult> saveEventsAsync(Eventstore.SaveEventsRequest request) {
         CompletableFuture<Eventstore.WriteResult> future = new CompletableFuture<>();
 
-        asyncStub
-                .withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS)
+        withDefaultDeadline(asyncStub)
                 .saveEvents(request, new StreamObserver<>() {
                     @Override
                     public void onNext(Eventstore.WriteResult result) {
@@ -451,7 +677,7 @@ public class OrisunClient implements AutoCloseable {
                     @Override
                     public void onError(Throwable t) {
                         if (t instanceof StatusRuntimeException e) {
-                            future.completeExceptionally(handleSaveException(e));
+                            future.completeExceptionally(handleSaveException(request, e));
                         } else
                             future.completeExceptionally(new OrisunException("Failed to save events", t));
                     }
@@ -465,6 +691,82 @@ public class OrisunClient implements AutoCloseable {
         return future;
     }
 
+    /**
+     * Append events without an expected position, splitting them into as few requests as fit under
+     * the default maximum request size. See {@link #saveEventsInBulk(String, List, BulkWriteOptions)}.
+     */
+    public BulkWriteResult saveEventsInBulk(String boundary, List<Eventstore.EventToSave> events) throws Exception {
+        return saveEventsInBulk(boundary, events, BulkWriteOptions.defaults());
+    }
+
+    /**
+     * Append events without an expected position, splitting them into requests no larger than
+     * {@link BulkWriteOptions#getMaxRequestSize()}, so batches beyond the server's maximum message
+     * size can be written. Each request is written on its own: the result reports every chunk, and
+     * once one fails the chunks not yet sent are skipped. All events are validated before anything
+     * is sent.
+     * <p>
+     * By default the chunks are written one after the other, so the events are stored in their
+     * order and a failure leaves only the chunks before it written. With
+     * {@link BulkWriteOptions.Builder#withMaxInFlightChunks(int)} above 1, chunks sent together may
+     * be committed in any order, and chunks after a failed one may already be written: check each
+     * chunk of the result rather than assuming a written prefix.
+     *
+     * @throws OrisunException if an event is invalid or does not fit in a request on its own
+     */
+    public BulkWriteResult saveEventsInBulk(String boundary, List<Eventstore.EventToSave> events,
+                                            BulkWriteOptions options) throws Exception {
+        try {
+            return saveEventsInBulkAsync(boundary, events, options).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Asynchronous {@link #saveEventsInBulk(String, List, BulkWriteOptions)}, with the same ordering
+     * of chunks. The future completes once every chunk is written, failed or skipped, and
+     * exceptionally only if nothing was sent.
+     */
+    public CompletableFuture<BulkWriteResult> saveEventsInBulkAsync(String boundary,
+                                                                    List<Eventstore.EventToSave> events,
+                                                                    BulkWriteOptions options) {
+        final List<Eventstore.SaveEventsRequest> chunks;
+        try {
+            if (RequestValidator.isBlank(boundary)) {
+                throw new OrisunException("Boundary is required", null, stackTraces)
+                        .addContext("operation", "saveEventsInBulk");
+            }
+            if (events.isEmpty()) {
+                throw new OrisunException("At least one event is required", null, stackTraces)
+                        .addContext("operation", "saveEventsInBulk")
+                        .addContext("boundary", boundary);
+            }
+            if (validateEvents) {
+                // As one request, so errors report the event's index among all the events
+                RequestValidator.validateSaveEventsRequest(Eventstore.SaveEventsRequest.newBuilder()
+                        .setBoundary(boundary)
+                        .addAllEvents(events)
+                        .build(), parallelValidationThreshold, stackTraces);
+            }
+            // Tracing adds the traceparent to each event's metadata as the chunks are sent
+            final Tracing tracing = transport.getTracing();
+            chunks = BulkWrite.split(boundary, events, options.getMaxRequestSize(),
+                    tracing != null && tracing.propagatesToEventMetadata() ? TraceContext.MAX_EVENT_METADATA_GROWTH : 0);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Saving {} events in boundary '{}' as {} requests",
+                    events.size(), boundary, chunks.size());
+        }
+        return new BulkWrite(chunks, options.getMaxInFlightChunks(), this::saveEventsAsync).start();
+    }
+
     public CompletableFuture<Eventstore.GetLatestByCriteriaResponse> getLatestByCriteriaAsync(
             Eventstore.GetLatestByCriteriaRequest request) {
         CompletableFuture<Eventstore.GetLatestByCriteriaResponse> future = new CompletableFuture<>();
@@ -476,8 +778,7 @@ public class OrisunClient implements AutoCloseable {
             return future;
         }
 
-        asyncStub
-                .withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS)
+        withDefaultDeadline(asyncStub)
                 .getLatestByCriteria(request, new StreamObserver<>() {
                     @Override
                     public void onNext(Eventstore.GetLatestByCriteriaResponse result) {
@@ -517,8 +818,22 @@ public class OrisunClient implements AutoCloseable {
         logger.debug("Subscribing to events in boundary '{}' with subscriber '{}'",
                 request.getBoundary(), request.getSubscriberName());
 
-        return new EventSubscription(asyncStub, request, handler, defaultTimeoutSeconds, logger, tokenCache, username,
-                password);
+        final MetricsRegistry metrics = transport.getMetrics();
+        if (metrics == MetricsRegistry.noop()) {
+            return new EventSubscription(asyncStub, request, handler, defaultTimeoutSeconds, logger, null,
+                    transport.getTracing());
+        }
+
+        final SubscriptionMetrics subscriptionMetrics = new SubscriptionMetrics(metrics,
+                request.getSubscriberName(), request.getBoundary(), logger);
+        final EventSubscription subscription = new EventSubscription(asyncStub, request, handler,
+                defaultTimeoutSeconds, logger, subscriptionMetrics, transport.getTracing());
+        if (lagProbeIntervalMillis > 0) {
+            // The subscription may already have ended, stopping the metrics before the probe starts
+            subscriptionMetrics.startHeadProbe(transport.getCallChannel(), transport.getScheduler(),
+                    lagProbeIntervalMillis, defaultTimeoutSeconds);
+        }
+        return subscription;
     }
 
     /**
@@ -527,12 +842,19 @@ public class OrisunClient implements AutoCloseable {
      * @throws OrisunException if the ping fails
      */
     public void ping() throws OrisunException {
+        ping(null);
+    }
+
+    /**
+     * {@link #ping()} under {@code deadline}, or the default deadline if null.
+     */
+    void ping(Deadline deadline) throws OrisunException {
         logger.debug("Pinging server");
 
         try {
             final var request = Eventstore.PingRequest.newBuilder().build();
 
-            blockingStub.ping(request);
+            (deadline != null ? blockingStub.withDeadline(deadline) : withDefaultDeadline(blockingStub)).ping(request);
 
             logger.debug("Ping successful");
 
@@ -554,8 +876,7 @@ public class OrisunClient implements AutoCloseable {
         logger.debug("Creating index '{}' on boundary '{}'", request.getName(), request.getBoundary());
 
         try {
-            blockingStub
-                    .withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS)
+            withDefaultDeadline(blockingStub)
                     .createIndex(request);
 
             logger.info("Successfully created index '{}' on boundary '{}'", request.getName(), request.getBoundary());
@@ -579,8 +900,7 @@ public class OrisunClient implements AutoCloseable {
         logger.debug("Dropping index '{}' from boundary '{}'", request.getName(), request.getBoundary());
 
         try {
-            blockingStub
-                    .withDeadlineAfter(defaultTimeoutSeconds, TimeUnit.SECONDS)
+            withDefaultDeadline(blockingStub)
                     .dropIndex(request);
 
             logger.info("Successfully dropped index '{}' from boundary '{}'", request.getName(), request.getBoundary());
@@ -616,6 +936,52 @@ public class OrisunClient implements AutoCloseable {
         return true;
     }
 
+    /**
+     * Readiness of the client. Completes once the warm-up configured with
+     * {@link Builder#withWarmup(WarmupOptions)} has finished, or exceptionally if it failed.
+     * Without warm-up the returned future is already complete.
+     *
+     * @return a future completing when the client is ready to serve traffic
+     */
+    public CompletableFuture<Void> ready() {
+        return readiness.copy();
+    }
+
+    /**
+     * @return the limiter applied to read RPCs, or null if reads are not limited
+     */
+    public ConcurrencyLimiter getReadConcurrencyLimiter() {
+        return readLimiter;
+    }
+
+    /**
+     * @return the limiter applied to write RPCs, or null if writes are not limited
+     */
+    public ConcurrencyLimiter getWriteConcurrencyLimiter() {
+        return writeLimiter;
+    }
+
+    /**
+     * @return the per-endpoint circuit breakers, or null if circuit breaking is not enabled
+     */
+    public CircuitBreakerRegistry getCircuitBreakers() {
+        return transport.getCircuitBreakers();
+    }
+
+    /**
+     * @return the registry call metrics are recorded into
+     */
+    public MetricsRegistry getMetrics() {
+        return transport.getMetrics();
+    }
+
+    /**
+     * @return the transport this client sends its calls through
+     */
+    public OrisunTransport getTransport() {
+        return transport;
+    }
+
     @Override
     public void close() {
         if (disposed) {
@@ -623,16 +989,13 @@ public class OrisunClient implements AutoCloseable {
             return;
         }
 
-        logger.debug("Closing OrisunClient connection");
-
-        if (channel != null && !channel.isShutdown()) {
-            try {
-                channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
-                logger.info("OrisunClient connection closed successfully");
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.error("Interrupted while closing OrisunClient connection", e);
-            }
+        // A shared transport is closed by its owner
+        if (!ownsTransport) {
+            return;
         }
+
+        logger.debug("Closing OrisunClient connection");
+        transport.close();
+        logger.info("OrisunClient connection closed successfully");
     }
 }
@@ -4,8 +4,10 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class OrisunException extends RuntimeException {
-    private final Map<String, Object> context = new HashMap<>();
-    
+    // Allocated on the first addContext, most exceptions on hot paths carry little or none
+    private Map<String, Object> context;
+    private String renderedMessage;
+
     public OrisunException(String message) {
         super(message);
     }
@@ -13,14 +15,25 @@ public class OrisunException extends RuntimeException {
     public OrisunException(String message, Throwable cause) {
         super(message, cause);
     }
-    
+
     public OrisunException(String message, Throwable cause, Map<String, Object> context) {
         super(message, cause);
-        if (context != null) {
-            this.context.putAll(context);
+        if (context != null && !context.isEmpty()) {
+            this.context = new HashMap<>(context);
         }
     }
-    
+
+    /**
+     * Create an exception that may skip capturing its stack trace, which is most of the cost of
+     * throwing on failure paths that are expected and frequent
+     * @param message The error message
+     * @param cause The cause, may be null
+     * @param writableStackTrace false to leave the stack trace empty
+     */
+    public OrisunException(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, true, writableStackTrace);
+    }
+
     /**
      * Add context information to the exception
      * @param key The context key
@@ -28,48 +41,62 @@ public class OrisunException extends RuntimeException {
      * @return This exception for method chaining
      */
     public OrisunException addContext(String key, Object value) {
+        if (context == null) {
+            context = new HashMap<>();
+        }
         context.put(key, value);
+        renderedMessage = null;
         return this;
     }
-    
+
     /**
      * Get context information
      * @param key The context key
      * @return The context value, or null if not found
      */
     public Object getContext(String key) {
-        return context.get(key);
+        return context == null ? null : context.get(key);
     }
-    
+
     /**
      * Get all context information
      * @return Immutable copy of the context map
      */
     public Map<String, Object> getAllContext() {
-        return new HashMap<>(context);
+        return context == null ? new HashMap<>() : new HashMap<>(context);
     }
-    
+
     /**
      * Check if context contains a specific key
      * @param key The context key
      * @return true if the key exists in context
      */
     public boolean hasContext(String key) {
-        return context.containsKey(key);
+        return context != null && context.containsKey(key);
     }
-    
+
     @Override
     public String getMessage() {
-        StringBuilder sb = new StringBuilder(super.getMessage());
-        
-        if (!context.isEmpty()) {
-            sb.append(" [Context: ");
-            context.forEach((key, value) ->
-                sb.append(key).append("=").append(value).append(", "));
-            sb.setLength(sb.length() - 2); // Remove trailing ", "
-            sb.append("]");
+        // Rendered once, loggers and handlers often ask for the message several times
+        String message = renderedMessage;
+        if (message == null) {
+            message = renderMessage();
+            renderedMessage = message;
         }
-        
+        return message;
+    }
+
+    private String renderMessage() {
+        if (context == null || context.isEmpty()) {
+            return super.getMessage();
+        }
+
+        StringBuilder sb = new StringBuilder(super.getMessage());
+        sb.append(" [Context: ");
+        context.forEach((key, value) ->
+            sb.append(key).append("=").append(value).append(", "));
+        sb.setLength(sb.length() - 2); // Remove trailing ", "
+        sb.append("]");
         return sb.toString();
     }
 }
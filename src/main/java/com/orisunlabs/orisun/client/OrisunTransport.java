@@ -0,0 +1,665 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.EventStoreGrpc;
+import io.grpc.*;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection to an Orisun cluster that can be shared by several clients.
+ * <p>
+ * A transport owns one channel, one interceptor chain and one {@link TokenCache}. Building an
+ * {@link OrisunClient} and an {@link AdminClient} from the same transport makes them share their
+ * connections and authentication state:
+ *
+ * <pre>{@code
+ * OrisunTransport transport = OrisunTransport.newBuilder()
+ *         .withServer("localhost", 5005)
+ *         .withBasicAuth("admin", "changeit")
+ *         .build();
+ *
+ * OrisunClient client = OrisunClient.newBuilder().withTransport(transport).build();
+ * AdminClient admin = AdminClient.newBuilder().withTransport(transport).build();
+ * }</pre>
+ * <p>
+ * Clients built from a shared transport do not close it; close the transport once every client
+ * using it is done.
+ */
+public class OrisunTransport implements AutoCloseable {
+    /**
+     * Marks calls the client makes on its own behalf, such as subscription lag probes. They are left
+     * out of per-method metrics and traces.
+     */
+    static final CallOptions.Key<Boolean> BACKGROUND_CALL =
+            CallOptions.Key.createWithDefault("orisun-background-call", false);
+
+    private final ManagedChannel channel;
+    private final Channel callChannel;
+    private final TokenCache tokenCache;
+    private final Logger logger;
+    private final int timeoutSeconds;
+    private final boolean applyDefaultDeadlines;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final TokenRefresher tokenRefresher;
+    private final int endpointCount;
+    private final MetricsRegistry metrics;
+    private final Tracing tracing;
+    private final FaultInjectionInterceptor faultInjection;
+    // Background tasks of the clients, created on first use
+    private ScheduledExecutorService scheduler;
+
+    public static class Builder {
+        private final List<ServerAddress> servers = new ArrayList<>();
+        private int timeoutSeconds = 30;
+        private boolean useTls = false;
+        private ManagedChannel channel;
+        private String loadBalancingPolicy = "round_robin";
+        private String username;
+        private String password;
+        private Logger logger;
+        private boolean enableLogging = false;
+        private DefaultLogger.LogLevel logLevel = DefaultLogger.LogLevel.INFO;
+        private boolean useDnsResolver = true;
+
+        // Keep-alive settings
+        private long keepAliveTimeMs = 30000;
+        private long keepAliveTimeoutMs = 10000;
+        private boolean keepAlivePermitWithoutCalls = true;
+
+        // DNS and static target settings
+        private String dnsTarget;
+        private String staticTarget;
+
+        // Per-endpoint circuit breaking
+        private CircuitBreakerConfig circuitBreakerConfig;
+
+        // Per-method deadline and retry policies
+        private final MethodPolicies.Builder methodPolicies = MethodPolicies.newBuilder();
+
+        // Token lifecycle
+        private long tokenRefreshMarginMillis = 30000;
+
+        // Call metrics
+        private MetricsRegistry metrics = MetricsRegistry.noop();
+
+        // Tracing
+        private Tracer tracer;
+        private Sampler traceSampler = Sampler.parentBased(Sampler.always());
+        private boolean traceEventMetadata;
+
+        // Resilience testing
+        private FaultInjection faultInjection;
+
+        // Message compression
+        private CompressionPolicy writeCompression;
+        private CompressionPolicy readCompression;
+        private CompressionPolicy subscriptionCompression;
+        private final Map<String, CompressionPolicy> compressionPolicies = new HashMap<>();
+        private CompressorRegistry compressorRegistry;
+        private DecompressorRegistry decompressorRegistry;
+
+        public Builder withServer(String host, int port) {
+            servers.add(new ServerAddress(host, port));
+            return this;
+        }
+
+        /**
+         * Change the port of the last added server, or add localhost with that port if there is none.
+         */
+        public Builder withPort(int port) {
+            if (servers.isEmpty()) {
+                servers.add(new ServerAddress("localhost", port));
+            } else {
+                ServerAddress lastServer = servers.get(servers.size() - 1);
+                servers.set(servers.size() - 1, new ServerAddress(lastServer.host, port));
+            }
+            return this;
+        }
+
+        public Builder withServers(List<ServerAddress> servers) {
+            this.servers.addAll(servers);
+            return this;
+        }
+
+        public Builder withLoadBalancingPolicy(String policy) {
+            this.loadBalancingPolicy = policy;
+            return this;
+        }
+
+        // DNS-based load balancing
+        public Builder withDnsTarget(String dnsTarget) {
+            this.dnsTarget = dnsTarget;
+            return this;
+        }
+
+        public Builder withStaticTarget(String staticTarget) {
+            this.staticTarget = staticTarget;
+            return this;
+        }
+
+        public Builder withDnsResolver(boolean useDns) {
+            this.useDnsResolver = useDns;
+            return this;
+        }
+
+        public Builder withTimeout(int seconds) {
+            this.timeoutSeconds = seconds;
+            return this;
+        }
+
+        public Builder withTls(boolean useTls) {
+            this.useTls = useTls;
+            return this;
+        }
+
+        public Builder withChannel(ManagedChannel channel) {
+            this.channel = channel;
+            return this;
+        }
+
+        public Builder withBasicAuth(String username, String password) {
+            this.username = username;
+            this.password = password;
+            return this;
+        }
+
+        /**
+         * How long before a token's known expiry it is refreshed in the background. Only applies when
+         * basic credentials are configured and the server issues JWTs with an {@code exp} claim.
+         */
+        public Builder withTokenRefreshMargin(long duration, TimeUnit unit) {
+            this.tokenRefreshMarginMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * Record call latency, throughput and payload sizes into {@code metrics}. Metrics are not
+         * recorded by default.
+         */
+        public Builder withMetrics(MetricsRegistry metrics) {
+            this.metrics = Objects.requireNonNull(metrics, "metrics");
+            return this;
+        }
+
+        /**
+         * Create spans for calls and subscription deliveries through {@code tracer} and propagate the
+         * W3C {@code traceparent} header. Tracing is off by default.
+         */
+        public Builder withTracer(Tracer tracer) {
+            this.tracer = Objects.requireNonNull(tracer, "tracer");
+            return this;
+        }
+
+        /**
+         * Which operations are traced. Defaults to following the parent's sampled flag and sampling
+         * all new traces.
+         */
+        public Builder withTraceSampler(Sampler sampler) {
+            this.traceSampler = Objects.requireNonNull(sampler, "sampler");
+            return this;
+        }
+
+        /**
+         * Whether sampled writes add their trace context to the {@code traceparent} field of each
+         * event's JSON metadata, so subscriptions can continue the trace. Disabled by default, as it
+         * rewrites the metadata the application stores.
+         */
+        public Builder withTraceEventMetadata(boolean enabled) {
+            this.traceEventMetadata = enabled;
+            return this;
+        }
+
+        /**
+         * Inject latency, errors, stream resets and slow reading into calls, for resilience and load
+         * testing. Off by default.
+         */
+        public Builder withFaultInjection(FaultInjection faultInjection) {
+            this.faultInjection = faultInjection;
+            return this;
+        }
+
+        /**
+         * Compress {@code saveEvents} requests. Off by default.
+         */
+        public Builder withWriteCompression(CompressionPolicy policy) {
+            this.writeCompression = policy;
+            return this;
+        }
+
+        /**
+         * Compress {@code getEvents} and {@code getLatestByCriteria} calls, whose responses the server
+         * compresses in turn. Off by default.
+         */
+        public Builder withReadCompression(CompressionPolicy policy) {
+            this.readCompression = policy;
+            return this;
+        }
+
+        /**
+         * Compress subscription calls, whose streamed events the server compresses in turn. Off by
+         * default.
+         */
+        public Builder withSubscriptionCompression(CompressionPolicy policy) {
+            this.subscriptionCompression = policy;
+            return this;
+        }
+
+        /**
+         * Compress the calls of a single method, overriding its write, read or subscription policy.
+         * A null policy turns compression off for the method.
+         */
+        public Builder withCompression(MethodDescriptor<?, ?> method, CompressionPolicy policy) {
+            this.compressionPolicies.put(method.getFullMethodName(), policy);
+            return this;
+        }
+
+        /**
+         * Compressors available to compression policies, to add codecs beyond gzip. Only applies to
+         * channels created by this builder.
+         */
+        public Builder withCompressorRegistry(CompressorRegistry registry) {
+            this.compressorRegistry = registry;
+            return this;
+        }
+
+        /**
+         * Decompressors for the responses, advertised to the server in {@code grpc-accept-encoding}.
+         * Only applies to channels created by this builder.
+         */
+        public Builder withDecompressorRegistry(DecompressorRegistry registry) {
+            this.decompressorRegistry = registry;
+            return this;
+        }
+
+        public Builder withLogger(Logger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        public Builder withLogging(boolean enableLogging) {
+            this.enableLogging = enableLogging;
+            return this;
+        }
+
+        public Builder withLogLevel(DefaultLogger.LogLevel level) {
+            this.logLevel = level;
+            return this;
+        }
+
+        public Builder withKeepAliveTime(long keepAliveTimeMs) {
+            this.keepAliveTimeMs = keepAliveTimeMs;
+            return this;
+        }
+
+        public Builder withKeepAliveTimeout(long keepAliveTimeoutMs) {
+            this.keepAliveTimeoutMs = keepAliveTimeoutMs;
+            return this;
+        }
+
+        public Builder withKeepAlivePermitWithoutCalls(boolean permitWithoutCalls) {
+            this.keepAlivePermitWithoutCalls = permitWithoutCalls;
+            return this;
+        }
+
+        /**
+         * Enable per-endpoint circuit breakers. Endpoints with too many failed or slow calls are
+         * ejected from load balancing and probed with {@code ping} before receiving traffic again.
+         * Only applies to channels created by this builder.
+         */
+        public Builder withCircuitBreaker(CircuitBreakerConfig config) {
+            this.circuitBreakerConfig = config;
+            return this;
+        }
+
+        /**
+         * Override the deadline and retry policy of a single method. Methods without an override
+         * use the defaults from {@link MethodPolicies}, derived from {@link #withTimeout(int)}.
+         * Only applies to channels created by this builder.
+         */
+        public Builder withMethodPolicy(MethodDescriptor<?, ?> method, MethodPolicy policy) {
+            this.methodPolicies.withPolicy(method, policy);
+            return this;
+        }
+
+        public Builder withMethodPolicies(MethodPolicies policies) {
+            this.methodPolicies.withPolicies(policies);
+            return this;
+        }
+
+        public OrisunTransport build() {
+            // Initialize logger
+            Logger transportLogger;
+            // Minimal logging by default
+            if (enableLogging && logger == null) {
+                transportLogger = new DefaultLogger(logLevel);
+            } else {
+                transportLogger = Objects.requireNonNullElseGet(logger, Loggers::defaultLogger);
+            }
+
+            TokenCache tokenCache = new TokenCache(transportLogger);
+            // Tokens can only be renewed with credentials to re-authenticate with
+            TokenRefresher tokenRefresher = username != null && password != null
+                    ? new TokenRefresher(tokenCache, transportLogger, tokenRefreshMarginMillis, timeoutSeconds)
+                    : null;
+            ClientInterceptor authInterceptor = new AuthInterceptor(tokenCache, username, password, tokenRefresher);
+
+            // Caller supplied channels carry no service config, so deadlines are applied per call instead
+            final boolean applyDefaultDeadlines = this.channel != null;
+
+            CircuitBreakerRegistry circuitBreakers = null;
+            ManagedChannel transportChannel = this.channel;
+            if (transportChannel == null) {
+                if (circuitBreakerConfig != null) {
+                    CircuitBreakerLoadBalancer.register();
+                    circuitBreakers = new CircuitBreakerRegistry(circuitBreakerConfig, List.of(authInterceptor));
+                }
+
+                ManagedChannelBuilder<?> channelBuilder = createChannelBuilder();
+
+                if (!useTls) {
+                    channelBuilder.usePlaintext();
+                }
+
+                channelBuilder.keepAliveTime(keepAliveTimeMs, TimeUnit.MILLISECONDS)
+                        .keepAliveTimeout(keepAliveTimeoutMs, TimeUnit.MILLISECONDS)
+                        .keepAliveWithoutCalls(keepAlivePermitWithoutCalls);
+
+                if (compressorRegistry != null) {
+                    channelBuilder.compressorRegistry(compressorRegistry);
+                }
+                if (decompressorRegistry != null) {
+                    channelBuilder.decompressorRegistry(decompressorRegistry);
+                }
+
+                applyServiceConfig(channelBuilder, circuitBreakers);
+                transportChannel = channelBuilder.build();
+            }
+
+            // Interceptors are applied on top of the channel, so every target mode (including caller
+            // supplied channels) goes through the same chain
+            // Instrumentation is outermost, so recorded latency includes re-authentication
+            // Injected faults are innermost, so every other interceptor sees them as server faults
+            final List<ClientInterceptor> interceptors = new ArrayList<>();
+            final FaultInjectionInterceptor faultInjectionInterceptor =
+                    faultInjection != null ? new FaultInjectionInterceptor(faultInjection) : null;
+            if (faultInjectionInterceptor != null) {
+                interceptors.add(faultInjectionInterceptor);
+            }
+            final Map<String, CompressionPolicy> compression = compressionPolicies();
+            if (!compression.isEmpty()) {
+                interceptors.add(new CompressionInterceptor(compression, metrics));
+            }
+            interceptors.add(authInterceptor);
+            if (metrics != MetricsRegistry.noop()) {
+                interceptors.add(new MetricsInterceptor(metrics));
+            }
+            interceptors.add(new FlightRecorderInterceptor());
+            final Tracing tracing = tracer != null ? new Tracing(tracer, traceSampler, traceEventMetadata) : null;
+            if (tracing != null) {
+                interceptors.add(new TracingInterceptor(tracing));
+            }
+            final Channel callChannel = ClientInterceptors.intercept(transportChannel, interceptors);
+            final OrisunTransport transport = new OrisunTransport(transportChannel, callChannel, tokenCache,
+                    transportLogger, timeoutSeconds, applyDefaultDeadlines, circuitBreakers, tokenRefresher,
+                    Math.max(1, servers.size()), metrics, tracing, faultInjectionInterceptor);
+            if (tokenRefresher != null) {
+                tokenRefresher.start(callChannel, transport::getScheduler);
+            }
+            return transport;
+        }
+
+        private Map<String, CompressionPolicy> compressionPolicies() {
+            final Map<String, CompressionPolicy> policies = new HashMap<>();
+            if (writeCompression != null) {
+                policies.put(EventStoreGrpc.getSaveEventsMethod().getFullMethodName(), writeCompression);
+            }
+            if (readCompression != null) {
+                policies.put(EventStoreGrpc.getGetEventsMethod().getFullMethodName(), readCompression);
+                policies.put(EventStoreGrpc.getGetLatestByCriteriaMethod().getFullMethodName(), readCompression);
+            }
+            if (subscriptionCompression != null) {
+                policies.put(EventStoreGrpc.getCatchUpSubscribeToEventsMethod().getFullMethodName(),
+                        subscriptionCompression);
+            }
+            policies.putAll(compressionPolicies);
+            policies.values().removeIf(Objects::isNull);
+
+            // A caller supplied channel has its own registry, which cannot be checked here
+            final CompressorRegistry registry = Objects.requireNonNullElseGet(compressorRegistry,
+                    CompressorRegistry::getDefaultInstance);
+            for (CompressionPolicy policy : policies.values()) {
+                if (channel == null && registry.lookupCompressor(policy.getCompressor()) == null) {
+                    throw new IllegalArgumentException("Compressor '" + policy.getCompressor()
+                            + "' is not registered, add it with withCompressorRegistry");
+                }
+            }
+            return policies;
+        }
+
+        private ManagedChannelBuilder<?> createChannelBuilder() {
+            // Check for DNS or static targets first
+            if (dnsTarget != null && !dnsTarget.trim().isEmpty()) {
+                String target = dnsTarget.startsWith("dns:///") ? dnsTarget : "dns:///" + dnsTarget;
+                return ManagedChannelBuilder.forTarget(target)
+                        .defaultLoadBalancingPolicy(loadBalancingPolicy);
+            }
+
+            if (staticTarget != null && !staticTarget.trim().isEmpty()) {
+                String target = staticTarget.startsWith("static:///") ? staticTarget : "static:///" + staticTarget;
+                return ManagedChannelBuilder.forTarget(target)
+                        .defaultLoadBalancingPolicy(loadBalancingPolicy);
+            }
+
+            // Traditional server-based load balancing
+            if (servers.isEmpty()) {
+                // Default to localhost if no servers specified
+                servers.add(new ServerAddress("localhost", 5005));
+            }
+
+            if (servers.size() == 1) {
+                ServerAddress server = servers.getFirst();
+                return ManagedChannelBuilder.forAddress(server.host, server.port);
+            }
+
+            // Multiple servers case - check for comma-separated hosts and use name resolver and load balancing
+            boolean hasCommaSeparatedHosts = false;
+            for (ServerAddress server : servers) {
+                if (server.host.contains(",")) {
+                    hasCommaSeparatedHosts = true;
+                    break;
+                }
+            }
+
+            String target;
+            if (hasCommaSeparatedHosts) {
+                // Handle comma-separated list of hosts for manual load balancing
+                StringBuilder hostsBuilder = new StringBuilder();
+                for (ServerAddress server : servers) {
+                    if (!hostsBuilder.isEmpty()) {
+                        hostsBuilder.append(",");
+                    }
+                    hostsBuilder.append(server.host).append(":").append(server.port);
+                }
+                target = hostsBuilder.toString();
+            } else {
+                // Use DNS or static resolver
+                target = createTargetString(servers);
+            }
+
+            return ManagedChannelBuilder.forTarget(target)
+                    .defaultLoadBalancingPolicy(loadBalancingPolicy);
+        }
+
+        private void applyServiceConfig(ManagedChannelBuilder<?> channelBuilder, CircuitBreakerRegistry circuitBreakers) {
+            // One table covers both services, so clients sharing the channel get their own defaults
+            final MethodPolicies policies = MethodPolicies.eventStoreDefaults(timeoutSeconds)
+                    .withPolicies(MethodPolicies.adminDefaults(timeoutSeconds).build())
+                    .withPolicies(methodPolicies.build())
+                    .build();
+
+            Map<String, Object> serviceConfig = new HashMap<>();
+            if (circuitBreakers != null) {
+                serviceConfig.putAll(circuitBreakers.serviceConfig(loadBalancingPolicy));
+            }
+            serviceConfig.put("methodConfig", policies.toMethodConfigs());
+
+            policies.applyTo(channelBuilder);
+            channelBuilder.defaultServiceConfig(serviceConfig);
+        }
+
+        private String createTargetString(List<ServerAddress> servers) {
+            // Choose between DNS and static resolution based on configuration
+            StringBuilder sb = new StringBuilder(useDnsResolver ? "dns:///" : "static:///");
+            boolean first = true;
+            for (ServerAddress server : servers) {
+                if (!first) {
+                    sb.append(",");
+                }
+                sb.append(server.host).append(":").append(server.port);
+                first = false;
+            }
+            return sb.toString();
+        }
+    }
+
+    public static class ServerAddress {
+        private final String host;
+        private final int port;
+
+        public ServerAddress(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    private OrisunTransport(ManagedChannel channel, Channel callChannel, TokenCache tokenCache, Logger logger,
+                            int timeoutSeconds, boolean applyDefaultDeadlines,
+                            CircuitBreakerRegistry circuitBreakers, TokenRefresher tokenRefresher,
+                            int endpointCount, MetricsRegistry metrics, Tracing tracing,
+                            FaultInjectionInterceptor faultInjection) {
+        this.channel = channel;
+        this.callChannel = callChannel;
+        this.tokenCache = tokenCache;
+        this.logger = logger;
+        this.timeoutSeconds = timeoutSeconds;
+        this.applyDefaultDeadlines = applyDefaultDeadlines;
+        this.circuitBreakers = circuitBreakers;
+        this.tokenRefresher = tokenRefresher;
+        this.endpointCount = endpointCount;
+        this.metrics = metrics;
+        this.tracing = tracing;
+        this.faultInjection = faultInjection;
+    }
+
+    /**
+     * The underlying channel, without the transport's interceptors.
+     */
+    ManagedChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * The channel clients should create their stubs from.
+     */
+    Channel getCallChannel() {
+        return callChannel;
+    }
+
+    TokenCache getTokenCache() {
+        return tokenCache;
+    }
+
+    Logger getLogger() {
+        return logger;
+    }
+
+    int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    boolean appliesDefaultDeadlines() {
+        return applyDefaultDeadlines;
+    }
+
+    int getEndpointCount() {
+        return endpointCount;
+    }
+
+    /**
+     * @return the per-endpoint circuit breakers, or null if circuit breaking is not enabled
+     */
+    public CircuitBreakerRegistry getCircuitBreakers() {
+        return circuitBreakers;
+    }
+
+    /**
+     * @return the registry call metrics are recorded into
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the tracing settings, or null if tracing is off
+     */
+    Tracing getTracing() {
+        return tracing;
+    }
+
+    /**
+     * A single daemon thread for periodic client tasks, shut down with the transport.
+     */
+    synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "orisun-client-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    @Override
+    public void close() {
+        if (tokenRefresher != null) {
+            tokenRefresher.close();
+        }
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+        }
+
+        if (!channel.isShutdown()) {
+            try {
+                channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error("Interrupted while closing Orisun transport", e);
+            }
+        }
+
+        if (circuitBreakers != null) {
+            circuitBreakers.close();
+        }
+        if (faultInjection != null) {
+            faultInjection.close();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.orisunlabs.orisun.client;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the {@code boundary} field of request messages for instrumentation. The field is looked up
+ * once per message type.
+ */
+final class RequestBoundaries {
+    static final String NONE = "none";
+
+    private static final ConcurrentHashMap<Descriptors.Descriptor, Optional<Descriptors.FieldDescriptor>> FIELDS =
+            new ConcurrentHashMap<>();
+
+    private RequestBoundaries() {
+    }
+
+    /**
+     * @return the request's boundary, or {@value #NONE} if it has no boundary
+     */
+    static String of(Object request) {
+        if (!(request instanceof Message message)) {
+            return NONE;
+        }
+        final Descriptors.Descriptor type = message.getDescriptorForType();
+        Optional<Descriptors.FieldDescriptor> field = FIELDS.get(type);
+        if (field == null) {
+            field = FIELDS.computeIfAbsent(type, RequestBoundaries::boundaryField);
+        }
+        if (field.isEmpty()) {
+            return NONE;
+        }
+        final String boundary = (String) message.getField(field.get());
+        return boundary.isEmpty() ? NONE : boundary;
+    }
+
+    private static Optional<Descriptors.FieldDescriptor> boundaryField(Descriptors.Descriptor type) {
+        final Descriptors.FieldDescriptor field = type.findFieldByName("boundary");
+        return field != null && field.getJavaType() == Descriptors.FieldDescriptor.JavaType.STRING
+                ? Optional.of(field) : Optional.empty();
+    }
+}
@@ -2,7 +2,7 @@ package com.orisunlabs.orisun.client;
 
 import com.orisun.eventstore.Eventstore;
 
-import java.util.UUID;
+import java.util.stream.IntStream;
 
 /**
  * Utility class for validating requests before sending to the server
@@ -16,71 +16,165 @@ public class RequestValidator {
      * @throws OrisunException if validation fails
      */
     public static void validateSaveEventsRequest(Eventstore.SaveEventsRequest request) {
+        validateSaveEventsRequest(request, 0);
+    }
+
+    /**
+     * Validate a SaveEventsRequest, checking the events of large batches in parallel on the common
+     * fork-join pool. The error reported is the one of the first invalid event either way.
+     *
+     * @param request           The request to validate
+     * @param parallelThreshold Minimum number of events validated in parallel, 0 to always validate sequentially
+     * @throws OrisunException if validation fails
+     */
+    public static void validateSaveEventsRequest(Eventstore.SaveEventsRequest request, int parallelThreshold) {
+        validateSaveEventsRequest(request, parallelThreshold, true);
+    }
+
+    /**
+     * Validate a SaveEventsRequest, optionally without capturing stack traces for its errors.
+     *
+     * @param request           The request to validate
+     * @param parallelThreshold Minimum number of events validated in parallel, 0 to always validate sequentially
+     * @param stackTraces       false to throw errors without a stack trace
+     * @throws OrisunException if validation fails
+     */
+    public static void validateSaveEventsRequest(Eventstore.SaveEventsRequest request, int parallelThreshold,
+                                                 boolean stackTraces) {
         if (request == null) {
-            throw new OrisunException("SaveEventsRequest cannot be null");
+            throw new OrisunException("SaveEventsRequest cannot be null", null, stackTraces);
         }
 
         // Validate boundary
-        if (request.getBoundary() == null || request.getBoundary().trim().isEmpty()) {
-            throw new OrisunException("Boundary is required")
+        final String boundary = request.getBoundary();
+        if (isBlank(boundary)) {
+            throw new OrisunException("Boundary is required", null, stackTraces)
                     .addContext("operation", "saveEvents")
                     .addContext("request", "SaveEventsRequest");
         }
 
         // Validate events
-        if (request.getEventsCount() == 0) {
-            throw new OrisunException("At least one event is required")
+        final int count = request.getEventsCount();
+        if (count == 0) {
+            throw new OrisunException("At least one event is required", null, stackTraces)
                     .addContext("operation", "saveEvents")
-                    .addContext("boundary", request.getBoundary());
+                    .addContext("boundary", boundary);
         }
 
-        // Validate each event
-        for (int i = 0; i < request.getEventsCount(); i++) {
-            Eventstore.EventToSave event = request.getEvents(i);
-            validateEventToSave(event, i, request.getBoundary());
+        // Validate each event, only building the error once an invalid event is found
+        final int invalid;
+        if (parallelThreshold > 0 && count >= parallelThreshold) {
+            invalid = IntStream.range(0, count)
+                    .parallel()
+                    .filter(i -> !isValidEvent(request.getEvents(i)))
+                    .min()
+                    .orElse(-1);
+        } else {
+            invalid = firstInvalidEvent(request, count);
+        }
+        if (invalid >= 0) {
+            throw invalidEvent(request.getEvents(invalid), invalid, boundary, stackTraces);
         }
     }
 
+    private static int firstInvalidEvent(Eventstore.SaveEventsRequest request, int count) {
+        for (int i = 0; i < count; i++) {
+            if (!isValidEvent(request.getEvents(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isValidEvent(Eventstore.EventToSave event) {
+        return isUuid(event.getEventId()) && !isBlank(event.getEventType()) && !isBlank(event.getData());
+    }
+
     /**
-     * Validate an EventToSave
+     * Build the error of an event that failed {@link #isValidEvent}.
      *
-     * @param event    The event to validate
-     * @param index    The event index for error context
-     * @param boundary The boundary for error context
-     * @throws OrisunException if validation fails
+     * @param event       The invalid event
+     * @param index       The event index for error context
+     * @param boundary    The boundary for error context
+     * @param stackTraces false to leave the error without a stack trace
      */
-    private static void validateEventToSave(Eventstore.EventToSave event, int index, String boundary) {
-        if (event.getEventId() == null || event.getEventId().trim().isEmpty()) {
-            throw new OrisunException("Event at index " + index + " is missing eventId")
+    private static OrisunException invalidEvent(Eventstore.EventToSave event, int index, String boundary,
+                                                boolean stackTraces) {
+        if (isBlank(event.getEventId())) {
+            return new OrisunException("Event at index " + index + " is missing eventId", null, stackTraces)
                     .addContext("operation", "saveEvents")
                     .addContext("eventIndex", index)
                     .addContext("boundary", boundary);
         }
 
-        // Validate UUID format
-        try {
-            UUID.fromString(event.getEventId());
-        } catch (IllegalArgumentException e) {
-            throw new OrisunException("Event at index " + index + " has invalid eventId format")
+        if (!isUuid(event.getEventId())) {
+            return new OrisunException("Event at index " + index + " has invalid eventId format", null, stackTraces)
                     .addContext("operation", "saveEvents")
                     .addContext("eventIndex", index)
                     .addContext("eventId", event.getEventId())
                     .addContext("boundary", boundary);
         }
 
-        if (event.getEventType() == null || event.getEventType().trim().isEmpty()) {
-            throw new OrisunException("Event at index " + index + " is missing eventType")
+        if (isBlank(event.getEventType())) {
+            return new OrisunException("Event at index " + index + " is missing eventType", null, stackTraces)
                     .addContext("operation", "saveEvents")
                     .addContext("eventIndex", index)
                     .addContext("boundary", boundary);
         }
 
-        if (event.getData() == null || event.getData().trim().isEmpty()) {
-            throw new OrisunException("Event at index " + index + " is missing data")
-                    .addContext("operation", "saveEvents")
-                    .addContext("eventIndex", index)
-                    .addContext("boundary", boundary);
+        return new OrisunException("Event at index " + index + " is missing data", null, stackTraces)
+                .addContext("operation", "saveEvents")
+                .addContext("eventIndex", index)
+                .addContext("boundary", boundary);
+    }
+
+    /**
+     * @return true if {@code value} is null, empty or only made of characters {@link String#trim()}
+     * removes, without copying it
+     */
+    static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * UTF-8 counterpart of {@link #isBlank(String)}: bytes of multi-byte characters are all above
+     * {@code ' '}, so only single-byte characters can be blank.
+     */
+    static boolean isBlank(byte[] value, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if ((value[i] & 0xff) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if {@code value} is a UUID in the canonical 8-4-4-4-12 hex digit form, in either case
+     */
+    static boolean isUuid(String value) {
+        if (value == null || value.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            final char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                return false;
+            }
         }
+        return true;
     }
 
     /**
@@ -96,7 +190,7 @@ public class RequestValidator {
         }
 
         // Validate boundary
-        if (request.getBoundary() == null || request.getBoundary().trim().isEmpty()) {
+        if (isBlank(request.getBoundary())) {
             throw new OrisunException("Boundary is required")
                     .addContext("operation", "getEvents")
                     .addContext("request", "GetEventsRequest");
@@ -123,7 +217,7 @@ public class RequestValidator {
                     .addContext("operation", "getLatestByCriteria");
         }
 
-        if (request.getBoundary() == null || request.getBoundary().trim().isEmpty()) {
+        if (isBlank(request.getBoundary())) {
             throw new OrisunException("Boundary is required")
                     .addContext("operation", "getLatestByCriteria")
                     .addContext("request", "GetLatestByCriteriaRequest");
@@ -158,14 +252,14 @@ public class RequestValidator {
         }
 
         // Validate boundary
-        if (request.getBoundary() == null || request.getBoundary().trim().isEmpty()) {
+        if (isBlank(request.getBoundary())) {
             throw new OrisunException("Boundary is required")
                     .addContext("operation", "subscribeToEvents")
                     .addContext("request", "CatchUpSubscribeToEventStoreRequest");
         }
 
         // Validate subscriber name
-        if (request.getSubscriberName() == null || request.getSubscriberName().trim().isEmpty()) {
+        if (isBlank(request.getSubscriberName())) {
             throw new OrisunException("Subscriber name is required")
                     .addContext("operation", "subscribeToEvents")
                     .addContext("boundary", request.getBoundary());
@@ -181,12 +275,12 @@ public class RequestValidator {
                     .addContext("operation", "createIndex");
         }
 
-        if (request.getBoundary() == null || request.getBoundary().trim().isEmpty()) {
+        if (isBlank(request.getBoundary())) {
             throw new OrisunException("Boundary is required")
                     .addContext("operation", "createIndex");
         }
 
-        if (request.getName() == null || request.getName().trim().isEmpty()) {
+        if (isBlank(request.getName())) {
             throw new OrisunException("Index name is required")
                     .addContext("operation", "createIndex")
                     .addContext("boundary", request.getBoundary());
@@ -209,12 +303,12 @@ public class RequestValidator {
                     .addContext("operation", "dropIndex");
         }
 
-        if (request.getBoundary() == null || request.getBoundary().trim().isEmpty()) {
+        if (isBlank(request.getBoundary())) {
             throw new OrisunException("Boundary is required")
                     .addContext("operation", "dropIndex");
         }
 
-        if (request.getName() == null || request.getName().trim().isEmpty()) {
+        if (isBlank(request.getName())) {
             throw new OrisunException("Index name is required")
                     .addContext("operation", "dropIndex")
                     .addContext("boundary", request.getBoundary());
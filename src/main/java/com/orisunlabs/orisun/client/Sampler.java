@@ -0,0 +1,41 @@
+package com.orisunlabs.orisun.client;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether an operation is traced. Unsampled operations create no span; an existing parent
+ * context is still propagated.
+ */
+@FunctionalInterface
+public interface Sampler {
+
+    /**
+     * @param parent The parent context, or null for a new trace
+     */
+    boolean shouldSample(TraceContext parent);
+
+    static Sampler always() {
+        return parent -> true;
+    }
+
+    static Sampler never() {
+        return parent -> false;
+    }
+
+    /**
+     * @param ratio Fraction of operations to sample, between 0 and 1
+     */
+    static Sampler ratio(double ratio) {
+        if (ratio < 0 || ratio > 1) {
+            throw new IllegalArgumentException("Sampling ratio must be between 0 and 1: " + ratio);
+        }
+        return parent -> ThreadLocalRandom.current().nextDouble() < ratio;
+    }
+
+    /**
+     * Follow the parent's sampled flag, and use {@code root} for new traces. This is the default.
+     */
+    static Sampler parentBased(Sampler root) {
+        return parent -> parent != null ? parent.isSampled() : root.shouldSample(null);
+    }
+}
@@ -0,0 +1,97 @@
+package com.orisunlabs.orisun.client;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logger that delegates to SLF4J. Used by default when SLF4J is on the classpath, levels are then
+ * configured through the SLF4J backend.
+ */
+public class Slf4jLogger implements Logger {
+    private final org.slf4j.Logger delegate;
+
+    public Slf4jLogger(org.slf4j.Logger delegate) {
+        this.delegate = delegate;
+    }
+
+    public Slf4jLogger(String name) {
+        this(LoggerFactory.getLogger(name));
+    }
+
+    @Override
+    public void debug(String message, Object... args) {
+        delegate.debug(message, args);
+    }
+
+    @Override
+    public void info(String message, Object... args) {
+        delegate.info(message, args);
+    }
+
+    @Override
+    public void warn(String message, Object... args) {
+        delegate.warn(message, args);
+    }
+
+    @Override
+    public void error(String message, Object... args) {
+        delegate.error(message, args);
+    }
+
+    @Override
+    public void error(String message, Throwable throwable, Object... args) {
+        if (throwable == null) {
+            delegate.error(message, args);
+            return;
+        }
+        // SLF4J treats a trailing throwable argument as the exception to log
+        Object[] withThrowable = new Object[args.length + 1];
+        System.arraycopy(args, 0, withThrowable, 0, args.length);
+        withThrowable[args.length] = throwable;
+        delegate.error(message, withThrowable);
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return delegate.isDebugEnabled();
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return delegate.isInfoEnabled();
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return delegate.isWarnEnabled();
+    }
+
+    @Override
+    public void debug(String message, Object arg) {
+        delegate.debug(message, arg);
+    }
+
+    @Override
+    public void debug(String message, Object arg1, Object arg2) {
+        delegate.debug(message, arg1, arg2);
+    }
+
+    @Override
+    public void info(String message, Object arg) {
+        delegate.info(message, arg);
+    }
+
+    @Override
+    public void info(String message, Object arg1, Object arg2) {
+        delegate.info(message, arg1, arg2);
+    }
+
+    @Override
+    public void warn(String message, Object arg) {
+        delegate.warn(message, arg);
+    }
+
+    @Override
+    public void warn(String message, Object arg1, Object arg2) {
+        delegate.warn(message, arg1, arg2);
+    }
+}
@@ -0,0 +1,50 @@
+package com.orisunlabs.orisun.client;
+
+/**
+ * A span created by a {@link Tracer}.
+ */
+public interface Span {
+
+    enum Kind {
+        /**
+         * An RPC to the Orisun server
+         */
+        CLIENT,
+        /**
+         * Delivery of an event to a subscription handler
+         */
+        CONSUMER
+    }
+
+    /**
+     * Restores the previous current span when closed.
+     */
+    interface Scope extends AutoCloseable {
+        Scope NOOP = () -> {
+        };
+
+        @Override
+        void close();
+    }
+
+    /**
+     * @return the context propagated to the server and stored in written events
+     */
+    TraceContext getContext();
+
+    default void setAttribute(String key, String value) {
+    }
+
+    /**
+     * Make this span the current span of the calling thread, so spans the event handler creates
+     * become its children.
+     */
+    default Scope makeCurrent() {
+        return Scope.NOOP;
+    }
+
+    /**
+     * @param error The failure of the operation, or null if it succeeded
+     */
+    void end(Throwable error);
+}
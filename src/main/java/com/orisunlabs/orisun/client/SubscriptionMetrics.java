@@ -0,0 +1,167 @@
+package com.orisunlabs.orisun.client;
+
+import com.google.protobuf.Timestamp;
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import io.grpc.Channel;
+import io.grpc.stub.StreamObserver;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instruments one subscription, tagged with its subscriber name and boundary:
+ * <ul>
+ *     <li>{@value #EVENTS} and {@value #BYTES}: delivered events and their serialized size</li>
+ *     <li>{@value #HANDLER_DURATION}: time spent in the event handler</li>
+ *     <li>{@value #DELIVERY_LATENCY}: time from an event's {@code date_created} to its delivery</li>
+ *     <li>{@value #POSITION}: commit position of the last delivered event</li>
+ *     <li>{@value #LAG} and {@value #LAG_MILLIS}: distance to the boundary head in commit positions
+ *     and in event creation time</li>
+ * </ul>
+ * The head is sampled periodically by reading the boundary's latest event, as a background call
+ * left out of the per-method metrics and traces.
+ */
+class SubscriptionMetrics {
+    static final String EVENTS = "orisun.client.subscription.events";
+    static final String BYTES = "orisun.client.subscription.bytes";
+    static final String HANDLER_DURATION = "orisun.client.subscription.handler.duration";
+    static final String DELIVERY_LATENCY = "orisun.client.subscription.delivery.latency";
+    static final String POSITION = "orisun.client.subscription.position";
+    static final String LAG = "orisun.client.subscription.lag";
+    static final String LAG_MILLIS = "orisun.client.subscription.lag.millis";
+
+    private final MetricsRegistry.Counter events;
+    private final MetricsRegistry.Counter bytes;
+    private final MetricsRegistry.Histogram handlerDuration;
+    private final MetricsRegistry.Histogram deliveryLatency;
+    private final MetricsRegistry.Gauge position;
+    private final MetricsRegistry.Gauge lag;
+    private final MetricsRegistry.Gauge lagMillis;
+
+    private final String boundary;
+    private final Logger logger;
+
+    // Last delivered event and last sampled head; -1 until known
+    private volatile long commitPosition = -1;
+    private volatile long createdMillis = -1;
+    private volatile long headCommitPosition = -1;
+    private volatile long headCreatedMillis = -1;
+
+    // Guarded by this
+    private ScheduledFuture<?> headProbe;
+    private boolean stopped;
+
+    SubscriptionMetrics(MetricsRegistry registry, String subscriberName, String boundary, Logger logger) {
+        final String[] tags = {"subscriber", subscriberName, "boundary", boundary};
+        this.events = registry.counter(EVENTS, tags);
+        this.bytes = registry.counter(BYTES, tags);
+        this.handlerDuration = registry.histogram(HANDLER_DURATION, tags);
+        this.deliveryLatency = registry.histogram(DELIVERY_LATENCY, tags);
+        this.position = registry.gauge(POSITION, tags);
+        this.lag = registry.gauge(LAG, tags);
+        this.lagMillis = registry.gauge(LAG_MILLIS, tags);
+        this.boundary = boundary;
+        this.logger = logger;
+    }
+
+    /**
+     * Sample the boundary head every {@code intervalMillis} until {@link #stop()} is called. Does
+     * nothing if the subscription already stopped.
+     *
+     * @param channel Channel the probe is sent on, which should not apply the client's limits
+     */
+    synchronized void startHeadProbe(Channel channel, ScheduledExecutorService scheduler,
+                                     long intervalMillis, int timeoutSeconds) {
+        if (stopped) {
+            return;
+        }
+        final EventStoreGrpc.EventStoreStub stub = EventStoreGrpc.newStub(channel)
+                .withOption(OrisunTransport.BACKGROUND_CALL, true);
+        final Eventstore.GetEventsRequest request = Eventstore.GetEventsRequest.newBuilder()
+                .setBoundary(boundary)
+                .setDirection(Eventstore.Direction.DESC)
+                .setCount(1)
+                .build();
+        headProbe = scheduler.scheduleWithFixedDelay(() -> stub
+                        .withDeadlineAfter(timeoutSeconds, TimeUnit.SECONDS)
+                        .getEvents(request, new StreamObserver<>() {
+                            @Override
+                            public void onNext(Eventstore.GetEventsResponse response) {
+                                if (response.getEventsCount() > 0) {
+                                    final Eventstore.Event head = response.getEvents(0);
+                                    onHead(head.getPosition().getCommitPosition(), toMillis(head.getDateCreated()));
+                                }
+                            }
+
+                            @Override
+                            public void onError(Throwable t) {
+                                logger.debug("Head probe for boundary '{}' failed: {}", boundary, t.getMessage());
+                            }
+
+                            @Override
+                            public void onCompleted() {
+                            }
+                        }),
+                0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void stop() {
+        stopped = true;
+        if (headProbe != null) {
+            headProbe.cancel(false);
+            headProbe = null;
+        }
+    }
+
+    /**
+     * @return the time {@link #onHandled(long)} should be given, in nanoseconds
+     */
+    long onReceived(Eventstore.Event event) {
+        events.increment(1);
+        bytes.increment(event.getSerializedSize());
+
+        final long nowMillis = System.currentTimeMillis();
+        final long created = toMillis(event.getDateCreated());
+        if (created > 0) {
+            deliveryLatency.record(TimeUnit.MILLISECONDS.toNanos(Math.max(0, nowMillis - created)));
+        }
+
+        commitPosition = event.getPosition().getCommitPosition();
+        createdMillis = created;
+        position.set(commitPosition);
+        updateLag();
+        return System.nanoTime();
+    }
+
+    void onHandled(long receivedNanos) {
+        handlerDuration.record(System.nanoTime() - receivedNanos);
+    }
+
+    void onHead(long commitPosition, long createdMillis) {
+        headCommitPosition = commitPosition;
+        headCreatedMillis = createdMillis;
+        updateLag();
+    }
+
+    private void updateLag() {
+        final long current = commitPosition;
+        final long head = headCommitPosition;
+        if (current < 0 || head < 0) {
+            return;
+        }
+        // Delivered events may be ahead of the last sample
+        if (current >= head) {
+            lag.set(0);
+            lagMillis.set(0);
+        } else {
+            lag.set(head - current);
+            lagMillis.set(Math.max(0, headCreatedMillis - createdMillis));
+        }
+    }
+
+    private static long toMillis(Timestamp timestamp) {
+        return timestamp.getSeconds() * 1000 + timestamp.getNanos() / 1_000_000;
+    }
+}
@@ -2,21 +2,73 @@ package com.orisunlabs.orisun.client;
 
 import io.grpc.Metadata;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
 import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Token cache for storing and managing authentication tokens
+ * <p>
+ * The header to send is precomputed and swapped atomically whenever the token changes, so adding
+ * authentication to a call is a single {@link Metadata#put} without any allocation. When the token
+ * is a JWT its {@code exp} claim is tracked so it can be refreshed before it expires.
  */
 public class TokenCache {
-    private final AtomicReference<String> cachedToken = new AtomicReference<>();
+    static final Metadata.Key<String> TOKEN_HEADER =
+            Metadata.Key.of("x-auth-token", Metadata.ASCII_STRING_MARSHALLER);
+    static final Metadata.Key<String> AUTHORIZATION_HEADER =
+            Metadata.Key.of("Authorization", Metadata.ASCII_STRING_MARSHALLER);
+
+    private static final Pattern EXP_CLAIM = Pattern.compile("\"exp\"\\s*:\\s*(\\d+)");
+
+    /**
+     * An immutable header ready to be added to calls.
+     */
+    private static final class AuthHeader {
+        final Metadata.Key<String> key;
+        final String value;
+        final long expiresAtMillis;
+
+        AuthHeader(Metadata.Key<String> key, String value, long expiresAtMillis) {
+            this.key = key;
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private final AtomicReference<AuthHeader> header = new AtomicReference<>();
     private final Logger logger;
-    private final AtomicReference<String> cachedBasicAuthString = new AtomicReference<>();
+    private volatile AuthHeader basicAuthHeader;
+    private volatile LongConsumer tokenListener;
 
     public TokenCache(Logger logger) {
         this.logger = logger;
     }
 
+    /**
+     * Set the basic auth header used until a token is cached
+     *
+     * @param credentials The complete Authorization header value
+     */
+    void setBasicAuth(String credentials) {
+        if (credentials != null) {
+            AuthHeader basic = new AuthHeader(AUTHORIZATION_HEADER, credentials, 0);
+            basicAuthHeader = basic;
+            header.compareAndSet(null, basic);
+        }
+    }
+
+    /**
+     * Register a listener called with the expiry (epoch millis, 0 if unknown) of every newly cached token
+     */
+    void setTokenListener(LongConsumer listener) {
+        this.tokenListener = listener;
+    }
+
     /**
      * Store a token in the cache
      *
@@ -24,8 +76,14 @@ public class TokenCache {
      */
     public void cacheToken(String token) {
         if (token != null && !token.trim().isEmpty()) {
-            cachedToken.set(token);
+            long expiresAt = parseExpiry(token);
+            header.set(new AuthHeader(TOKEN_HEADER, token, expiresAt));
             logger.debug("Cached authentication token");
+
+            LongConsumer listener = tokenListener;
+            if (listener != null) {
+                listener.accept(expiresAt);
+            }
         }
     }
 
@@ -35,7 +93,18 @@ public class TokenCache {
      * @return The cached token, or null if no token is cached
      */
     public String getCachedToken() {
-        return cachedToken.get();
+        AuthHeader current = header.get();
+        return current != null && current.key == TOKEN_HEADER ? current.value : null;
+    }
+
+    /**
+     * Get the expiry of the cached token
+     *
+     * @return The expiry in epoch milliseconds, or 0 if no token is cached or its expiry is unknown
+     */
+    public long getTokenExpiresAt() {
+        AuthHeader current = header.get();
+        return current != null && current.key == TOKEN_HEADER ? current.expiresAtMillis : 0;
     }
 
     /**
@@ -44,17 +113,34 @@ public class TokenCache {
      * @return true if a token is cached
      */
     public boolean hasToken() {
-        return cachedToken.get() != null;
+        return getCachedToken() != null;
     }
 
     /**
      * Clear the cached token
      */
     public void clearToken() {
-        cachedToken.set(null);
+        header.set(basicAuthHeader);
         logger.debug("Cleared cached authentication token");
     }
 
+    /**
+     * Drop a token the server rejected, falling back to basic auth. Does nothing if the token was
+     * already replaced.
+     *
+     * @param token The rejected token
+     * @return true if the token was dropped
+     */
+    boolean invalidateToken(String token) {
+        AuthHeader current = header.get();
+        if (current != null && current.key == TOKEN_HEADER && current.value.equals(token)
+                && header.compareAndSet(current, basicAuthHeader)) {
+            logger.debug("Dropped rejected authentication token");
+            return true;
+        }
+        return false;
+    }
+
     /**
      * Extract token from response metadata and cache it
      *
@@ -62,13 +148,68 @@ public class TokenCache {
      */
     public void extractAndCacheToken(Metadata headers) {
         if (headers != null) {
-            Metadata.Key<String> tokenKey = Metadata.Key.of("x-auth-token", Metadata.ASCII_STRING_MARSHALLER);
-            String token = headers.get(tokenKey);
+            String token = headers.get(TOKEN_HEADER);
+            if (token == null || token.isEmpty()) {
+                return;
+            }
 
-            if (token != null && !token.trim().isEmpty()) {
-                cacheToken(token);
-                logger.debug("Extracted and cached token from response headers");
+            // The server echoes the same token on most responses, only a new one is worth a swap
+            AuthHeader current = header.get();
+            if (current != null && current.key == TOKEN_HEADER && current.value.equals(token)) {
+                return;
             }
+
+            cacheToken(token);
+        }
+    }
+
+    /**
+     * Add the current authentication header (cached token or basic auth) to outgoing metadata
+     *
+     * @param headers The call's request metadata
+     * @return the token that was added, or null if basic auth or nothing was added
+     */
+    String applyAuthHeaders(Metadata headers) {
+        AuthHeader current = header.get();
+        if (current == null) {
+            return null;
+        }
+        headers.put(current.key, current.value);
+        return current.key == TOKEN_HEADER ? current.value : null;
+    }
+
+    /**
+     * Add the basic auth header to outgoing metadata, ignoring any cached token
+     *
+     * @param headers The call's request metadata
+     */
+    void applyBasicAuth(Metadata headers) {
+        AuthHeader basic = basicAuthHeader;
+        if (basic != null) {
+            headers.put(basic.key, basic.value);
+        }
+    }
+
+    /**
+     * Read the {@code exp} claim of a JWT.
+     *
+     * @return the expiry in epoch milliseconds, or 0 if the token is not a JWT or has no expiry
+     */
+    static long parseExpiry(String token) {
+        int first = token.indexOf('.');
+        int second = first < 0 ? -1 : token.indexOf('.', first + 1);
+        if (second < 0) {
+            return 0;
+        }
+
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(token.substring(first + 1, second)),
+                    StandardCharsets.UTF_8);
+            Matcher matcher = EXP_CLAIM.matcher(payload);
+            return matcher.find() ? Long.parseLong(matcher.group(1)) * 1000 : 0;
+        } catch (IllegalArgumentException e) {
+            // Opaque token that happens to contain dots
+            return 0;
         }
     }
 
@@ -79,23 +220,12 @@ public class TokenCache {
      * @return Metadata with authentication headers
      */
     public Metadata createAuthMetadata(Supplier<String> basicAuthCredentials) {
-        Metadata metadata = new Metadata();
-
-        String token = getCachedToken();
-        if (token != null) {
-            metadata.put(Metadata.Key.of("x-auth-token", Metadata.ASCII_STRING_MARSHALLER), token);
-            logger.debug("Using cached authentication token");
-        } else if (this.cachedBasicAuthString.get() != null) {
-            metadata.put(Metadata.Key.of("Authorization", Metadata.ASCII_STRING_MARSHALLER), cachedBasicAuthString.get());
-        } else if (basicAuthCredentials != null) {
-            String credentials = basicAuthCredentials.get();
-            if (credentials != null) {
-                this.cachedBasicAuthString.set(credentials);
-                metadata.put(Metadata.Key.of("Authorization", Metadata.ASCII_STRING_MARSHALLER), credentials);
-                logger.debug("Using basic authentication");
-            }
+        if (header.get() == null && basicAuthCredentials != null) {
+            setBasicAuth(basicAuthCredentials.get());
         }
 
+        Metadata metadata = new Metadata();
+        applyAuthHeaders(metadata);
         return metadata;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,137 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.StreamObserver;
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the token of a {@link TokenCache} fresh.
+ * <p>
+ * Re-authentication is a {@code ping} sent with basic credentials, whose response headers carry a
+ * new token. Concurrent requests to re-authenticate share a single ping, so a token expiring under
+ * load costs one credential check instead of one per failed call. Tokens with a known expiry are
+ * refreshed in the background ahead of time.
+ */
+class TokenRefresher implements AutoCloseable {
+    private static final CompletableFuture<Void> ALREADY_REFRESHED = CompletableFuture.completedFuture(null);
+
+    private final TokenCache tokenCache;
+    private final Logger logger;
+    private final long refreshMarginMillis;
+    private final int timeoutSeconds;
+    private volatile Channel channel;
+    private Supplier<ScheduledExecutorService> scheduler;
+    private CompletableFuture<Void> inFlight;
+    private ScheduledFuture<?> scheduledRefresh;
+    private boolean closed;
+
+    TokenRefresher(TokenCache tokenCache, Logger logger, long refreshMarginMillis, int timeoutSeconds) {
+        this.tokenCache = tokenCache;
+        this.logger = logger;
+        this.refreshMarginMillis = refreshMarginMillis;
+        this.timeoutSeconds = timeoutSeconds;
+        tokenCache.setTokenListener(this::scheduleRefresh);
+    }
+
+    /**
+     * Set the channel re-authentication pings are sent on, and the scheduler background refreshes
+     * run on. The channel must include the {@link AuthInterceptor}; the scheduler is only asked for
+     * once a token with a known expiry arrives.
+     */
+    synchronized void start(Channel channel, Supplier<ScheduledExecutorService> scheduler) {
+        this.channel = channel;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Re-authenticate after the server rejected {@code staleToken}. Returns immediately if the token
+     * was already replaced, and joins the running re-authentication if there is one.
+     *
+     * @return a future completing once a new token is cached, or exceptionally if re-authentication failed
+     */
+    synchronized CompletableFuture<Void> reauthenticate(String staleToken) {
+        if (staleToken == null || !staleToken.equals(tokenCache.getCachedToken())) {
+            return ALREADY_REFRESHED;
+        }
+        if (inFlight != null) {
+            return inFlight;
+        }
+
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        inFlight = future;
+        logger.debug("Re-authenticating with basic credentials");
+
+        final CallOptions callOptions = CallOptions.DEFAULT
+                .withOption(AuthInterceptor.BASIC_AUTH_ONLY, true)
+                .withOption(OrisunTransport.BACKGROUND_CALL, true)
+                .withDeadlineAfter(timeoutSeconds, TimeUnit.SECONDS);
+        ClientCalls.asyncUnaryCall(channel.newCall(EventStoreGrpc.getPingMethod(), callOptions),
+                Eventstore.PingRequest.getDefaultInstance(), new StreamObserver<>() {
+                    @Override
+                    public void onNext(Eventstore.PingResponse value) {
+                        // Only the response headers matter
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        logger.warn("Re-authentication failed: {}", t.getMessage());
+                        finish(future, staleToken, t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        finish(future, staleToken, null);
+                    }
+                });
+        return future;
+    }
+
+    private void finish(CompletableFuture<Void> future, String staleToken, Throwable error) {
+        synchronized (this) {
+            inFlight = null;
+        }
+
+        if (error != null) {
+            future.completeExceptionally(error);
+            return;
+        }
+
+        // A server that did not issue a new token gets basic auth until it does
+        tokenCache.invalidateToken(staleToken);
+        future.complete(null);
+    }
+
+    private synchronized void scheduleRefresh(long expiresAtMillis) {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+            scheduledRefresh = null;
+        }
+        if (expiresAtMillis <= 0 || closed || scheduler == null) {
+            return;
+        }
+
+        // Refresh a margin ahead of expiry, or halfway through lifetimes shorter than the margin
+        final long remaining = expiresAtMillis - System.currentTimeMillis();
+        final long delay = remaining > 2 * refreshMarginMillis ? remaining - refreshMarginMillis : remaining / 2;
+        final String token = tokenCache.getCachedToken();
+        scheduledRefresh = scheduler.get().schedule(() -> {
+            logger.debug("Refreshing authentication token ahead of expiry");
+            reauthenticate(token);
+        }, Math.max(0, delay), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+            scheduledRefresh = null;
+        }
+    }
+}
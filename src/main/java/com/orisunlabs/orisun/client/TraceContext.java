@@ -0,0 +1,258 @@
+package com.orisunlabs.orisun.client;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * W3C trace context of a span: trace id, span id and the sampled flag, as carried by the
+ * {@code traceparent} header ({@code 00-<trace id>-<span id>-<flags>}).
+ */
+public final class TraceContext {
+    /**
+     * Name of the gRPC header and of the event metadata field carrying the context.
+     */
+    public static final String TRACEPARENT = "traceparent";
+    private static final String TRACEPARENT_FIELD = "\"" + TRACEPARENT + "\"";
+
+    private static final int LENGTH = 55;
+    /**
+     * Most bytes {@link #addToEventMetadata} adds to a serialized event: the field, with braces when
+     * the metadata was empty, the metadata's tag and length when it was empty, and a byte more for
+     * the event's length.
+     */
+    static final int MAX_EVENT_METADATA_GROWTH = TRACEPARENT_FIELD.length() + LENGTH + 5 + 3;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final long traceIdHigh;
+    private final long traceIdLow;
+    private final long spanId;
+    private final boolean sampled;
+    // Encoded on first use
+    private String traceparent;
+
+    public TraceContext(long traceIdHigh, long traceIdLow, long spanId, boolean sampled) {
+        if ((traceIdHigh == 0 && traceIdLow == 0) || spanId == 0) {
+            throw new IllegalArgumentException("Trace and span ids must not be zero");
+        }
+        this.traceIdHigh = traceIdHigh;
+        this.traceIdLow = traceIdLow;
+        this.spanId = spanId;
+        this.sampled = sampled;
+    }
+
+    /**
+     * @return a context starting a new trace, with random ids
+     */
+    public static TraceContext newRoot(boolean sampled) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new TraceContext(random.nextLong(), nonZero(random), nonZero(random), sampled);
+    }
+
+    /**
+     * @return a context for a child span in the same trace, with a random span id
+     */
+    public TraceContext newChild() {
+        return new TraceContext(traceIdHigh, traceIdLow, nonZero(ThreadLocalRandom.current()), sampled);
+    }
+
+    private static long nonZero(ThreadLocalRandom random) {
+        long value;
+        do {
+            value = random.nextLong();
+        } while (value == 0);
+        return value;
+    }
+
+    public long getTraceIdHigh() {
+        return traceIdHigh;
+    }
+
+    public long getTraceIdLow() {
+        return traceIdLow;
+    }
+
+    public long getSpanIdValue() {
+        return spanId;
+    }
+
+    /**
+     * @return the trace id as 32 lowercase hex characters
+     */
+    public String getTraceId() {
+        return toTraceparent().substring(3, 35);
+    }
+
+    /**
+     * @return the span id as 16 lowercase hex characters
+     */
+    public String getSpanId() {
+        return toTraceparent().substring(36, 52);
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    /**
+     * @return the {@code traceparent} header value of this context
+     */
+    public String toTraceparent() {
+        String value = traceparent;
+        if (value == null) {
+            final char[] chars = new char[LENGTH];
+            chars[0] = '0';
+            chars[1] = '0';
+            chars[2] = '-';
+            writeHex(chars, 3, traceIdHigh);
+            writeHex(chars, 19, traceIdLow);
+            chars[35] = '-';
+            writeHex(chars, 36, spanId);
+            chars[52] = '-';
+            chars[53] = '0';
+            chars[54] = sampled ? '1' : '0';
+            value = new String(chars);
+            traceparent = value;
+        }
+        return value;
+    }
+
+    private static void writeHex(char[] chars, int offset, long value) {
+        for (int i = 15; i >= 0; i--) {
+            chars[offset + i] = HEX[(int) (value & 0xf)];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * @return the context in a {@code traceparent} value, or null if the value is malformed or uses
+     * all-zero ids
+     */
+    public static TraceContext parse(CharSequence traceparent) {
+        if (traceparent == null) {
+            return null;
+        }
+        return parse(traceparent, 0, traceparent.length());
+    }
+
+    private static TraceContext parse(CharSequence value, int offset, int end) {
+        // Later versions may append fields after the flags
+        if (end - offset < LENGTH || (end - offset > LENGTH && value.charAt(offset + LENGTH) != '-')) {
+            return null;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            final char c = value.charAt(offset + i);
+            final boolean separator = i == 2 || i == 35 || i == 52;
+            if (separator ? c != '-' : hexDigit(c) < 0) {
+                return null;
+            }
+        }
+        // Version ff is invalid
+        if (value.charAt(offset) == 'f' && value.charAt(offset + 1) == 'f') {
+            return null;
+        }
+        final long traceIdHigh = parseHex(value, offset + 3);
+        final long traceIdLow = parseHex(value, offset + 19);
+        final long spanId = parseHex(value, offset + 36);
+        if ((traceIdHigh == 0 && traceIdLow == 0) || spanId == 0) {
+            return null;
+        }
+        final int flags = hexDigit(value.charAt(offset + 53)) << 4 | hexDigit(value.charAt(offset + 54));
+        return new TraceContext(traceIdHigh, traceIdLow, spanId, (flags & 1) == 1);
+    }
+
+    private static long parseHex(CharSequence value, int offset) {
+        long result = 0;
+        for (int i = 0; i < 16; i++) {
+            result = result << 4 | hexDigit(value.charAt(offset + i));
+        }
+        return result;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * Read the context from the {@code "traceparent"} field of an event's JSON metadata.
+     *
+     * @return the context, or null if the metadata has no valid {@code traceparent} field
+     */
+    public static TraceContext fromEventMetadata(String metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        final int field = metadata.indexOf(TRACEPARENT_FIELD);
+        if (field < 0) {
+            return null;
+        }
+        int i = skipWhitespace(metadata, field + TRACEPARENT.length() + 2);
+        if (i >= metadata.length() || metadata.charAt(i) != ':') {
+            return null;
+        }
+        i = skipWhitespace(metadata, i + 1);
+        if (i >= metadata.length() || metadata.charAt(i) != '"') {
+            return null;
+        }
+        final int close = metadata.indexOf('"', i + 1);
+        return close < 0 ? null : parse(metadata, i + 1, close);
+    }
+
+    private static int skipWhitespace(String value, int index) {
+        while (index < value.length() && Character.isWhitespace(value.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Add this context as the {@code "traceparent"} field of an event's JSON metadata. Metadata that
+     * already has the field, or is not a JSON object, is returned unchanged.
+     */
+    public String addToEventMetadata(String metadata) {
+        return addToEventMetadata(metadata, toTraceparent());
+    }
+
+    /**
+     * @return the metadata with the field added, or the same instance if it is left unchanged
+     */
+    static String addToEventMetadata(String metadata, String traceparent) {
+        if (metadata == null || metadata.isBlank()) {
+            return "{" + TRACEPARENT_FIELD + ":\"" + traceparent + "\"}";
+        }
+        final int open = skipWhitespace(metadata, 0);
+        if (metadata.charAt(open) != '{' || metadata.contains(TRACEPARENT_FIELD)) {
+            return metadata;
+        }
+        final int next = skipWhitespace(metadata, open + 1);
+        final String separator = next < metadata.length() && metadata.charAt(next) == '}' ? "" : ",";
+        return metadata.substring(0, open + 1) + TRACEPARENT_FIELD + ":\"" + traceparent + "\""
+                + separator + metadata.substring(open + 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TraceContext other)) {
+            return false;
+        }
+        return traceIdHigh == other.traceIdHigh && traceIdLow == other.traceIdLow
+                && spanId == other.spanId && sampled == other.sampled;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(traceIdLow) * 31 + Long.hashCode(spanId);
+    }
+
+    @Override
+    public String toString() {
+        return toTraceparent();
+    }
+}
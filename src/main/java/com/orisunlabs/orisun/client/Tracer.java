@@ -0,0 +1,25 @@
+package com.orisunlabs.orisun.client;
+
+/**
+ * Creates spans for client calls and subscription deliveries. Implement this to bridge to a
+ * tracing library; the client itself depends on none.
+ * <p>
+ * Spans are only requested for sampled operations, see {@link Sampler}.
+ */
+public interface Tracer {
+
+    /**
+     * @param name   Span name, e.g. {@code eventstore.EventStore/SaveEvents}
+     * @param kind   What the span represents
+     * @param parent The parent context, or null to start a new trace
+     */
+    Span startSpan(String name, Span.Kind kind, TraceContext parent);
+
+    /**
+     * @return the context of the calling thread's current span, used as the parent of client spans,
+     * or null if there is none
+     */
+    default TraceContext currentContext() {
+        return null;
+    }
+}
@@ -0,0 +1,47 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.Eventstore;
+
+/**
+ * Tracing settings of a transport: the tracer, its sampler and whether written events carry the
+ * trace context in their metadata.
+ */
+final class Tracing {
+    private final Tracer tracer;
+    private final Sampler sampler;
+    private final boolean eventMetadata;
+
+    Tracing(Tracer tracer, Sampler sampler, boolean eventMetadata) {
+        this.tracer = tracer;
+        this.sampler = sampler;
+        this.eventMetadata = eventMetadata;
+    }
+
+    Tracer getTracer() {
+        return tracer;
+    }
+
+    Sampler getSampler() {
+        return sampler;
+    }
+
+    boolean propagatesToEventMetadata() {
+        return eventMetadata;
+    }
+
+    /**
+     * Start a span for delivering {@code event}, parented by the context stored in its metadata.
+     *
+     * @return the span, or null if the delivery is not sampled
+     */
+    Span startConsumerSpan(String name, Eventstore.Event event) {
+        final TraceContext parent = TraceContext.fromEventMetadata(event.getMetadata());
+        if (!sampler.shouldSample(parent)) {
+            return null;
+        }
+        final Span span = tracer.startSpan(name, Span.Kind.CONSUMER, parent);
+        span.setAttribute("orisun.event.type", event.getEventType());
+        span.setAttribute("orisun.event.id", event.getEventId());
+        return span;
+    }
+}
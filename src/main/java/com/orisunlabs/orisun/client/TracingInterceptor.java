@@ -0,0 +1,111 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.Eventstore;
+import io.grpc.*;
+
+/**
+ * Creates a client span per sampled call and propagates the W3C {@code traceparent} header. The
+ * parent is the tracer's current context; unsampled calls only forward that parent.
+ * <p>
+ * With event metadata propagation enabled (it is off by default, as it changes what is stored), the
+ * span context is also added to the metadata of the events a sampled {@code saveEvents} call
+ * writes, so subscriptions can link back to the write.
+ */
+class TracingInterceptor implements ClientInterceptor {
+    static final Metadata.Key<String> TRACEPARENT_HEADER =
+            Metadata.Key.of(TraceContext.TRACEPARENT, Metadata.ASCII_STRING_MARSHALLER);
+
+    private final Tracing tracing;
+
+    TracingInterceptor(Tracing tracing) {
+        this.tracing = tracing;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+            MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        // Background re-authentication pings and lag probes are not part of any trace
+        if (callOptions.getOption(AuthInterceptor.BASIC_AUTH_ONLY)
+                || callOptions.getOption(OrisunTransport.BACKGROUND_CALL)) {
+            return next.newCall(method, callOptions);
+        }
+        final TraceContext parent = tracing.getTracer().currentContext();
+        if (!tracing.getSampler().shouldSample(parent)) {
+            if (parent == null) {
+                return next.newCall(method, callOptions);
+            }
+            return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+                @Override
+                public void start(Listener<RespT> responseListener, Metadata headers) {
+                    headers.put(TRACEPARENT_HEADER, parent.toTraceparent());
+                    super.start(responseListener, headers);
+                }
+            };
+        }
+
+        final Span span = tracing.getTracer().startSpan(method.getFullMethodName(), Span.Kind.CLIENT, parent);
+        return new TracedCall<>(next.newCall(method, callOptions), span, tracing.propagatesToEventMetadata());
+    }
+
+    private static final class TracedCall<ReqT, RespT> extends ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT> {
+        private final Span span;
+        private final boolean eventMetadata;
+        private boolean boundaryRecorded;
+
+        TracedCall(ClientCall<ReqT, RespT> delegate, Span span, boolean eventMetadata) {
+            super(delegate);
+            this.span = span;
+            this.eventMetadata = eventMetadata;
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            headers.put(TRACEPARENT_HEADER, span.getContext().toTraceparent());
+            super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                @Override
+                public void onClose(Status status, Metadata trailers) {
+                    span.setAttribute("rpc.grpc.status_code", status.getCode().name());
+                    span.end(status.isOk() ? null : status.asRuntimeException(trailers));
+                    super.onClose(status, trailers);
+                }
+            }, headers);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void sendMessage(ReqT message) {
+            if (!boundaryRecorded) {
+                boundaryRecorded = true;
+                final String boundary = RequestBoundaries.of(message);
+                if (boundary != RequestBoundaries.NONE) {
+                    span.setAttribute("orisun.boundary", boundary);
+                }
+            }
+            if (eventMetadata && message instanceof Eventstore.SaveEventsRequest request) {
+                message = (ReqT) withTraceContext(request, span.getContext());
+            }
+            super.sendMessage(message);
+        }
+    }
+
+    /**
+     * Add the context to the metadata of the request's events. Only the events whose metadata
+     * changes are rebuilt, and the request itself only if one of them does.
+     */
+    static Eventstore.SaveEventsRequest withTraceContext(Eventstore.SaveEventsRequest request, TraceContext context) {
+        final String traceparent = context.toTraceparent();
+        Eventstore.SaveEventsRequest.Builder builder = null;
+        for (int i = 0; i < request.getEventsCount(); i++) {
+            final Eventstore.EventToSave event = request.getEvents(i);
+            final String original = event.getMetadata();
+            final String metadata = TraceContext.addToEventMetadata(original, traceparent);
+            if (metadata != original) {
+                if (builder == null) {
+                    builder = request.toBuilder();
+                }
+                builder.setEvents(i, event.toBuilder().setMetadata(metadata));
+            }
+        }
+        return builder != null ? builder.build() : request;
+    }
+}
@@ -3,6 +3,9 @@ package com.orisunlabs.orisun.client;
 import java.util.regex.Pattern;
 
 public class Utils {
+    // Matches "Expected X, Actual Y", -1 standing for no event
+    private static final Pattern VERSION_NUMBERS = Pattern.compile("Expected\\s+(-?\\d+),\\s+Actual\\s+(-?\\d+)");
+
     /**
      * Extracts the expected and actual version numbers from an error message.
      *
@@ -11,11 +14,8 @@ public class Utils {
      * @throws IllegalArgumentException If the version numbers cannot be extracted
      */
     public static int[] extractVersionNumbers(String errorMsg) {
-        // Define the regex pattern to match "Expected X, Actual Y"
-        final var pattern = Pattern.compile("Expected\\s+(\\d+),\\s+Actual\\s+(\\d+)");
-
         // Create a matcher with the input string
-        final var matcher = pattern.matcher(errorMsg);
+        final var matcher = VERSION_NUMBERS.matcher(errorMsg);
 
         // Check if the pattern matches
         if (matcher.find()) {
@@ -0,0 +1,89 @@
+package com.orisunlabs.orisun.client;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Options for the warm-up phase run when a client is built.
+ * <p>
+ * Warm-up connects the channel, pings every endpoint (which also primes the token cache) and can
+ * run a number of synthetic reads so the JIT compiles the request hot paths before real traffic
+ * arrives. Its outcome is exposed through {@link OrisunClient#ready()}.
+ */
+public class WarmupOptions {
+    private final long timeoutNanos;
+    private final int pingCount;
+    private final int syntheticCalls;
+    private final String syntheticBoundary;
+
+    public static class Builder {
+        private long timeoutNanos = TimeUnit.SECONDS.toNanos(30);
+        private int pingCount;
+        private int syntheticCalls;
+        private String syntheticBoundary;
+
+        /**
+         * Maximum time for the channel to become ready and the pings and synthetic calls to
+         * complete. Each call runs with the time left as its deadline.
+         */
+        public Builder withTimeout(long duration, TimeUnit unit) {
+            this.timeoutNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Number of pings to send. Defaults to the number of configured servers, so that a round
+         * robin channel pings each of them once.
+         */
+        public Builder withPingCount(int pingCount) {
+            this.pingCount = pingCount;
+            return this;
+        }
+
+        /**
+         * Run {@code count} single-event reads against {@code boundary} after the pings, to get the
+         * request path compiled. Failures of synthetic calls are ignored.
+         */
+        public Builder withSyntheticCalls(int count, String boundary) {
+            this.syntheticCalls = count;
+            this.syntheticBoundary = boundary;
+            return this;
+        }
+
+        public WarmupOptions build() {
+            if (timeoutNanos <= 0) {
+                throw new IllegalArgumentException("Warm-up timeout must be positive");
+            }
+            if (syntheticCalls > 0 && (syntheticBoundary == null || syntheticBoundary.isBlank())) {
+                throw new IllegalArgumentException("A boundary is required for synthetic calls");
+            }
+            return new WarmupOptions(this);
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    private WarmupOptions(Builder builder) {
+        this.timeoutNanos = builder.timeoutNanos;
+        this.pingCount = builder.pingCount;
+        this.syntheticCalls = builder.syntheticCalls;
+        this.syntheticBoundary = builder.syntheticBoundary;
+    }
+
+    public long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    public int getPingCount() {
+        return pingCount;
+    }
+
+    public int getSyntheticCalls() {
+        return syntheticCalls;
+    }
+
+    public String getSyntheticBoundary() {
+        return syntheticBoundary;
+    }
+}
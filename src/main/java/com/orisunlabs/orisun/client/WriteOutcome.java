@@ -0,0 +1,83 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.Eventstore;
+
+/**
+ * The result of {@link OrisunClient#trySaveEvents}: either the events were written, or the expected
+ * position no longer matched because another writer got there first. Conflicts are an expected
+ * outcome under contention, so they are returned rather than thrown.
+ */
+public final class WriteOutcome {
+    private final Eventstore.WriteResult result;
+    private final long expectedVersion;
+    private final long actualVersion;
+    private final String conflictDescription;
+
+    private WriteOutcome(Eventstore.WriteResult result, long expectedVersion, long actualVersion,
+                         String conflictDescription) {
+        this.result = result;
+        this.expectedVersion = expectedVersion;
+        this.actualVersion = actualVersion;
+        this.conflictDescription = conflictDescription;
+    }
+
+    public static WriteOutcome written(Eventstore.WriteResult result) {
+        return new WriteOutcome(result, 0, 0, null);
+    }
+
+    public static WriteOutcome conflict(String description, long expectedVersion, long actualVersion) {
+        return new WriteOutcome(null, expectedVersion, actualVersion, description);
+    }
+
+    public boolean isWritten() {
+        return result != null;
+    }
+
+    public boolean isConflict() {
+        return result == null;
+    }
+
+    /**
+     * @return the write result
+     * @throws IllegalStateException if the write conflicted
+     */
+    public Eventstore.WriteResult getResult() {
+        if (result == null) {
+            throw new IllegalStateException("Write conflicted: " + conflictDescription);
+        }
+        return result;
+    }
+
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public long getActualVersion() {
+        return actualVersion;
+    }
+
+    /**
+     * @return the server's description of the conflict, null if the events were written
+     */
+    public String getConflictDescription() {
+        return conflictDescription;
+    }
+
+    /**
+     * @return the write result, throwing the conflict as an {@link OptimisticConcurrencyException}
+     * like {@link OrisunClient#saveEvents} does
+     */
+    public Eventstore.WriteResult orThrow() {
+        if (result == null) {
+            throw new OptimisticConcurrencyException(conflictDescription, expectedVersion, actualVersion);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return result != null
+                ? "WriteOutcome{written, logPosition=" + result.getLogPosition().getCommitPosition() + "}"
+                : "WriteOutcome{conflict, expected=" + expectedVersion + ", actual=" + actualVersion + "}";
+    }
+}
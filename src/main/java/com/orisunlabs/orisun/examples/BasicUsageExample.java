@@ -1,12 +1,12 @@
 package com.orisunlabs.orisun.examples;
 
 import com.orisunlabs.orisun.client.OrisunClient;
+import com.orisunlabs.orisun.client.EventIds;
 import com.orisunlabs.orisun.client.DefaultLogger;
 import com.orisunlabs.orisun.client.EventSubscription;
 import com.orisunlabs.orisun.client.OptimisticConcurrencyException;
 import com.orisun.eventstore.Eventstore;
 
-import java.util.UUID;
 
 /**
  * Basic usage example for Orisun Java Client
@@ -63,13 +63,13 @@ public class BasicUsageExample {
                                 .setPreparePosition(-1))
                         .build())
                 .addEvents(Eventstore.EventToSave.newBuilder()
-                        .setEventId(UUID.randomUUID().toString())
+                        .setEventId(EventIds.newId())
                         .setEventType("UserCreated")
                         .setData("{\"userId\":\"user-123\",\"email\":\"john.doe@example.com\",\"name\":\"John Doe\"}")
                         .setMetadata("{\"source\":\"user-service\",\"version\":\"1.0\"}")
                         .build())
                 .addEvents(Eventstore.EventToSave.newBuilder()
-                        .setEventId(UUID.randomUUID().toString())
+                        .setEventId(EventIds.newId())
                         .setEventType("UserEmailUpdated")
                         .setData("{\"userId\":\"user-123\",\"oldEmail\":\"john.doe@example.com\",\"newEmail\":\"john.doe@newdomain.com\"}")
                         .setMetadata("{\"source\":\"user-service\",\"version\":\"1.0\"}")
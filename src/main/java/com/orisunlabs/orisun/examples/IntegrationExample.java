@@ -1,11 +1,11 @@
 package com.orisunlabs.orisun.examples;
 
 import com.orisunlabs.orisun.client.OrisunClient;
+import com.orisunlabs.orisun.client.EventIds;
 import com.orisunlabs.orisun.client.DefaultLogger;
 import com.orisunlabs.orisun.client.EventSubscription;
 import com.orisun.eventstore.Eventstore;
 
-import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -175,7 +175,7 @@ public class IntegrationExample {
 
     private static Eventstore.EventToSave createOrderCreatedEvent() {
         return Eventstore.EventToSave.newBuilder()
-                .setEventId(UUID.randomUUID().toString())
+                .setEventId(EventIds.newId())
                 .setEventType("OrderCreated")
                 .setData("{\"orderId\":\"order-123\",\"customerId\":\"customer-456\",\"items\":[{\"productId\":\"prod-1\",\"quantity\":2,\"price\":29.99}],\"totalAmount\":59.98}")
                 .setMetadata("{\"source\":\"order-service\",\"correlationId\":\"corr-" + System.currentTimeMillis() + "\"}")
@@ -184,7 +184,7 @@ public class IntegrationExample {
 
     private static Eventstore.EventToSave createPaymentProcessedEvent() {
         return Eventstore.EventToSave.newBuilder()
-                .setEventId(UUID.randomUUID().toString())
+                .setEventId(EventIds.newId())
                 .setEventType("PaymentProcessed")
                 .setData("{\"orderId\":\"order-123\",\"paymentId\":\"payment-789\",\"amount\":59.98,\"method\":\"credit_card\",\"status\":\"completed\"}")
                 .setMetadata("{\"source\":\"payment-service\",\"correlationId\":\"corr-" + System.currentTimeMillis() + "\"}")
@@ -193,7 +193,7 @@ public class IntegrationExample {
 
     private static Eventstore.EventToSave createOrderShippedEvent() {
         return Eventstore.EventToSave.newBuilder()
-                .setEventId(UUID.randomUUID().toString())
+                .setEventId(EventIds.newId())
                 .setEventType("OrderShipped")
                 .setData("{\"orderId\":\"order-123\",\"trackingNumber\":\"TRK123456\",\"carrier\":\"FastShip\",\"estimatedDelivery\":\"2024-01-30T00:00:00Z\"}")
                 .setMetadata("{\"source\":\"shipping-service\",\"correlationId\":\"corr-" + System.currentTimeMillis() + "\"}")
@@ -202,7 +202,7 @@ public class IntegrationExample {
 
     private static Eventstore.EventToSave createOrderDeliveredEvent() {
         return Eventstore.EventToSave.newBuilder()
-                .setEventId(UUID.randomUUID().toString())
+                .setEventId(EventIds.newId())
                 .setEventType("OrderDelivered")
                 .setData("{\"orderId\":\"order-123\",\"deliveredAt\":\"2024-01-29T15:30:00Z\",\"signedBy\":\"John Doe\"}")
                 .setMetadata("{\"source\":\"delivery-service\",\"correlationId\":\"corr-" + System.currentTimeMillis() + "\"}")
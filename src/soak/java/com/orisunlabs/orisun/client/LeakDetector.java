@@ -0,0 +1,82 @@
+package com.orisunlabs.orisun.client;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides from periodic samples whether a resource grows without bound.
+ * <p>
+ * Samples taken during warm-up are ignored. Of the rest, a resource is growing when the lowest
+ * value of the last third exceeds the highest value of the first third by more than its allowance:
+ * a bounded resource returns to its earlier levels, a leak keeps its floor rising.
+ */
+final class LeakDetector {
+    private static final int MIN_SAMPLES = 6;
+
+    private final double warmupFraction;
+    private final Map<String, Allowance> allowances = new LinkedHashMap<>();
+    private final Map<String, List<Long>> samples = new LinkedHashMap<>();
+
+    private record Allowance(long absolute, double relative) {
+        long of(long base) {
+            return absolute + (long) (relative * base);
+        }
+    }
+
+    /**
+     * @param warmupFraction Fraction of the samples, from the start, that are ignored
+     */
+    LeakDetector(double warmupFraction) {
+        this.warmupFraction = warmupFraction;
+    }
+
+    /**
+     * How much a resource may grow between the start and the end of the run.
+     */
+    LeakDetector withAllowance(String resource, long absolute, double relative) {
+        allowances.put(resource, new Allowance(absolute, relative));
+        return this;
+    }
+
+    synchronized void record(String resource, long value) {
+        samples.computeIfAbsent(resource, r -> new ArrayList<>()).add(value);
+    }
+
+    /**
+     * @return a description of each growing resource, empty if none grows or there are too few
+     * samples to tell
+     */
+    synchronized List<String> growingResources() {
+        final List<String> growing = new ArrayList<>();
+        for (Map.Entry<String, List<Long>> entry : samples.entrySet()) {
+            final List<Long> values = entry.getValue();
+            final List<Long> measured = values.subList((int) (values.size() * warmupFraction), values.size());
+            if (measured.size() < MIN_SAMPLES) {
+                continue;
+            }
+            final int third = measured.size() / 3;
+            final long earlyMax = measured.subList(0, third).stream().mapToLong(Long::longValue).max().orElse(0);
+            final long lateMin = measured.subList(measured.size() - third, measured.size()).stream()
+                    .mapToLong(Long::longValue).min().orElse(0);
+            final Allowance allowance = allowances.getOrDefault(entry.getKey(), new Allowance(0, 0));
+            if (lateMin > earlyMax + allowance.of(earlyMax)) {
+                growing.add(entry.getKey() + " grew from at most " + earlyMax + " to at least " + lateMin
+                        + ", samples " + values);
+            }
+        }
+        return growing;
+    }
+
+    synchronized String summary() {
+        final StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, List<Long>> entry : samples.entrySet()) {
+            final List<Long> values = entry.getValue();
+            summary.append(String.format("%-24s first %,d, last %,d, max %,d%n", entry.getKey(),
+                    values.get(0), values.get(values.size() - 1),
+                    values.stream().mapToLong(Long::longValue).max().orElse(0)));
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.orisunlabs.orisun.client;
+
+import javax.management.ObjectName;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Samples the resources a leaking client grows: heap after a full collection, live threads, open
+ * gRPC calls and native memory.
+ */
+final class ResourceSampler {
+    static final String HEAP_AFTER_GC = "heap after GC (bytes)";
+    static final String LIVE_THREADS = "live threads";
+    static final String OPEN_CALLS = "open gRPC calls";
+    static final String NATIVE_MEMORY = "native memory (bytes)";
+
+    private static final Pattern NMT_TOTAL = Pattern.compile("Total: reserved=\\d+KB, committed=(\\d+)KB");
+
+    private final LongSupplier openCalls;
+
+    /**
+     * @param openCalls Number of calls currently open on the client
+     */
+    ResourceSampler(LongSupplier openCalls) {
+        this.openCalls = openCalls;
+    }
+
+    /**
+     * @return the number of calls in flight recorded by the client's call metrics
+     */
+    static long inFlightCalls(MetricsSnapshot snapshot) {
+        long total = 0;
+        for (Map.Entry<MetricsSnapshot.MetricId, Long> gauge : snapshot.getGauges().entrySet()) {
+            if (gauge.getKey().getName().equals(MetricsInterceptor.IN_FLIGHT)) {
+                total += gauge.getValue();
+            }
+        }
+        return total;
+    }
+
+    void sampleInto(LeakDetector detector) {
+        System.gc();
+        detector.record(HEAP_AFTER_GC, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        detector.record(LIVE_THREADS, ManagementFactory.getThreadMXBean().getThreadCount());
+        detector.record(OPEN_CALLS, openCalls.getAsLong());
+        detector.record(NATIVE_MEMORY, nativeMemory());
+    }
+
+    /**
+     * Committed native memory from Native Memory Tracking when the JVM runs with
+     * {@code -XX:NativeMemoryTracking=summary}, otherwise the memory used by direct and mapped buffers.
+     */
+    static long nativeMemory() {
+        try {
+            final String summary = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                    new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                    "vmNativeMemory",
+                    new Object[]{new String[]{"summary"}},
+                    new String[]{String[].class.getName()});
+            final Matcher total = NMT_TOTAL.matcher(summary);
+            if (total.find()) {
+                return Long.parseLong(total.group(1)) * 1024;
+            }
+        } catch (Exception e) {
+            // Not available on this JVM, fall back to buffer pools
+        }
+        long used = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            used += pool.getMemoryUsed();
+        }
+        return used;
+    }
+}
@@ -0,0 +1,239 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import com.orisunlabs.orisun.testing.InMemoryEventStore;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Holds many subscriptions against an in-memory server for a long time while events are written,
+ * streams are reset and subscriptions are closed and reopened, and fails if heap, threads, open
+ * calls or native memory keep growing.
+ * <p>
+ * Run with {@code ./gradlew soakTest -PsoakDuration=6h}. Settings are read from system properties:
+ * {@code orisun.soak.duration}, {@code orisun.soak.subscriptions}, {@code orisun.soak.churnInterval},
+ * {@code orisun.soak.sampleInterval} and {@code orisun.soak.writeRate} (events per second).
+ */
+class SubscriptionSoakTest {
+    private static final Duration DURATION = duration("orisun.soak.duration", "2m");
+    private static final int SUBSCRIPTIONS = Integer.getInteger("orisun.soak.subscriptions", 200);
+    private static final Duration CHURN_INTERVAL = duration("orisun.soak.churnInterval", "15s");
+    private static final Duration SAMPLE_INTERVAL = duration("orisun.soak.sampleInterval", "5s");
+    private static final int WRITE_RATE = Integer.getInteger("orisun.soak.writeRate", 200);
+    private static final int BOUNDARIES = 8;
+
+    private final InMemoryEventStore store = new InMemoryEventStore();
+    private final InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+        final Thread thread = new Thread(runnable, "soak");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong disconnects = new AtomicLong();
+    private Server server;
+    private OrisunClient client;
+
+    private static Duration duration(String property, String defaultValue) {
+        final String value = System.getProperty(property, defaultValue);
+        final long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException(property + " needs a unit of s, m or h: " + value);
+        };
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = ServerBuilder.forPort(port)
+                .addService(store)
+                .build()
+                .start();
+
+        // Streams are reset now and then, as dropped connections would
+        client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withMetrics(metrics)
+                .withFaultInjection(FaultInjection.newBuilder()
+                        .withPolicy(EventStoreGrpc.getCatchUpSubscribeToEventsMethod(), FaultPolicy.newBuilder()
+                                .withStreamReset(0.002)
+                                .build())
+                        .build())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        scheduler.shutdownNow();
+        client.close();
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * A subscription that reopens itself from its last position when its stream ends.
+     */
+    private final class Subscriber {
+        private final String name;
+        private final String boundary;
+        private volatile Eventstore.Position position = Eventstore.Position.getDefaultInstance();
+        private EventSubscription subscription;
+        private boolean stopped;
+
+        Subscriber(int index) {
+            this.name = "soak-" + index;
+            this.boundary = "boundary-" + index % BOUNDARIES;
+        }
+
+        synchronized void open() {
+            if (stopped) {
+                return;
+            }
+            final EventSubscription[] self = new EventSubscription[1];
+            self[0] = client.subscribeToEvents(
+                    Eventstore.CatchUpSubscribeToEventStoreRequest.newBuilder()
+                            .setSubscriberName(name)
+                            .setBoundary(boundary)
+                            .setAfterPosition(position)
+                            .build(),
+                    new EventSubscription.EventHandler() {
+                        @Override
+                        public void onEvent(Eventstore.Event event) {
+                            position = event.getPosition();
+                            received.incrementAndGet();
+                        }
+
+                        @Override
+                        public void onError(Throwable error) {
+                            disconnects.incrementAndGet();
+                            reopenLater(self);
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                            reopenLater(self);
+                        }
+                    });
+            subscription = self[0];
+        }
+
+        private void reopenLater(EventSubscription[] ended) {
+            scheduler.schedule(() -> {
+                synchronized (this) {
+                    // Only reopen if the ended stream is still the current one
+                    if (subscription == ended[0]) {
+                        subscription = null;
+                        open();
+                    }
+                }
+            }, 100, TimeUnit.MILLISECONDS);
+        }
+
+        synchronized void reopen() {
+            if (subscription != null) {
+                subscription.close();
+                subscription = null;
+            }
+            open();
+        }
+
+        synchronized void stop() {
+            stopped = true;
+            if (subscription != null) {
+                subscription.close();
+                subscription = null;
+            }
+        }
+    }
+
+    private void writeEvent() {
+        try {
+            client.saveEvents(Eventstore.SaveEventsRequest.newBuilder()
+                    .setBoundary("boundary-" + ThreadLocalRandom.current().nextInt(BOUNDARIES))
+                    .addEvents(Eventstore.EventToSave.newBuilder()
+                            .setEventId(EventIds.newId())
+                            .setEventType("SoakEvent")
+                            .setData("{\"value\":" + ThreadLocalRandom.current().nextInt() + "}"))
+                    .build());
+        } catch (Exception e) {
+            // Keep writing, the soak is about the subscriptions
+        }
+    }
+
+    @Test
+    void testSubscriptionsDoNotLeak() throws Exception {
+        final List<Subscriber> subscribers = new ArrayList<>();
+        for (int i = 0; i < SUBSCRIPTIONS; i++) {
+            final Subscriber subscriber = new Subscriber(i);
+            subscriber.open();
+            subscribers.add(subscriber);
+        }
+
+        scheduler.scheduleAtFixedRate(this::writeEvent, 0, TimeUnit.SECONDS.toNanos(1) / WRITE_RATE,
+                TimeUnit.NANOSECONDS);
+        // Close and reopen half of the subscriptions in turn
+        final AtomicLong churns = new AtomicLong();
+        scheduler.scheduleAtFixedRate(() -> {
+            final long parity = churns.getAndIncrement() % 2;
+            for (int i = 0; i < subscribers.size(); i++) {
+                if (i % 2 == parity) {
+                    subscribers.get(i).reopen();
+                }
+            }
+        }, CHURN_INTERVAL.toMillis(), CHURN_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+
+        // Bounded resources fluctuate within these margins, leaks grow past them given enough time
+        final LeakDetector detector = new LeakDetector(0.25)
+                .withAllowance(ResourceSampler.HEAP_AFTER_GC, 16L << 20, 0.10)
+                .withAllowance(ResourceSampler.LIVE_THREADS, 4, 0)
+                .withAllowance(ResourceSampler.OPEN_CALLS, SUBSCRIPTIONS / 10, 0)
+                .withAllowance(ResourceSampler.NATIVE_MEMORY, 32L << 20, 0.10);
+        final ResourceSampler sampler = new ResourceSampler(() -> ResourceSampler.inFlightCalls(metrics.snapshot()));
+
+        final long end = System.nanoTime() + DURATION.toNanos();
+        while (System.nanoTime() < end) {
+            Thread.sleep(Math.min(SAMPLE_INTERVAL.toMillis(), TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime()) + 1));
+            sampler.sampleInto(detector);
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            subscriber.stop();
+        }
+        System.out.printf("%,d events received, %,d disconnects%n%s", received.get(), disconnects.get(),
+                detector.summary());
+
+        assertTrue(received.get() > 0, "Subscriptions received no events");
+        assertEquals(List.of(), detector.growingResources());
+
+        // Every stream ends on both sides once its subscription is closed
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((store.getSubscriberCount() > 0 || ResourceSampler.inFlightCalls(metrics.snapshot()) > 0)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, store.getSubscriberCount(), "Streams still open on the server");
+        assertEquals(0, ResourceSampler.inFlightCalls(metrics.snapshot()), "Calls still open on the client");
+    }
+}
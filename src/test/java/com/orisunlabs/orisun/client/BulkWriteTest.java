@@ -0,0 +1,224 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.Eventstore;
+import com.orisunlabs.orisun.testing.InMemoryEventStore;
+import io.grpc.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkWriteTest {
+    private final InMemoryEventStore store = new InMemoryEventStore();
+    // Serialized sizes of the SaveEvents requests the server received
+    private final List<Integer> receivedSizes = new CopyOnWriteArrayList<>();
+    // SaveEvents requests received and not yet answered, and the most there ever were at once
+    private final AtomicInteger unanswered = new AtomicInteger();
+    private final AtomicInteger maxUnanswered = new AtomicInteger();
+    private Server server;
+    private int port;
+    private OrisunClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        final ServerInterceptor recordSizes = new ServerInterceptor() {
+            @Override
+            public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+                    ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+                final ServerCall<ReqT, RespT> counted = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+                    @Override
+                    public void close(Status status, Metadata trailers) {
+                        if (call.getMethodDescriptor().getBareMethodName().equals("SaveEvents")) {
+                            unanswered.decrementAndGet();
+                        }
+                        super.close(status, trailers);
+                    }
+                };
+                return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(
+                        next.startCall(counted, headers)) {
+                    @Override
+                    public void onMessage(ReqT message) {
+                        if (message instanceof Eventstore.SaveEventsRequest request) {
+                            receivedSizes.add(request.getSerializedSize());
+                            maxUnanswered.accumulateAndGet(unanswered.incrementAndGet(), Math::max);
+                        }
+                        super.onMessage(message);
+                    }
+                };
+            }
+        };
+        server = ServerBuilder.forPort(port)
+                .addService(ServerInterceptors.intercept(store, recordSizes))
+                .build()
+                .start();
+
+        client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static List<Eventstore.EventToSave> events(int count, int dataSize) {
+        final List<Eventstore.EventToSave> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(Eventstore.EventToSave.newBuilder()
+                    .setEventId(EventIds.newId())
+                    .setEventType("ItemAdded")
+                    .setData("{\"item\":" + i + ",\"note\":\"" + "x".repeat(dataSize + i % 7) + "\"}")
+                    .build());
+        }
+        return events;
+    }
+
+    @Test
+    void testChunksAreAsLargeAsFitUnderTheLimit() {
+        final List<Eventstore.EventToSave> events = events(500, 1000);
+        final int limit = 64 * 1024;
+        final List<Eventstore.SaveEventsRequest> chunks = BulkWrite.split("orders", events, limit, 0);
+
+        assertTrue(chunks.size() > 1);
+        int next = 0;
+        for (Eventstore.SaveEventsRequest chunk : chunks) {
+            assertTrue(chunk.getSerializedSize() <= limit);
+            assertEquals(events.subList(next, next + chunk.getEventsCount()), chunk.getEventsList());
+            next += chunk.getEventsCount();
+            if (next < events.size()) {
+                // The next event would not have fit
+                assertTrue(chunk.toBuilder().addEvents(events.get(next)).build().getSerializedSize() > limit);
+            }
+        }
+        assertEquals(events.size(), next);
+
+        final OrisunException tooLarge = assertThrows(OrisunException.class,
+                () -> BulkWrite.split("orders", events(1, 2000), 1024, 0));
+        assertEquals(0, tooLarge.getContext("eventIndex"));
+    }
+
+    @Test
+    void testBatchesLargerThanTheMessageLimitAreWrittenInChunks() throws Exception {
+        // Over gRPC's 4 MiB default maximum message size as a single request
+        final List<Eventstore.EventToSave> events = events(600, 8 * 1024);
+        assertThrows(Exception.class, () -> client.saveEvents(Eventstore.SaveEventsRequest.newBuilder()
+                .setBoundary("orders")
+                .addAllEvents(events)
+                .build()));
+
+        final BulkWriteResult result = client.saveEventsInBulk("orders", events);
+        assertTrue(result.isComplete(), result.toString());
+        assertTrue(result.getChunks().size() > 1);
+        assertEquals(events.size(), result.getWrittenEventCount());
+        assertNull(result.getFirstError());
+        assertEquals(events.size(), store.getEvents("orders").size());
+    }
+
+    @Test
+    void testChunksAreWrittenOneAfterTheOtherByDefault() throws Exception {
+        final List<Eventstore.EventToSave> events = events(200, 1000);
+        final BulkWriteResult result = client.saveEventsInBulk("orders", events,
+                BulkWriteOptions.newBuilder().withMaxRequestSize(16 * 1024).build());
+
+        assertTrue(result.isComplete(), result.toString());
+        assertTrue(receivedSizes.size() > 1);
+        assertEquals(1, maxUnanswered.get());
+        final List<Eventstore.Event> written = store.getEvents("orders");
+        assertEquals(events.size(), written.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(events.get(i).getEventId(), written.get(i).getEventId());
+        }
+    }
+
+    @Test
+    void testChunksAfterAFailureAreSkipped() throws Exception {
+        store.failNext(Status.INTERNAL);
+        final BulkWriteResult result = client.saveEventsInBulk("orders", events(40, 1000),
+                BulkWriteOptions.newBuilder()
+                        .withMaxRequestSize(16 * 1024)
+                        .withMaxInFlightChunks(1)
+                        .build());
+
+        final List<BulkWriteResult.Chunk> chunks = result.getChunks();
+        assertTrue(chunks.size() > 2);
+        assertFalse(result.isComplete());
+        assertFalse(chunks.get(0).isWritten());
+        assertInstanceOf(OrisunException.class, chunks.get(0).getError());
+        assertInstanceOf(StatusRuntimeException.class, chunks.get(0).getError().getCause());
+        for (BulkWriteResult.Chunk chunk : chunks.subList(1, chunks.size())) {
+            assertTrue(chunk.isSkipped(), chunk.toString());
+        }
+        assertEquals(0, store.getEvents("orders").size());
+
+        // Invalid events fail the whole write before anything is sent
+        final List<Eventstore.EventToSave> invalid = new ArrayList<>(events(30, 1000));
+        invalid.set(25, invalid.get(25).toBuilder().setEventId("not-a-uuid").build());
+        final OrisunException error = assertThrows(OrisunException.class, () -> client.saveEventsInBulk("orders",
+                invalid, BulkWriteOptions.newBuilder().withMaxRequestSize(8 * 1024).build()));
+        assertEquals(25, error.getContext("eventIndex"));
+        assertEquals(0, store.getEvents("orders").size());
+    }
+
+    @Test
+    void testChunksLeaveRoomForTheTraceparentInEventMetadata() throws Exception {
+        final List<Eventstore.EventToSave> events = new ArrayList<>(events(200, 1000));
+        // Events with and without metadata of their own
+        for (int i = 0; i < events.size(); i += 2) {
+            events.set(i, events.get(i).toBuilder().setMetadata("{\"source\":\"import\"}").build());
+        }
+        final int limit = 16 * 1024;
+
+        // Packed without the reservation, a chunk grows over the limit once traced
+        final Eventstore.SaveEventsRequest packed = BulkWrite.split("orders", events, limit, 0).get(0);
+        final Eventstore.SaveEventsRequest.Builder traced = packed.toBuilder();
+        for (Eventstore.EventToSave.Builder event : traced.getEventsBuilderList()) {
+            event.setMetadata(TraceContext.newRoot(true).addToEventMetadata(event.getMetadata()));
+        }
+        assertTrue(traced.build().getSerializedSize() > limit);
+
+        final Tracer tracer = (name, kind, parent) -> new Span() {
+            private final TraceContext context = TraceContext.newRoot(true);
+
+            @Override
+            public TraceContext getContext() {
+                return context;
+            }
+
+            @Override
+            public void end(Throwable error) {
+            }
+        };
+        try (OrisunClient tracing = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withTracer(tracer)
+                .withTraceEventMetadata(true)
+                .build()) {
+            final BulkWriteResult result = tracing.saveEventsInBulk("orders", events,
+                    BulkWriteOptions.newBuilder().withMaxRequestSize(limit).build());
+            assertTrue(result.isComplete(), result.toString());
+        }
+
+        assertTrue(receivedSizes.size() > 1);
+        for (int size : receivedSizes) {
+            assertTrue(size <= limit, "Received " + size + " bytes");
+        }
+        for (Eventstore.Event event : store.getEvents("orders")) {
+            assertNotNull(TraceContext.fromEventMetadata(event.getMetadata()), event.getMetadata());
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import io.grpc.*;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static CircuitBreakerConfig config() {
+        return CircuitBreakerConfig.newBuilder()
+                .withSlidingWindowSize(10)
+                .withMinimumCalls(4)
+                .withFailureRateThreshold(50)
+                .withSlowCallRateThreshold(100)
+                .withSlowCallDuration(100, TimeUnit.MILLISECONDS)
+                .withOpenDuration(0, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Test
+    void testOpensWhenFailureRateIsReached() {
+        CircuitBreaker breaker = new CircuitBreaker("10.0.0.1:5005", config());
+
+        breaker.record(false, 1_000);
+        breaker.record(false, 1_000);
+        breaker.record(true, 1_000);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.record(true, 1_000);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowsTraffic());
+    }
+
+    @Test
+    void testOpensWhenCallsAreSlow() {
+        CircuitBreaker breaker = new CircuitBreaker("10.0.0.1:5005", config());
+
+        for (int i = 0; i < 4; i++) {
+            breaker.record(false, TimeUnit.MILLISECONDS.toNanos(200));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenProbeClosesOrReopens() {
+        CircuitBreaker breaker = new CircuitBreaker("10.0.0.1:5005", config());
+        AtomicInteger opened = new AtomicInteger();
+        breaker.setOpenListener(b -> opened.incrementAndGet());
+
+        for (int i = 0; i < 4; i++) {
+            breaker.record(true, 1_000);
+        }
+        assertEquals(1, opened.get());
+
+        assertTrue(breaker.tryStartProbe());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onProbeResult(false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, opened.get());
+
+        assertTrue(breaker.tryStartProbe());
+        breaker.onProbeResult(true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate());
+    }
+
+    @Test
+    void testFailsFastOnceEveryEndpointIsEjected() throws Exception {
+        final int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        AtomicInteger serverCalls = new AtomicInteger();
+        Server server = ServerBuilder.forPort(port)
+                .addService(new EventStoreGrpc.EventStoreImplBase() {
+                    @Override
+                    public void saveEvents(Eventstore.SaveEventsRequest request,
+                                           StreamObserver<Eventstore.WriteResult> responseObserver) {
+                        serverCalls.incrementAndGet();
+                        responseObserver.onError(Status.UNAVAILABLE.withDescription("node down").asRuntimeException());
+                    }
+                })
+                .build()
+                .start();
+
+        try (OrisunClient client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withCircuitBreaker(CircuitBreakerConfig.newBuilder()
+                        .withSlidingWindowSize(4)
+                        .withMinimumCalls(4)
+                        .withOpenDuration(1, TimeUnit.MINUTES)
+                        .build())
+                .build()) {
+
+            Eventstore.SaveEventsRequest request = Eventstore.SaveEventsRequest.newBuilder()
+                    .setBoundary("users")
+                    .addEvents(Eventstore.EventToSave.newBuilder()
+                            .setEventId(UUID.randomUUID().toString())
+                            .setEventType("UserCreated")
+                            .setData("{\"username\":\"test\"}"))
+                    .build();
+
+            for (int i = 0; i < 4; i++) {
+                assertThrows(OrisunException.class, () -> client.saveEvents(request));
+            }
+            assertEquals(4, serverCalls.get());
+            assertTrue(client.getCircuitBreakers().getStates().containsValue(CircuitBreaker.State.OPEN));
+
+            OrisunException exception = assertThrows(OrisunException.class, () -> client.saveEvents(request));
+            assertTrue(exception.getMessage().contains("circuit breakers"));
+            assertEquals(4, serverCalls.get());
+        } finally {
+            server.shutdownNow();
+            server.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testRoutesAroundEjectedEndpoint() throws Exception {
+        final AtomicInteger failingCalls = new AtomicInteger();
+        final Server failing = ServerBuilder.forPort(0)
+                .addService(new EventStoreGrpc.EventStoreImplBase() {
+                    @Override
+                    public void ping(Eventstore.PingRequest request,
+                                     StreamObserver<Eventstore.PingResponse> responseObserver) {
+                        failingCalls.incrementAndGet();
+                        responseObserver.onError(Status.UNAVAILABLE.withDescription("node down").asRuntimeException());
+                    }
+                })
+                .build()
+                .start();
+        final Server healthy = ServerBuilder.forPort(0)
+                .addService(new EventStoreGrpc.EventStoreImplBase() {
+                    @Override
+                    public void ping(Eventstore.PingRequest request,
+                                     StreamObserver<Eventstore.PingResponse> responseObserver) {
+                        responseObserver.onNext(Eventstore.PingResponse.getDefaultInstance());
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+        final StaticResolverProvider resolver = new StaticResolverProvider();
+        NameResolverRegistry.getDefaultRegistry().register(resolver);
+
+        try (OrisunClient client = OrisunClient.newBuilder()
+                .withStaticTarget("localhost:" + failing.getPort() + ",localhost:" + healthy.getPort())
+                .withCircuitBreaker(CircuitBreakerConfig.newBuilder()
+                        .withSlidingWindowSize(4)
+                        .withMinimumCalls(4)
+                        .withOpenDuration(1, TimeUnit.MINUTES)
+                        .build())
+                .build()) {
+
+            for (int i = 0; i < 50 && !client.getCircuitBreakers().getStates().containsValue(CircuitBreaker.State.OPEN); i++) {
+                try {
+                    client.ping();
+                } catch (OrisunException e) {
+                    // Calls to the failing node until it is ejected
+                }
+            }
+            assertTrue(client.getCircuitBreakers().getStates().containsValue(CircuitBreaker.State.OPEN));
+
+            final int ejectedAt = failingCalls.get();
+            for (int i = 0; i < 20; i++) {
+                client.ping();
+            }
+            assertEquals(ejectedAt, failingCalls.get());
+        } finally {
+            NameResolverRegistry.getDefaultRegistry().deregister(resolver);
+            failing.shutdownNow();
+            healthy.shutdownNow();
+            failing.awaitTermination(5, TimeUnit.SECONDS);
+            healthy.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Resolves {@code static:///host:port,host:port} to those addresses.
+     */
+    private static final class StaticResolverProvider extends NameResolverProvider {
+        @Override
+        protected boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        protected int priority() {
+            return 5;
+        }
+
+        @Override
+        public String getDefaultScheme() {
+            return "static";
+        }
+
+        @Override
+        public NameResolver newNameResolver(URI targetUri, NameResolver.Args args) {
+            final List<EquivalentAddressGroup> addresses = new ArrayList<>();
+            for (String address : targetUri.getPath().substring(1).split(",")) {
+                final int colon = address.lastIndexOf(':');
+                addresses.add(new EquivalentAddressGroup(new InetSocketAddress(
+                        address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)))));
+            }
+            return new NameResolver() {
+                @Override
+                public String getServiceAuthority() {
+                    return "localhost";
+                }
+
+                @Override
+                public void start(Listener2 listener) {
+                    listener.onResult(ResolutionResult.newBuilder()
+                            .setAddressesOrError(StatusOr.fromValue(addresses))
+                            .build());
+                }
+
+                @Override
+                public void shutdown() {
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import com.orisunlabs.orisun.testing.InMemoryEventStore;
+import io.grpc.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionTest {
+    private static final Metadata.Key<String> ENCODING =
+            Metadata.Key.of("grpc-encoding", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final InMemoryEventStore store = new InMemoryEventStore();
+    private final InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+    // Encoding of the last call of each method, "identity" when none was named
+    private final Map<String, String> encodings = new ConcurrentHashMap<>();
+    private Server server;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        // Answers compressed calls with compressed responses, as grpc-go servers do
+        final ServerInterceptor sameEncoding = new ServerInterceptor() {
+            @Override
+            public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+                    ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+                final String encoding = headers.get(ENCODING);
+                encodings.put(call.getMethodDescriptor().getBareMethodName(), encoding != null ? encoding : "identity");
+                if (encoding != null) {
+                    call.setCompression(encoding);
+                }
+                return next.startCall(call, headers);
+            }
+        };
+        server = ServerBuilder.forPort(port)
+                .addService(ServerInterceptors.intercept(store, sameEncoding))
+                .build()
+                .start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static Eventstore.SaveEventsRequest save(int dataSize) {
+        final StringBuilder data = new StringBuilder("{\"lines\":[");
+        while (data.length() < dataSize) {
+            data.append("{\"sku\":\"ABC-123\",\"quantity\":1},");
+        }
+        data.setLength(data.length() - 1);
+        data.append("]}");
+        return Eventstore.SaveEventsRequest.newBuilder()
+                .setBoundary("orders")
+                .addEvents(Eventstore.EventToSave.newBuilder()
+                        .setEventId(EventIds.newId())
+                        .setEventType("OrderPlaced")
+                        .setData(data.toString()))
+                .build();
+    }
+
+    private long bytes(String name, String method, String direction) {
+        return metrics.snapshot().counter(name, "method", method, "direction", direction);
+    }
+
+    @Test
+    void testWritesAndReadsAreCompressedAboveTheThreshold() throws Exception {
+        try (OrisunClient client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withMetrics(metrics)
+                .withWriteCompression(CompressionPolicy.newBuilder().withMinMessageSize(1024).build())
+                .withReadCompression(CompressionPolicy.gzip())
+                .build()) {
+            client.saveEvents(save(100));
+            assertEquals("gzip", encodings.get("SaveEvents"));
+            // Below the threshold the message is sent as is
+            final long smallUncompressed = bytes(CompressionInterceptor.UNCOMPRESSED_BYTES, "SaveEvents", "outbound");
+            assertTrue(smallUncompressed > 0);
+            assertEquals(smallUncompressed, bytes(CompressionInterceptor.WIRE_BYTES, "SaveEvents", "outbound"));
+
+            client.saveEvents(save(16 * 1024));
+            final long uncompressed = bytes(CompressionInterceptor.UNCOMPRESSED_BYTES, "SaveEvents", "outbound")
+                    - smallUncompressed;
+            final long wire = bytes(CompressionInterceptor.WIRE_BYTES, "SaveEvents", "outbound") - smallUncompressed;
+            assertTrue(wire * 4 < uncompressed, "Sent " + wire + " bytes for " + uncompressed);
+
+            final Eventstore.GetEventsResponse events = client.getEvents(Eventstore.GetEventsRequest.newBuilder()
+                    .setBoundary("orders")
+                    .setCount(10)
+                    .build());
+            assertEquals(2, events.getEventsCount());
+            assertEquals("gzip", encodings.get("GetEvents"));
+            final long received = bytes(CompressionInterceptor.WIRE_BYTES, "GetEvents", "inbound");
+            assertEquals(events.getSerializedSize(),
+                    bytes(CompressionInterceptor.UNCOMPRESSED_BYTES, "GetEvents", "inbound"));
+            assertTrue(received * 4 < events.getSerializedSize(), "Received " + received + " bytes");
+
+            // Methods without a policy are left alone
+            client.ping();
+            assertEquals("identity", encodings.get("Ping"));
+        }
+    }
+
+    @Test
+    void testMethodOverridesAndUnknownCompressors() throws Exception {
+        try (OrisunClient client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withReadCompression(CompressionPolicy.gzip())
+                .withCompression(EventStoreGrpc.getGetEventsMethod(), null)
+                .withCompression(EventStoreGrpc.getPingMethod(), CompressionPolicy.gzip())
+                .build()) {
+            client.getEvents(Eventstore.GetEventsRequest.newBuilder().setBoundary("orders").setCount(1).build());
+            client.ping();
+            assertEquals("identity", encodings.get("GetEvents"));
+            assertEquals("gzip", encodings.get("Ping"));
+        }
+
+        final OrisunClient.Builder unknown = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withWriteCompression(CompressionPolicy.newBuilder().withCompressor("zstd").build());
+        assertThrows(IllegalArgumentException.class, unknown::build);
+    }
+}
@@ -0,0 +1,239 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.EventStoreGrpc;
+import io.grpc.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+
+    @Test
+    void testRejectsCallsAboveLimit() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder()
+                .withInitialLimit(2)
+                .withMinLimit(1)
+                .withMaxLimit(10)
+                .build();
+
+        assertTrue(limiter.acquire());
+        assertTrue(limiter.acquire());
+        assertFalse(limiter.acquire());
+
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1, limiter.getRejectedCount());
+
+        limiter.onIgnore();
+        assertTrue(limiter.acquire());
+    }
+
+    @Test
+    void testQueuedCallAcquiresReleasedPermit() throws Exception {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder()
+                .withInitialLimit(1)
+                .withMaxQueueWait(5, TimeUnit.SECONDS)
+                .build();
+
+        assertTrue(limiter.acquire());
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            limiter.onIgnore();
+        });
+        releaser.start();
+
+        assertTrue(limiter.acquire());
+        assertEquals(0, limiter.getRejectedCount());
+        releaser.join();
+    }
+
+    @Test
+    void testAsyncWaiterIsGrantedReleasedPermit() throws Exception {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder()
+                .withInitialLimit(1)
+                .withMaxQueueWait(5, TimeUnit.SECONDS)
+                .build();
+
+        assertTrue(limiter.acquireAsync().getNow(false));
+        final CompletableFuture<Boolean> queued = limiter.acquireAsync();
+        assertFalse(queued.isDone());
+
+        limiter.onIgnore();
+        assertTrue(queued.getNow(false));
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getRejectedCount());
+    }
+
+    @Test
+    void testAsyncWaiterIsRejectedAfterQueueWait() throws Exception {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder()
+                .withInitialLimit(1)
+                .withMaxQueueWait(20, TimeUnit.MILLISECONDS)
+                .build();
+
+        assertTrue(limiter.acquire());
+        assertFalse(limiter.acquireAsync().get(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getRejectedCount());
+
+        // The permit released later is not lost to the timed out waiter
+        limiter.onIgnore();
+        assertEquals(0, limiter.getInFlight());
+        assertTrue(limiter.acquire());
+    }
+
+    @Test
+    void testQueuedCallIsStartedWithoutBlockingTheCaller() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder()
+                .withInitialLimit(1)
+                .withMaxQueueWait(5, TimeUnit.SECONDS)
+                .build();
+        final List<String> operations = new ArrayList<>();
+        final List<ClientCall.Listener<?>> listeners = new ArrayList<>();
+        final Channel channel = new Channel() {
+            @Override
+            public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method,
+                                                                 CallOptions callOptions) {
+                final int call = listeners.size();
+                return new ClientCall<>() {
+                    @Override
+                    public void start(Listener<RespT> responseListener, Metadata headers) {
+                        listeners.add(responseListener);
+                        operations.add(call + ":start");
+                    }
+
+                    @Override
+                    public void request(int numMessages) {
+                        operations.add(call + ":request");
+                    }
+
+                    @Override
+                    public void cancel(String message, Throwable cause) {
+                        operations.add(call + ":cancel");
+                    }
+
+                    @Override
+                    public void halfClose() {
+                        operations.add(call + ":halfClose");
+                    }
+
+                    @Override
+                    public void sendMessage(ReqT message) {
+                        operations.add(call + ":sendMessage");
+                    }
+                };
+            }
+
+            @Override
+            public String authority() {
+                return "localhost";
+            }
+        };
+        final Channel limited = ClientInterceptors.intercept(channel,
+                new ConcurrencyLimitInterceptor(limiter, limiter));
+
+        final MethodDescriptor<Object, Object> saveEvents = EventStoreGrpc.getSaveEventsMethod()
+                .toBuilder(new NoopMarshaller(), new NoopMarshaller())
+                .build();
+        final ClientCall<Object, Object> first = limited.newCall(saveEvents, CallOptions.DEFAULT);
+        first.start(new ClientCall.Listener<>() {
+        }, new Metadata());
+
+        final long start = System.nanoTime();
+        final ClientCall<Object, Object> second = limited.newCall(saveEvents, CallOptions.DEFAULT);
+        second.start(new ClientCall.Listener<>() {
+        }, new Metadata());
+        second.request(1);
+        second.sendMessage("event");
+        second.halfClose();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "start blocked");
+        assertEquals(List.of("0:start"), operations);
+
+        // Closing the first call hands its permit to the second, which replays its operations
+        listeners.get(0).onClose(Status.OK, new Metadata());
+        assertEquals(List.of("0:start", "1:start", "1:request", "1:sendMessage", "1:halfClose"), operations);
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    private static final class NoopMarshaller implements MethodDescriptor.Marshaller<Object> {
+        @Override
+        public InputStream stream(Object value) {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public Object parse(InputStream stream) {
+            return null;
+        }
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyIsStable() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder()
+                .withInitialLimit(10)
+                .withMaxLimit(100)
+                .build();
+
+        for (int i = 0; i < 20; i++) {
+            saturate(limiter);
+            limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(5));
+            drain(limiter);
+        }
+
+        assertTrue(limiter.getLimit() > 10, "limit should grow, was " + limiter.getLimit());
+    }
+
+    @Test
+    void testLimitShrinksWhenCallsAreDropped() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder()
+                .withInitialLimit(50)
+                .withMinLimit(5)
+                .build();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.acquire());
+            limiter.onDropped();
+        }
+
+        assertTrue(limiter.getLimit() < 50, "limit should shrink, was " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 5);
+        assertEquals(10, limiter.getDroppedCount());
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyIncreases() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder()
+                .withInitialLimit(50)
+                .build();
+
+        saturate(limiter);
+        limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(5));
+        for (int i = 0; i < 10; i++) {
+            limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        drain(limiter);
+
+        assertTrue(limiter.getLimit() < 50, "limit should shrink, was " + limiter.getLimit());
+    }
+
+    private static void saturate(ConcurrencyLimiter limiter) {
+        while (limiter.acquire()) {
+            // fill up to the current limit
+        }
+    }
+
+    private static void drain(ConcurrencyLimiter limiter) {
+        while (limiter.getInFlight() > 0) {
+            limiter.onIgnore();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.orisunlabs.orisun.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultLoggerTest {
+
+    @Test
+    void testPlaceholdersAreReplacedInOrder() {
+        StringBuilder line = new StringBuilder();
+        assertNull(DefaultLogger.appendFormatted(line, "Saved {} events in '{}'", new Object[]{3, "users"}));
+        assertEquals("Saved 3 events in 'users'", line.toString());
+    }
+
+    @Test
+    void testMissingArgumentsLeavePlaceholders() {
+        StringBuilder line = new StringBuilder();
+        DefaultLogger.appendFormatted(line, "{} and {}", new Object[]{"one"});
+        assertEquals("one and {}", line.toString());
+    }
+
+    @Test
+    void testTrailingThrowableIsReturned() {
+        IllegalStateException failure = new IllegalStateException("boom");
+        StringBuilder line = new StringBuilder();
+        assertSame(failure, DefaultLogger.appendFormatted(line, "Failed: {}", new Object[]{"call", failure}));
+        assertEquals("Failed: call", line.toString());
+    }
+
+    @Test
+    void testDisabledLevelDoesNotBuildMessage() {
+        Logger logger = new DefaultLogger(DefaultLogger.LogLevel.WARN);
+        logger.debug(() -> fail("debug message must not be built"));
+        logger.info(() -> fail("info message must not be built"));
+        assertFalse(logger.isInfoEnabled());
+        assertTrue(logger.isWarnEnabled());
+    }
+
+    @Test
+    void testAsyncLoggerWritesAllRecordsOnClose() {
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(captured, true));
+        try {
+            DefaultLogger logger = DefaultLogger.newBuilder()
+                    .withLevel(DefaultLogger.LogLevel.INFO)
+                    .withAsync(16)
+                    .withOverflowPolicy(DefaultLogger.OverflowPolicy.BLOCK)
+                    .build();
+            for (int i = 0; i < 100; i++) {
+                logger.info("record {}", i);
+            }
+            logger.close();
+
+            String output = captured.toString();
+            assertTrue(output.contains("INFO [" + Thread.currentThread().getName() + "] record 0"));
+            assertTrue(output.contains("record 99"));
+            assertEquals(100, output.lines().count());
+            assertEquals(0, logger.getDroppedCount());
+        } finally {
+            System.setOut(original);
+        }
+    }
+
+    @Test
+    void testAsyncLoggerDropsWhenFull() throws Exception {
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PrintStream original = System.out;
+        // Holds the writer thread on its first write so the ring fills up
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                writerBlocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }));
+        try {
+            DefaultLogger logger = DefaultLogger.newBuilder()
+                    .withAsync(4)
+                    .build();
+            logger.info("first");
+            assertTrue(writerBlocked.await(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 10; i++) {
+                logger.info("record {}", i);
+            }
+            assertEquals(6, logger.getDroppedCount());
+
+            release.countDown();
+            logger.close();
+        } finally {
+            System.setOut(original);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.Eventstore;
+import com.orisunlabs.orisun.testing.InMemoryEventStore;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCodecsTest {
+    interface OrderEvent {
+        String orderId();
+    }
+
+    record OrderPlaced(String orderId, int amount) implements OrderEvent {
+    }
+
+    record OrderShipped(String orderId) implements OrderEvent {
+    }
+
+    private static final Pattern ORDER_ID = Pattern.compile("\"orderId\":\"([^\"]*)\"");
+    private static final Pattern AMOUNT = Pattern.compile("\"amount\":(\\d+)");
+
+    private static String read(InputStream data) throws IOException {
+        return new String(data.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static String group(Pattern pattern, String json) {
+        final Matcher matcher = pattern.matcher(json);
+        assertTrue(matcher.find(), json);
+        return matcher.group(1);
+    }
+
+    static final class OrderPlacedCodec implements EventCodec<OrderPlaced> {
+        @Override
+        public String eventType() {
+            return "OrderPlaced";
+        }
+
+        @Override
+        public Class<OrderPlaced> type() {
+            return OrderPlaced.class;
+        }
+
+        @Override
+        public void encode(OrderPlaced event, OutputStream data) throws IOException {
+            final Writer writer = new OutputStreamWriter(data, StandardCharsets.UTF_8);
+            writer.write("{\"orderId\":\"" + event.orderId() + "\",\"amount\":" + event.amount() + "}");
+            writer.flush();
+        }
+
+        @Override
+        public OrderPlaced decode(InputStream data) throws IOException {
+            final String json = read(data);
+            return new OrderPlaced(group(ORDER_ID, json), Integer.parseInt(group(AMOUNT, json)));
+        }
+    }
+
+    /**
+     * Writes every order event, shipped ones under their own type.
+     */
+    static final class OrderEventCodec implements EventCodec<OrderEvent> {
+        @Override
+        public String eventType() {
+            return "OrderShipped";
+        }
+
+        @Override
+        public Class<OrderEvent> type() {
+            return OrderEvent.class;
+        }
+
+        @Override
+        public void encode(OrderEvent event, OutputStream data) throws IOException {
+            data.write(("{\"orderId\":\"" + event.orderId() + "\"}").getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public OrderEvent decode(InputStream data) throws IOException {
+            return new OrderShipped(group(ORDER_ID, read(data)));
+        }
+    }
+
+    private final InMemoryEventStore store = new InMemoryEventStore();
+    private final EventCodecs codecs = EventCodecs.newBuilder()
+            .withCodec(new OrderPlacedCodec())
+            .withCodec(new OrderEventCodec())
+            .build();
+    private Server server;
+    private OrisunClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        server = ServerBuilder.forPort(port)
+                .addService(store)
+                .build()
+                .start();
+
+        client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withCodecs(codecs)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testTypedEventsRoundTrip() throws Exception {
+        client.save("orders", List.of(new OrderPlaced("order-1", 10), new OrderShipped("order-1")));
+
+        final Eventstore.GetEventsRequest request = Eventstore.GetEventsRequest.newBuilder()
+                .setBoundary("orders")
+                .setCount(10)
+                .build();
+        final List<EventView> views = client.getEventViews(request);
+        assertEquals(new OrderPlaced("order-1", 10), client.getCodecs().decode(views.get(0)));
+        assertEquals(new OrderShipped("order-1"), client.getCodecs().decode(views.get(1), OrderEvent.class));
+
+        final List<Eventstore.Event> events = client.getEvents(request).getEventsList();
+        assertEquals("OrderPlaced", events.get(0).getEventType());
+        assertEquals("OrderShipped", events.get(1).getEventType());
+        assertEquals("{\"orderId\":\"order-1\",\"amount\":10}", events.get(0).getData());
+        assertEquals(7, UUID.fromString(events.get(0).getEventId()).version());
+        assertEquals(new OrderPlaced("order-1", 10), codecs.decode(events.get(0), OrderPlaced.class));
+
+        assertThrows(OrisunException.class, () -> client.save("orders", List.of()));
+        assertThrows(OrisunException.class, () -> client.save(" ", List.of(new OrderShipped("order-2"))));
+        assertEquals(2, store.getEvents("orders").size());
+    }
+
+    @Test
+    void testCodecsResolveThroughSupertypes() {
+        assertInstanceOf(OrderPlacedCodec.class, codecs.codecFor(OrderPlaced.class));
+        assertInstanceOf(OrderEventCodec.class, codecs.codecFor(OrderShipped.class));
+        assertSame(codecs.codecFor(OrderShipped.class), codecs.codecFor(OrderShipped.class));
+        assertNull(codecs.codecFor(String.class));
+        assertInstanceOf(OrderPlacedCodec.class, codecs.codecFor("OrderPlaced"));
+
+        final OrisunException unknown = assertThrows(OrisunException.class, () -> codecs.encode("not an event"));
+        assertTrue(unknown.getMessage().startsWith("No codec registered for java.lang.String"));
+        final OrisunException undecodable = assertThrows(OrisunException.class,
+                () -> codecs.decode(Eventstore.Event.newBuilder().setEventType("OrderCancelled").setData("{}").build()));
+        assertEquals("OrderCancelled", undecodable.getContext("eventType"));
+
+        assertThrows(IllegalArgumentException.class, () -> EventCodecs.newBuilder()
+                .withCodec(new OrderPlacedCodec())
+                .withCodec(new OrderPlacedCodec()));
+    }
+
+    @Test
+    void testCodecsWithoutTypeOrDataAreRejected() {
+        final EventCodecs blank = EventCodecs.newBuilder().withCodec(new BlankCodec("OrderPlaced")).build();
+        final OrisunException blankData = assertThrows(OrisunException.class,
+                () -> blank.encode(new OrderPlaced("order-1", 10)));
+        assertEquals("OrderPlaced", blankData.getContext("eventType"));
+
+        assertThrows(IllegalArgumentException.class, () -> EventCodecs.newBuilder().withCodec(new BlankCodec(" ")));
+    }
+
+    /**
+     * Writes only whitespace, under the given event type.
+     */
+    private record BlankCodec(String eventType) implements EventCodec<OrderPlaced> {
+        @Override
+        public Class<OrderPlaced> type() {
+            return OrderPlaced.class;
+        }
+
+        @Override
+        public void encode(OrderPlaced event, OutputStream data) throws IOException {
+            data.write(" \n\t".getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public OrderPlaced decode(InputStream data) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.orisunlabs.orisun.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventIdsTest {
+
+    @Test
+    void testIdsAreVersion7WithTheCurrentTime() {
+        final long before = System.currentTimeMillis();
+        final String id = EventIds.newId();
+        final UUID uuid = UUID.fromString(id);
+
+        assertTrue(RequestValidator.isUuid(id));
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertTrue(EventIds.timestampOf(uuid) >= before);
+        assertTrue(EventIds.timestampOf(uuid) <= System.currentTimeMillis() + 1);
+        assertEquals(7, EventIds.newUuid().version());
+    }
+
+    @Test
+    void testFormatMatchesUuidToString() {
+        final char[] chars = new char[40];
+        for (int i = 0; i < 1000; i++) {
+            final UUID uuid = i % 2 == 0 ? UUID.randomUUID() : EventIds.newUuid();
+            EventIds.format(uuid, chars, 2);
+            assertEquals(uuid.toString(), new String(chars, 2, 36));
+        }
+        final UUID extremes = new UUID(-1L, 0L);
+        EventIds.format(extremes, chars, 0);
+        assertEquals(extremes.toString(), new String(chars, 0, 36));
+    }
+
+    @Test
+    void testIdsIncreaseWithinAMillisecondAndWhenTheClockGoesBack() {
+        final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        final EventIds ids = new EventIds(clock::get);
+
+        UUID previous = ids.nextUuid();
+        // More ids than the counter holds in one millisecond, then a clock step back
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                clock.addAndGet(-1_000);
+            }
+            final UUID next = ids.nextUuid();
+            assertTrue(next.compareTo(previous) > 0, "Id " + i + " did not increase");
+            assertTrue(ids.nextId().compareTo(next.toString()) > 0);
+            previous = next;
+        }
+        assertTrue(EventIds.timestampOf(previous) > clock.get());
+    }
+
+    @Test
+    void testIdsAreUniqueAcrossThreads() throws Exception {
+        final Set<String> seen = ConcurrentHashMap.newKeySet();
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    seen.add(EventIds.newId());
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(8 * 20_000, seen.size());
+    }
+}
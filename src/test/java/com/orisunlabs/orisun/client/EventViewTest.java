@@ -0,0 +1,115 @@
+package com.orisunlabs.orisun.client;
+
+import com.google.protobuf.Timestamp;
+import com.orisun.eventstore.Eventstore;
+import com.orisunlabs.orisun.testing.InMemoryEventStore;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventViewTest {
+    private final InMemoryEventStore store = new InMemoryEventStore();
+    private Server server;
+    private OrisunClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        server = ServerBuilder.forPort(port)
+                .addService(store)
+                .build()
+                .start();
+
+        client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testViewsMatchDecodedEvents() throws Exception {
+        final String payload = "{\"note\":\"" + "Grüße, 世界 ".repeat(500) + "\"}";
+        client.saveEvents(Eventstore.SaveEventsRequest.newBuilder()
+                .setBoundary("orders")
+                .addEvents(Eventstore.EventToSave.newBuilder()
+                        .setEventId(EventIds.newId())
+                        .setEventType("NoteAdded")
+                        .setData(payload)
+                        .setMetadata("{\"source\":\"test\"}"))
+                .addEvents(Eventstore.EventToSave.newBuilder()
+                        .setEventId(EventIds.newId())
+                        .setEventType("OrderPlaced")
+                        .setData("{}"))
+                .build());
+
+        final Eventstore.GetEventsRequest request = Eventstore.GetEventsRequest.newBuilder()
+                .setBoundary("orders")
+                .setCount(10)
+                .build();
+        final List<Eventstore.Event> events = client.getEvents(request).getEventsList();
+        final List<EventView> views = client.getEventViews(request);
+
+        assertEquals(events.size(), views.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(events.get(i), views.get(i).toEvent());
+        }
+
+        final EventView note = views.get(0);
+        assertEquals("NoteAdded", note.getEventType());
+        assertEquals(payload, note.getDataString());
+        assertEquals("{\"source\":\"test\"}", note.getMetadataString());
+        assertTrue(note.getMetadata().size() > 0);
+        assertTrue(views.get(1).getMetadata().isEmpty());
+
+        final ByteBuffer buffer = note.getDataBuffer();
+        assertTrue(buffer.isReadOnly());
+        assertEquals(payload.getBytes(StandardCharsets.UTF_8).length, buffer.remaining());
+        try (InputStream stream = note.getDataStream()) {
+            assertArrayEquals(payload.getBytes(StandardCharsets.UTF_8), stream.readAllBytes());
+        }
+    }
+
+    @Test
+    void testPayloadsShareTheResponseBuffer() throws Exception {
+        final byte[] response = Eventstore.GetEventsResponse.newBuilder()
+                .addEvents(Eventstore.Event.newBuilder()
+                        .setEventId("123e4567-e89b-12d3-a456-426614174000")
+                        .setEventType("OrderPlaced")
+                        .setData("{\"orderId\":\"order-1\"}")
+                        .setPosition(Eventstore.Position.newBuilder().setCommitPosition(7).setPreparePosition(7))
+                        .setDateCreated(Timestamp.newBuilder().setSeconds(1_700_000_000)))
+                .build()
+                .toByteArray();
+
+        final EventView view = EventView.parseEvents(response).get(0);
+        assertEquals(7, view.getPosition().getCommitPosition());
+        assertEquals(1_700_000_000, view.getDateCreated().getSeconds());
+        assertEquals("{\"orderId\":\"order-1\"}", view.getDataString());
+
+        // Changing the response's bytes shows through the view: the data was not copied
+        final String json = new String(response, StandardCharsets.UTF_8);
+        response[json.indexOf("order-1") + "order-".length()] = '2';
+        assertEquals("{\"orderId\":\"order-2\"}", view.getDataString());
+    }
+}
@@ -0,0 +1,262 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import com.orisunlabs.orisun.testing.InMemoryEventStore;
+import io.grpc.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FaultInjectionTest {
+    private final InMemoryEventStore store = new InMemoryEventStore();
+    private Server server;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = ServerBuilder.forPort(port)
+                .addService(store)
+                .build()
+                .start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private OrisunClient client(FaultInjection faults) {
+        return OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withFaultInjection(faults)
+                .build();
+    }
+
+    private List<Boolean> pingOutcomes(long seed) {
+        return pingOutcomes(seed, false);
+    }
+
+    /**
+     * @param interleaveReads Whether to read between pings, with faults of their own
+     */
+    private List<Boolean> pingOutcomes(long seed, boolean interleaveReads) {
+        final FaultInjection faults = FaultInjection.newBuilder()
+                .withSeed(seed)
+                .withDefaultPolicy(FaultPolicy.newBuilder()
+                        .withError(Status.Code.INTERNAL, 0.3)
+                        .build())
+                .build();
+        final List<Boolean> outcomes = new ArrayList<>();
+        try (OrisunClient client = client(faults)) {
+            for (int i = 0; i < 40; i++) {
+                if (interleaveReads) {
+                    try {
+                        client.getEvents(Eventstore.GetEventsRequest.newBuilder().setBoundary("orders").setCount(1).build());
+                    } catch (OrisunException e) {
+                        assertEquals("INTERNAL", e.getContext("statusCode"));
+                    }
+                }
+                try {
+                    client.ping();
+                    outcomes.add(true);
+                } catch (OrisunException e) {
+                    assertEquals("INTERNAL", e.getContext("statusCode"));
+                    outcomes.add(false);
+                }
+            }
+        }
+        return outcomes;
+    }
+
+    @Test
+    void testErrorsAreReproducibleFromTheSeed() {
+        final List<Boolean> first = pingOutcomes(7);
+        assertEquals(first, pingOutcomes(7));
+        assertNotEquals(first, pingOutcomes(8));
+
+        final long failures = first.stream().filter(ok -> !ok).count();
+        assertTrue(failures > 0 && failures < first.size(), "failures: " + failures);
+    }
+
+    @Test
+    void testFaultsOfAMethodDoNotDependOnCallsOfOthers() {
+        assertEquals(pingOutcomes(7), pingOutcomes(7, true));
+    }
+
+    @Test
+    void testLatencyDelaysCallsOfTheConfiguredMethodOnly() throws Exception {
+        final FaultInjection faults = FaultInjection.newBuilder()
+                .withPolicy(EventStoreGrpc.getPingMethod(), FaultPolicy.newBuilder()
+                        .withLatency(LatencyDistribution.fixed(100, TimeUnit.MILLISECONDS))
+                        .build())
+                .build();
+        try (OrisunClient client = client(faults)) {
+            client.getEvents(Eventstore.GetEventsRequest.newBuilder().setBoundary("orders").setCount(1).build());
+
+            final long start = System.nanoTime();
+            client.ping();
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+
+            final long readStart = System.nanoTime();
+            client.getEvents(Eventstore.GetEventsRequest.newBuilder().setBoundary("orders").setCount(1).build());
+            assertTrue(System.nanoTime() - readStart < TimeUnit.MILLISECONDS.toNanos(100));
+        }
+    }
+
+    private void saveEvents(int count) throws Exception {
+        try (OrisunClient client = client(FaultInjection.newBuilder().build())) {
+            for (int i = 0; i < count; i++) {
+                client.saveEvents(Eventstore.SaveEventsRequest.newBuilder()
+                        .setBoundary("orders")
+                        .addEvents(Eventstore.EventToSave.newBuilder()
+                                .setEventId(UUID.randomUUID().toString())
+                                .setEventType("OrderPlaced")
+                                .setData("{\"orderId\":\"order-" + i + "\"}"))
+                        .build());
+            }
+        }
+    }
+
+    private EventSubscription subscribe(OrisunClient client, AtomicInteger received, CountDownLatch done,
+                                        CompletableFuture<Throwable> error) {
+        return client.subscribeToEvents(
+                Eventstore.CatchUpSubscribeToEventStoreRequest.newBuilder()
+                        .setSubscriberName("projector")
+                        .setBoundary("orders")
+                        .build(),
+                new EventSubscription.EventHandler() {
+                    @Override
+                    public void onEvent(Eventstore.Event event) {
+                        received.incrementAndGet();
+                        done.countDown();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        error.complete(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+    }
+
+    @Test
+    void testStreamResetEndsSubscriptionMidStream() throws Exception {
+        saveEvents(50);
+        final FaultInjection faults = FaultInjection.newBuilder()
+                .withDefaultPolicy(FaultPolicy.newBuilder()
+                        .withStreamReset(0.1)
+                        .build())
+                .build();
+        try (OrisunClient client = client(faults)) {
+            final AtomicInteger received = new AtomicInteger();
+            final CompletableFuture<Throwable> error = new CompletableFuture<>();
+            final EventSubscription subscription = subscribe(client, received, new CountDownLatch(0), error);
+
+            final Throwable reset = error.get(5, TimeUnit.SECONDS);
+            assertEquals(Status.Code.UNAVAILABLE, Status.fromThrowable(reset).getCode());
+            assertTrue(received.get() < 50);
+            subscription.close();
+        }
+    }
+
+    @Test
+    void testSlowReaderPacesDelivery() throws Exception {
+        saveEvents(6);
+        final FaultInjection faults = FaultInjection.newBuilder()
+                .withDefaultPolicy(FaultPolicy.newBuilder()
+                        .withSlowReader(50, TimeUnit.MILLISECONDS)
+                        .build())
+                .build();
+        try (OrisunClient client = client(faults)) {
+            final CountDownLatch done = new CountDownLatch(6);
+            final long start = System.nanoTime();
+            final EventSubscription subscription = subscribe(client, new AtomicInteger(), done, new CompletableFuture<>());
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            // Five requests after the first, each delayed
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(250));
+            subscription.close();
+        }
+    }
+
+    @Test
+    void testCallsOutsideTheInterceptorsLifetimeDoNotFail() {
+        final List<String> operations = new ArrayList<>();
+        final Channel channel = new Channel() {
+            @Override
+            public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method,
+                                                                 CallOptions callOptions) {
+                return new ClientCall<>() {
+                    @Override
+                    public void start(Listener<RespT> listener, Metadata headers) {
+                        operations.add("start");
+                    }
+
+                    @Override
+                    public void request(int numMessages) {
+                        operations.add("request");
+                    }
+
+                    @Override
+                    public void cancel(String message, Throwable cause) {
+                        operations.add("cancel");
+                    }
+
+                    @Override
+                    public void halfClose() {
+                        operations.add("halfClose");
+                    }
+
+                    @Override
+                    public void sendMessage(ReqT message) {
+                        operations.add("sendMessage");
+                    }
+                };
+            }
+
+            @Override
+            public String authority() {
+                return "localhost";
+            }
+        };
+        final FaultInjectionInterceptor interceptor = new FaultInjectionInterceptor(FaultInjection.newBuilder()
+                .withDefaultPolicy(FaultPolicy.newBuilder()
+                        .withSlowReader(1, TimeUnit.MINUTES)
+                        .build())
+                .build());
+        final Channel faulty = ClientInterceptors.intercept(channel, interceptor);
+
+        // Cancelled before it was started
+        faulty.newCall(EventStoreGrpc.getPingMethod(), CallOptions.DEFAULT).cancel("Not needed", null);
+        assertEquals(List.of(), operations);
+
+        // Requests of a slow reader after the interceptor was closed go straight through
+        final ClientCall<Eventstore.PingRequest, Eventstore.PingResponse> call =
+                faulty.newCall(EventStoreGrpc.getPingMethod(), CallOptions.DEFAULT);
+        call.start(new ClientCall.Listener<>() {
+        }, new Metadata());
+        call.request(1);
+        interceptor.close();
+        call.request(1);
+        assertEquals(List.of("start", "request", "request"), operations);
+    }
+}
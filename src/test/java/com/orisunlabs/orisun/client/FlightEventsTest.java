@@ -0,0 +1,141 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightEventsTest {
+    private Server server;
+    private OrisunClient client;
+    private Recording recording;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        server = ServerBuilder.forPort(port)
+                .addService(new EventStoreGrpc.EventStoreImplBase() {
+                    @Override
+                    public void saveEvents(Eventstore.SaveEventsRequest request,
+                                           StreamObserver<Eventstore.WriteResult> responseObserver) {
+                        responseObserver.onError(Status.ALREADY_EXISTS
+                                .withDescription("OptimisticConcurrencyException: Expected 4, Actual 7")
+                                .asRuntimeException());
+                    }
+
+                    @Override
+                    public void ping(Eventstore.PingRequest request,
+                                     StreamObserver<Eventstore.PingResponse> responseObserver) {
+                        responseObserver.onNext(Eventstore.PingResponse.getDefaultInstance());
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+
+        client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .build();
+
+        recording = new Recording();
+        recording.enable(FlightEvents.Rpc.class).withThreshold(Duration.ZERO);
+        recording.enable(FlightEvents.ConcurrencyConflict.class);
+        recording.enable(FlightEvents.BackpressureStall.class).withThreshold(Duration.ZERO);
+        recording.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        recording.close();
+        client.close();
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private List<RecordedEvent> stopRecording() throws Exception {
+        recording.stop();
+        final Path file = Files.createTempFile("orisun", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+    }
+
+    @Test
+    void testRpcAndConflictEvents() throws Exception {
+        client.ping();
+        assertThrows(OptimisticConcurrencyException.class, () -> client.saveEvents(
+                Eventstore.SaveEventsRequest.newBuilder()
+                        .setBoundary("orders")
+                        .addEvents(Eventstore.EventToSave.newBuilder()
+                                .setEventId(UUID.randomUUID().toString())
+                                .setEventType("OrderPlaced")
+                                .setData("{}"))
+                        .build()));
+
+        final List<RecordedEvent> events = stopRecording();
+
+        final List<RecordedEvent> rpcs = named(events, "com.orisunlabs.orisun.Rpc");
+        assertEquals(2, rpcs.size());
+        final RecordedEvent save = rpcs.stream()
+                .filter(e -> e.getString("method").equals("SaveEvents"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("orders", save.getString("boundary"));
+        assertEquals("ALREADY_EXISTS", save.getString("status"));
+        assertTrue(save.getLong("requestBytes") > 0);
+
+        final List<RecordedEvent> conflicts = named(events, "com.orisunlabs.orisun.ConcurrencyConflict");
+        assertEquals(1, conflicts.size());
+        assertEquals("orders", conflicts.get(0).getString("boundary"));
+        assertEquals(4, conflicts.get(0).getLong("expectedVersion"));
+        assertEquals(7, conflicts.get(0).getLong("actualVersion"));
+    }
+
+    @Test
+    void testLimiterQueueWaitIsRecordedAsStall() throws Exception {
+        final ConcurrencyLimiter limiter = ConcurrencyLimiter.newBuilder()
+                .withInitialLimit(1)
+                .withMinLimit(1)
+                .withMaxLimit(1)
+                .withMaxQueueWait(20, TimeUnit.MILLISECONDS)
+                .build();
+        assertTrue(limiter.acquire());
+        assertFalse(limiter.acquire());
+        limiter.onIgnore();
+
+        final List<RecordedEvent> stalls = named(stopRecording(), "com.orisunlabs.orisun.BackpressureStall");
+        assertEquals(1, stalls.size());
+        assertEquals("concurrency limiter", stalls.get(0).getString("source"));
+        assertFalse(stalls.get(0).getBoolean("acquired"));
+        assertTrue(stalls.get(0).getDuration().toMillis() >= 15);
+    }
+}
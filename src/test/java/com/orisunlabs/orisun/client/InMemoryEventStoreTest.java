@@ -0,0 +1,216 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.Eventstore;
+import com.orisunlabs.orisun.testing.InMemoryEventStore;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryEventStoreTest {
+    private final InMemoryEventStore store = new InMemoryEventStore();
+    private Server server;
+    private OrisunClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        server = ServerBuilder.forPort(port)
+                .addService(store)
+                .build()
+                .start();
+
+        client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static Eventstore.Criterion criterion(String key, String value) {
+        return Eventstore.Criterion.newBuilder()
+                .addTags(Eventstore.Tag.newBuilder().setKey(key).setValue(value))
+                .build();
+    }
+
+    private static Eventstore.EventToSave event(String type, String data) {
+        return Eventstore.EventToSave.newBuilder()
+                .setEventId(UUID.randomUUID().toString())
+                .setEventType(type)
+                .setData(data)
+                .build();
+    }
+
+    private Eventstore.WriteResult save(Eventstore.Position expected, Eventstore.Criterion subset,
+                                        Eventstore.EventToSave... events) throws Exception {
+        return client.saveEvents(Eventstore.SaveEventsRequest.newBuilder()
+                .setBoundary("orders")
+                .setQuery(Eventstore.SaveQuery.newBuilder()
+                        .setExpectedPosition(expected)
+                        .setSubsetQuery(Eventstore.Query.newBuilder().addCriteria(subset)))
+                .addAllEvents(List.of(events))
+                .build());
+    }
+
+    @Test
+    void testExpectedPositionConflictsPerSubsetQuery() throws Exception {
+        final Eventstore.Criterion order1 = criterion("orderId", "order-1");
+        final Eventstore.Criterion order2 = criterion("orderId", "order-2");
+
+        final Eventstore.WriteResult placed = save(InMemoryEventStore.NO_POSITION, order1,
+                event("OrderPlaced", "{\"orderId\":\"order-1\",\"amount\":10}"),
+                event("OrderPaid", "{\"orderId\":\"order-1\",\"amount\":10}"));
+        assertEquals(2, placed.getLogPosition().getCommitPosition());
+
+        // Another order's stream is independent of order-1's writes
+        save(InMemoryEventStore.NO_POSITION, order2, event("OrderPlaced", "{\"orderId\":\"order-2\"}"));
+
+        final OptimisticConcurrencyException stale = assertThrows(OptimisticConcurrencyException.class,
+                () -> save(InMemoryEventStore.NO_POSITION, order1, event("OrderShipped", "{\"orderId\":\"order-1\"}")));
+        assertEquals(-1, stale.getExpectedVersion());
+        assertEquals(2, stale.getActualVersion());
+
+        final Eventstore.GetLatestByCriteriaResponse latest = client.getLatestByCriteria(
+                Eventstore.GetLatestByCriteriaRequest.newBuilder()
+                        .setBoundary("orders")
+                        .addCriteria(order1)
+                        .addCriteria(criterion("orderId", "order-3"))
+                        .build());
+        assertEquals("OrderPaid", latest.getResults(0).getEvent().getEventType());
+        assertFalse(latest.getResults(1).hasEvent());
+        assertEquals(placed.getLogPosition(), latest.getContextPosition());
+
+        final Eventstore.WriteResult shipped = save(latest.getContextPosition(), order1,
+                event("OrderShipped", "{\"orderId\":\"order-1\"}"));
+        assertEquals(4, shipped.getLogPosition().getCommitPosition());
+        assertEquals(4, store.getEvents("orders").size());
+    }
+
+    @Test
+    void testPagedReadsInBothDirections() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            save(store.getHead(), Eventstore.Criterion.getDefaultInstance(),
+                    event("ItemAdded", "{\"cart\":\"" + (i % 2 == 0 ? "even" : "odd") + "\",\"item\":" + i + "}"));
+        }
+
+        final Eventstore.GetEventsRequest firstPage = Eventstore.GetEventsRequest.newBuilder()
+                .setBoundary("orders")
+                .setCount(2)
+                .build();
+        final List<Eventstore.Event> page1 = client.getEvents(firstPage).getEventsList();
+        final List<Eventstore.Event> page2 = client.getEvents(firstPage.toBuilder()
+                .setFromPosition(page1.get(1).getPosition())
+                .build()).getEventsList();
+        assertEquals(List.of(1L, 2L, 3L, 4L), List.of(
+                page1.get(0).getPosition().getCommitPosition(), page1.get(1).getPosition().getCommitPosition(),
+                page2.get(0).getPosition().getCommitPosition(), page2.get(1).getPosition().getCommitPosition()));
+
+        final List<Eventstore.Event> odd = client.getEvents(firstPage.toBuilder()
+                .setDirection(Eventstore.Direction.DESC)
+                .setCount(10)
+                .setQuery(Eventstore.Query.newBuilder().addCriteria(criterion("cart", "odd")))
+                .build()).getEventsList();
+        assertEquals(List.of("5", "3", "1"), odd.stream()
+                .map(e -> String.valueOf(e.getPosition().getCommitPosition()))
+                .toList());
+    }
+
+    @Test
+    void testSubscriptionsCatchUpThenReceiveLiveEvents() throws Exception {
+        save(InMemoryEventStore.NO_POSITION, criterion("orderId", "order-1"),
+                event("OrderPlaced", "{\"orderId\":\"order-1\"}"),
+                event("OrderPaid", "{\"orderId\":\"order-1\"}"));
+
+        final BlockingQueue<Eventstore.Event> received = new LinkedBlockingQueue<>();
+        final EventSubscription subscription = client.subscribeToEvents(
+                Eventstore.CatchUpSubscribeToEventStoreRequest.newBuilder()
+                        .setSubscriberName("shipping")
+                        .setBoundary("orders")
+                        .setAfterPosition(Eventstore.Position.newBuilder().setCommitPosition(1).setPreparePosition(1))
+                        .build(),
+                new EventSubscription.EventHandler() {
+                    @Override
+                    public void onEvent(Eventstore.Event event) {
+                        received.add(event);
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+
+        assertEquals("OrderPaid", received.poll(5, TimeUnit.SECONDS).getEventType());
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (store.getSubscriberCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        save(store.getHead(), Eventstore.Criterion.getDefaultInstance(),
+                event("OrderShipped", "{\"orderId\":\"order-1\"}"));
+        final Eventstore.Event live = received.poll(5, TimeUnit.SECONDS);
+        assertEquals("OrderShipped", live.getEventType());
+        assertEquals(3, live.getPosition().getCommitPosition());
+
+        // Closing cancels the call, which ends the stream on the server
+        subscription.close();
+        final long closeDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (store.getSubscriberCount() > 0 && System.nanoTime() < closeDeadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, store.getSubscriberCount());
+    }
+
+    @Test
+    void testInjectedFailures() {
+        store.failNext(Status.INTERNAL);
+        assertThrows(OrisunException.class, () -> client.ping());
+        assertDoesNotThrow(() -> client.ping());
+
+        final InMemoryEventStore failing = InMemoryEventStore.newBuilder()
+                .withErrorRate(1)
+                .withErrorStatus(Status.RESOURCE_EXHAUSTED)
+                .build();
+        final StreamObserver<Eventstore.PingResponse> observer = new StreamObserver<>() {
+            @Override
+            public void onNext(Eventstore.PingResponse value) {
+                fail("Call should have failed");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                assertEquals(Status.Code.RESOURCE_EXHAUSTED, Status.fromThrowable(t).getCode());
+            }
+
+            @Override
+            public void onCompleted() {
+                fail("Call should have failed");
+            }
+        };
+        failing.ping(Eventstore.PingRequest.getDefaultInstance(), observer);
+    }
+}
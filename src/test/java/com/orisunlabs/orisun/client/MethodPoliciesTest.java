@@ -0,0 +1,98 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodPoliciesTest {
+    private final AtomicInteger getEventsCalls = new AtomicInteger();
+    private Server server;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        // Fails the first attempt of every request with UNAVAILABLE
+        server = ServerBuilder.forPort(port)
+                .addService(new EventStoreGrpc.EventStoreImplBase() {
+                    @Override
+                    public void getEvents(Eventstore.GetEventsRequest request,
+                                          StreamObserver<Eventstore.GetEventsResponse> responseObserver) {
+                        if (getEventsCalls.incrementAndGet() % 2 == 1) {
+                            responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                            return;
+                        }
+                        responseObserver.onNext(Eventstore.GetEventsResponse.getDefaultInstance());
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static Eventstore.GetEventsRequest request() {
+        return Eventstore.GetEventsRequest.newBuilder()
+                .setBoundary("users")
+                .setCount(1)
+                .build();
+    }
+
+    @Test
+    void testReadsAreRetriedTransparently() throws Exception {
+        try (OrisunClient client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .build()) {
+            assertNotNull(client.getEvents(request()));
+            assertEquals(2, getEventsCalls.get());
+        }
+    }
+
+    @Test
+    void testMethodPolicyOverrideDisablesRetries() {
+        try (OrisunClient client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withMethodPolicy(EventStoreGrpc.getGetEventsMethod(), MethodPolicy.newBuilder()
+                        .withTimeout(5, TimeUnit.SECONDS)
+                        .build())
+                .build()) {
+            OrisunException exception = assertThrows(OrisunException.class, () -> client.getEvents(request()));
+            assertEquals("UNAVAILABLE", exception.getContext("statusCode"));
+            assertEquals(1, getEventsCalls.get());
+        }
+    }
+
+    @Test
+    void testPolicyRendersServiceConfig() {
+        MethodPolicy policy = MethodPolicies.defaultReadPolicy(30);
+        Map<String, Object> methodConfig = policy.toMethodConfig("eventstore.EventStore", "GetEvents");
+
+        assertEquals("30.000000000s", methodConfig.get("timeout"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> retryPolicy = (Map<String, Object>) methodConfig.get("retryPolicy");
+        assertEquals(3.0, retryPolicy.get("maxAttempts"));
+        assertEquals(List.of("UNAVAILABLE"), retryPolicy.get("retryableStatusCodes"));
+    }
+}
@@ -0,0 +1,230 @@
+package com.orisunlabs.orisun.client;
+
+import com.google.protobuf.Timestamp;
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import io.grpc.*;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+    private final InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+    private Server server;
+    private OrisunClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        server = ServerBuilder.forPort(port)
+                .addService(new EventStoreGrpc.EventStoreImplBase() {
+                    @Override
+                    public void getEvents(Eventstore.GetEventsRequest request,
+                                          StreamObserver<Eventstore.GetEventsResponse> responseObserver) {
+                        if (request.getBoundary().equals("missing")) {
+                            responseObserver.onError(Status.NOT_FOUND.asRuntimeException());
+                            return;
+                        }
+                        // The latest event is the head used for subscription lag
+                        final long position = request.getDirection() == Eventstore.Direction.DESC ? 10 : 1;
+                        responseObserver.onNext(Eventstore.GetEventsResponse.newBuilder()
+                                .addEvents(event(position))
+                                .build());
+                        responseObserver.onCompleted();
+                    }
+
+                    @Override
+                    public void catchUpSubscribeToEvents(Eventstore.CatchUpSubscribeToEventStoreRequest request,
+                                                         StreamObserver<Eventstore.Event> responseObserver) {
+                        for (long position = 1; position <= 3; position++) {
+                            responseObserver.onNext(event(position));
+                        }
+                        // The stream stays open like a live subscription
+                    }
+
+                    @Override
+                    public void ping(Eventstore.PingRequest request,
+                                     StreamObserver<Eventstore.PingResponse> responseObserver) {
+                        responseObserver.onNext(Eventstore.PingResponse.getDefaultInstance());
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+
+        client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withMetrics(metrics)
+                .withLagProbeInterval(20, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    private static Eventstore.Event event(long position) {
+        final Instant created = Instant.now().minusMillis(100);
+        return Eventstore.Event.newBuilder()
+                .setEventId("event-" + position)
+                .setEventType("OrderPlaced")
+                .setData("{}")
+                .setPosition(Eventstore.Position.newBuilder().setCommitPosition(position).setPreparePosition(position))
+                .setDateCreated(Timestamp.newBuilder()
+                        .setSeconds(created.getEpochSecond())
+                        .setNanos(created.getNano()))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testCallsAreRecordedPerMethodBoundaryAndStatus() throws Exception {
+        final Eventstore.GetEventsRequest orders = Eventstore.GetEventsRequest.newBuilder()
+                .setBoundary("orders")
+                .setCount(10)
+                .build();
+        for (int i = 0; i < 3; i++) {
+            client.getEvents(orders);
+        }
+        assertThrows(OrisunException.class, () -> client.getEvents(orders.toBuilder().setBoundary("missing").build()));
+        client.ping();
+
+        final MetricsSnapshot snapshot = metrics.snapshot();
+        assertSame(metrics, client.getMetrics());
+
+        assertEquals(3, snapshot.counter(MetricsInterceptor.CALLS,
+                "method", "GetEvents", "boundary", "orders", "status", "OK"));
+        assertEquals(1, snapshot.counter(MetricsInterceptor.CALLS,
+                "method", "GetEvents", "boundary", "missing", "status", "NOT_FOUND"));
+        assertEquals(1, snapshot.counter(MetricsInterceptor.CALLS,
+                "method", "Ping", "boundary", MetricsInterceptor.NO_BOUNDARY));
+
+        final LatencyHistogram.Snapshot duration = snapshot.histogram(MetricsInterceptor.DURATION,
+                "method", "GetEvents", "boundary", "orders");
+        assertEquals(3, duration.getCount());
+        assertTrue(duration.getMax() > 0);
+        assertEquals(4, snapshot.histogram(MetricsInterceptor.DURATION, "method", "GetEvents").getCount());
+
+        assertEquals(3L * orders.getSerializedSize(), snapshot.counter(MetricsInterceptor.REQUEST_BYTES,
+                "method", "GetEvents", "boundary", "orders"));
+        assertTrue(snapshot.counter(MetricsInterceptor.RESPONSE_BYTES, "boundary", "orders") > 0);
+        assertEquals(0, snapshot.gauge(MetricsInterceptor.IN_FLIGHT, "method", "GetEvents"));
+    }
+
+    @Test
+    void testSubscriptionThroughputPositionAndLag() throws Exception {
+        final CountDownLatch received = new CountDownLatch(3);
+        final EventSubscription subscription = client.subscribeToEvents(
+                Eventstore.CatchUpSubscribeToEventStoreRequest.newBuilder()
+                        .setSubscriberName("projector")
+                        .setBoundary("orders")
+                        .build(),
+                new EventSubscription.EventHandler() {
+                    @Override
+                    public void onEvent(Eventstore.Event event) {
+                        received.countDown();
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+
+        final String[] tags = {"subscriber", "projector", "boundary", "orders"};
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (metrics.snapshot().gauge(SubscriptionMetrics.LAG, tags) != 7 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        subscription.close();
+
+        final MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(7, snapshot.gauge(SubscriptionMetrics.LAG, tags));
+        assertEquals(3, snapshot.gauge(SubscriptionMetrics.POSITION, tags));
+        assertEquals(3, snapshot.counter(SubscriptionMetrics.EVENTS, tags));
+        assertTrue(snapshot.counter(SubscriptionMetrics.BYTES, tags) > 0);
+        assertEquals(3, snapshot.histogram(SubscriptionMetrics.HANDLER_DURATION, tags).getCount());
+
+        final LatencyHistogram.Snapshot delivery = snapshot.histogram(SubscriptionMetrics.DELIVERY_LATENCY, tags);
+        assertEquals(3, delivery.getCount());
+        assertTrue(delivery.getMax() >= TimeUnit.MILLISECONDS.toNanos(100));
+
+        // Head probes are not the application's reads
+        assertEquals(0, snapshot.counter(MetricsInterceptor.CALLS, "method", "GetEvents"));
+    }
+
+    @Test
+    void testHeadProbeIsNotStartedAfterStop() throws Exception {
+        final AtomicInteger probes = new AtomicInteger();
+        final Channel channel = new Channel() {
+            @Override
+            public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method,
+                                                                 CallOptions callOptions) {
+                probes.incrementAndGet();
+                throw new IllegalStateException("probe started");
+            }
+
+            @Override
+            public String authority() {
+                return "localhost";
+            }
+        };
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            // The subscription ended before its probe was started
+            final SubscriptionMetrics subscriptionMetrics = new SubscriptionMetrics(metrics, "projector", "orders",
+                    new DefaultLogger(DefaultLogger.LogLevel.WARN));
+            subscriptionMetrics.stop();
+            subscriptionMetrics.startHeadProbe(channel, scheduler, 1, 1);
+
+            Thread.sleep(50);
+            assertEquals(0, probes.get());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    void testHistogramPercentilesAndMerge() {
+        final LatencyHistogram histogram = new LatencyHistogram(4);
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1_000_000, snapshot.getMax());
+        assertEquals(500_500.0, snapshot.getMean(), 1.0);
+        assertEquals(500_000, snapshot.getValueAtPercentile(50), 500_000 * 0.02);
+        assertEquals(990_000, snapshot.getValueAtPercentile(99), 990_000 * 0.02);
+        assertEquals(1_000_000, snapshot.getValueAtPercentile(100));
+
+        final LatencyHistogram other = new LatencyHistogram(1);
+        other.record(TimeUnit.SECONDS.toNanos(2));
+        final LatencyHistogram.Snapshot merged = snapshot.merge(other.snapshot());
+        assertEquals(1001, merged.getCount());
+        assertEquals(TimeUnit.SECONDS.toNanos(2), merged.getMax());
+        assertEquals(0, LatencyHistogram.Snapshot.empty().getValueAtPercentile(99));
+    }
+}
@@ -27,10 +27,11 @@ class OrisunClientTest {
     private OrisunClient client;
     private Server server;
 
+    private int port;
+
     @BeforeEach
     void setUp() throws Exception {
         // Choose a free ephemeral port
-        final int port;
         try (ServerSocket socket = new ServerSocket(0)) {
             port = socket.getLocalPort();
         }
@@ -358,6 +359,70 @@ class OrisunClientTest {
         assertEquals("ping", exception.getContext("operation"));
     }
 
+    @Test
+    void testWarmupCompletesReadiness() throws Exception {
+        try (OrisunClient warmClient = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withWarmup(WarmupOptions.newBuilder()
+                        .withTimeout(5, TimeUnit.SECONDS)
+                        .withSyntheticCalls(3, "users")
+                        .build())
+                .build()) {
+            assertDoesNotThrow(() -> warmClient.ready().get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testWarmupFailureFailsReadiness() {
+        mockService.setPingResponse(false);
+
+        try (OrisunClient warmClient = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withWarmup(WarmupOptions.newBuilder()
+                        .withTimeout(5, TimeUnit.SECONDS)
+                        .build())
+                .build()) {
+            assertThrows(java.util.concurrent.ExecutionException.class,
+                    () -> warmClient.ready().get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testWarmupTimesOutWithinItsTimeout() {
+        mockService.setPingsHang(true);
+        assertWarmupTimesOut("ping", WarmupOptions.newBuilder()
+                .withTimeout(500, TimeUnit.MILLISECONDS)
+                .build());
+
+        // Pings answer, synthetic reads hang
+        mockService.setPingsHang(false);
+        mockService.setReadsHang(true);
+        assertWarmupTimesOut("synthetic", WarmupOptions.newBuilder()
+                .withTimeout(500, TimeUnit.MILLISECONDS)
+                .withSyntheticCalls(100, "users")
+                .build());
+    }
+
+    private void assertWarmupTimesOut(String phase, WarmupOptions options) {
+        try (OrisunClient warmClient = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withWarmup(options)
+                .build()) {
+            // Well under the 30 second default deadline of each call
+            final java.util.concurrent.ExecutionException failure = assertThrows(
+                    java.util.concurrent.ExecutionException.class,
+                    () -> warmClient.ready().get(5, TimeUnit.SECONDS));
+            final OrisunException error = assertInstanceOf(OrisunException.class, failure.getCause());
+            assertTrue(error.getMessage().startsWith("Warm-up timed out"), error.getMessage());
+            assertEquals(phase, error.getContext("phase"));
+        }
+    }
+
+    @Test
+    void testReadyWithoutWarmup() {
+        assertTrue(client.ready().isDone());
+    }
+
     // Mock service implementation
     private static class MockEventStoreService extends EventStoreGrpc.EventStoreImplBase {
         private Eventstore.WriteResult nextWriteResult;
@@ -366,6 +431,9 @@ class OrisunClientTest {
         private Eventstore.GetLatestByCriteriaRequest lastGetLatestByCriteriaRequest;
         private StreamObserver<Eventstore.Event> eventObserver;
         private boolean pingSuccess = true;
+        // Left unanswered, so only the caller's deadline ends them
+        private volatile boolean pingsHang;
+        private volatile boolean readsHang;
 
         void setNextWriteResult(Eventstore.WriteResult result) {
             this.nextWriteResult = result;
@@ -375,6 +443,14 @@ class OrisunClientTest {
             this.pingSuccess = success;
         }
 
+        void setPingsHang(boolean hang) {
+            this.pingsHang = hang;
+        }
+
+        void setReadsHang(boolean hang) {
+            this.readsHang = hang;
+        }
+
         Eventstore.SaveEventsRequest getLastSaveEventsRequest() {
             return lastSaveEventsRequest;
         }
@@ -428,6 +504,9 @@ class OrisunClientTest {
 
         @Override
         public void getEvents(GetEventsRequest request, StreamObserver<GetEventsResponse> responseObserver) {
+            if (readsHang) {
+                return;
+            }
             responseObserver.onNext(
                     GetEventsResponse
                             .newBuilder()
@@ -449,6 +528,9 @@ class OrisunClientTest {
 
         @Override
         public void ping(Eventstore.PingRequest request, StreamObserver<Eventstore.PingResponse> responseObserver) {
+            if (pingsHang) {
+                return;
+            }
             if (pingSuccess) {
                 responseObserver.onNext(Eventstore.PingResponse.newBuilder().build());
                 responseObserver.onCompleted();
@@ -0,0 +1,158 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.admin.AdminGrpc;
+import com.orisun.admin.AdminOuterClass.GetUserCountRequest;
+import com.orisun.admin.AdminOuterClass.GetUserCountResponse;
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import io.grpc.*;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrisunTransportTest {
+    private static final Metadata.Key<String> AUTHORIZATION =
+            Metadata.Key.of("Authorization", Metadata.ASCII_STRING_MARSHALLER);
+    private static final Metadata.Key<String> TOKEN =
+            Metadata.Key.of("x-auth-token", Metadata.ASCII_STRING_MARSHALLER);
+
+    // Auth headers seen by the server, one entry per call
+    private final List<String> receivedAuth = new CopyOnWriteArrayList<>();
+    private final Set<String> revokedTokens = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger issuedTokens = new AtomicInteger();
+    private Server server;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        // Records the auth header of each call, rejects revoked tokens and issues a new token for
+        // every basic auth
+        ServerInterceptor auth = new ServerInterceptor() {
+            @Override
+            public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+                    ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+                String token = headers.get(TOKEN);
+                receivedAuth.add(token != null ? "token:" + token : "basic:" + headers.get(AUTHORIZATION));
+                if (token != null && revokedTokens.contains(token)) {
+                    call.close(Status.UNAUTHENTICATED.withDescription("token expired"), new Metadata());
+                    return new ServerCall.Listener<>() {
+                    };
+                }
+                return next.startCall(new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+                    @Override
+                    public void sendHeaders(Metadata responseHeaders) {
+                        if (token == null) {
+                            responseHeaders.put(TOKEN, "token-" + issuedTokens.incrementAndGet());
+                        }
+                        super.sendHeaders(responseHeaders);
+                    }
+                }, headers);
+            }
+        };
+
+        server = ServerBuilder.forPort(port)
+                .addService(ServerInterceptors.intercept(new EventStoreGrpc.EventStoreImplBase() {
+                    @Override
+                    public void ping(Eventstore.PingRequest request,
+                                     StreamObserver<Eventstore.PingResponse> responseObserver) {
+                        responseObserver.onNext(Eventstore.PingResponse.getDefaultInstance());
+                        responseObserver.onCompleted();
+                    }
+                }, auth))
+                .addService(ServerInterceptors.intercept(new AdminGrpc.AdminImplBase() {
+                    @Override
+                    public void getUserCount(GetUserCountRequest request,
+                                             StreamObserver<GetUserCountResponse> responseObserver) {
+                        responseObserver.onNext(GetUserCountResponse.newBuilder().setCount(3).build());
+                        responseObserver.onCompleted();
+                    }
+                }, auth))
+                .build()
+                .start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testClientsShareChannelAndToken() throws Exception {
+        try (OrisunTransport transport = OrisunTransport.newBuilder()
+                .withServer("localhost", port)
+                .withBasicAuth("admin", "changeit")
+                .build()) {
+            OrisunClient client = OrisunClient.newBuilder().withTransport(transport).build();
+            AdminClient admin = AdminClient.newBuilder().withTransport(transport).build();
+
+            client.ping();
+            assertEquals(3, admin.getUserCount());
+
+            // The token issued to the first call is reused by the other client
+            assertTrue(receivedAuth.get(0).startsWith("basic:Basic "));
+            assertEquals("token:token-1", receivedAuth.get(1));
+
+            // Closing a client leaves the shared transport open
+            client.close();
+            admin.close();
+            assertFalse(transport.getChannel().isShutdown());
+            assertEquals(3, admin.getUserCount());
+        }
+    }
+
+    @Test
+    void testRejectedTokenIsRenewedOnceAndCallsRetried() throws Exception {
+        try (AdminClient admin = AdminClient.newBuilder()
+                .withServer("localhost", port)
+                .withBasicAuth("admin", "changeit")
+                .build()) {
+            assertEquals(3, admin.getUserCount());
+            revokedTokens.add("token-1");
+
+            // Every in-flight call is rejected, a single re-authentication serves all of them
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<Long>> results = new ArrayList<>();
+                for (int i = 0; i < 32; i++) {
+                    results.add(executor.submit(() -> admin.getUserCount()));
+                }
+                for (Future<Long> result : results) {
+                    assertEquals(3, result.get(10, TimeUnit.SECONDS));
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertEquals(2, issuedTokens.get());
+            assertEquals(2, receivedAuth.stream().filter(header -> header.startsWith("basic:")).count());
+        }
+    }
+
+    @Test
+    void testCallerChannelIsAuthenticated() throws Exception {
+        ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", port).usePlaintext().build();
+        try (OrisunClient client = OrisunClient.newBuilder()
+                .withChannel(channel)
+                .withBasicAuth("admin", "changeit")
+                .build()) {
+            client.ping();
+            assertTrue(receivedAuth.get(0).startsWith("basic:Basic "));
+        }
+        assertTrue(channel.isShutdown());
+    }
+}
@@ -0,0 +1,94 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.Eventstore;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestValidatorTest {
+
+    private static Eventstore.SaveEventsRequest batch(int size, int invalidIndex, Eventstore.EventToSave invalid) {
+        final Eventstore.SaveEventsRequest.Builder request = Eventstore.SaveEventsRequest.newBuilder()
+                .setBoundary("orders");
+        for (int i = 0; i < size; i++) {
+            request.addEvents(i == invalidIndex ? invalid : Eventstore.EventToSave.newBuilder()
+                    .setEventId(UUID.randomUUID().toString())
+                    .setEventType("OrderPlaced")
+                    .setData("{\"orderId\":\"order-" + i + "\"}")
+                    .build());
+        }
+        return request.build();
+    }
+
+    @Test
+    void testUuidAndBlankChecks() {
+        assertTrue(RequestValidator.isUuid("123e4567-e89b-12d3-a456-426614174000"));
+        assertTrue(RequestValidator.isUuid("123E4567-E89B-12D3-A456-426614174000"));
+        assertFalse(RequestValidator.isUuid("123e4567e89b12d3a456426614174000"));
+        assertFalse(RequestValidator.isUuid("123e4567-e89b-12d3-a456-42661417400g"));
+        assertFalse(RequestValidator.isUuid("123e4567-e89b-12d3-a456_426614174000"));
+        assertFalse(RequestValidator.isUuid("1-2-3-4-5"));
+        assertFalse(RequestValidator.isUuid(null));
+
+        assertTrue(RequestValidator.isBlank(""));
+        assertTrue(RequestValidator.isBlank(" \t\n"));
+        assertTrue(RequestValidator.isBlank(null));
+        assertFalse(RequestValidator.isBlank("  {}  "));
+    }
+
+    @Test
+    void testFirstInvalidEventIsReportedSequentiallyAndInParallel() {
+        final Eventstore.EventToSave badId = Eventstore.EventToSave.newBuilder()
+                .setEventId("not-a-uuid")
+                .setEventType("OrderPlaced")
+                .setData("{}")
+                .build();
+        final Eventstore.EventToSave noData = badId.toBuilder()
+                .setEventId(UUID.randomUUID().toString())
+                .setData("   ")
+                .build();
+
+        final Eventstore.SaveEventsRequest request = batch(2000, 1500, badId).toBuilder()
+                .setEvents(1700, noData)
+                .build();
+        for (int threshold : new int[]{0, 100}) {
+            final OrisunException error = assertThrows(OrisunException.class,
+                    () -> RequestValidator.validateSaveEventsRequest(request, threshold));
+            assertTrue(error.getMessage().startsWith("Event at index 1500 has invalid eventId format"));
+            assertEquals(1500, error.getContext("eventIndex"));
+            assertEquals("not-a-uuid", error.getContext("eventId"));
+        }
+
+        final OrisunException missingData = assertThrows(OrisunException.class,
+                () -> RequestValidator.validateSaveEventsRequest(batch(3, 2, noData)));
+        assertTrue(missingData.getMessage().startsWith("Event at index 2 is missing data"));
+
+        assertDoesNotThrow(() -> RequestValidator.validateSaveEventsRequest(batch(2000, -1, null), 100));
+    }
+
+    @Test
+    void testValidationCanBeSkippedForTrustedProducers() {
+        final Eventstore.SaveEventsRequest invalid = batch(1, 0, Eventstore.EventToSave.newBuilder()
+                .setEventId("producer-42")
+                .setEventType("OrderPlaced")
+                .setData("{}")
+                .build());
+
+        try (OrisunClient validating = OrisunClient.newBuilder().withServer("localhost", 1).build()) {
+            final OrisunException error = assertThrows(OrisunException.class, () -> validating.saveEvents(invalid));
+            assertTrue(error.getMessage().startsWith("Event at index 0 has invalid eventId format"));
+        }
+
+        // The request reaches the transport, which has no server to send it to
+        try (OrisunClient trusting = OrisunClient.newBuilder()
+                .withServer("localhost", 1)
+                .withTimeout(1)
+                .withEventValidation(false)
+                .build()) {
+            final Exception error = assertThrows(Exception.class, () -> trusting.saveEvents(invalid));
+            assertFalse(error instanceof OrisunException && error.getMessage().contains("invalid eventId"));
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import io.grpc.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenCacheTest {
+    private final TokenCache tokenCache = new TokenCache(new DefaultLogger(DefaultLogger.LogLevel.WARN));
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private Metadata applied() {
+        Metadata headers = new Metadata();
+        tokenCache.applyAuthHeaders(headers);
+        return headers;
+    }
+
+    @Test
+    void testTokenReplacesBasicAuthUntilCleared() {
+        new AuthInterceptor(tokenCache, "admin", "changeit");
+        assertEquals("Basic YWRtaW46Y2hhbmdlaXQ=", applied().get(TokenCache.AUTHORIZATION_HEADER));
+
+        Metadata response = new Metadata();
+        response.put(TokenCache.TOKEN_HEADER, "token-1");
+        tokenCache.extractAndCacheToken(response);
+
+        Metadata headers = applied();
+        assertEquals("token-1", headers.get(TokenCache.TOKEN_HEADER));
+        assertNull(headers.get(TokenCache.AUTHORIZATION_HEADER));
+
+        tokenCache.clearToken();
+        assertFalse(tokenCache.hasToken());
+        assertEquals("Basic YWRtaW46Y2hhbmdlaXQ=", applied().get(TokenCache.AUTHORIZATION_HEADER));
+    }
+
+    @Test
+    void testNewTokenIsSwappedIn() {
+        tokenCache.cacheToken("token-1");
+
+        Metadata response = new Metadata();
+        response.put(TokenCache.TOKEN_HEADER, "token-2");
+        tokenCache.extractAndCacheToken(response);
+
+        assertEquals("token-2", tokenCache.getCachedToken());
+        assertEquals("token-2", applied().get(TokenCache.TOKEN_HEADER));
+    }
+
+    @Test
+    void testNoCredentialsAddsNoHeaders() {
+        assertEquals(0, applied().keys().size());
+        assertEquals(0, tokenCache.createAuthMetadata(() -> null).keys().size());
+    }
+
+    @Test
+    void testJwtExpiryIsTracked() {
+        String payload = java.util.Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"admin\",\"exp\":1900000000}".getBytes());
+        tokenCache.cacheToken("eyJhbGciOiJIUzI1NiJ9." + payload + ".signature");
+
+        assertEquals(1900000000000L, tokenCache.getTokenExpiresAt());
+        assertEquals(0, TokenCache.parseExpiry("opaque-token"));
+        assertEquals(0, TokenCache.parseExpiry("not.base64!.token"));
+    }
+
+    @Test
+    void testRefreshAheadOfExpiryIsABackgroundCallOnTheGivenScheduler() throws Exception {
+        final CompletableFuture<CallOptions> refreshPing = new CompletableFuture<>();
+        final Channel channel = new Channel() {
+            @Override
+            public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method,
+                                                                 CallOptions callOptions) {
+                refreshPing.complete(callOptions);
+                return new NoopCall<>();
+            }
+
+            @Override
+            public String authority() {
+                return "localhost";
+            }
+        };
+
+        final TokenRefresher refresher = new TokenRefresher(tokenCache, new DefaultLogger(DefaultLogger.LogLevel.WARN), 0, 5);
+        refresher.start(ClientInterceptors.intercept(channel,
+                new AuthInterceptor(tokenCache, "admin", "changeit", refresher)), () -> scheduler);
+        try {
+            tokenCache.cacheToken(jwtExpiringAt(System.currentTimeMillis() / 1000 + 1));
+
+            final CallOptions callOptions = refreshPing.get(5, TimeUnit.SECONDS);
+            assertTrue(callOptions.getOption(AuthInterceptor.BASIC_AUTH_ONLY));
+            assertTrue(callOptions.getOption(OrisunTransport.BACKGROUND_CALL));
+
+            // Nothing is scheduled on the shared scheduler once the refresher is closed
+            refresher.close();
+            tokenCache.cacheToken(jwtExpiringAt(System.currentTimeMillis() / 1000 + 60));
+            assertTrue(scheduler.getQueue().isEmpty());
+        } finally {
+            refresher.close();
+        }
+    }
+
+    private static String jwtExpiringAt(long epochSeconds) {
+        return "eyJhbGciOiJIUzI1NiJ9." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("{\"sub\":\"admin\",\"exp\":" + epochSeconds + "}").getBytes()) + ".signature";
+    }
+
+    /**
+     * A channel rejecting calls made with {@code token-1}. Each attempt's operations are added to
+     * {@code attempts}, and re-authentication pings are answered with {@code token-2} when the test
+     * runs them from {@code reauthentications}.
+     */
+    private static Channel rejectingChannel(List<List<String>> attempts, List<Runnable> reauthentications) {
+        return new Channel() {
+            @Override
+            public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method,
+                                                                 CallOptions callOptions) {
+                if (callOptions.getOption(AuthInterceptor.BASIC_AUTH_ONLY)) {
+                    return new NoopCall<>() {
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        public void start(Listener<RespT> listener, Metadata headers) {
+                            // Answered when the test says so
+                            reauthentications.add(() -> {
+                                final Metadata response = new Metadata();
+                                response.put(TokenCache.TOKEN_HEADER, "token-2");
+                                listener.onHeaders(response);
+                                listener.onMessage((RespT) Eventstore.PingResponse.getDefaultInstance());
+                                listener.onClose(Status.OK, new Metadata());
+                            });
+                        }
+                    };
+                }
+                final List<String> operations = new ArrayList<>();
+                attempts.add(operations);
+                return new NoopCall<>() {
+                    @Override
+                    public void start(Listener<RespT> listener, Metadata headers) {
+                        final String token = headers.get(TokenCache.TOKEN_HEADER);
+                        operations.add("start:" + token);
+                        if ("token-1".equals(token)) {
+                            // Rejected at the headers, before the request is sent
+                            listener.onClose(Status.UNAUTHENTICATED, new Metadata());
+                        }
+                    }
+
+                    @Override
+                    public void request(int numMessages) {
+                        operations.add("request");
+                    }
+
+                    @Override
+                    public void cancel(String message, Throwable cause) {
+                        operations.add("cancel");
+                    }
+
+                    @Override
+                    public void sendMessage(ReqT message) {
+                        operations.add("sendMessage");
+                    }
+
+                    @Override
+                    public void halfClose() {
+                        operations.add("halfClose");
+                    }
+                };
+            }
+
+            @Override
+            public String authority() {
+                return "localhost";
+            }
+        };
+    }
+
+    @Test
+    void testRejectedCallIsReplayedOnceWithTheRenewedToken() {
+        final List<List<String>> attempts = new ArrayList<>();
+        final List<Runnable> reauthentications = new ArrayList<>();
+        final Channel channel = rejectingChannel(attempts, reauthentications);
+
+        final TokenRefresher refresher = new TokenRefresher(tokenCache, new DefaultLogger(DefaultLogger.LogLevel.WARN), 0, 5);
+        final Channel authenticated = ClientInterceptors.intercept(channel,
+                new AuthInterceptor(tokenCache, "admin", "changeit", refresher));
+        refresher.start(authenticated, () -> scheduler);
+        tokenCache.cacheToken("token-1");
+        try {
+            final CompletableFuture<Status> closed = new CompletableFuture<>();
+            final ClientCall<Eventstore.PingRequest, Eventstore.PingResponse> call =
+                    authenticated.newCall(EventStoreGrpc.getPingMethod(), CallOptions.DEFAULT);
+            call.start(new ClientCall.Listener<>() {
+                @Override
+                public void onClose(Status status, Metadata trailers) {
+                    closed.complete(status);
+                }
+            }, new Metadata());
+            call.request(1);
+            call.sendMessage(Eventstore.PingRequest.getDefaultInstance());
+
+            // The renewed token arrives between the caller's operations
+            assertEquals(1, reauthentications.size());
+            reauthentications.get(0).run();
+            call.halfClose();
+
+            assertEquals(2, attempts.size());
+            assertEquals(List.of("start:token-2", "request", "sendMessage", "halfClose"), attempts.get(1));
+            assertFalse(closed.isDone());
+        } finally {
+            refresher.close();
+        }
+    }
+
+    @Test
+    void testCancelDuringReauthenticationIsNotRetried() throws Exception {
+        final List<List<String>> attempts = new ArrayList<>();
+        final List<Runnable> reauthentications = new ArrayList<>();
+        final Channel channel = rejectingChannel(attempts, reauthentications);
+
+        final TokenRefresher refresher = new TokenRefresher(tokenCache, new DefaultLogger(DefaultLogger.LogLevel.WARN), 0, 5);
+        final Channel authenticated = ClientInterceptors.intercept(channel,
+                new AuthInterceptor(tokenCache, "admin", "changeit", refresher));
+        refresher.start(authenticated, () -> scheduler);
+        tokenCache.cacheToken("token-1");
+        try {
+            final CompletableFuture<Status> closed = new CompletableFuture<>();
+            final ClientCall<Eventstore.PingRequest, Eventstore.PingResponse> call =
+                    authenticated.newCall(EventStoreGrpc.getPingMethod(), CallOptions.DEFAULT);
+            call.start(new ClientCall.Listener<>() {
+                @Override
+                public void onClose(Status status, Metadata trailers) {
+                    closed.complete(status);
+                }
+            }, new Metadata());
+            call.request(1);
+            call.sendMessage(Eventstore.PingRequest.getDefaultInstance());
+            call.halfClose();
+
+            // Cancelled while the renewed token is still pending
+            assertEquals(1, reauthentications.size());
+            call.cancel("Caller gave up", null);
+            reauthentications.get(0).run();
+
+            assertEquals(Status.Code.CANCELLED, closed.get(5, TimeUnit.SECONDS).getCode());
+            // Neither the rejected attempt, already closed, nor a new one is touched
+            assertEquals(1, attempts.size());
+            assertEquals(List.of("start:token-1"), attempts.get(0));
+            assertEquals("token-2", tokenCache.getCachedToken());
+        } finally {
+            refresher.close();
+        }
+    }
+
+    private static class NoopCall<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+        @Override
+        public void start(Listener<RespT> listener, Metadata headers) {
+        }
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+        }
+
+        @Override
+        public void halfClose() {
+        }
+
+        @Override
+        public void sendMessage(ReqT message) {
+        }
+    }
+}
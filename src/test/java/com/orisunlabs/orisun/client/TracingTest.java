@@ -0,0 +1,281 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import io.grpc.*;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracingTest {
+    private final RecordingTracer tracer = new RecordingTracer();
+    private final List<String> receivedTraceparents = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<Eventstore.SaveEventsRequest> savedRequests = new LinkedBlockingQueue<>();
+    private Server server;
+    private int port;
+
+    private static final class RecordedSpan implements Span {
+        final String name;
+        final Kind kind;
+        final TraceContext parent;
+        final TraceContext context;
+        final Map<String, String> attributes = new ConcurrentHashMap<>();
+        final CountDownLatch ended = new CountDownLatch(1);
+        final ThreadLocal<TraceContext> current;
+        volatile Throwable error;
+
+        RecordedSpan(String name, Kind kind, TraceContext parent, ThreadLocal<TraceContext> current) {
+            this.name = name;
+            this.kind = kind;
+            this.parent = parent;
+            this.context = parent != null ? parent.newChild() : TraceContext.newRoot(true);
+            this.current = current;
+        }
+
+        @Override
+        public TraceContext getContext() {
+            return context;
+        }
+
+        @Override
+        public void setAttribute(String key, String value) {
+            attributes.put(key, value);
+        }
+
+        @Override
+        public Scope makeCurrent() {
+            final TraceContext previous = current.get();
+            current.set(context);
+            return () -> current.set(previous);
+        }
+
+        @Override
+        public void end(Throwable error) {
+            this.error = error;
+            ended.countDown();
+        }
+    }
+
+    private static final class RecordingTracer implements Tracer {
+        final List<RecordedSpan> spans = new CopyOnWriteArrayList<>();
+        final ThreadLocal<TraceContext> current = new ThreadLocal<>();
+
+        @Override
+        public Span startSpan(String name, Span.Kind kind, TraceContext parent) {
+            final RecordedSpan span = new RecordedSpan(name, kind, parent, current);
+            spans.add(span);
+            return span;
+        }
+
+        @Override
+        public TraceContext currentContext() {
+            return current.get();
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        final Metadata.Key<String> traceparent =
+                Metadata.Key.of("traceparent", Metadata.ASCII_STRING_MARSHALLER);
+        final ServerInterceptor recordTraceparent = new ServerInterceptor() {
+            @Override
+            public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+                    ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+                final String value = headers.get(traceparent);
+                receivedTraceparents.add(value != null ? value : "");
+                return next.startCall(call, headers);
+            }
+        };
+
+        server = ServerBuilder.forPort(port)
+                .addService(ServerInterceptors.intercept(new EventStoreGrpc.EventStoreImplBase() {
+                    @Override
+                    public void saveEvents(Eventstore.SaveEventsRequest request,
+                                           StreamObserver<Eventstore.WriteResult> responseObserver) {
+                        savedRequests.add(request);
+                        responseObserver.onNext(Eventstore.WriteResult.getDefaultInstance());
+                        responseObserver.onCompleted();
+                    }
+
+                    @Override
+                    public void catchUpSubscribeToEvents(Eventstore.CatchUpSubscribeToEventStoreRequest request,
+                                                         StreamObserver<Eventstore.Event> responseObserver) {
+                        // Deliver the event written last, with the metadata it was stored with
+                        final Eventstore.EventToSave saved = savedRequests.peek().getEvents(0);
+                        responseObserver.onNext(Eventstore.Event.newBuilder()
+                                .setEventId(saved.getEventId())
+                                .setEventType(saved.getEventType())
+                                .setData(saved.getData())
+                                .setMetadata(saved.getMetadata())
+                                .build());
+                    }
+
+                    @Override
+                    public void ping(Eventstore.PingRequest request,
+                                     StreamObserver<Eventstore.PingResponse> responseObserver) {
+                        responseObserver.onNext(Eventstore.PingResponse.getDefaultInstance());
+                        responseObserver.onCompleted();
+                    }
+                }, recordTraceparent))
+                .build()
+                .start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static Eventstore.SaveEventsRequest orderPlaced() {
+        return Eventstore.SaveEventsRequest.newBuilder()
+                .setBoundary("orders")
+                .addEvents(Eventstore.EventToSave.newBuilder()
+                        .setEventId(UUID.randomUUID().toString())
+                        .setEventType("OrderPlaced")
+                        .setData("{}")
+                        .setMetadata("{\"source\":\"api\"}"))
+                .build();
+    }
+
+    @Test
+    void testWriteSpanIsPropagatedToServerAndSubscription() throws Exception {
+        final TraceContext request = TraceContext.newRoot(true);
+        try (OrisunClient client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withTracer(tracer)
+                .withTraceEventMetadata(true)
+                .build()) {
+            tracer.current.set(request);
+            client.saveEvents(orderPlaced());
+            tracer.current.remove();
+
+            final RecordedSpan write = tracer.spans.get(0);
+            assertEquals("eventstore.EventStore/SaveEvents", write.name);
+            assertEquals(Span.Kind.CLIENT, write.kind);
+            assertEquals(request, write.parent);
+            assertEquals("orders", write.attributes.get("orisun.boundary"));
+            assertEquals("OK", write.attributes.get("rpc.grpc.status_code"));
+            assertTrue(write.ended.await(5, TimeUnit.SECONDS));
+            assertNull(write.error);
+
+            assertEquals(List.of(write.context.toTraceparent()), receivedTraceparents);
+            final String storedMetadata = savedRequests.peek().getEvents(0).getMetadata();
+            assertEquals("{\"traceparent\":\"" + write.context.toTraceparent() + "\",\"source\":\"api\"}",
+                    storedMetadata);
+
+            // The projection's handler runs inside a consumer span continuing the write's trace
+            final BlockingQueue<TraceContext> handlerContexts = new LinkedBlockingQueue<>();
+            final EventSubscription subscription = client.subscribeToEvents(
+                    Eventstore.CatchUpSubscribeToEventStoreRequest.newBuilder()
+                            .setSubscriberName("projector")
+                            .setBoundary("orders")
+                            .build(),
+                    new EventSubscription.EventHandler() {
+                        @Override
+                        public void onEvent(Eventstore.Event event) {
+                            handlerContexts.add(tracer.currentContext());
+                        }
+
+                        @Override
+                        public void onError(Throwable error) {
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                        }
+                    });
+            final TraceContext handlerContext = handlerContexts.poll(5, TimeUnit.SECONDS);
+            subscription.close();
+
+            final RecordedSpan delivery = tracer.spans.stream()
+                    .filter(span -> span.kind == Span.Kind.CONSUMER)
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals("orisun.subscription/projector", delivery.name);
+            assertEquals(write.context, delivery.parent);
+            assertEquals(delivery.context, handlerContext);
+            assertEquals(request.getTraceId(), handlerContext.getTraceId());
+            assertEquals("OrderPlaced", delivery.attributes.get("orisun.event.type"));
+        }
+    }
+
+    @Test
+    void testUnsampledCallsOnlyForwardTheParent() throws Exception {
+        final TraceContext parent = TraceContext.newRoot(false);
+        try (OrisunClient client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withTracer(tracer)
+                .build()) {
+            client.ping();
+            tracer.current.set(parent);
+            client.saveEvents(orderPlaced());
+            tracer.current.remove();
+        }
+
+        // Only the root ping is sampled by the default parent-based sampler
+        assertEquals(1, tracer.spans.size());
+        assertEquals("eventstore.EventStore/Ping", tracer.spans.get(0).name);
+        assertEquals(List.of(tracer.spans.get(0).context.toTraceparent(), parent.toTraceparent()),
+                receivedTraceparents);
+        assertEquals("{\"source\":\"api\"}", savedRequests.peek().getEvents(0).getMetadata());
+    }
+
+    @Test
+    void testEventMetadataIsLeftAloneByDefault() throws Exception {
+        try (OrisunClient client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withTracer(tracer)
+                .build()) {
+            tracer.current.set(TraceContext.newRoot(true));
+            client.saveEvents(orderPlaced());
+            tracer.current.remove();
+        }
+
+        assertEquals(1, tracer.spans.size());
+        assertEquals("{\"source\":\"api\"}", savedRequests.peek().getEvents(0).getMetadata());
+    }
+
+    @Test
+    void testTraceparentParsing() {
+        final String value = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+        final TraceContext context = TraceContext.parse(value);
+        assertNotNull(context);
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", context.getTraceId());
+        assertEquals("00f067aa0ba902b7", context.getSpanId());
+        assertTrue(context.isSampled());
+        assertEquals(value, context.toTraceparent());
+        assertEquals(context, TraceContext.parse(TraceContext.parse(value).toTraceparent()));
+
+        assertNull(TraceContext.parse("00-00000000000000000000000000000000-00f067aa0ba902b7-01"));
+        assertNull(TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01"));
+        assertNull(TraceContext.parse("00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01"));
+        assertNull(TraceContext.parse("ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01"));
+        assertNull(TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7"));
+
+        assertEquals(context, TraceContext.fromEventMetadata("{\"a\":1, \"traceparent\" : \"" + value + "\"}"));
+        assertNull(TraceContext.fromEventMetadata("{\"a\":1}"));
+        assertEquals("{\"traceparent\":\"" + value + "\"}", context.addToEventMetadata(""));
+        assertEquals("{\"traceparent\":\"" + value + "\"}", context.addToEventMetadata("{ }").replace(" ", ""));
+        assertEquals("[1]", context.addToEventMetadata("[1]"));
+
+        // Requests whose events all keep their metadata are sent as they are
+        final Eventstore.SaveEventsRequest request = orderPlaced();
+        final Eventstore.SaveEventsRequest traced = TracingInterceptor.withTraceContext(request, context);
+        assertNotSame(request, traced);
+        assertSame(traced, TracingInterceptor.withTraceContext(traced, TraceContext.newRoot(true)));
+    }
+}
@@ -0,0 +1,116 @@
+package com.orisunlabs.orisun.client;
+
+import com.orisun.eventstore.Eventstore;
+import com.orisunlabs.orisun.testing.InMemoryEventStore;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteOutcomeTest {
+    private final InMemoryEventStore store = new InMemoryEventStore();
+    private Server server;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        server = ServerBuilder.forPort(port)
+                .addService(store)
+                .build()
+                .start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static Eventstore.SaveEventsRequest request(Eventstore.Position expected, String eventId) {
+        return Eventstore.SaveEventsRequest.newBuilder()
+                .setBoundary("orders")
+                .setQuery(Eventstore.SaveQuery.newBuilder().setExpectedPosition(expected))
+                .addEvents(Eventstore.EventToSave.newBuilder()
+                        .setEventId(eventId)
+                        .setEventType("OrderPlaced")
+                        .setData("{\"orderId\":\"order-1\"}"))
+                .build();
+    }
+
+    @Test
+    void testConflictsAreReturnedInsteadOfThrown() throws Exception {
+        try (OrisunClient client = OrisunClient.newBuilder().withServer("localhost", port).build()) {
+            final WriteOutcome written = client.trySaveEvents(
+                    request(InMemoryEventStore.NO_POSITION, UUID.randomUUID().toString()));
+            assertTrue(written.isWritten());
+            assertEquals(1, written.getResult().getLogPosition().getCommitPosition());
+
+            final WriteOutcome conflict = client.trySaveEventsAsync(
+                    request(InMemoryEventStore.NO_POSITION, UUID.randomUUID().toString())).get(5, TimeUnit.SECONDS);
+            assertTrue(conflict.isConflict());
+            assertEquals(-1, conflict.getExpectedVersion());
+            assertEquals(1, conflict.getActualVersion());
+            assertThrows(IllegalStateException.class, conflict::getResult);
+            final OptimisticConcurrencyException thrown = assertThrows(OptimisticConcurrencyException.class,
+                    conflict::orThrow);
+            assertEquals(1, thrown.getActualVersion());
+
+            // Other failures are still thrown
+            assertThrows(OrisunException.class, () -> client.trySaveEvents(request(store.getHead(), "not-a-uuid")));
+            assertEquals(1, store.getEvents("orders").size());
+        }
+    }
+
+    @Test
+    void testStackTracesCanBeDisabled() throws Exception {
+        try (OrisunClient client = OrisunClient.newBuilder()
+                .withServer("localhost", port)
+                .withStackTraces(false)
+                .build()) {
+            client.saveEvents(request(InMemoryEventStore.NO_POSITION, UUID.randomUUID().toString()));
+
+            final OptimisticConcurrencyException conflict = assertThrows(OptimisticConcurrencyException.class,
+                    () -> client.saveEvents(request(InMemoryEventStore.NO_POSITION, UUID.randomUUID().toString())));
+            assertEquals(0, conflict.getStackTrace().length);
+
+            final OrisunException invalid = assertThrows(OrisunException.class,
+                    () -> client.saveEvents(request(store.getHead(), "not-a-uuid")));
+            assertEquals(0, invalid.getStackTrace().length);
+            assertEquals(0, invalid.getContext("eventIndex"));
+        }
+
+        // Enabled by default
+        final OrisunException invalid = assertThrows(OrisunException.class,
+                () -> RequestValidator.validateSaveEventsRequest(request(store.getHead(), "not-a-uuid")));
+        assertTrue(invalid.getStackTrace().length > 0);
+    }
+
+    @Test
+    void testMessageIsRenderedOnceAndContextAllocatedLazily() {
+        final OrisunException error = new OrisunException("Failed", null, false);
+        assertFalse(error.hasContext("operation"));
+        assertTrue(error.getAllContext().isEmpty());
+        assertEquals("Failed", error.getMessage());
+
+        error.addContext("operation", "saveEvents");
+        final String message = error.getMessage();
+        assertEquals("Failed [Context: operation=saveEvents]", message);
+        assertSame(message, error.getMessage());
+
+        // Adding context renders the message again
+        error.addContext("boundary", "orders");
+        assertNotSame(message, error.getMessage());
+        assertTrue(error.getMessage().contains("boundary=orders"));
+    }
+}
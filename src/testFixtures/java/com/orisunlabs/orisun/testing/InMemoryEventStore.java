@@ -0,0 +1,415 @@
+package com.orisunlabs.orisun.testing;
+
+import com.google.protobuf.Timestamp;
+import com.orisun.eventstore.EventStoreGrpc;
+import com.orisun.eventstore.Eventstore;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An event store held in memory, for integration tests and benchmarks that need the server's
+ * semantics rather than canned responses.
+ * <ul>
+ *     <li>Every event gets the next position of a single log shared by all boundaries.</li>
+ *     <li>The tags of an event are the top-level fields of its JSON data. A criterion matches events
+ *     having all of its tags, a query matches events matching any of its criteria, and an empty
+ *     query matches every event.</li>
+ *     <li>A save with an expected position fails with {@code ALREADY_EXISTS} when the latest event
+ *     of the boundary matching the save's subset query is at another position, or {@code -1} when
+ *     there is none.</li>
+ *     <li>Reads return events strictly after (ascending) or before (descending) the from position,
+ *     at most {@code count} of them.</li>
+ *     <li>Subscriptions replay the matching events after their position and then receive events as
+ *     they are saved, until the client cancels.</li>
+ * </ul>
+ * Latency, jitter and failures can be injected in every call.
+ */
+public final class InMemoryEventStore extends EventStoreGrpc.EventStoreImplBase {
+    /**
+     * Position reported when no event matches, the same the client uses for "expect none".
+     */
+    public static final Eventstore.Position NO_POSITION = Eventstore.Position.newBuilder()
+            .setCommitPosition(-1)
+            .setPreparePosition(-1)
+            .build();
+
+    private final long latencyNanos;
+    private final long jitterNanos;
+    private final double errorRate;
+    private final Status errorStatus;
+    // Guarded by itself, seeded so that injected jitter and failures are reproducible
+    private final Random random;
+    private final ConcurrentLinkedQueue<Status> scriptedFailures = new ConcurrentLinkedQueue<>();
+
+    private final Object lock = new Object();
+    // Guarded by lock
+    private final Map<String, List<StoredEvent>> boundaries = new HashMap<>();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private long lastPosition;
+
+    private record StoredEvent(Eventstore.Event event, Map<String, String> tags) {
+    }
+
+    private record Subscriber(Eventstore.CatchUpSubscribeToEventStoreRequest request,
+                              ServerCallStreamObserver<Eventstore.Event> observer) {
+    }
+
+    private InMemoryEventStore(Builder builder) {
+        this.latencyNanos = builder.latencyNanos;
+        this.jitterNanos = builder.jitterNanos;
+        this.errorRate = builder.errorRate;
+        this.errorStatus = builder.errorStatus;
+        this.random = new Random(builder.seed);
+    }
+
+    public InMemoryEventStore() {
+        this(newBuilder());
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private long latencyNanos;
+        private long jitterNanos;
+        private double errorRate;
+        private Status errorStatus = Status.UNAVAILABLE.withDescription("Injected failure");
+        private long seed = 42;
+
+        /**
+         * Delay every call, and the start of every subscription, by a fixed latency.
+         */
+        public Builder withLatency(long latency, TimeUnit unit) {
+            this.latencyNanos = unit.toNanos(latency);
+            return this;
+        }
+
+        /**
+         * Add a uniformly distributed delay of up to {@code jitter} to every call.
+         */
+        public Builder withJitter(long jitter, TimeUnit unit) {
+            this.jitterNanos = unit.toNanos(jitter);
+            return this;
+        }
+
+        /**
+         * Fail this fraction of calls, between 0 and 1, with the error status.
+         */
+        public Builder withErrorRate(double errorRate) {
+            if (errorRate < 0 || errorRate > 1) {
+                throw new IllegalArgumentException("Error rate must be between 0 and 1");
+            }
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * Status of injected failures, {@code UNAVAILABLE} by default.
+         */
+        public Builder withErrorStatus(Status errorStatus) {
+            this.errorStatus = errorStatus;
+            return this;
+        }
+
+        /**
+         * Seed of the jitter and failure sequence.
+         */
+        public Builder withSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public InMemoryEventStore build() {
+            return new InMemoryEventStore(this);
+        }
+    }
+
+    /**
+     * Fail the next call with the given status, after the other scripted failures.
+     */
+    public void failNext(Status status) {
+        scriptedFailures.add(status);
+    }
+
+    /**
+     * @return the events saved in a boundary, in log order
+     */
+    public List<Eventstore.Event> getEvents(String boundary) {
+        synchronized (lock) {
+            final List<Eventstore.Event> events = new ArrayList<>();
+            for (StoredEvent stored : boundary(boundary)) {
+                events.add(stored.event());
+            }
+            return events;
+        }
+    }
+
+    /**
+     * @return the position of the latest event of all boundaries, or {@link #NO_POSITION}
+     */
+    public Eventstore.Position getHead() {
+        synchronized (lock) {
+            return lastPosition == 0 ? NO_POSITION : position(lastPosition);
+        }
+    }
+
+    /**
+     * @return the number of subscriptions receiving live events
+     */
+    public int getSubscriberCount() {
+        synchronized (lock) {
+            return subscribers.size();
+        }
+    }
+
+    /**
+     * Complete every live subscription, as a server shutting down gracefully would.
+     */
+    public void completeSubscriptions() {
+        synchronized (lock) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.observer().onCompleted();
+            }
+            subscribers.clear();
+        }
+    }
+
+    @Override
+    public void saveEvents(Eventstore.SaveEventsRequest request, StreamObserver<Eventstore.WriteResult> responseObserver) {
+        if (!inject(responseObserver)) {
+            return;
+        }
+        if (request.getBoundary().isEmpty() || request.getEventsCount() == 0) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Boundary and events are required")
+                    .asRuntimeException());
+            return;
+        }
+
+        final Instant now = Instant.now();
+        final Timestamp created = Timestamp.newBuilder().setSeconds(now.getEpochSecond()).setNanos(now.getNano()).build();
+        final Eventstore.Position written;
+        synchronized (lock) {
+            final List<StoredEvent> events = boundary(request.getBoundary());
+            if (request.hasQuery() && request.getQuery().hasExpectedPosition()) {
+                final Eventstore.Position expected = request.getQuery().getExpectedPosition();
+                final Eventstore.Position actual = latest(events, request.getQuery().getSubsetQuery());
+                if (compare(expected, actual) != 0) {
+                    responseObserver.onError(Status.ALREADY_EXISTS
+                            .withDescription("OptimisticConcurrencyException: Expected "
+                                    + expected.getCommitPosition() + ", Actual " + actual.getCommitPosition())
+                            .asRuntimeException());
+                    return;
+                }
+            }
+
+            final List<StoredEvent> appended = new ArrayList<>(request.getEventsCount());
+            for (Eventstore.EventToSave event : request.getEventsList()) {
+                appended.add(new StoredEvent(Eventstore.Event.newBuilder()
+                        .setEventId(event.getEventId())
+                        .setEventType(event.getEventType())
+                        .setData(event.getData())
+                        .setMetadata(event.getMetadata())
+                        .setPosition(position(++lastPosition))
+                        .setDateCreated(created)
+                        .build(), JsonTags.of(event.getData())));
+            }
+            events.addAll(appended);
+            written = position(lastPosition);
+
+            // Delivered while holding the lock so that subscribers see events in log order.
+            // onNext only queues the message, a slow subscriber does not hold up writers.
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.request().getBoundary().equals(request.getBoundary())) {
+                    continue;
+                }
+                for (StoredEvent stored : appended) {
+                    if (matches(stored, subscriber.request().getQuery())) {
+                        subscriber.observer().onNext(stored.event());
+                    }
+                }
+            }
+        }
+        responseObserver.onNext(Eventstore.WriteResult.newBuilder().setLogPosition(written).build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getEvents(Eventstore.GetEventsRequest request, StreamObserver<Eventstore.GetEventsResponse> responseObserver) {
+        if (!inject(responseObserver)) {
+            return;
+        }
+        final boolean descending = request.getDirection() == Eventstore.Direction.DESC;
+        final int count = request.getCount() == 0 ? Integer.MAX_VALUE : request.getCount();
+        final Eventstore.GetEventsResponse.Builder response = Eventstore.GetEventsResponse.newBuilder();
+        synchronized (lock) {
+            final List<StoredEvent> events = boundary(request.getBoundary());
+            for (int i = 0; i < events.size() && response.getEventsCount() < count; i++) {
+                final StoredEvent stored = events.get(descending ? events.size() - 1 - i : i);
+                if (request.hasFromPosition()) {
+                    final int order = compare(stored.event().getPosition(), request.getFromPosition());
+                    if (descending ? order >= 0 : order <= 0) {
+                        continue;
+                    }
+                }
+                if (matches(stored, request.getQuery())) {
+                    response.addEvents(stored.event());
+                }
+            }
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getLatestByCriteria(Eventstore.GetLatestByCriteriaRequest request,
+                                    StreamObserver<Eventstore.GetLatestByCriteriaResponse> responseObserver) {
+        if (!inject(responseObserver)) {
+            return;
+        }
+        final Eventstore.GetLatestByCriteriaResponse.Builder response = Eventstore.GetLatestByCriteriaResponse.newBuilder();
+        Eventstore.Position context = NO_POSITION;
+        synchronized (lock) {
+            final List<StoredEvent> events = boundary(request.getBoundary());
+            for (Eventstore.Criterion criterion : request.getCriteriaList()) {
+                final Eventstore.LatestCriterionResult.Builder result = Eventstore.LatestCriterionResult.newBuilder()
+                        .setCriterion(criterion);
+                for (int i = events.size() - 1; i >= 0; i--) {
+                    if (matches(events.get(i), criterion)) {
+                        final Eventstore.Event event = events.get(i).event();
+                        result.setEvent(event);
+                        if (compare(event.getPosition(), context) > 0) {
+                            context = event.getPosition();
+                        }
+                        break;
+                    }
+                }
+                response.addResults(result);
+            }
+        }
+        responseObserver.onNext(response.setContextPosition(context).build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void catchUpSubscribeToEvents(Eventstore.CatchUpSubscribeToEventStoreRequest request,
+                                         StreamObserver<Eventstore.Event> responseObserver) {
+        if (!inject(responseObserver)) {
+            return;
+        }
+        final ServerCallStreamObserver<Eventstore.Event> observer =
+                (ServerCallStreamObserver<Eventstore.Event>) responseObserver;
+        final Subscriber subscriber = new Subscriber(request, observer);
+        observer.setOnCancelHandler(() -> {
+            synchronized (lock) {
+                subscribers.remove(subscriber);
+            }
+        });
+        synchronized (lock) {
+            // Replayed and registered atomically, so no event is missed or delivered twice
+            for (StoredEvent stored : boundary(request.getBoundary())) {
+                if (compare(stored.event().getPosition(), request.getAfterPosition()) > 0
+                        && matches(stored, request.getQuery())) {
+                    observer.onNext(stored.event());
+                }
+            }
+            subscribers.add(subscriber);
+        }
+    }
+
+    @Override
+    public void ping(Eventstore.PingRequest request, StreamObserver<Eventstore.PingResponse> responseObserver) {
+        if (!inject(responseObserver)) {
+            return;
+        }
+        responseObserver.onNext(Eventstore.PingResponse.getDefaultInstance());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Apply the injected latency and failures to a call.
+     *
+     * @return false if the call was failed
+     */
+    private boolean inject(StreamObserver<?> responseObserver) {
+        final long jitter;
+        final boolean fail;
+        synchronized (random) {
+            jitter = jitterNanos > 0 ? (long) (random.nextDouble() * jitterNanos) : 0;
+            fail = errorRate > 0 && random.nextDouble() < errorRate;
+        }
+        final long delay = latencyNanos + jitter;
+        if (delay > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                responseObserver.onError(Status.CANCELLED.withCause(e).asRuntimeException());
+                return false;
+            }
+        }
+        final Status scripted = scriptedFailures.poll();
+        if (scripted != null || fail) {
+            responseObserver.onError((scripted != null ? scripted : errorStatus).asRuntimeException());
+            return false;
+        }
+        return true;
+    }
+
+    private List<StoredEvent> boundary(String boundary) {
+        return boundaries.computeIfAbsent(boundary, b -> new ArrayList<>());
+    }
+
+    private static Eventstore.Position latest(List<StoredEvent> events, Eventstore.Query query) {
+        for (int i = events.size() - 1; i >= 0; i--) {
+            if (matches(events.get(i), query)) {
+                return events.get(i).event().getPosition();
+            }
+        }
+        return NO_POSITION;
+    }
+
+    private static boolean matches(StoredEvent event, Eventstore.Query query) {
+        if (query.getCriteriaCount() == 0) {
+            return true;
+        }
+        for (Eventstore.Criterion criterion : query.getCriteriaList()) {
+            if (matches(event, criterion)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(StoredEvent event, Eventstore.Criterion criterion) {
+        for (Eventstore.Tag tag : criterion.getTagsList()) {
+            if (!tag.getValue().equals(event.tags().get(tag.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Eventstore.Position position(long position) {
+        return Eventstore.Position.newBuilder()
+                .setCommitPosition(position)
+                .setPreparePosition(position)
+                .build();
+    }
+
+    private static int compare(Eventstore.Position a, Eventstore.Position b) {
+        final int commit = Long.compare(a.getCommitPosition(), b.getCommitPosition());
+        return commit != 0 ? commit : Long.compare(a.getPreparePosition(), b.getPreparePosition());
+    }
+}
@@ -0,0 +1,130 @@
+package com.orisunlabs.orisun.testing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the top-level scalar fields of an event's JSON data as tags. Strings are unescaped, numbers
+ * and literals keep their JSON text, and nested objects and arrays are skipped.
+ */
+final class JsonTags {
+    private final String json;
+    private int index;
+
+    private JsonTags(String json) {
+        this.json = json;
+    }
+
+    /**
+     * @return the tags of the data, empty if it is not a JSON object
+     */
+    static Map<String, String> of(String json) {
+        final Map<String, String> tags = new HashMap<>();
+        if (json == null) {
+            return tags;
+        }
+        try {
+            new JsonTags(json).readObject(tags);
+        } catch (IllegalStateException | IndexOutOfBoundsException e) {
+            tags.clear();
+        }
+        return tags;
+    }
+
+    private void readObject(Map<String, String> tags) {
+        expect('{');
+        skipWhitespace();
+        if (json.charAt(index) == '}') {
+            return;
+        }
+        while (true) {
+            skipWhitespace();
+            final String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            final char c = json.charAt(index);
+            if (c == '"') {
+                tags.put(key, readString());
+            } else if (c == '{' || c == '[') {
+                skipNested();
+            } else {
+                tags.put(key, readLiteral());
+            }
+            skipWhitespace();
+            if (json.charAt(index) == '}') {
+                return;
+            }
+            expect(',');
+        }
+    }
+
+    private String readString() {
+        expect('"');
+        final StringBuilder value = new StringBuilder();
+        while (true) {
+            final char c = json.charAt(index++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            final char escaped = json.charAt(index++);
+            switch (escaped) {
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'u' -> {
+                    value.append((char) Integer.parseInt(json.substring(index, index + 4), 16));
+                    index += 4;
+                }
+                default -> value.append(escaped);
+            }
+        }
+    }
+
+    private String readLiteral() {
+        final int start = index;
+        while (index < json.length() && ",}] \t\r\n".indexOf(json.charAt(index)) < 0) {
+            index++;
+        }
+        if (index == start) {
+            throw new IllegalStateException("Expected a value at " + start);
+        }
+        return json.substring(start, index);
+    }
+
+    private void skipNested() {
+        int depth = 0;
+        do {
+            final char c = json.charAt(index);
+            if (c == '"') {
+                readString();
+                continue;
+            }
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            }
+            index++;
+        } while (depth > 0);
+    }
+
+    private void expect(char c) {
+        if (json.charAt(index) != c) {
+            throw new IllegalStateException("Expected '" + c + "' at " + index);
+        }
+        index++;
+    }
+
+    private void skipWhitespace() {
+        while (index < json.length() && Character.isWhitespace(json.charAt(index))) {
+            index++;
+        }
+    }
+}